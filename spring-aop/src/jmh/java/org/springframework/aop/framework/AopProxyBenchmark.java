@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark comparing method invocations on JDK dynamic proxies, CGLIB proxies
+ * and generated interface proxies, with and without advice.
+ *
+ * @see BytecodeAopProxy
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AopProxyBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ProxyState {
+
+		@Param({"jdk", "cglib", "generated"})
+		public String proxyType;
+
+		@Param({"none", "interceptor"})
+		public String advice;
+
+		@Param({"true", "false"})
+		public boolean frozen;
+
+		public Counter proxy;
+
+		public int value = 42;
+
+		@Setup
+		public void setup() {
+			ProxyFactory pf = new ProxyFactory(new SimpleCounter());
+			pf.addInterface(Counter.class);
+			if ("cglib".equals(this.proxyType)) {
+				pf.setProxyTargetClass(true);
+			}
+			else if ("generated".equals(this.proxyType)) {
+				DefaultAopProxyFactory aopProxyFactory = new DefaultAopProxyFactory();
+				aopProxyFactory.setGenerateInterfaceProxies(true);
+				pf.setAopProxyFactory(aopProxyFactory);
+			}
+			if ("interceptor".equals(this.advice)) {
+				pf.addAdvice((MethodInterceptor) invocation -> invocation.proceed());
+			}
+			pf.setFrozen(this.frozen);
+			this.proxy = (Counter) pf.getProxy();
+		}
+	}
+
+	@Benchmark
+	public int primitiveInvocation(ProxyState state) {
+		return state.proxy.add(state.value);
+	}
+
+	@Benchmark
+	public Object objectInvocation(ProxyState state) {
+		return state.proxy.describe("value");
+	}
+
+
+	public interface Counter {
+
+		int add(int delta);
+
+		String describe(String name);
+	}
+
+
+	public static class SimpleCounter implements Counter {
+
+		private int count;
+
+		@Override
+		public int add(int delta) {
+			this.count += delta;
+			return this.count;
+		}
+
+		@Override
+		public String describe(String name) {
+			return name;
+		}
+	}
+
+}
@@ -18,11 +18,11 @@ package org.springframework.aop.framework;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.aop.GeneratedInterfaceProxy;
 import org.springframework.aop.SpringProxy;
 import org.springframework.aop.TargetClassAware;
 import org.springframework.aop.TargetSource;
@@ -133,7 +133,7 @@ public abstract class AopProxyUtils {
 				if (targetClass.isInterface()) {
 					advised.setInterfaces(targetClass);
 				}
-				else if (Proxy.isProxyClass(targetClass)) {
+				else if (AopUtils.isInterfaceProxyClass(targetClass)) {
 					advised.setInterfaces(targetClass.getInterfaces());
 				}
 				specifiedInterfaces = advised.getProxiedInterfaces();
@@ -141,8 +141,10 @@ public abstract class AopProxyUtils {
 		}
 		List<Class<?>> proxiedInterfaces = new ArrayList<>(specifiedInterfaces.length + 3);
 		for (Class<?> ifc : specifiedInterfaces) {
-			// Only non-sealed interfaces are actually eligible for JDK proxying (on JDK 17)
-			if (isSealedMethod == null || Boolean.FALSE.equals(ReflectionUtils.invokeMethod(isSealedMethod, ifc))) {
+			// Only non-sealed interfaces are actually eligible for JDK proxying (on JDK 17),
+			// and the generated proxy marker is added by the generator itself
+			if (ifc != GeneratedInterfaceProxy.class &&
+					(isSealedMethod == null || Boolean.FALSE.equals(ReflectionUtils.invokeMethod(isSealedMethod, ifc)))) {
 				proxiedInterfaces.add(ifc);
 			}
 		}
@@ -178,6 +180,9 @@ public abstract class AopProxyUtils {
 		if (proxy instanceof DecoratingProxy) {
 			nonUserIfcCount++;
 		}
+		if (proxy instanceof GeneratedInterfaceProxy) {
+			nonUserIfcCount++;
+		}
 		Class<?>[] userInterfaces = Arrays.copyOf(proxyInterfaces, proxyInterfaces.length - nonUserIfcCount);
 		Assert.notEmpty(userInterfaces, "JDK proxy must implement one or more interfaces");
 		return userInterfaces;
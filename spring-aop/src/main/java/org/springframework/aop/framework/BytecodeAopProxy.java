@@ -0,0 +1,344 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.RawTargetAccess;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link AopProxy} implementation for the Spring AOP framework based on
+ * interface proxy classes generated with ASM, as an alternative to
+ * {@link JdkDynamicAopProxy}.
+ *
+ * <p>Each generated proxy method invokes the target directly, without any
+ * reflection, if the configuration is frozen, the target is static and no
+ * advice applies to the method. Interceptor chains are bound upfront under
+ * the same conditions. Otherwise it passes its arguments to a
+ * {@link Dispatcher}, following the same invocation flow as a JDK proxy but
+ * invoking the joinpoint through a generated {@link TargetInvoker} rather
+ * than through reflection.
+ *
+ * <p>Generated proxies are not serializable. If the proxied interfaces do
+ * not qualify for generation (e.g. because they are not public or not visible
+ * from the given class loader) or if any of them is serializable, a JDK
+ * dynamic proxy will be created instead.
+ *
+ * @since 5.3.14
+ * @see DefaultAopProxyFactory#setGenerateInterfaceProxies
+ * @see JdkDynamicAopProxy
+ */
+final class BytecodeAopProxy implements AopProxy {
+
+	private static final Log logger = LogFactory.getLog(BytecodeAopProxy.class);
+
+	/** Config used to configure this proxy. */
+	private final AdvisedSupport advised;
+
+	private final Class<?>[] proxiedInterfaces;
+
+
+	/**
+	 * Construct a new BytecodeAopProxy for the given AOP configuration.
+	 * @param config the AOP configuration as AdvisedSupport object
+	 * @throws AopConfigException if the config is invalid
+	 */
+	public BytecodeAopProxy(AdvisedSupport config) throws AopConfigException {
+		Assert.notNull(config, "AdvisedSupport must not be null");
+		if (config.getAdvisorCount() == 0 && config.getTargetSource() == AdvisedSupport.EMPTY_TARGET_SOURCE) {
+			throw new AopConfigException("No advisors and no TargetSource specified");
+		}
+		this.advised = config;
+		this.proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(this.advised, true);
+	}
+
+
+	@Override
+	public Object getProxy() {
+		return getProxy(ClassUtils.getDefaultClassLoader());
+	}
+
+	@Override
+	public Object getProxy(@Nullable ClassLoader classLoader) {
+		BytecodeProxyGenerator.ProxyClass proxyClass =
+				BytecodeProxyGenerator.getProxyClass(classLoader, this.proxiedInterfaces);
+		if (proxyClass == null) {
+			return new JdkDynamicAopProxy(this.advised).getProxy(classLoader);
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Creating generated interface proxy: " + this.advised.getTargetSource());
+		}
+		return proxyClass.newInstance(new Dispatcher(this.advised, proxyClass));
+	}
+
+
+	/**
+	 * Invokes a proxied method on the target, as identified by its index.
+	 * Implemented by generated classes.
+	 */
+	public interface TargetInvoker {
+
+		/**
+		 * Invoke the method with the given index on the given target.
+		 * @param index the index of the method in the proxy class
+		 * @param target the target object
+		 * @param args the arguments for the method
+		 * @return the return value, or {@code null} for a {@code void} method
+		 * @throws Throwable any exception thrown by the target method
+		 */
+		@Nullable
+		Object invokeTarget(int index, Object target, Object[] args) throws Throwable;
+	}
+
+
+	/**
+	 * Per-proxy callback for generated proxy classes, holding the AOP
+	 * configuration and the interceptor chains bound to the proxied methods.
+	 * <p>Public for access from generated code only.
+	 */
+	public static final class Dispatcher {
+
+		private final AdvisedSupport advised;
+
+		private final Method[] methods;
+
+		private final Class<?>[][] exceptionTypes;
+
+		private final TargetInvoker invoker;
+
+		@Nullable
+		private final List<Object>[] fixedChains;
+
+		@Nullable
+		private final Object[] directTargets;
+
+		@SuppressWarnings("unchecked")
+		Dispatcher(AdvisedSupport advised, BytecodeProxyGenerator.ProxyClass proxyClass) {
+			this.advised = advised;
+			this.methods = proxyClass.methods;
+			this.exceptionTypes = proxyClass.exceptionTypes;
+			this.invoker = proxyClass.invoker;
+			TargetSource targetSource = advised.getTargetSource();
+			if (advised.isFrozen() && targetSource.isStatic()) {
+				// Neither the advice of a frozen configuration nor a static target
+				// can change: bind chains upfront
+				Class<?> targetClass = advised.getTargetClass();
+				boolean direct = !advised.isExposeProxy();
+				this.fixedChains = new List[this.methods.length];
+				this.directTargets = new Object[this.methods.length];
+				for (int i = 0; i < this.methods.length; i++) {
+					Method method = this.methods[i];
+					if (!isConfigMethod(method)) {
+						List<Object> chain = advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+						this.fixedChains[i] = chain;
+						if (direct && chain.isEmpty() && proxyClass.directCallable[i]) {
+							this.directTargets[i] = getStaticTarget(targetSource);
+						}
+					}
+				}
+			}
+			else {
+				this.fixedChains = null;
+				this.directTargets = null;
+			}
+		}
+
+		private boolean isConfigMethod(Method method) {
+			Class<?> declaringClass = method.getDeclaringClass();
+			return (declaringClass == DecoratingProxy.class ||
+					(!this.advised.opaque && declaringClass.isInterface() &&
+							declaringClass.isAssignableFrom(Advised.class)));
+		}
+
+		@Nullable
+		private static Object getStaticTarget(TargetSource targetSource) {
+			try {
+				return targetSource.getTarget();
+			}
+			catch (Exception ex) {
+				throw new AopConfigException("Failed to obtain target from static TargetSource", ex);
+			}
+		}
+
+		/**
+		 * Return the target to invoke the method with the given index on
+		 * directly, or {@code null} if the call needs to be dispatched.
+		 */
+		@Nullable
+		public Object getDirectTarget(int index) {
+			return (this.directTargets != null ? this.directTargets[index] : null);
+		}
+
+		/**
+		 * Invoke the method with the given index on the given proxy.
+		 * <p>Callers will see exactly the exception thrown by the target or
+		 * advice, with checked exceptions that the proxy method does not declare
+		 * wrapped in an {@link UndeclaredThrowableException}, as for a JDK proxy.
+		 */
+		@Nullable
+		public Object invoke(Object proxy, int index, Object[] args) throws Throwable {
+			Method method = this.methods[index];
+			try {
+				return doInvoke(proxy, index, method, args);
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				for (Class<?> exceptionType : this.exceptionTypes[index]) {
+					if (exceptionType.isInstance(ex)) {
+						throw ex;
+					}
+				}
+				throw new UndeclaredThrowableException(ex);
+			}
+		}
+
+		@Nullable
+		private Object doInvoke(Object proxy, int index, Method method, Object[] args) throws Throwable {
+			Object oldProxy = null;
+			boolean setProxyContext = false;
+
+			TargetSource targetSource = this.advised.targetSource;
+			Object target = null;
+
+			try {
+				if (method.getDeclaringClass() == DecoratingProxy.class) {
+					// There is only getDecoratedClass() declared -> dispatch to proxy config.
+					return AopProxyUtils.ultimateTargetClass(this.advised);
+				}
+				else if (!this.advised.opaque && method.getDeclaringClass().isInterface() &&
+						method.getDeclaringClass().isAssignableFrom(Advised.class)) {
+					// Service invocations on ProxyConfig with the proxy config...
+					return AopUtils.invokeJoinpointUsingReflection(this.advised, method, args);
+				}
+
+				Object retVal;
+
+				if (this.advised.exposeProxy) {
+					// Make invocation available if necessary.
+					oldProxy = AopContext.setCurrentProxy(proxy);
+					setProxyContext = true;
+				}
+
+				// Get as late as possible to minimize the time we "own" the target,
+				// in case it comes from a pool.
+				target = targetSource.getTarget();
+				Class<?> targetClass = (target != null ? target.getClass() : null);
+
+				// Get the interception chain for this method, bound upfront if possible.
+				List<Object> chain = (this.fixedChains != null ? this.fixedChains[index] : null);
+				if (chain == null) {
+					chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+				}
+
+				if (chain.isEmpty()) {
+					// No advice: invoke the target through the generated invoker.
+					Assert.state(target != null, () -> "Target must not be null for invocation of " + method);
+					retVal = this.invoker.invokeTarget(index, target, args);
+				}
+				else {
+					// We need to create a method invocation...
+					GeneratedMethodInvocation invocation = new GeneratedMethodInvocation(
+							proxy, target, method, args, targetClass, chain, this.invoker, index);
+					// Proceed to the joinpoint through the interceptor chain.
+					retVal = invocation.proceed();
+				}
+
+				// Massage return value if necessary.
+				Class<?> returnType = method.getReturnType();
+				if (retVal != null && retVal == target &&
+						returnType != Object.class && returnType.isInstance(proxy) &&
+						!RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
+					// Special case: it returned "this" and the return type of the method
+					// is type-compatible.
+					retVal = proxy;
+				}
+				else if (retVal == null && returnType != Void.TYPE && returnType.isPrimitive()) {
+					throw new AopInvocationException(
+							"Null return value from advice does not match primitive return type for: " + method);
+				}
+				return retVal;
+			}
+			finally {
+				if (target != null && !targetSource.isStatic()) {
+					// Must have come from TargetSource.
+					targetSource.releaseTarget(target);
+				}
+				if (setProxyContext) {
+					// Restore old proxy.
+					AopContext.setCurrentProxy(oldProxy);
+				}
+			}
+		}
+
+		/**
+		 * Equality means interfaces, advisors and TargetSource are equal.
+		 */
+		public boolean proxyEquals(Dispatcher other) {
+			return (this == other || AopProxyUtils.equalsInProxy(this.advised, other.advised));
+		}
+
+		/**
+		 * Proxy uses the hash code of the TargetSource.
+		 */
+		public int proxyHashCode() {
+			return BytecodeAopProxy.class.hashCode() * 13 + this.advised.getTargetSource().hashCode();
+		}
+	}
+
+
+	/**
+	 * Method invocation that invokes the joinpoint through a generated
+	 * {@link TargetInvoker} rather than through reflection.
+	 */
+	private static class GeneratedMethodInvocation extends ReflectiveMethodInvocation {
+
+		private final TargetInvoker invoker;
+
+		private final int index;
+
+		public GeneratedMethodInvocation(Object proxy, @Nullable Object target, Method method,
+				Object[] arguments, @Nullable Class<?> targetClass,
+				List<Object> interceptorsAndDynamicMethodMatchers, TargetInvoker invoker, int index) {
+
+			super(proxy, target, method, arguments, targetClass, interceptorsAndDynamicMethodMatchers);
+			this.invoker = invoker;
+			this.index = index;
+		}
+
+		@Override
+		@Nullable
+		protected Object invokeJoinpoint() throws Throwable {
+			Assert.state(this.target != null, () -> "Target must not be null for invocation of " + this.method);
+			return this.invoker.invokeTarget(this.index, this.target, this.arguments);
+		}
+	}
+
+}
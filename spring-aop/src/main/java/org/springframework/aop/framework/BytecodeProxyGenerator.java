@@ -0,0 +1,647 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.GeneratedInterfaceProxy;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates proxy classes implementing a given set of interfaces for
+ * {@link BytecodeAopProxy}, along with a {@link BytecodeAopProxy.TargetInvoker}
+ * that invokes each proxied method on the target through plain bytecode.
+ *
+ * <p>Each proxy method calls the target directly if its
+ * {@link BytecodeAopProxy.Dispatcher} provides a target for it, and
+ * delegates to the dispatcher otherwise. As for JDK proxies, a method
+ * declared by several interfaces only declares the exception types common
+ * to all of them, with any other checked exception wrapped in an
+ * {@link UndeclaredThrowableException}. Generated classes implement
+ * {@link GeneratedInterfaceProxy} and are defined in a child class loader of
+ * the given class loader, analogous to compiled SpEL expressions. Since they
+ * live in a package of their own, only public interfaces with public method
+ * signatures qualify.
+ *
+ * @since 5.3.14
+ * @see BytecodeAopProxy
+ */
+final class BytecodeProxyGenerator implements Opcodes {
+
+	private static final Log logger = LogFactory.getLog(BytecodeProxyGenerator.class);
+
+	private static final String DISPATCHER_TYPE = Type.getInternalName(BytecodeAopProxy.Dispatcher.class);
+
+	private static final String DISPATCHER_DESCRIPTOR = Type.getDescriptor(BytecodeAopProxy.Dispatcher.class);
+
+	private static final String INVOKER_TYPE = Type.getInternalName(BytecodeAopProxy.TargetInvoker.class);
+
+	private static final String INVOKE_TARGET_DESCRIPTOR = "(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final String DISPATCH_DESCRIPTOR = "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final String DISPATCHER_FIELD = "dispatcher";
+
+	private static final String UNDECLARED_THROWABLE_TYPE = Type.getInternalName(UndeclaredThrowableException.class);
+
+	// A generator is created for each class loader, managing a child class loader of it
+	private static final Map<ClassLoader, BytecodeProxyGenerator> generators = new ConcurrentReferenceHashMap<>();
+
+
+	private final ChildClassLoader childClassLoader;
+
+	private final Map<List<Class<?>>, Object> proxyClasses = new ConcurrentHashMap<>();
+
+	private final AtomicInteger suffixId = new AtomicInteger();
+
+
+	private BytecodeProxyGenerator(ClassLoader classLoader) {
+		this.childClassLoader = new ChildClassLoader(classLoader);
+	}
+
+
+	/**
+	 * Return a proxy class implementing the given interfaces, generating it
+	 * if necessary.
+	 * @param classLoader the class loader to define the proxy class for
+	 * @param interfaces the complete set of interfaces to implement
+	 * @return the proxy class, or {@code null} if the given interfaces do not
+	 * qualify for generation (in which case a JDK proxy has to be used instead)
+	 */
+	@Nullable
+	static ProxyClass getProxyClass(@Nullable ClassLoader classLoader, Class<?>[] interfaces) {
+		if (classLoader == null || !ClassUtils.isVisible(BytecodeAopProxy.Dispatcher.class, classLoader)) {
+			return null;
+		}
+		BytecodeProxyGenerator generator = generators.get(classLoader);
+		if (generator == null) {
+			// Full lock now since we're creating a child ClassLoader
+			synchronized (generators) {
+				generator = generators.computeIfAbsent(classLoader, BytecodeProxyGenerator::new);
+			}
+		}
+		Object proxyClass = generator.proxyClasses.computeIfAbsent(
+				Arrays.asList(interfaces), generator::createProxyClass);
+		return (proxyClass instanceof ProxyClass ? (ProxyClass) proxyClass : null);
+	}
+
+	private Object createProxyClass(List<Class<?>> interfaces) {
+		Map<Method, Class<?>[]> methods = collectMethods(interfaces);
+		if (methods == null) {
+			return Boolean.FALSE;
+		}
+		try {
+			return generateProxyClass(interfaces, new ArrayList<>(methods.keySet()),
+					methods.values().toArray(new Class<?>[0][]));
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate proxy class for interfaces " + interfaces +
+						" - falling back to JDK dynamic proxy", ex);
+			}
+			return Boolean.FALSE;
+		}
+	}
+
+	/**
+	 * Collect the methods to implement, with the {@code java.lang.Object} methods
+	 * dispatched by JDK proxies first, and one method per name and descriptor.
+	 * @return the methods along with the exception types that their proxy methods
+	 * declare, or {@code null} if the interfaces do not qualify
+	 */
+	@Nullable
+	private Map<Method, Class<?>[]> collectMethods(List<Class<?>> interfaces) {
+		ClassLoader classLoader = this.childClassLoader.getParent();
+		Map<String, Method> methods = new LinkedHashMap<>();
+		Map<Method, Class<?>[]> result = new LinkedHashMap<>();
+		for (Method method : new Method[] {ReflectionUtils.findMethod(Object.class, "hashCode"),
+				ReflectionUtils.findMethod(Object.class, "equals", Object.class),
+				ReflectionUtils.findMethod(Object.class, "toString")}) {
+			methods.put(method.getName() + Type.getMethodDescriptor(method), method);
+			result.put(method, method.getExceptionTypes());
+		}
+		for (Class<?> ifc : interfaces) {
+			// Serializable proxies are left to the JDK since generated proxies are not serializable
+			if (!isAccessible(ifc, classLoader) || Serializable.class.isAssignableFrom(ifc) ||
+					ifc == GeneratedInterfaceProxy.class) {
+				return null;
+			}
+			for (Method method : ifc.getMethods()) {
+				if (Modifier.isStatic(method.getModifiers())) {
+					continue;
+				}
+				if (!isAccessible(method.getReturnType(), classLoader)) {
+					return null;
+				}
+				for (Class<?> parameterType : method.getParameterTypes()) {
+					if (!isAccessible(parameterType, classLoader)) {
+						return null;
+					}
+				}
+				// Exception types end up in the exception table of the proxy method
+				for (Class<?> exceptionType : method.getExceptionTypes()) {
+					if (!isAccessible(exceptionType, classLoader)) {
+						return null;
+					}
+				}
+				Method existing = methods.putIfAbsent(method.getName() + Type.getMethodDescriptor(method), method);
+				if (existing == null) {
+					result.put(method, method.getExceptionTypes());
+				}
+				else {
+					result.merge(existing, method.getExceptionTypes(), BytecodeProxyGenerator::intersectExceptionTypes);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Determine the exception types that a method declared with both given
+	 * {@code throws} clauses may throw, as JDK proxies do: each type of either
+	 * clause that is assignable to a type of the other clause.
+	 */
+	private static Class<?>[] intersectExceptionTypes(Class<?>[] types1, Class<?>[] types2) {
+		Set<Class<?>> result = new LinkedHashSet<>();
+		collectCompatibleTypes(types1, types2, result);
+		collectCompatibleTypes(types2, types1, result);
+		return result.toArray(new Class<?>[0]);
+	}
+
+	private static void collectCompatibleTypes(Class<?>[] from, Class<?>[] with, Set<Class<?>> result) {
+		for (Class<?> type : from) {
+			for (Class<?> candidate : with) {
+				if (candidate.isAssignableFrom(type)) {
+					result.add(type);
+					break;
+				}
+			}
+		}
+	}
+
+	private static boolean isAccessible(Class<?> type, ClassLoader classLoader) {
+		Class<?> typeToCheck = type;
+		while (typeToCheck.isArray()) {
+			typeToCheck = typeToCheck.getComponentType();
+		}
+		// Nested classes are accessible from bytecode based on their own modifiers
+		return (typeToCheck.isPrimitive() ||
+				(Modifier.isPublic(typeToCheck.getModifiers()) && ClassUtils.isVisible(typeToCheck, classLoader)));
+	}
+
+
+	private ProxyClass generateProxyClass(List<Class<?>> interfaces, List<Method> methods,
+			Class<?>[][] exceptionTypes) throws Exception {
+
+
+		String className = "spring/aop/Proxy" + this.suffixId.incrementAndGet();
+		boolean equalsDefined = false;
+		boolean hashCodeDefined = false;
+		for (Class<?> ifc : interfaces) {
+			for (Method method : ifc.getDeclaredMethods()) {
+				equalsDefined |= AopUtils.isEqualsMethod(method);
+				hashCodeDefined |= AopUtils.isHashCodeMethod(method);
+			}
+		}
+
+		boolean[] directCallable = new boolean[methods.size()];
+		ClassWriter cw = new ProxyClassWriter();
+		String[] interfaceNames = new String[interfaces.size() + 1];
+		for (int i = 0; i < interfaces.size(); i++) {
+			interfaceNames[i] = Type.getInternalName(interfaces.get(i));
+		}
+		// Implemented last, following the interfaces that AopProxyUtils.proxiedUserInterfaces skips
+		interfaceNames[interfaces.size()] = Type.getInternalName(GeneratedInterfaceProxy.class);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null,
+				"java/lang/Object", interfaceNames);
+		cw.visitField(ACC_PRIVATE | ACC_FINAL, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR, null, null).visitEnd();
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(" + DISPATCHER_DESCRIPTOR + ")V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+
+		for (int i = 0; i < methods.size(); i++) {
+			Method method = methods.get(i);
+			if (!equalsDefined && AopUtils.isEqualsMethod(method)) {
+				generateEquals(cw, className);
+			}
+			else if (!hashCodeDefined && AopUtils.isHashCodeMethod(method)) {
+				generateHashCode(cw, className);
+			}
+			else {
+				directCallable[i] = isDirectCallable(method, interfaces);
+				generateProxyMethod(cw, className, method, exceptionTypes[i], i, directCallable[i]);
+			}
+		}
+		cw.visitEnd();
+		Class<?> proxyClass = this.childClassLoader.defineClass(className.replace('/', '.'), cw.toByteArray());
+
+		String invokerClassName = className + "$Invoker";
+		Class<?> invokerClass = this.childClassLoader.defineClass(
+				invokerClassName.replace('/', '.'), generateInvokerClass(invokerClassName, methods));
+
+		Constructor<?> constructor = proxyClass.getConstructor(BytecodeAopProxy.Dispatcher.class);
+		BytecodeAopProxy.TargetInvoker invoker =
+				(BytecodeAopProxy.TargetInvoker) ReflectionUtils.accessibleConstructor(invokerClass).newInstance();
+		return new ProxyClass(constructor, methods.toArray(new Method[0]), exceptionTypes, directCallable, invoker);
+	}
+
+	/**
+	 * Determine whether the given method may skip the dispatcher if no advice
+	 * applies: only interface methods that cannot return the target in place
+	 * of the proxy qualify.
+	 */
+	private static boolean isDirectCallable(Method method, List<Class<?>> interfaces) {
+		if (!method.getDeclaringClass().isInterface()) {
+			return false;
+		}
+		Class<?> returnType = method.getReturnType();
+		if (returnType.isPrimitive() || returnType == Object.class) {
+			return true;
+		}
+		for (Class<?> ifc : interfaces) {
+			if (returnType.isAssignableFrom(ifc)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void generateProxyMethod(ClassWriter cw, String className, Method method,
+			Class<?>[] exceptionTypes, int index, boolean directCallable) {
+
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		Class<?> returnType = method.getReturnType();
+		String[] exceptions = Arrays.stream(exceptionTypes).map(Type::getInternalName).toArray(String[]::new);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, method.getName(),
+				Type.getMethodDescriptor(method), null, exceptions);
+		mv.visitCode();
+
+		if (directCallable) {
+			int targetSlot = 1;
+			for (Class<?> parameterType : parameterTypes) {
+				targetSlot += Type.getType(parameterType).getSize();
+			}
+			Label dispatch = new Label();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR);
+			mv.visitLdcInsn(index);
+			mv.visitMethodInsn(INVOKEVIRTUAL, DISPATCHER_TYPE, "getDirectTarget", "(I)Ljava/lang/Object;", false);
+			mv.visitVarInsn(ASTORE, targetSlot);
+			mv.visitVarInsn(ALOAD, targetSlot);
+			mv.visitJumpInsn(IFNULL, dispatch);
+			// The target may throw checked exceptions that the proxy method does not declare
+			List<Class<?>> catchTypes = computeCatchTypes(exceptionTypes);
+			Label tryStart = new Label();
+			Label tryEnd = new Label();
+			Label[] rethrowHandlers = new Label[catchTypes.size()];
+			Label wrapHandler = new Label();
+			if (!catchTypes.isEmpty()) {
+				for (int i = 0; i < rethrowHandlers.length; i++) {
+					rethrowHandlers[i] = new Label();
+					mv.visitTryCatchBlock(tryStart, tryEnd, rethrowHandlers[i], Type.getInternalName(catchTypes.get(i)));
+				}
+				mv.visitTryCatchBlock(tryStart, tryEnd, wrapHandler, "java/lang/Throwable");
+			}
+			mv.visitLabel(tryStart);
+			String owner = Type.getInternalName(method.getDeclaringClass());
+			mv.visitVarInsn(ALOAD, targetSlot);
+			mv.visitTypeInsn(CHECKCAST, owner);
+			int slot = 1;
+			for (Class<?> parameterType : parameterTypes) {
+				Type type = Type.getType(parameterType);
+				mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+				slot += type.getSize();
+			}
+			mv.visitMethodInsn(INVOKEINTERFACE, owner, method.getName(), Type.getMethodDescriptor(method), true);
+			mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+			mv.visitLabel(tryEnd);
+			if (!catchTypes.isEmpty()) {
+				// A handler per type, so that each rethrows a precisely typed exception
+				for (Label rethrowHandler : rethrowHandlers) {
+					mv.visitLabel(rethrowHandler);
+					mv.visitInsn(ATHROW);
+				}
+				mv.visitLabel(wrapHandler);
+				mv.visitTypeInsn(NEW, UNDECLARED_THROWABLE_TYPE);
+				mv.visitInsn(DUP_X1);
+				mv.visitInsn(SWAP);
+				mv.visitMethodInsn(INVOKESPECIAL, UNDECLARED_THROWABLE_TYPE, "<init>", "(Ljava/lang/Throwable;)V", false);
+				mv.visitInsn(ATHROW);
+			}
+			mv.visitLabel(dispatch);
+		}
+
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitLdcInsn(index);
+		mv.visitLdcInsn(parameterTypes.length);
+		mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+		int slot = 1;
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Type type = Type.getType(parameterTypes[i]);
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn(i);
+			mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+			if (parameterTypes[i].isPrimitive()) {
+				box(mv, parameterTypes[i]);
+			}
+			mv.visitInsn(AASTORE);
+			slot += type.getSize();
+		}
+		mv.visitMethodInsn(INVOKEVIRTUAL, DISPATCHER_TYPE, "invoke", DISPATCH_DESCRIPTOR, false);
+		if (returnType == void.class) {
+			mv.visitInsn(POP);
+			mv.visitInsn(RETURN);
+		}
+		else if (returnType.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+			mv.visitTypeInsn(CHECKCAST, wrapper);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, returnType.getName() + "Value",
+					"()" + Type.getDescriptor(returnType), false);
+			mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+		}
+		else {
+			if (returnType != Object.class) {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(returnType));
+			}
+			mv.visitInsn(ARETURN);
+		}
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+	}
+
+	/**
+	 * Determine the exception types that the proxy method may let through,
+	 * as JDK proxies do: unchecked exceptions and the declared exception types,
+	 * without any redundant subtypes.
+	 * @return the exception types, or an empty list if any exception may be
+	 * thrown as is
+	 */
+	private static List<Class<?>> computeCatchTypes(Class<?>[] exceptionTypes) {
+		List<Class<?>> catchTypes = new ArrayList<>();
+		catchTypes.add(Error.class);
+		catchTypes.add(RuntimeException.class);
+		for (Class<?> exceptionType : exceptionTypes) {
+			if (exceptionType == Throwable.class) {
+				return new ArrayList<>();
+			}
+			if (catchTypes.stream().anyMatch(catchType -> catchType.isAssignableFrom(exceptionType))) {
+				continue;
+			}
+			catchTypes.removeIf(exceptionType::isAssignableFrom);
+			catchTypes.add(exceptionType);
+		}
+		return catchTypes;
+	}
+
+	/**
+	 * Generate {@code equals} comparing the configuration behind proxies of the same class.
+	 */
+	private static void generateEquals(ClassWriter cw, String className) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, "equals", "(Ljava/lang/Object;)Z", null, null);
+		mv.visitCode();
+		Label notSame = new Label();
+		Label notEqual = new Label();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitJumpInsn(IF_ACMPNE, notSame);
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(notSame);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitJumpInsn(IFNULL, notEqual);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "getClass", "()Ljava/lang/Class;", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "getClass", "()Ljava/lang/Class;", false);
+		mv.visitJumpInsn(IF_ACMPNE, notEqual);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, className);
+		mv.visitFieldInsn(GETFIELD, className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR);
+		mv.visitMethodInsn(INVOKEVIRTUAL, DISPATCHER_TYPE, "proxyEquals", "(" + DISPATCHER_DESCRIPTOR + ")Z", false);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(notEqual);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+	}
+
+	/**
+	 * Generate {@code hashCode} delegating to the configuration behind the proxy.
+	 */
+	private static void generateHashCode(ClassWriter cw, String className) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, "hashCode", "()I", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR);
+		mv.visitMethodInsn(INVOKEVIRTUAL, DISPATCHER_TYPE, "proxyHashCode", "()I", false);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+	}
+
+	/**
+	 * Generate a {@link BytecodeAopProxy.TargetInvoker} switching over the method index.
+	 */
+	private static byte[] generateInvokerClass(String className, List<Method> methods) {
+		ClassWriter cw = new ProxyClassWriter();
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null,
+				"java/lang/Object", new String[] {INVOKER_TYPE});
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+
+		mv = cw.visitMethod(ACC_PUBLIC, "invokeTarget", INVOKE_TARGET_DESCRIPTOR, null, new String[] {"java/lang/Throwable"});
+		mv.visitCode();
+		Label[] labels = new Label[methods.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		Label unknown = new Label();
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitTableSwitchInsn(0, labels.length - 1, unknown, labels);
+		for (int i = 0; i < labels.length; i++) {
+			Method method = methods.get(i);
+			mv.visitLabel(labels[i]);
+			boolean isInterface = method.getDeclaringClass().isInterface();
+			String owner = Type.getInternalName(method.getDeclaringClass());
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(CHECKCAST, owner);
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int j = 0; j < parameterTypes.length; j++) {
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitLdcInsn(j);
+				mv.visitInsn(AALOAD);
+				unboxOrCast(mv, parameterTypes[j]);
+			}
+			mv.visitMethodInsn((isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL), owner,
+					method.getName(), Type.getMethodDescriptor(method), isInterface);
+			Class<?> returnType = method.getReturnType();
+			if (returnType == void.class) {
+				mv.visitInsn(ACONST_NULL);
+			}
+			else if (returnType.isPrimitive()) {
+				box(mv, returnType);
+			}
+			mv.visitInsn(ARETURN);
+		}
+		mv.visitLabel(unknown);
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("Unknown method index");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void unboxOrCast(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(CHECKCAST, wrapper);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+		}
+		else if (type != Object.class) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> primitiveType) {
+		String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(primitiveType));
+		mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf",
+				"(" + Type.getDescriptor(primitiveType) + ")L" + wrapper + ";", false);
+	}
+
+
+	/**
+	 * A generated proxy class along with the methods it implements and the
+	 * exception types declared for them, indexed as passed to its
+	 * {@link BytecodeAopProxy.Dispatcher}.
+	 */
+	static final class ProxyClass {
+
+		private final Constructor<?> constructor;
+
+		final Method[] methods;
+
+		final Class<?>[][] exceptionTypes;
+
+		final boolean[] directCallable;
+
+		final BytecodeAopProxy.TargetInvoker invoker;
+
+		ProxyClass(Constructor<?> constructor, Method[] methods, Class<?>[][] exceptionTypes,
+				boolean[] directCallable, BytecodeAopProxy.TargetInvoker invoker) {
+
+			this.constructor = constructor;
+			this.methods = methods;
+			this.exceptionTypes = exceptionTypes;
+			this.directCallable = directCallable;
+			this.invoker = invoker;
+		}
+
+		Object newInstance(BytecodeAopProxy.Dispatcher dispatcher) {
+			try {
+				return this.constructor.newInstance(dispatcher);
+			}
+			catch (Throwable ex) {
+				throw new AopConfigException("Failed to instantiate generated proxy class", ex);
+			}
+		}
+	}
+
+
+	/**
+	 * ClassWriter computing stack map frames; the generated code never needs
+	 * to determine a common super class of the types involved.
+	 */
+	private static class ProxyClassWriter extends ClassWriter {
+
+		ProxyClassWriter() {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+		}
+
+		@Override
+		protected String getCommonSuperClass(String type1, String type2) {
+			return "java/lang/Object";
+		}
+	}
+
+
+	/**
+	 * A ChildClassLoader will load the generated proxy classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		public ChildClassLoader(ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
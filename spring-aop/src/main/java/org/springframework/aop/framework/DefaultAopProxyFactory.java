@@ -20,7 +20,9 @@ import java.io.Serializable;
 import java.lang.reflect.Proxy;
 
 import org.springframework.aop.SpringProxy;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.core.NativeDetector;
+import org.springframework.core.SpringProperties;
 
 /**
  * Default {@link AopProxyFactory} implementation, creating either a CGLIB proxy
@@ -37,6 +39,9 @@ import org.springframework.core.NativeDetector;
  * <p>In general, specify {@code proxyTargetClass} to enforce a CGLIB proxy,
  * or specify one or more interfaces to use a JDK dynamic proxy.
  *
+ * <p>As of 5.3.14, interface proxies may alternatively be generated with ASM,
+ * invoking the target without reflection: see {@link #setGenerateInterfaceProxies}.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author Sebastien Deleuze
@@ -49,6 +54,44 @@ public class DefaultAopProxyFactory implements AopProxyFactory, Serializable {
 
 	private static final long serialVersionUID = 7930414337282325166L;
 
+	/**
+	 * System property that instructs Spring to generate interface proxy classes
+	 * with ASM rather than to create JDK dynamic proxies, by default:
+	 * {@code "spring.aop.generatedProxies"}.
+	 * <p>The default is "false". Generated proxies are not serializable, so JDK
+	 * dynamic proxies are still created for serializable interfaces.
+	 * @since 5.3.14
+	 * @see #setGenerateInterfaceProxies
+	 */
+	public static final String GENERATED_PROXIES_PROPERTY_NAME = "spring.aop.generatedProxies";
+
+
+	private boolean generateInterfaceProxies = SpringProperties.getFlag(GENERATED_PROXIES_PROPERTY_NAME);
+
+
+	/**
+	 * Specify whether to generate interface proxy classes with ASM rather than
+	 * to create JDK dynamic proxies. Generated proxies invoke the target directly
+	 * for methods without advice if the configuration is frozen and the target
+	 * static, and through generated code rather than reflection otherwise.
+	 * <p>Default is "false", unless the {@link #GENERATED_PROXIES_PROPERTY_NAME}
+	 * system property has been set. JDK dynamic proxies are still used in a native
+	 * image and for interfaces that do not qualify for generation, e.g. non-public
+	 * or serializable interfaces.
+	 * @since 5.3.14
+	 */
+	public void setGenerateInterfaceProxies(boolean generateInterfaceProxies) {
+		this.generateInterfaceProxies = generateInterfaceProxies;
+	}
+
+	/**
+	 * Return whether interface proxy classes are generated with ASM.
+	 * @since 5.3.14
+	 */
+	public boolean isGenerateInterfaceProxies() {
+		return this.generateInterfaceProxies;
+	}
+
 
 	@Override
 	public AopProxy createAopProxy(AdvisedSupport config) throws AopConfigException {
@@ -59,14 +102,25 @@ public class DefaultAopProxyFactory implements AopProxyFactory, Serializable {
 				throw new AopConfigException("TargetSource cannot determine target class: " +
 						"Either an interface or a target is required for proxy creation.");
 			}
-			if (targetClass.isInterface() || Proxy.isProxyClass(targetClass)) {
+			if (Proxy.isProxyClass(targetClass)) {
 				return new JdkDynamicAopProxy(config);
 			}
+			if (targetClass.isInterface() || AopUtils.isInterfaceProxyClass(targetClass)) {
+				// Generated proxy classes are final: proxy their interfaces instead
+				return createInterfaceProxy(config);
+			}
 			return new ObjenesisCglibAopProxy(config);
 		}
 		else {
-			return new JdkDynamicAopProxy(config);
+			return createInterfaceProxy(config);
+		}
+	}
+
+	private AopProxy createInterfaceProxy(AdvisedSupport config) {
+		if (this.generateInterfaceProxies && !NativeDetector.inNativeImage()) {
+			return new BytecodeAopProxy(config);
 		}
+		return new JdkDynamicAopProxy(config);
 	}
 
 	/**
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, array-based interceptor chain for a proxied method, as cached
+ * by {@link AdvisedSupport} and bound to proxied methods by the AOP proxies.
+ *
+ * <p>A {@link ReflectiveMethodInvocation} walks the underlying array directly
+ * rather than going through the {@link List} interface on every call.
+ *
+ * @since 5.3.14
+ * @see AdvisedSupport#getInterceptorsAndDynamicInterceptionAdvice
+ */
+@SuppressWarnings("serial")
+final class InterceptorChain extends AbstractList<Object> implements RandomAccess, Serializable {
+
+	private final Object[] interceptors;
+
+
+	private InterceptorChain(Object[] interceptors) {
+		this.interceptors = interceptors;
+	}
+
+
+	/**
+	 * Return the interceptors and dynamic method matchers of this chain.
+	 * <p>The returned array must not be modified.
+	 */
+	Object[] getInterceptors() {
+		return this.interceptors;
+	}
+
+	@Override
+	public Object get(int index) {
+		return this.interceptors[index];
+	}
+
+	@Override
+	public int size() {
+		return this.interceptors.length;
+	}
+
+
+	/**
+	 * Return an InterceptorChain for the given interceptors, copying them
+	 * unless they are held by an InterceptorChain already.
+	 * @param interceptors the interceptors and dynamic method matchers
+	 * @return the corresponding InterceptorChain
+	 */
+	static InterceptorChain of(List<?> interceptors) {
+		if (interceptors instanceof InterceptorChain) {
+			return (InterceptorChain) interceptors;
+		}
+		return new InterceptorChain(interceptors.toArray());
+	}
+
+}
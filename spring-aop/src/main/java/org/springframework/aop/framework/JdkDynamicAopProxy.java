@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,9 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.logging.Log;
@@ -95,6 +97,13 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	 */
 	private boolean hashCodeDefined;
 
+	/**
+	 * Interceptor chains bound to the proxied methods of a frozen configuration
+	 * with a static target, or {@code null} if chains are looked up per call.
+	 */
+	@Nullable
+	private final transient Map<Method, List<Object>> fixedChains;
+
 
 	/**
 	 * Construct a new JdkDynamicAopProxy for the given AOP configuration.
@@ -110,6 +119,9 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		this.advised = config;
 		this.proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(this.advised, true);
 		findDefinedEqualsAndHashCodeMethods(this.proxiedInterfaces);
+		// Chains depend on the target class: only bind them if the target cannot change
+		this.fixedChains = (config.isFrozen() && config.getTargetSource().isStatic() ?
+				bindInterceptorChains(this.proxiedInterfaces) : null);
 	}
 
 
@@ -126,6 +138,29 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		return Proxy.newProxyInstance(classLoader, this.proxiedInterfaces, this);
 	}
 
+	/**
+	 * Determine the interceptor chains for all methods on the supplied set of
+	 * interfaces upfront, since neither the advice of a frozen configuration
+	 * nor a static target can change.
+	 * @param proxiedInterfaces the interfaces to introspect
+	 * @return the chains per method
+	 */
+	private Map<Method, List<Object>> bindInterceptorChains(Class<?>[] proxiedInterfaces) {
+		Class<?> targetClass = this.advised.getTargetClass();
+		Map<Method, List<Object>> chains = new HashMap<>();
+		for (Class<?> proxiedInterface : proxiedInterfaces) {
+			for (Method method : proxiedInterface.getMethods()) {
+				Class<?> declaringClass = method.getDeclaringClass();
+				// Skip methods dispatched to the proxy config, see invoke
+				if (declaringClass != DecoratingProxy.class &&
+						(this.advised.opaque || !declaringClass.isAssignableFrom(Advised.class))) {
+					chains.put(method, this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass));
+				}
+			}
+		}
+		return chains;
+	}
+
 	/**
 	 * Finds any {@link #equals} or {@link #hashCode} method that may be defined
 	 * on the supplied set of interfaces.
@@ -195,8 +230,11 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			target = targetSource.getTarget();
 			Class<?> targetClass = (target != null ? target.getClass() : null);
 
-			// Get the interception chain for this method.
-			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			// Get the interception chain for this method, bound upfront if possible.
+			List<Object> chain = (this.fixedChains != null ? this.fixedChains.get(method) : null);
+			if (chain == null) {
+				chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			}
 
 			// Check whether we have any advice. If we don't, we can fallback on direct
 			// reflective invocation of the target, and avoid creating a MethodInvocation.
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.IntroductionAdvisor;
+import org.springframework.aop.IntroductionAwareMethodMatcher;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Index over a given list of candidate Advisors, determining the Advisors that
+ * can apply to a bean class with the same outcome as
+ * {@link AopUtils#findAdvisorsThatCanApply} but with less matching effort:
+ * <ul>
+ * <li>Advisors with equal pointcuts, e.g. several advice methods of an aspect
+ * referring to the same pointcut expression or several advisors matching the same
+ * annotation type, are bucketed and matched once per bean class.
+ * <li>The methods of a bean class are introspected once per bean class rather
+ * than once per Advisor.
+ * <li>Matching results are cached per bean class, so that further beans of the
+ * same class do not go through pointcut matching again. Advisors that request
+ * the {@linkplain ProxyCreationContext#getCurrentProxiedBeanName() current bean name}
+ * while matching (e.g. with AspectJ's {@code bean()} designator) are matched
+ * for every bean instead.
+ * </ul>
+ *
+ * @since 5.3.14
+ * @see AbstractAdvisorAutoProxyCreator#findAdvisorsThatCanApply
+ */
+final class AdvisorIndex {
+
+	private final Advisor[] advisors;
+
+	/** Index of the first Advisor in the same bucket, for each Advisor. */
+	private final int[] buckets;
+
+	private final boolean hasIntroductionAdvisors;
+
+	/** Buckets of Advisors that requested the current bean name while matching. */
+	private final Set<Integer> beanNameDependentBuckets = ConcurrentHashMap.newKeySet();
+
+	private final Map<Class<?>, ClassMatch> classMatchCache = new ConcurrentReferenceHashMap<>();
+
+
+	/**
+	 * Create a new AdvisorIndex for the given candidate Advisors.
+	 * @param candidateAdvisors the Advisors to evaluate
+	 */
+	AdvisorIndex(List<Advisor> candidateAdvisors) {
+		this.advisors = candidateAdvisors.toArray(new Advisor[0]);
+		this.buckets = new int[this.advisors.length];
+		Map<Object, Integer> bucketsByKey = new HashMap<>();
+		boolean hasIntroductionAdvisors = false;
+		for (int i = 0; i < this.advisors.length; i++) {
+			Advisor advisor = this.advisors[i];
+			Object key;
+			if (advisor instanceof IntroductionAdvisor) {
+				hasIntroductionAdvisors = true;
+				key = new BucketKey(true, ((IntroductionAdvisor) advisor).getClassFilter());
+			}
+			else if (advisor instanceof PointcutAdvisor) {
+				key = new BucketKey(false, ((PointcutAdvisor) advisor).getPointcut());
+			}
+			else {
+				key = null;
+			}
+			Integer bucket = (key != null ? bucketsByKey.putIfAbsent(key, i) : null);
+			this.buckets[i] = (bucket != null ? bucket : i);
+		}
+		this.hasIntroductionAdvisors = hasIntroductionAdvisors;
+	}
+
+
+	/**
+	 * Determine whether this index has been built for the given candidate Advisors,
+	 * i.e. for the very same Advisor instances in the same order.
+	 */
+	boolean isIndexFor(List<Advisor> candidateAdvisors) {
+		if (candidateAdvisors.size() != this.advisors.length) {
+			return false;
+		}
+		int i = 0;
+		for (Advisor advisor : candidateAdvisors) {
+			if (advisor != this.advisors[i++]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determine the sublist of the candidate Advisors that is applicable
+	 * to the given class, in the order of {@link AopUtils#findAdvisorsThatCanApply}.
+	 * <p>Expected to be called with the current bean name exposed through
+	 * {@link ProxyCreationContext}.
+	 * @param clazz the target class
+	 * @return a new list with the Advisors that can apply to an object of the given class
+	 */
+	List<Advisor> findAdvisorsThatCanApply(Class<?> clazz) {
+		if (this.advisors.length == 0) {
+			return new ArrayList<>();
+		}
+		ClassMatch cached = this.classMatchCache.get(clazz);
+		ClassMatch current = new ClassMatch(clazz, this.advisors.length);
+
+		// Introductions first, determining whether method matching needs to consider them
+		if (this.hasIntroductionAdvisors) {
+			for (int i = 0; i < this.advisors.length; i++) {
+				if (this.advisors[i] instanceof IntroductionAdvisor) {
+					current.hasIntroductions |= match(i, current, cached);
+				}
+			}
+		}
+		List<Advisor> eligibleAdvisors = new ArrayList<>();
+		for (int i = 0; i < this.advisors.length; i++) {
+			if (this.advisors[i] instanceof IntroductionAdvisor && Boolean.TRUE.equals(current.results[i])) {
+				eligibleAdvisors.add(this.advisors[i]);
+			}
+		}
+		if (cached != null && cached.hasIntroductions != current.hasIntroductions) {
+			// Bean name dependent introductions: cached method matches do not apply
+			cached = null;
+		}
+		for (int i = 0; i < this.advisors.length; i++) {
+			if (!(this.advisors[i] instanceof IntroductionAdvisor) && match(i, current, cached)) {
+				eligibleAdvisors.add(this.advisors[i]);
+			}
+		}
+
+		if (cached == null && !this.classMatchCache.containsKey(clazz)) {
+			current.retainCacheableResults(this);
+			this.classMatchCache.putIfAbsent(clazz, current);
+		}
+		return eligibleAdvisors;
+	}
+
+	private boolean match(int index, ClassMatch current, @Nullable ClassMatch cached) {
+		int bucket = this.buckets[index];
+		Boolean result = current.results[bucket];
+		if (result == null && cached != null) {
+			result = cached.results[bucket];
+		}
+		if (result == null) {
+			ProxyCreationContext.checkAndResetCurrentProxiedBeanNameRequested();
+			result = canApply(this.advisors[bucket], current);
+			if (ProxyCreationContext.checkAndResetCurrentProxiedBeanNameRequested()) {
+				this.beanNameDependentBuckets.add(bucket);
+			}
+		}
+		current.results[bucket] = result;
+		current.results[index] = result;
+		return result;
+	}
+
+	/**
+	 * Variant of {@link AopUtils#canApply(Advisor, Class, boolean)},
+	 * reusing the methods of the target class across Advisors.
+	 */
+	private static boolean canApply(Advisor advisor, ClassMatch classMatch) {
+		if (advisor instanceof IntroductionAdvisor) {
+			return ((IntroductionAdvisor) advisor).getClassFilter().matches(classMatch.targetClass);
+		}
+		else if (advisor instanceof PointcutAdvisor) {
+			return canApply(((PointcutAdvisor) advisor).getPointcut(), classMatch);
+		}
+		else {
+			// It doesn't have a pointcut so we assume it applies.
+			return true;
+		}
+	}
+
+	private static boolean canApply(Pointcut pc, ClassMatch classMatch) {
+		Class<?> targetClass = classMatch.targetClass;
+		if (!pc.getClassFilter().matches(targetClass)) {
+			return false;
+		}
+
+		MethodMatcher methodMatcher = pc.getMethodMatcher();
+		if (methodMatcher == MethodMatcher.TRUE) {
+			// No need to iterate the methods if we're matching any method anyway...
+			return true;
+		}
+
+		IntroductionAwareMethodMatcher introductionAwareMethodMatcher = null;
+		if (methodMatcher instanceof IntroductionAwareMethodMatcher) {
+			introductionAwareMethodMatcher = (IntroductionAwareMethodMatcher) methodMatcher;
+		}
+
+		for (Method method : classMatch.getMethods()) {
+			if (introductionAwareMethodMatcher != null ?
+					introductionAwareMethodMatcher.matches(method, targetClass, classMatch.hasIntroductions) :
+					methodMatcher.matches(method, targetClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Key for a bucket of Advisors that are known to match the same classes.
+	 */
+	private static final class BucketKey {
+
+		private final boolean introduction;
+
+		private final Object filter;
+
+		BucketKey(boolean introduction, Object filter) {
+			this.introduction = introduction;
+			this.filter = filter;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof BucketKey &&
+					this.introduction == ((BucketKey) other).introduction &&
+					this.filter.equals(((BucketKey) other).filter)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.filter.hashCode();
+		}
+	}
+
+
+	/**
+	 * Matching results of the Advisors for a specific target class,
+	 * with {@code null} for Advisors not matched (yet).
+	 */
+	private static final class ClassMatch {
+
+		final Class<?> targetClass;
+
+		final Boolean[] results;
+
+		boolean hasIntroductions;
+
+		@Nullable
+		private List<Method> methods;
+
+		ClassMatch(Class<?> targetClass, int advisorCount) {
+			this.targetClass = targetClass;
+			this.results = new Boolean[advisorCount];
+		}
+
+		List<Method> getMethods() {
+			List<Method> methods = this.methods;
+			if (methods == null) {
+				Set<Class<?>> classes = new LinkedHashSet<>();
+				if (!Proxy.isProxyClass(this.targetClass)) {
+					classes.add(ClassUtils.getUserClass(this.targetClass));
+				}
+				classes.addAll(ClassUtils.getAllInterfacesForClassAsSet(this.targetClass));
+				methods = new ArrayList<>();
+				for (Class<?> clazz : classes) {
+					for (Method method : ReflectionUtils.getAllDeclaredMethods(clazz)) {
+						methods.add(method);
+					}
+				}
+				this.methods = methods;
+			}
+			return methods;
+		}
+
+		void retainCacheableResults(AdvisorIndex index) {
+			for (int i = 0; i < this.results.length; i++) {
+				if (index.beanNameDependentBuckets.contains(index.buckets[i])) {
+					this.results[i] = null;
+				}
+			}
+			this.methods = null;
+		}
+	}
+
+}
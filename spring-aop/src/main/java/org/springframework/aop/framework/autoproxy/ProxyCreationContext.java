@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,10 @@ public final class ProxyCreationContext {
 	private static final ThreadLocal<String> currentProxiedBeanName =
 			new NamedThreadLocal<>("Name of currently proxied bean");
 
+	/** ThreadLocal recording whether the current proxied bean name has been requested. */
+	private static final ThreadLocal<Boolean> currentProxiedBeanNameRequested =
+			new NamedThreadLocal<>("Request for name of currently proxied bean");
+
 
 	private ProxyCreationContext() {
 	}
@@ -44,7 +48,11 @@ public final class ProxyCreationContext {
 	 */
 	@Nullable
 	public static String getCurrentProxiedBeanName() {
-		return currentProxiedBeanName.get();
+		String beanName = currentProxiedBeanName.get();
+		if (beanName != null) {
+			currentProxiedBeanNameRequested.set(Boolean.TRUE);
+		}
+		return beanName;
 	}
 
 	/**
@@ -57,7 +65,23 @@ public final class ProxyCreationContext {
 		}
 		else {
 			currentProxiedBeanName.remove();
+			currentProxiedBeanNameRequested.remove();
+		}
+	}
+
+	/**
+	 * Return whether the name of the currently proxied bean instance has been
+	 * requested since the last call to this method, resetting that state.
+	 * <p>Allows for detecting Advisor matching that depends on the bean name,
+	 * as opposed to the bean class only.
+	 * @since 5.3.14
+	 */
+	static boolean checkAndResetCurrentProxiedBeanNameRequested() {
+		if (currentProxiedBeanNameRequested.get() != null) {
+			currentProxiedBeanNameRequested.remove();
+			return true;
 		}
+		return false;
 	}
 
 }
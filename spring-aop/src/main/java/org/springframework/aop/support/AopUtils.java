@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import java.util.Set;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.GeneratedInterfaceProxy;
 import org.springframework.aop.IntroductionAdvisor;
 import org.springframework.aop.IntroductionAwareMethodMatcher;
 import org.springframework.aop.MethodMatcher;
@@ -60,14 +61,17 @@ public abstract class AopUtils {
 	/**
 	 * Check whether the given object is a JDK dynamic proxy or a CGLIB proxy.
 	 * <p>This method additionally checks if the given object is an instance
-	 * of {@link SpringProxy}.
+	 * of {@link SpringProxy}. As of 5.3.14, it also detects generated interface
+	 * proxies.
 	 * @param object the object to check
 	 * @see #isJdkDynamicProxy
 	 * @see #isCglibProxy
+	 * @see #isGeneratedInterfaceProxy
 	 */
 	public static boolean isAopProxy(@Nullable Object object) {
 		return (object instanceof SpringProxy && (Proxy.isProxyClass(object.getClass()) ||
-				object.getClass().getName().contains(ClassUtils.CGLIB_CLASS_SEPARATOR)));
+				object.getClass().getName().contains(ClassUtils.CGLIB_CLASS_SEPARATOR) ||
+				object instanceof GeneratedInterfaceProxy));
 	}
 
 	/**
@@ -82,6 +86,34 @@ public abstract class AopUtils {
 		return (object instanceof SpringProxy && Proxy.isProxyClass(object.getClass()));
 	}
 
+	/**
+	 * Check whether the given object is an interface proxy generated with ASM,
+	 * i.e. an alternative to a JDK dynamic proxy.
+	 * <p>This method checks for the {@link GeneratedInterfaceProxy} marker
+	 * as well as for {@link SpringProxy}.
+	 * @param object the object to check
+	 * @since 5.3.14
+	 * @see org.springframework.aop.framework.DefaultAopProxyFactory#setGenerateInterfaceProxies
+	 */
+	public static boolean isGeneratedInterfaceProxy(@Nullable Object object) {
+		return (object instanceof SpringProxy && object instanceof GeneratedInterfaceProxy);
+	}
+
+	/**
+	 * Check whether the given class is an interface-based proxy class,
+	 * i.e. either a JDK dynamic proxy class or a proxy class generated with ASM.
+	 * <p>Such classes cannot be subclassed: a further proxy needs to be based
+	 * on the interfaces that the given class implements.
+	 * @param clazz the class to check
+	 * @since 5.3.14
+	 * @see java.lang.reflect.Proxy#isProxyClass
+	 * @see #isGeneratedInterfaceProxy
+	 */
+	public static boolean isInterfaceProxyClass(Class<?> clazz) {
+		return (Proxy.isProxyClass(clazz) || (SpringProxy.class.isAssignableFrom(clazz) &&
+				GeneratedInterfaceProxy.class.isAssignableFrom(clazz) && !clazz.isInterface()));
+	}
+
 	/**
 	 * Check whether the given object is a CGLIB proxy.
 	 * <p>This method goes beyond the implementation of
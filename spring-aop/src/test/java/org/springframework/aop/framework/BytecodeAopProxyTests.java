@@ -0,0 +1,429 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.GeneratedInterfaceProxy;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
+import org.springframework.core.DecoratingProxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Tests for {@link BytecodeAopProxy}.
+ */
+class BytecodeAopProxyTests {
+
+	@Test
+	void proxyClassIsGenerated() {
+		Calculator proxy = (Calculator) createProxyFactory(new SimpleCalculator()).getProxy();
+		assertThat(Proxy.isProxyClass(proxy.getClass())).isFalse();
+		assertThat(proxy.getClass().isSynthetic()).isTrue();
+		assertThat(AopUtils.isAopProxy(proxy)).isTrue();
+		assertThat(AopUtils.isGeneratedInterfaceProxy(proxy)).isTrue();
+		assertThat(AopUtils.isJdkDynamicProxy(proxy)).isFalse();
+		assertThat(AopUtils.isCglibProxy(proxy)).isFalse();
+		assertThat(proxy).isInstanceOf(Advised.class).isInstanceOf(DecoratingProxy.class)
+				.isInstanceOf(GeneratedInterfaceProxy.class);
+		assertThat(AopProxyUtils.proxiedUserInterfaces(proxy)).containsExactly(Calculator.class);
+	}
+
+	@Test
+	void proxyClassIsShared() {
+		Object proxy1 = createProxyFactory(new SimpleCalculator()).getProxy();
+		Object proxy2 = createProxyFactory(new SimpleCalculator()).getProxy();
+		assertThat(proxy1.getClass()).isSameAs(proxy2.getClass());
+	}
+
+	@Test
+	void adviceIsApplied() {
+		NopInterceptor interceptor = new NopInterceptor();
+		ProxyFactory pf = createProxyFactory(new SimpleCalculator());
+		pf.addAdvice(interceptor);
+		Calculator proxy = (Calculator) pf.getProxy();
+
+		assertThat(proxy.add(1, 2)).isEqualTo(3);
+		assertThat(proxy.add(1L, 2L)).isEqualTo(3L);
+		assertThat(proxy.scale(2.0, new double[] {1.0, 2.0})).containsExactly(2.0, 4.0);
+		proxy.reset();
+		assertThat(proxy.getName()).isEqualTo("calculator");
+		assertThat(interceptor.getCount()).isEqualTo(5);
+	}
+
+	@Test
+	void adviceCanReplaceArguments() {
+		ProxyFactory pf = createProxyFactory(new SimpleCalculator());
+		pf.addAdvice((MethodInterceptor) invocation -> {
+			invocation.getArguments()[0] = 10;
+			return invocation.proceed();
+		});
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertThat(proxy.add(1, 2)).isEqualTo(12);
+	}
+
+	@Test
+	void adviceIsAppliedToMatchingMethodsOfFrozenConfiguration() {
+		NopInterceptor interceptor = new NopInterceptor();
+		NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
+		pointcut.addMethodName("getName");
+		SimpleCalculator target = new SimpleCalculator();
+		ProxyFactory pf = createProxyFactory(target);
+		pf.addAdvisor(new DefaultPointcutAdvisor(pointcut, interceptor));
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+
+		assertThat(proxy.add(1, 2)).isEqualTo(3);
+		proxy.reset();
+		assertThat(target.resetCount).isEqualTo(1);
+		assertThat(interceptor.getCount()).isEqualTo(0);
+		assertThat(proxy.getName()).isEqualTo("calculator");
+		assertThat(interceptor.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void frozenConfigurationWithoutAdviceExposesProxy() {
+		ProxyFactory pf = createProxyFactory(new SimpleCalculator());
+		pf.setExposeProxy(true);
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertThat(proxy.currentProxy()).isSameAs(proxy);
+	}
+
+	@Test
+	void returnedTargetIsReplacedWithProxy() {
+		SimpleCalculator target = new SimpleCalculator();
+		ProxyFactory pf = createProxyFactory(target);
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertThat(proxy.self()).isSameAs(proxy);
+		assertThat(proxy.target()).isSameAs(target);
+	}
+
+	@Test
+	void equalsAndHashCode() {
+		SimpleCalculator target = new SimpleCalculator();
+		Object proxy1 = createProxyFactory(target).getProxy();
+		Object proxy2 = createProxyFactory(target).getProxy();
+		assertThat(proxy1).isEqualTo(proxy1);
+		assertThat(proxy1).isEqualTo(proxy2);
+		assertThat(proxy1.hashCode()).isEqualTo(proxy2.hashCode());
+		assertThat(proxy1).isNotEqualTo(createProxyFactory(new SimpleCalculator()).getProxy());
+		assertThat(proxy1).isNotEqualTo(target);
+		assertThat(proxy1.equals(null)).isFalse();
+		assertThat(proxy1.toString()).isEqualTo(target.toString());
+	}
+
+	@Test
+	void configMethodsAreDispatchedToConfiguration() throws Exception {
+		SimpleCalculator target = new SimpleCalculator();
+		ProxyFactory pf = createProxyFactory(target);
+		pf.setFrozen(true);
+		Object proxy = pf.getProxy();
+		assertThat(((Advised) proxy).getTargetSource().getTarget()).isSameAs(target);
+		assertThat(((Advised) proxy).isFrozen()).isTrue();
+		assertThat(((DecoratingProxy) proxy).getDecoratedClass()).isEqualTo(SimpleCalculator.class);
+		assertThat(AopProxyUtils.getSingletonTarget(proxy)).isSameAs(target);
+	}
+
+	@Test
+	void declaredExceptionIsPropagated() {
+		ProxyFactory pf = createProxyFactory(new SimpleCalculator());
+		pf.addAdvice(new NopInterceptor());
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertThatIOException().isThrownBy(proxy::load).withMessage("load");
+	}
+
+	@Test
+	void undeclaredCheckedExceptionIsWrapped() {
+		ProxyFactory pf = createProxyFactory(new SimpleCalculator());
+		pf.addAdvice((MethodInterceptor) invocation -> {
+			throw new Exception("advice");
+		});
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertThatExceptionOfType(UndeclaredThrowableException.class).isThrownBy(() -> proxy.add(1, 2))
+				.withCauseExactlyInstanceOf(Exception.class);
+	}
+
+	@Test
+	void methodOfMultipleInterfacesDeclaresCommonExceptionTypes() throws Exception {
+		for (boolean frozen : new boolean[] {false, true}) {
+			ProxyFactory pf = createProxyFactory(new SimpleLoader(new FileNotFoundException("file")));
+			pf.addInterface(FileLoader.class);
+			pf.setFrozen(frozen);
+			Object proxy = pf.getProxy();
+			assertThat(proxy.getClass().getMethod("load").getExceptionTypes()).containsExactly(FileNotFoundException.class);
+			assertThatExceptionOfType(FileNotFoundException.class).isThrownBy(((FileLoader) proxy)::load);
+		}
+	}
+
+	@Test
+	void undeclaredCheckedExceptionFromTargetIsWrapped() {
+		for (boolean frozen : new boolean[] {false, true}) {
+			ProxyFactory pf = createProxyFactory(new SimpleLoader(new IOException("io")));
+			pf.addInterface(FileLoader.class);
+			pf.setFrozen(frozen);
+			Loader proxy = (Loader) pf.getProxy();
+			assertThatExceptionOfType(UndeclaredThrowableException.class).isThrownBy(proxy::load)
+					.withCauseExactlyInstanceOf(IOException.class);
+		}
+	}
+
+	@Test
+	void nullReturnValueForPrimitive() {
+		ProxyFactory pf = createProxyFactory(new SimpleCalculator());
+		pf.addAdvice((MethodInterceptor) invocation -> null);
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertThatExceptionOfType(AopInvocationException.class).isThrownBy(() -> proxy.add(1, 2))
+				.withMessageContaining("Calculator.add(int,int)");
+	}
+
+	@Test
+	void frozenProxyWithLazyTargetSource() {
+		ProxyFactory pf = new ProxyFactory();
+		pf.setAopProxyFactory(createAopProxyFactory());
+		pf.addInterface(Calculator.class);
+		pf.setTargetSource(new TargetSource() {
+			@Override
+			public Class<?> getTargetClass() {
+				return null;
+			}
+			@Override
+			public boolean isStatic() {
+				return false;
+			}
+			@Override
+			public Object getTarget() {
+				return new SimpleCalculator();
+			}
+			@Override
+			public void releaseTarget(Object target) {
+			}
+		});
+		NopInterceptor interceptor = new NopInterceptor();
+		pf.addAdvisor(new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Fast.class), interceptor));
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+
+		assertThat(proxy.add(1, 2)).isEqualTo(3);
+		assertThat(interceptor.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void generatedProxyCanBeProxiedAgain() {
+		NopInterceptor innerInterceptor = new NopInterceptor();
+		ProxyFactory innerPf = createProxyFactory(new SimpleCalculator());
+		innerPf.addAdvice(innerInterceptor);
+		Calculator innerProxy = (Calculator) innerPf.getProxy();
+		assertThat(AopUtils.isInterfaceProxyClass(innerProxy.getClass())).isTrue();
+
+		NopInterceptor outerInterceptor = new NopInterceptor();
+		ProxyFactory outerPf = new ProxyFactory();
+		outerPf.setAopProxyFactory(createAopProxyFactory());
+		outerPf.setTarget(innerProxy);
+		outerPf.setProxyTargetClass(true);
+		outerPf.addAdvice(outerInterceptor);
+		Calculator outerProxy = (Calculator) outerPf.getProxy();
+
+		assertThat(outerProxy).isNotSameAs(innerProxy);
+		assertThat(AopUtils.isGeneratedInterfaceProxy(outerProxy)).isTrue();
+		assertThat(AopProxyUtils.proxiedUserInterfaces(outerProxy)).containsExactly(Calculator.class);
+		assertThat(outerProxy.add(1, 2)).isEqualTo(3);
+		assertThat(outerInterceptor.getCount()).isEqualTo(1);
+		assertThat(innerInterceptor.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void fallbackToJdkProxyForNonPublicInterface() {
+		ProxyFactory pf = new ProxyFactory((Hidden) () -> "hidden");
+		pf.setAopProxyFactory(createAopProxyFactory());
+		Hidden proxy = (Hidden) pf.getProxy();
+		assertThat(Proxy.isProxyClass(proxy.getClass())).isTrue();
+		assertThat(proxy.getValue()).isEqualTo("hidden");
+	}
+
+	@Test
+	void fallbackToJdkProxyForSerializableInterface() {
+		ProxyFactory pf = new ProxyFactory(new SerializableValue());
+		pf.setAopProxyFactory(createAopProxyFactory());
+		Object proxy = pf.getProxy();
+		assertThat(Proxy.isProxyClass(proxy.getClass())).isTrue();
+	}
+
+
+	private static ProxyFactory createProxyFactory(Object target) {
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setAopProxyFactory(createAopProxyFactory());
+		return pf;
+	}
+
+	private static DefaultAopProxyFactory createAopProxyFactory() {
+		DefaultAopProxyFactory aopProxyFactory = new DefaultAopProxyFactory();
+		aopProxyFactory.setGenerateInterfaceProxies(true);
+		return aopProxyFactory;
+	}
+
+
+	public interface Calculator {
+
+		int add(int a, int b);
+
+		long add(long a, long b);
+
+		double[] scale(double factor, double[] values);
+
+		void reset();
+
+		String getName();
+
+		Calculator self();
+
+		Object target();
+
+		Object currentProxy();
+
+		void load() throws IOException;
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface Fast {
+	}
+
+
+	@Fast
+	public static class SimpleCalculator implements Calculator {
+
+		int resetCount;
+
+		@Override
+		public int add(int a, int b) {
+			return a + b;
+		}
+
+		@Override
+		public long add(long a, long b) {
+			return a + b;
+		}
+
+		@Override
+		public double[] scale(double factor, double[] values) {
+			double[] result = new double[values.length];
+			for (int i = 0; i < values.length; i++) {
+				result[i] = values[i] * factor;
+			}
+			return result;
+		}
+
+		@Override
+		public void reset() {
+			this.resetCount++;
+		}
+
+		@Override
+		public String getName() {
+			return "calculator";
+		}
+
+		@Override
+		public Calculator self() {
+			return this;
+		}
+
+		@Override
+		public Object target() {
+			return this;
+		}
+
+		@Override
+		public Object currentProxy() {
+			return AopContext.currentProxy();
+		}
+
+		@Override
+		public void load() throws IOException {
+			throw new IOException("load");
+		}
+	}
+
+
+	public interface Loader {
+
+		void load() throws IOException;
+	}
+
+
+	public interface FileLoader {
+
+		void load() throws FileNotFoundException;
+	}
+
+
+	public static class SimpleLoader implements Loader {
+
+		private final IOException exception;
+
+		SimpleLoader(IOException exception) {
+			this.exception = exception;
+		}
+
+		@Override
+		public void load() throws IOException {
+			throw this.exception;
+		}
+	}
+
+
+	interface Hidden {
+
+		String getValue();
+	}
+
+
+	public interface Value extends Serializable {
+
+		String getValue();
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class SerializableValue implements Value {
+
+		@Override
+		public String getValue() {
+			return "value";
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.aop.framework;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,10 +30,13 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.aop.Advisor;
+import org.springframework.aop.TargetSource;
 import org.springframework.aop.interceptor.DebugInterceptor;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.aop.support.DefaultIntroductionAdvisor;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.DynamicMethodMatcherPointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
 import org.springframework.aop.testfixture.advice.CountingBeforeAdvice;
 import org.springframework.aop.testfixture.interceptor.NopInterceptor;
 import org.springframework.aop.testfixture.interceptor.TimestampIntroductionInterceptor;
@@ -380,6 +384,72 @@ public class ProxyFactoryTests {
 		assertThat(proxy.getName()).isEqualTo("tb");
 	}
 
+	@Test
+	public void testFrozenInterfaceProxyWithBoundInterceptorChains() {
+		TestBean target = new TestBean("tb");
+		ProxyFactory pf = new ProxyFactory(target);
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvice(nop);
+		NopInterceptor dynamicNop = new NopInterceptor();
+		pf.addAdvisor(new DefaultPointcutAdvisor(new DynamicMethodMatcherPointcut() {
+			@Override
+			public boolean matches(Method method, Class<?> targetClass, Object... args) {
+				return (args.length == 1 && "dynamic".equals(args[0]));
+			}
+		}, dynamicNop));
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		assertThat(proxy.getName()).isEqualTo("tb");
+		proxy.setName("static");
+		proxy.setName("dynamic");
+		assertThat(nop.getCount()).isEqualTo(3);
+		assertThat(dynamicNop.getCount()).isEqualTo(1);
+		assertThat(((Advised) proxy).getAdvisors()).hasSize(2);
+	}
+
+	@Test
+	public void testFrozenInterfaceProxyWithLazyTargetSource() {
+		ProxyFactory pf = new ProxyFactory();
+		pf.addInterface(Runnable.class);
+		pf.setTargetSource(new TargetSource() {
+			@Override
+			public Class<?> getTargetClass() {
+				return null;
+			}
+			@Override
+			public boolean isStatic() {
+				return false;
+			}
+			@Override
+			public Object getTarget() {
+				return new A();
+			}
+			@Override
+			public void releaseTarget(Object target) {
+			}
+		});
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvisor(new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Order.class), nop));
+		pf.setFrozen(true);
+		Runnable proxy = (Runnable) pf.getProxy();
+
+		proxy.run();
+		proxy.run();
+		assertThat(nop.getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testInterceptorChainIsUnmodifiable() throws Exception {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvice(new NopInterceptor());
+		List<Object> chain = pf.getInterceptorsAndDynamicInterceptionAdvice(
+				ITestBean.class.getMethod("getName"), TestBean.class);
+		assertThat(chain).hasSize(1);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() ->
+				chain.add(new NopInterceptor()));
+	}
+
 
 	@Order(2)
 	public static class A implements Runnable {
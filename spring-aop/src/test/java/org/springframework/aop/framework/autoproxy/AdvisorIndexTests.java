@@ -0,0 +1,166 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultIntroductionAdvisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
+import org.springframework.aop.testfixture.interceptor.TimestampIntroductionInterceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AdvisorIndex}.
+ */
+class AdvisorIndexTests {
+
+	@Test
+	void findsSameAdvisorsAsAopUtils() {
+		NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
+		pointcut.addMethodName("run");
+		List<Advisor> advisors = Arrays.asList(
+				new DefaultPointcutAdvisor(pointcut, new NopInterceptor()),
+				new DefaultIntroductionAdvisor(new TimestampIntroductionInterceptor()),
+				new DefaultPointcutAdvisor(new NopInterceptor()),
+				new DefaultPointcutAdvisor(new NameMatchMethodPointcut(), new NopInterceptor()));
+		AdvisorIndex index = new AdvisorIndex(advisors);
+
+		for (Class<?> clazz : new Class<?>[] {Task.class, Other.class, Object.class}) {
+			List<Advisor> expected = AopUtils.findAdvisorsThatCanApply(advisors, clazz);
+			assertThat(index.findAdvisorsThatCanApply(clazz)).isEqualTo(expected);
+			assertThat(index.findAdvisorsThatCanApply(clazz)).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void matchesEqualPointcutsOnce() {
+		CountingPointcut pointcut = new CountingPointcut("run");
+		Advisor advisor1 = new DefaultPointcutAdvisor(pointcut, new NopInterceptor());
+		Advisor advisor2 = new DefaultPointcutAdvisor(new CountingPointcut("run"), new NopInterceptor());
+		AdvisorIndex index = new AdvisorIndex(Arrays.asList(advisor1, advisor2));
+
+		assertThat(index.findAdvisorsThatCanApply(Task.class)).containsExactly(advisor1, advisor2);
+		assertThat(pointcut.count).isEqualTo(1);
+	}
+
+	@Test
+	void cachesMatchesPerClass() {
+		CountingPointcut pointcut = new CountingPointcut("run");
+		Advisor advisor = new DefaultPointcutAdvisor(pointcut, new NopInterceptor());
+		AdvisorIndex index = new AdvisorIndex(Arrays.asList(advisor));
+
+		assertThat(index.findAdvisorsThatCanApply(Task.class)).containsExactly(advisor);
+		assertThat(index.findAdvisorsThatCanApply(Other.class)).isEmpty();
+		int count = pointcut.count;
+		assertThat(index.findAdvisorsThatCanApply(Task.class)).containsExactly(advisor);
+		assertThat(index.findAdvisorsThatCanApply(Other.class)).isEmpty();
+		assertThat(pointcut.count).isEqualTo(count);
+	}
+
+	@Test
+	void matchesBeanNameDependentAdvisorPerBean() {
+		Advisor advisor = new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+			@Override
+			public boolean matches(Method method, Class<?> targetClass) {
+				return "task".equals(ProxyCreationContext.getCurrentProxiedBeanName());
+			}
+		}, new NopInterceptor());
+		AdvisorIndex index = new AdvisorIndex(Arrays.asList(advisor));
+
+		assertThat(findAdvisorsThatCanApply(index, Task.class, "task")).containsExactly(advisor);
+		assertThat(findAdvisorsThatCanApply(index, Task.class, "other")).isEmpty();
+		assertThat(findAdvisorsThatCanApply(index, Task.class, "task")).containsExactly(advisor);
+	}
+
+	@Test
+	void isIndexForSameAdvisorInstances() {
+		List<Advisor> advisors = new ArrayList<>();
+		advisors.add(new DefaultPointcutAdvisor(new NopInterceptor()));
+		AdvisorIndex index = new AdvisorIndex(advisors);
+
+		assertThat(index.isIndexFor(new ArrayList<>(advisors))).isTrue();
+		advisors.add(new DefaultPointcutAdvisor(new NopInterceptor()));
+		assertThat(index.isIndexFor(advisors)).isFalse();
+		assertThat(index.isIndexFor(Arrays.asList(new DefaultPointcutAdvisor(new NopInterceptor())))).isFalse();
+	}
+
+
+	private static List<Advisor> findAdvisorsThatCanApply(AdvisorIndex index, Class<?> clazz, String beanName) {
+		ProxyCreationContext.setCurrentProxiedBeanName(beanName);
+		try {
+			return index.findAdvisorsThatCanApply(clazz);
+		}
+		finally {
+			ProxyCreationContext.setCurrentProxiedBeanName(null);
+		}
+	}
+
+
+	static class CountingPointcut extends StaticMethodMatcherPointcut {
+
+		private final String methodName;
+
+		int count;
+
+		CountingPointcut(String methodName) {
+			this.methodName = methodName;
+		}
+
+		@Override
+		public boolean matches(Method method, Class<?> targetClass) {
+			this.count++;
+			return method.getName().equals(this.methodName);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (other instanceof CountingPointcut && this.methodName.equals(((CountingPointcut) other).methodName));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.methodName.hashCode();
+		}
+	}
+
+
+	static class Task implements Runnable {
+
+		@Override
+		public void run() {
+		}
+	}
+
+
+	static class Other {
+
+		public void execute() {
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,9 @@ public class AbstractPropertyAccessorBenchmark {
 		@Param({"none", "stringTrimmer", "numberOnPath", "numberOnNestedPath", "numberOnType"})
 		public String customEditor;
 
+		@Param({"reflective", "compiled"})
+		public String propertyAccess;
+
 		public int[] input;
 
 		public PrimitiveArrayBean target;
@@ -53,6 +56,7 @@ public class AbstractPropertyAccessorBenchmark {
 		@Setup
 		public void setup() {
 			this.target = new PrimitiveArrayBean();
+			this.target.setNested(new PrimitiveArrayBean());
 			this.input = new int[1024];
 			if (this.accessor.equals("DirectFieldAccessor")) {
 				this.propertyAccessor = new DirectFieldAccessor(this.target);
@@ -60,6 +64,8 @@ public class AbstractPropertyAccessorBenchmark {
 			else {
 				this.propertyAccessor = new BeanWrapperImpl(this.target);
 			}
+			((AbstractNestablePropertyAccessor) this.propertyAccessor).setCompiledPropertyAccess(
+					this.propertyAccess.equals("compiled"));
 			switch (this.customEditor) {
 				case "stringTrimmer":
 					this.propertyAccessor.registerCustomEditor(String.class, new StringTrimmerEditor(false));
@@ -85,11 +91,24 @@ public class AbstractPropertyAccessorBenchmark {
 		return state.target;
 	}
 
+	@Benchmark
+	public PrimitiveArrayBean setNestedPropertyValue(BenchmarkState state) {
+		state.propertyAccessor.setPropertyValue("nested.array", state.input);
+		return state.target;
+	}
+
+	@Benchmark
+	public Object getNestedPropertyValue(BenchmarkState state) {
+		return state.propertyAccessor.getPropertyValue("nested.array");
+	}
+
 	@SuppressWarnings("unused")
-	private static class PrimitiveArrayBean {
+	public static class PrimitiveArrayBean {
 
 		private int[] array;
 
+		private PrimitiveArrayBean nested;
+
 		public int[] getArray() {
 			return this.array;
 		}
@@ -97,5 +116,13 @@ public class AbstractPropertyAccessorBenchmark {
 		public void setArray(int[] array) {
 			this.array = array;
 		}
+
+		public PrimitiveArrayBean getNested() {
+			return this.nested;
+		}
+
+		public void setNested(PrimitiveArrayBean nested) {
+			this.nested = nested;
+		}
 	}
 }
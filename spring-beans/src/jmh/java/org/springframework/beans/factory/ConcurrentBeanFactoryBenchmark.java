@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,16 +18,22 @@ package org.springframework.beans.factory;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.infra.Blackhole;
 
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.beans.propertyeditors.CustomDateEditor;
 
@@ -37,6 +43,8 @@ import static org.springframework.core.testfixture.io.ResourceTestUtils.qualifie
  * Benchmark for creating prototype beans in a concurrent fashion.
  * This benchmark requires to customize the number of worker threads {@code -t <int>} on the
  * CLI when running this particular benchmark to leverage concurrency.
+ * The singleton pre-instantiation benchmarks build large bean graphs instead and measure
+ * sequential against parallel pre-instantiation within a single benchmark thread.
  *
  * @author Brian Clozel
  */
@@ -67,6 +75,62 @@ public class ConcurrentBeanFactoryBenchmark {
 		bh.consume(state.factory.getBean("bean2"));
 	}
 
+	@State(Scope.Benchmark)
+	public static class PreInstantiationState {
+
+		@Param({"1", "4", "8"})
+		public int parallelism;
+
+		@Param({"independent", "chains", "fanIn", "circular"})
+		public String graph;
+
+		@Param({"0", "1000"})
+		public int initCost;
+
+		public DefaultListableBeanFactory factory;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			this.factory = new DefaultListableBeanFactory();
+			this.factory.setPreInstantiationParallelism(this.parallelism);
+			for (int i = 0; i < 3000; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(ExpensiveBean.class);
+				bd.getConstructorArgumentValues().addGenericArgumentValue(this.initCost);
+				switch (this.graph) {
+					case "independent":
+						break;
+					case "chains":
+						// 30 independent chains of 100 beans each
+						if (i % 100 != 0) {
+							bd.getPropertyValues().add("dependency", new RuntimeBeanReference("bean" + (i - 1)));
+						}
+						break;
+					case "fanIn":
+						// every bean depends on one of 10 shared beans declared last
+						if (i < 2990) {
+							bd.getPropertyValues().add("dependency", new RuntimeBeanReference("bean" + (2990 + i % 10)));
+						}
+						break;
+					case "circular":
+						// rings of 10 beans referencing each other through properties
+						int next = (i % 10 == 9 ? i - 9 : i + 1);
+						bd.getPropertyValues().add("dependency", new RuntimeBeanReference("bean" + next));
+						break;
+				}
+				this.factory.registerBeanDefinition("bean" + i, bd);
+			}
+			this.factory.freezeConfiguration();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public DefaultListableBeanFactory singletonPreInstantiation(PreInstantiationState state) {
+		state.factory.preInstantiateSingletons();
+		return state.factory;
+	}
+
 
 	public static class ConcurrentBean {
 
@@ -80,4 +144,22 @@ public class ConcurrentBeanFactoryBenchmark {
 			this.date = date;
 		}
 	}
+
+
+	public static class ExpensiveBean {
+
+		private ExpensiveBean dependency;
+
+		public ExpensiveBean(int initCost) {
+			Blackhole.consumeCPU(initCost);
+		}
+
+		public ExpensiveBean getDependency() {
+			return this.dependency;
+		}
+
+		public void setDependency(ExpensiveBean dependency) {
+			this.dependency = dependency;
+		}
+	}
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.BytecodeInstantiationStrategy;
+import org.springframework.beans.factory.support.CglibSubclassingInstantiationStrategy;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+/**
+ * Benchmark comparing reflective and generated bytecode instantiation
+ * of prototype beans, complementing {@link DefaultListableBeanFactoryBenchmark}.
+ *
+ * @see BytecodeInstantiationStrategy
+ */
+@BenchmarkMode(Mode.Throughput)
+public class InstantiationStrategyBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class PrototypeCreationState {
+
+		@Param({"reflective", "bytecode"})
+		public String strategy;
+
+		@Param({"defaultConstructor", "constructor", "constructorArgument", "staticFactoryMethod", "instanceFactoryMethod"})
+		public String mode;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			if ("bytecode".equals(this.strategy)) {
+				this.beanFactory.setInstantiationStrategy(new BytecodeInstantiationStrategy());
+			}
+			else {
+				this.beanFactory.setInstantiationStrategy(new CglibSubclassingInstantiationStrategy());
+			}
+			RootBeanDefinition rbd = new RootBeanDefinition(TestBean.class);
+
+			switch (this.mode) {
+				case "defaultConstructor":
+					break;
+				case "constructor":
+					rbd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+					rbd.getConstructorArgumentValues().addIndexedArgumentValue(1, 99);
+					break;
+				case "constructorArgument":
+					rbd.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("spouse"));
+					this.beanFactory.registerBeanDefinition("spouse", new RootBeanDefinition(TestBean.class));
+					break;
+				case "staticFactoryMethod":
+					rbd = new RootBeanDefinition(TestBeanFactory.class);
+					rbd.setFactoryMethodName("createTestBean");
+					rbd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+					break;
+				case "instanceFactoryMethod":
+					rbd = new RootBeanDefinition();
+					rbd.setFactoryBeanName("factory");
+					rbd.setFactoryMethodName("createInstance");
+					rbd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+					this.beanFactory.registerBeanDefinition("factory", new RootBeanDefinition(TestBeanFactory.class));
+					break;
+			}
+			rbd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			this.beanFactory.registerBeanDefinition("test", rbd);
+			this.beanFactory.freezeConfiguration();
+		}
+	}
+
+	@Benchmark
+	public Object prototypeCreation(PrototypeCreationState state) {
+		return state.beanFactory.getBean("test");
+	}
+
+
+	public static class TestBeanFactory {
+
+		public static TestBean createTestBean(String name) {
+			return new TestBean(name);
+		}
+
+		public TestBean createInstance(String name) {
+			return new TestBean(name);
+		}
+	}
+
+}
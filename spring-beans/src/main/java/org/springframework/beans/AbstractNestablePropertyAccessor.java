@@ -37,11 +37,13 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.CollectionFactory;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.ConversionException;
 import org.springframework.core.convert.ConverterNotFoundException;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
@@ -71,13 +73,35 @@ import org.springframework.util.StringUtils;
  */
 public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyAccessor {
 
+	/**
+	 * System property that instructs Spring to use compiled property access
+	 * by default: {@code "spring.beans.compiledPropertyAccess"}.
+	 * <p>The default is "false", using reflection for property access unless
+	 * {@link #setCompiledPropertyAccess compiled property access} has been
+	 * enabled for a specific accessor. Consider switching this flag to "true"
+	 * for applications binding large numbers of property values, e.g. through
+	 * {@link org.springframework.validation.DataBinder} in web endpoints.
+	 * @since 5.3.14
+	 * @see #setCompiledPropertyAccess
+	 */
+	public static final String COMPILED_PROPERTY_ACCESS_PROPERTY_NAME = "spring.beans.compiledPropertyAccess";
+
+	private static final boolean compiledPropertyAccessByDefault =
+			SpringProperties.getFlag(COMPILED_PROPERTY_ACCESS_PROPERTY_NAME);
+
 	/**
 	 * We'll create a lot of these objects, so we don't want a new logger every time.
 	 */
 	private static final Log logger = LogFactory.getLog(AbstractNestablePropertyAccessor.class);
 
+	/** Cache of parsed property paths for compiled property access, bounded since paths may be user-supplied. */
+	private static final ConcurrentLruCache<String, ParsedPropertyPath> parsedPropertyPathCache =
+			new ConcurrentLruCache<>(256, ParsedPropertyPath::new);
+
 	private int autoGrowCollectionLimit = Integer.MAX_VALUE;
 
+	private boolean compiledPropertyAccess = compiledPropertyAccessByDefault;
+
 	@Nullable
 	Object wrappedObject;
 
@@ -155,6 +179,7 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 		setExtractOldValueForEditor(parent.isExtractOldValueForEditor());
 		setAutoGrowNestedPaths(parent.isAutoGrowNestedPaths());
 		setAutoGrowCollectionLimit(parent.getAutoGrowCollectionLimit());
+		setCompiledPropertyAccess(parent.isCompiledPropertyAccess());
 		setConversionService(parent.getConversionService());
 	}
 
@@ -174,6 +199,30 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 		return this.autoGrowCollectionLimit;
 	}
 
+	/**
+	 * Set whether to use compiled property access: caching parsed property
+	 * paths across accessor instances and reading and writing properties
+	 * through generated bytecode instead of reflection where possible.
+	 * <p>Only public getters, setters and fields of public classes with
+	 * public property types are compiled; other properties, as well as
+	 * values which require further conversion, keep using reflection.
+	 * Nested accessors inherit this setting.
+	 * <p>Default is "false", unless the
+	 * {@link #COMPILED_PROPERTY_ACCESS_PROPERTY_NAME} system property is set.
+	 * @since 5.3.14
+	 */
+	public void setCompiledPropertyAccess(boolean compiledPropertyAccess) {
+		this.compiledPropertyAccess = compiledPropertyAccess;
+	}
+
+	/**
+	 * Return whether to use compiled property access.
+	 * @since 5.3.14
+	 */
+	public boolean isCompiledPropertyAccess() {
+		return this.compiledPropertyAccess;
+	}
+
 	/**
 	 * Switch the target object, replacing the cached introspection results only
 	 * if the class of the new object is different to that of the replaced object.
@@ -803,6 +852,9 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 		if (pa == this) {
 			return nestedPath;
 		}
+		if (this.compiledPropertyAccess) {
+			return getParsedPropertyPath(nestedPath).finalPath;
+		}
 		return nestedPath.substring(PropertyAccessorUtils.getLastNestedPropertySeparatorIndex(nestedPath) + 1);
 	}
 
@@ -812,6 +864,14 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	 * @return a property accessor for the target bean
 	 */
 	protected AbstractNestablePropertyAccessor getPropertyAccessorForPropertyPath(String propertyPath) {
+		if (this.compiledPropertyAccess) {
+			ParsedPropertyPath parsedPath = getParsedPropertyPath(propertyPath);
+			if (parsedPath.nestedProperty != null && parsedPath.remainingPath != null) {
+				AbstractNestablePropertyAccessor nestedPa = getNestedPropertyAccessor(parsedPath.nestedProperty);
+				return nestedPa.getPropertyAccessorForPropertyPath(parsedPath.remainingPath);
+			}
+			return this;
+		}
 		int pos = PropertyAccessorUtils.getFirstNestedPropertySeparatorIndex(propertyPath);
 		// Handle nested properties recursively.
 		if (pos > -1) {
@@ -930,6 +990,17 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	 * @return representation of the parsed property tokens
 	 */
 	private PropertyTokenHolder getPropertyNameTokens(String propertyName) {
+		if (this.compiledPropertyAccess) {
+			ParsedPropertyPath parsedPath = getParsedPropertyPath(propertyName);
+			PropertyTokenHolder tokens = new PropertyTokenHolder(parsedPath.actualName);
+			tokens.canonicalName = parsedPath.canonicalName;
+			tokens.keys = (parsedPath.keys != null ? parsedPath.keys.clone() : null);
+			return tokens;
+		}
+		return parsePropertyNameTokens(propertyName);
+	}
+
+	private static PropertyTokenHolder parsePropertyNameTokens(String propertyName) {
 		String actualName = null;
 		List<String> keys = new ArrayList<>(2);
 		int searchIndex = 0;
@@ -962,7 +1033,7 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 		return tokens;
 	}
 
-	private int getPropertyNameKeyEnd(String propertyName, int startIndex) {
+	private static int getPropertyNameKeyEnd(String propertyName, int startIndex) {
 		int unclosedPrefixes = 0;
 		int length = propertyName.length();
 		for (int i = startIndex; i < length; i++) {
@@ -989,6 +1060,17 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	}
 
 
+	/**
+	 * Return the parsed representation of the given property path,
+	 * cached across accessor instances for compiled property access.
+	 * @param propertyPath the property path to parse
+	 * @return the parsed property path
+	 */
+	private static ParsedPropertyPath getParsedPropertyPath(String propertyPath) {
+		return parsedPropertyPathCache.get(propertyPath);
+	}
+
+
 	@Override
 	public String toString() {
 		String className = getClass().getName();
@@ -1057,6 +1139,41 @@ public abstract class AbstractNestablePropertyAccessor extends AbstractPropertyA
 	}
 
 
+	/**
+	 * Immutable representation of a parsed property path: its first nested
+	 * property, its last component and its property name tokens.
+	 */
+	private static final class ParsedPropertyPath {
+
+		@Nullable
+		final String nestedProperty;
+
+		@Nullable
+		final String remainingPath;
+
+		final String finalPath;
+
+		final String actualName;
+
+		final String canonicalName;
+
+		@Nullable
+		final String[] keys;
+
+		ParsedPropertyPath(String propertyPath) {
+			int pos = PropertyAccessorUtils.getFirstNestedPropertySeparatorIndex(propertyPath);
+			this.nestedProperty = (pos > -1 ? propertyPath.substring(0, pos) : null);
+			this.remainingPath = (pos > -1 ? propertyPath.substring(pos + 1) : null);
+			this.finalPath = propertyPath.substring(
+					PropertyAccessorUtils.getLastNestedPropertySeparatorIndex(propertyPath) + 1);
+			PropertyTokenHolder tokens = parsePropertyNameTokens(propertyPath);
+			this.actualName = tokens.actualName;
+			this.canonicalName = tokens.canonicalName;
+			this.keys = tokens.keys;
+		}
+	}
+
+
 	/**
 	 * Holder class used to store property tokens.
 	 */
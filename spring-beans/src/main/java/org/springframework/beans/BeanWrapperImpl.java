@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.beans;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessControlContext;
 import java.security.AccessController;
@@ -24,6 +25,7 @@ import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 
+import org.springframework.beans.PropertyAccessorCompiler.CompiledAccessor;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.convert.Property;
 import org.springframework.core.convert.TypeDescriptor;
@@ -277,7 +279,12 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		@Override
 		public TypeDescriptor toTypeDescriptor() {
-			return new TypeDescriptor(property(this.pd));
+			CachedIntrospectionResults cachedIntrospectionResults = getCachedIntrospectionResults();
+			TypeDescriptor td = cachedIntrospectionResults.getTypeDescriptor(this.pd);
+			if (td == null) {
+				td = cachedIntrospectionResults.addTypeDescriptor(this.pd, new TypeDescriptor(property(this.pd)));
+			}
+			return td;
 		}
 
 		@Override
@@ -304,6 +311,16 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				CompiledAccessor accessor = (isCompiledPropertyAccess() ?
+						PropertyAccessorCompiler.getAccessor(readMethod) : null);
+				if (accessor != null) {
+					try {
+						return accessor.get(getWrappedInstance());
+					}
+					catch (Throwable ex) {
+						throw new InvocationTargetException(ex);
+					}
+				}
 				ReflectionUtils.makeAccessible(readMethod);
 				return readMethod.invoke(getWrappedInstance(), (Object[]) null);
 			}
@@ -328,6 +345,18 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 				}
 			}
 			else {
+				CompiledAccessor accessor = (isCompiledPropertyAccess() ?
+						PropertyAccessorCompiler.getAccessor(writeMethod) : null);
+				// Values not assignable as-is go through reflection for consistent exceptions
+				if (accessor != null && accessor.isAssignableValue(value)) {
+					try {
+						accessor.set(getWrappedInstance(), value);
+					}
+					catch (Throwable ex) {
+						throw new InvocationTargetException(ex);
+					}
+					return;
+				}
 				ReflectionUtils.makeAccessible(writeMethod);
 				writeMethod.invoke(getWrappedInstance(), value);
 			}
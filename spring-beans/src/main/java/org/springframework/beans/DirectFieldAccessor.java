@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,11 @@
 package org.springframework.beans;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.PropertyAccessorCompiler.CompiledAccessor;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
@@ -125,6 +127,15 @@ public class DirectFieldAccessor extends AbstractNestablePropertyAccessor {
 		@Override
 		@Nullable
 		public Object getValue() throws Exception {
+			CompiledAccessor accessor = getCompiledAccessor();
+			if (accessor != null) {
+				try {
+					return accessor.get(getWrappedInstance());
+				}
+				catch (Throwable ex) {
+					throw new InvocationTargetException(ex);
+				}
+			}
 			try {
 				ReflectionUtils.makeAccessible(this.field);
 				return this.field.get(getWrappedInstance());
@@ -138,6 +149,17 @@ public class DirectFieldAccessor extends AbstractNestablePropertyAccessor {
 
 		@Override
 		public void setValue(@Nullable Object value) throws Exception {
+			CompiledAccessor accessor = getCompiledAccessor();
+			// Values not assignable as-is go through reflection for consistent exceptions
+			if (accessor != null && accessor.isAssignableValue(value)) {
+				try {
+					accessor.set(getWrappedInstance(), value);
+				}
+				catch (Throwable ex) {
+					throw new InvocationTargetException(ex);
+				}
+				return;
+			}
 			try {
 				ReflectionUtils.makeAccessible(this.field);
 				this.field.set(getWrappedInstance(), value);
@@ -147,6 +169,12 @@ public class DirectFieldAccessor extends AbstractNestablePropertyAccessor {
 						"Field is not accessible", ex);
 			}
 		}
+
+		@Nullable
+		private CompiledAccessor getCompiledAccessor() {
+			return (isCompiledPropertyAccess() && System.getSecurityManager() == null ?
+					PropertyAccessorCompiler.getAccessor(this.field) : null);
+		}
 	}
 
 }
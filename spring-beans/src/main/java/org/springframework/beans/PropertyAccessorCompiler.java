@@ -0,0 +1,392 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates {@link CompiledAccessor} classes that read and write bean properties
+ * through plain bytecode instead of reflection: invoking getter and setter
+ * methods or accessing fields directly.
+ *
+ * <p>Generated classes are defined in a child class loader of a class loader
+ * that can see all types involved, analogous to compiled SpEL expressions.
+ * Each member gets compiled once while its accessor is cached, and the child
+ * class loader is replaced after a number of definitions so that classes of
+ * evicted accessors can be garbage collected.
+ * Only public getters, setters and non-final fields of public classes with
+ * public property types qualify; anything else keeps using reflection.
+ *
+ * @since 5.3.14
+ * @see AbstractNestablePropertyAccessor#setCompiledPropertyAccess
+ */
+final class PropertyAccessorCompiler implements Opcodes {
+
+	private static final int CLASSES_DEFINED_LIMIT = 100;
+
+	private static final Log logger = LogFactory.getLog(PropertyAccessorCompiler.class);
+
+	private static final String ACCESSOR_TYPE = Type.getInternalName(CompiledAccessor.class);
+
+	private static final String GET_DESCRIPTOR = "(Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final String SET_DESCRIPTOR = "(Ljava/lang/Object;Ljava/lang/Object;)V";
+
+	// Compiled accessors per getter, setter or field, or a marker if not compilable
+	private static final Map<Member, CompiledAccessor> accessorCache = new ConcurrentReferenceHashMap<>(256);
+
+	// A compiler is created for each class loader, managing a child class loader of it
+	private static final Map<ClassLoader, PropertyAccessorCompiler> compilers = new ConcurrentReferenceHashMap<>();
+
+	private static final CompiledAccessor NOT_COMPILABLE = new CompiledAccessor() {
+		@Override
+		public Object get(Object target) {
+			throw new UnsupportedOperationException("Property not compilable");
+		}
+		@Override
+		public void set(Object target, @Nullable Object value) {
+			throw new UnsupportedOperationException("Property not compilable");
+		}
+	};
+
+
+	// The child ClassLoader used to load the generated accessor classes
+	private volatile ChildClassLoader childClassLoader;
+
+	private final AtomicInteger suffixId = new AtomicInteger();
+
+
+	private PropertyAccessorCompiler(ClassLoader classLoader) {
+		this.childClassLoader = new ChildClassLoader(classLoader);
+	}
+
+
+	/**
+	 * Return a compiled accessor for the given getter method, setter method
+	 * or field, compiling it on first access.
+	 * @param member the getter (no parameters), setter (one parameter) or field
+	 * @return the compiled accessor, or {@code null} if the member does not
+	 * qualify for compilation
+	 */
+	@Nullable
+	static CompiledAccessor getAccessor(Member member) {
+		// Quick check for existing accessor without lock contention
+		CompiledAccessor accessor = accessorCache.get(member);
+		if (accessor == null) {
+			// Full lock now so that each member only gets compiled once
+			synchronized (accessorCache) {
+				accessor = accessorCache.computeIfAbsent(member, PropertyAccessorCompiler::compile);
+			}
+		}
+		return (accessor != NOT_COMPILABLE ? accessor : null);
+	}
+
+	private static CompiledAccessor compile(Member member) {
+		Class<?> valueType = getValueType(member);
+		ClassLoader classLoader = (valueType != null ? determineClassLoader(member, valueType) : null);
+		if (classLoader == null) {
+			return NOT_COMPILABLE;
+		}
+		try {
+			PropertyAccessorCompiler compiler = compilers.get(classLoader);
+			if (compiler == null) {
+				// Full lock now since we're creating a child ClassLoader
+				synchronized (compilers) {
+					compiler = compilers.computeIfAbsent(classLoader, PropertyAccessorCompiler::new);
+				}
+			}
+			Class<?> accessorClass = compiler.createAccessorClass(member, valueType);
+			CompiledAccessor accessor = (CompiledAccessor) ReflectionUtils.accessibleConstructor(accessorClass).newInstance();
+			accessor.valueType = valueType;
+			return accessor;
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to compile property accessor for " + member + " - falling back to reflection", ex);
+			}
+			return NOT_COMPILABLE;
+		}
+	}
+
+	/**
+	 * Determine the type of the value read or written through the given member,
+	 * or {@code null} if the member does not qualify for compilation.
+	 */
+	@Nullable
+	private static Class<?> getValueType(Member member) {
+		int modifiers = member.getModifiers();
+		if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) ||
+				!isPublic(member.getDeclaringClass()) || member.getDeclaringClass().isInterface()) {
+			return null;
+		}
+		Class<?> valueType;
+		if (member instanceof Field) {
+			if (Modifier.isFinal(modifiers)) {
+				return null;
+			}
+			valueType = ((Field) member).getType();
+		}
+		else if (member instanceof Method) {
+			Method method = (Method) member;
+			if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+				valueType = method.getReturnType();
+			}
+			else if (method.getParameterCount() == 1) {
+				valueType = method.getParameterTypes()[0];
+			}
+			else {
+				return null;
+			}
+		}
+		else {
+			return null;
+		}
+		return (isPublic(valueType) ? valueType : null);
+	}
+
+	private static boolean isPublic(Class<?> type) {
+		Class<?> typeToCheck = componentType(type);
+		// Nested classes are accessible from bytecode based on their own modifiers
+		return (typeToCheck.isPrimitive() || Modifier.isPublic(typeToCheck.getModifiers()));
+	}
+
+	@Nullable
+	private static ClassLoader determineClassLoader(Member member, Class<?> valueType) {
+		ClassLoader classLoader = member.getDeclaringClass().getClassLoader();
+		if (classLoader != null && canSeeAllTypes(classLoader, member, valueType)) {
+			return classLoader;
+		}
+		classLoader = CompiledAccessor.class.getClassLoader();
+		if (classLoader != null && canSeeAllTypes(classLoader, member, valueType)) {
+			return classLoader;
+		}
+		return null;
+	}
+
+	private static boolean canSeeAllTypes(ClassLoader classLoader, Member member, Class<?> valueType) {
+		Class<?> typeToCheck = componentType(valueType);
+		return (ClassUtils.isVisible(CompiledAccessor.class, classLoader) &&
+				ClassUtils.isVisible(member.getDeclaringClass(), classLoader) &&
+				(typeToCheck.isPrimitive() || ClassUtils.isVisible(typeToCheck, classLoader)));
+	}
+
+	private static Class<?> componentType(Class<?> type) {
+		Class<?> componentType = type;
+		while (componentType.isArray()) {
+			componentType = componentType.getComponentType();
+		}
+		return componentType;
+	}
+
+
+	private Class<?> createAccessorClass(Member member, Class<?> valueType) {
+		String className = "spring/beans/CompiledAccessor" + this.suffixId.incrementAndGet();
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, ACCESSOR_TYPE, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, ACCESSOR_TYPE, "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+
+		String owner = Type.getInternalName(member.getDeclaringClass());
+		String valueDescriptor = Type.getDescriptor(valueType);
+		boolean readable = (member instanceof Field || ((Method) member).getParameterCount() == 0);
+		boolean writable = (member instanceof Field || ((Method) member).getParameterCount() == 1);
+
+		if (readable) {
+			mv = cw.visitMethod(ACC_PUBLIC, "get", GET_DESCRIPTOR, null, new String[] {"java/lang/Throwable"});
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, owner);
+			if (member instanceof Field) {
+				mv.visitFieldInsn(GETFIELD, owner, member.getName(), valueDescriptor);
+			}
+			else {
+				mv.visitMethodInsn(INVOKEVIRTUAL, owner, member.getName(), "()" + valueDescriptor, false);
+			}
+			if (valueType.isPrimitive()) {
+				String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(valueType));
+				mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", "(" + valueDescriptor + ")L" + wrapper + ";", false);
+			}
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+			mv.visitEnd();
+		}
+		else {
+			visitUnsupportedOperation(cw, "get", GET_DESCRIPTOR, "Property not readable");
+		}
+
+		if (writable) {
+			mv = cw.visitMethod(ACC_PUBLIC, "set", SET_DESCRIPTOR, null, new String[] {"java/lang/Throwable"});
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, owner);
+			mv.visitVarInsn(ALOAD, 2);
+			if (valueType.isPrimitive()) {
+				String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(valueType));
+				mv.visitTypeInsn(CHECKCAST, wrapper);
+				mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, valueType.getName() + "Value", "()" + valueDescriptor, false);
+			}
+			else if (valueType != Object.class) {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(valueType));
+			}
+			if (member instanceof Field) {
+				mv.visitFieldInsn(PUTFIELD, owner, member.getName(), valueDescriptor);
+			}
+			else {
+				Method method = (Method) member;
+				mv.visitMethodInsn(INVOKEVIRTUAL, owner, method.getName(), Type.getMethodDescriptor(method), false);
+				if (method.getReturnType() != void.class) {
+					// Discard the return value of a fluent setter
+					mv.visitInsn(Type.getType(method.getReturnType()).getSize() == 2 ? POP2 : POP);
+				}
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+			mv.visitEnd();
+		}
+		else {
+			visitUnsupportedOperation(cw, "set", SET_DESCRIPTOR, "Property not writable");
+		}
+
+		cw.visitEnd();
+		return loadClass(className.replace('/', '.'), cw.toByteArray());
+	}
+
+	/**
+	 * Load a generated accessor class, replacing the child class loader once it
+	 * has defined a number of classes: a class loader anchors all of its classes
+	 * in memory, whereas the classes of a replaced one can be garbage collected
+	 * along with their accessors.
+	 * @param name the name of the class
+	 * @param bytes the bytecode for the class
+	 * @return the generated accessor class
+	 */
+	private Class<?> loadClass(String name, byte[] bytes) {
+		ChildClassLoader ccl = this.childClassLoader;
+		if (ccl.getClassesDefinedCount() >= CLASSES_DEFINED_LIMIT) {
+			synchronized (this) {
+				ChildClassLoader currentCcl = this.childClassLoader;
+				if (ccl == currentCcl) {
+					// Still the same ClassLoader that needs to be replaced...
+					ccl = new ChildClassLoader(ccl.getParent());
+					this.childClassLoader = ccl;
+				}
+				else {
+					// Already replaced by some other thread, let's pick it up.
+					ccl = currentCcl;
+				}
+			}
+		}
+		return ccl.defineClass(name, bytes);
+	}
+
+	private static void visitUnsupportedOperation(ClassWriter cw, String name, String descriptor, String message) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, descriptor, null, null);
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, "java/lang/UnsupportedOperationException");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn(message);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/UnsupportedOperationException", "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+	}
+
+
+	/**
+	 * Base class for compiled accessors, reading and/or writing a specific
+	 * property of a target object.
+	 */
+	public abstract static class CompiledAccessor {
+
+		@Nullable
+		private Class<?> valueType;
+
+		/**
+		 * Read the property value from the given target object.
+		 * @throws Throwable any exception thrown by the invoked getter, as-is
+		 * @throws UnsupportedOperationException if the property is not readable
+		 */
+		@Nullable
+		public abstract Object get(Object target) throws Throwable;
+
+		/**
+		 * Write the given value to the given target object.
+		 * @throws Throwable any exception thrown by the invoked setter, as-is
+		 * @throws UnsupportedOperationException if the property is not writable
+		 */
+		public abstract void set(Object target, @Nullable Object value) throws Throwable;
+
+		/**
+		 * Determine whether the given value can be written without further
+		 * conversion, as required by {@link #set}.
+		 */
+		public final boolean isAssignableValue(@Nullable Object value) {
+			return (this.valueType != null && ClassUtils.isAssignableValue(this.valueType, value));
+		}
+	}
+
+
+	/**
+	 * A ChildClassLoader will load the generated accessor classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		private final AtomicInteger classesDefinedCount = new AtomicInteger();
+
+		public ChildClassLoader(ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			Class<?> clazz = super.defineClass(name, bytes, 0, bytes.length);
+			this.classesDefinedCount.incrementAndGet();
+			return clazz;
+		}
+
+		public int getClassesDefinedCount() {
+			return this.classesDefinedCount.get();
+		}
+	}
+
+}
@@ -1054,7 +1054,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	@Nullable
 	private FactoryBean<?> getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-		synchronized (getSingletonMutex()) {
+		if (!tryLockSingletonCreation(beanName)) {
+			// Currently in creation by another thread -> no shortcut instance available.
+			return null;
+		}
+		try {
 			BeanWrapper bw = this.factoryBeanInstanceCache.get(beanName);
 			if (bw != null) {
 				return (FactoryBean<?>) bw.getWrappedInstance();
@@ -1107,6 +1111,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			}
 			return fb;
 		}
+		finally {
+			unlockSingletonCreation(beanName);
+		}
 	}
 
 	/**
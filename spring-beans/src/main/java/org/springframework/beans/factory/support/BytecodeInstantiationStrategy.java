@@ -0,0 +1,216 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.core.KotlinDetector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Instantiation strategy that invokes frequently used constructors and factory
+ * methods through generated bytecode instead of reflection, for example for
+ * prototype-scoped or request-scoped beans.
+ *
+ * <p>Each constructor and factory method starts out on the regular reflective
+ * path. Once it has been invoked {@link #setGenerationThreshold generation threshold}
+ * times, a dedicated invoker class is generated with ASM and used from then on,
+ * turning subsequent bean creations into direct calls. One-off instantiations
+ * such as singleton creation therefore do not pay for class generation.
+ *
+ * <p>Only public constructors and methods of public classes are eligible;
+ * anything else, including Kotlin classes and invocations with {@code null}
+ * values for primitive parameters, keeps using the reflective path of the
+ * superclass. Method injection is supported through CGLIB as usual.
+ *
+ * <p>Opt in through
+ * {@link AbstractAutowireCapableBeanFactory#setInstantiationStrategy}.
+ *
+ * @since 5.3.14
+ * @see SimpleInstantiationStrategy#instantiateClass
+ * @see SimpleInstantiationStrategy#invokeFactoryMethod
+ */
+public class BytecodeInstantiationStrategy extends CglibSubclassingInstantiationStrategy {
+
+	/**
+	 * Default number of reflective invocations of a constructor or factory method
+	 * before an invoker class gets generated for it: {@value}.
+	 */
+	public static final int DEFAULT_GENERATION_THRESHOLD = 16;
+
+	private static final Log logger = LogFactory.getLog(BytecodeInstantiationStrategy.class);
+
+
+	private int generationThreshold = DEFAULT_GENERATION_THRESHOLD;
+
+	private final Map<Executable, GeneratedInvocation> invocations = new ConcurrentReferenceHashMap<>(256);
+
+
+	/**
+	 * Set the number of reflective invocations of a given constructor or factory
+	 * method before an invoker class gets generated for it.
+	 * <p>Default is {@value #DEFAULT_GENERATION_THRESHOLD}. Specify 0 for
+	 * generating invoker classes right away on first use.
+	 */
+	public void setGenerationThreshold(int generationThreshold) {
+		Assert.isTrue(generationThreshold >= 0, "Generation threshold must not be negative");
+		this.generationThreshold = generationThreshold;
+	}
+
+	/**
+	 * Return the number of reflective invocations before an invoker class gets generated.
+	 */
+	public int getGenerationThreshold() {
+		return this.generationThreshold;
+	}
+
+
+	@Override
+	protected Object instantiateClass(Constructor<?> ctor, Object... args) throws BeanInstantiationException {
+		InstantiatorGenerator.Instantiator instantiator = getInstantiator(ctor, args);
+		if (instantiator == null) {
+			return super.instantiateClass(ctor, args);
+		}
+		Object instance;
+		try {
+			instance = instantiator.invoke(null, args);
+		}
+		catch (Throwable ex) {
+			throw new BeanInstantiationException(ctor, "Constructor threw exception", ex);
+		}
+		Assert.state(instance != null, "Generated instantiator returned null");
+		return instance;
+	}
+
+	@Override
+	@Nullable
+	protected Object invokeFactoryMethod(@Nullable Object factoryBean, Method factoryMethod, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		InstantiatorGenerator.Instantiator instantiator = getInstantiator(factoryMethod, args);
+		if (instantiator == null) {
+			return super.invokeFactoryMethod(factoryBean, factoryMethod, args);
+		}
+		try {
+			return instantiator.invoke(factoryBean, args);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	/**
+	 * Return the generated instantiator for the given constructor or factory
+	 * method, generating it once the threshold has been reached.
+	 * @return the generated instantiator, or {@code null} if the reflective
+	 * path is to be used for the current invocation
+	 */
+	@Nullable
+	private InstantiatorGenerator.Instantiator getInstantiator(Executable executable, Object[] args) {
+		GeneratedInvocation invocation = this.invocations.get(executable);
+		if (invocation == null) {
+			invocation = this.invocations.computeIfAbsent(executable, GeneratedInvocation::new);
+		}
+		if (!invocation.isEligible(args)) {
+			return null;
+		}
+		InstantiatorGenerator.Instantiator instantiator = invocation.instantiator;
+		if (instantiator == null && invocation.invocationCount.getAndIncrement() >= this.generationThreshold) {
+			instantiator = invocation.generate();
+		}
+		return instantiator;
+	}
+
+
+	/**
+	 * Generation state for a specific constructor or factory method.
+	 */
+	private static class GeneratedInvocation {
+
+		private final Executable executable;
+
+		private final Class<?>[] parameterTypes;
+
+		private final boolean hasPrimitiveParameters;
+
+		private final AtomicInteger invocationCount = new AtomicInteger();
+
+		private volatile boolean generatable;
+
+		@Nullable
+		private volatile InstantiatorGenerator.Instantiator instantiator;
+
+		GeneratedInvocation(Executable executable) {
+			this.executable = executable;
+			this.parameterTypes = executable.getParameterTypes();
+			boolean hasPrimitiveParameters = false;
+			for (Class<?> parameterType : this.parameterTypes) {
+				hasPrimitiveParameters |= parameterType.isPrimitive();
+			}
+			this.hasPrimitiveParameters = hasPrimitiveParameters;
+			this.generatable = (InstantiatorGenerator.isGeneratable(executable) &&
+					!(KotlinDetector.isKotlinReflectPresent() &&
+							KotlinDetector.isKotlinType(executable.getDeclaringClass())));
+		}
+
+		boolean isEligible(Object[] args) {
+			if (!this.generatable || args.length != this.parameterTypes.length) {
+				return false;
+			}
+			if (this.hasPrimitiveParameters) {
+				// Leave default value handling and argument errors to the reflective path
+				for (int i = 0; i < args.length; i++) {
+					if (args[i] == null && this.parameterTypes[i].isPrimitive()) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		@Nullable
+		synchronized InstantiatorGenerator.Instantiator generate() {
+			InstantiatorGenerator.Instantiator instantiator = this.instantiator;
+			if (instantiator == null && this.generatable) {
+				try {
+					instantiator = InstantiatorGenerator.generate(this.executable);
+					this.instantiator = instantiator;
+				}
+				catch (Throwable ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to generate instantiator for " + this.executable +
+								" - falling back to reflection", ex);
+					}
+					this.generatable = false;
+				}
+			}
+			return instantiator;
+		}
+	}
+
+}
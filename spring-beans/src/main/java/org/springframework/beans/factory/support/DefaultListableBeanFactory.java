@@ -25,20 +25,30 @@ import java.lang.annotation.Annotation;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -46,6 +56,7 @@ import java.util.stream.Stream;
 import javax.inject.Provider;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -68,8 +79,10 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotation;
@@ -185,6 +198,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans. */
 	private volatile boolean configurationFrozen;
 
+	/** Number of threads to use for pre-instantiating singletons, 1 for sequential. */
+	private int preInstantiationParallelism = 1;
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -316,6 +332,41 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.autowireCandidateResolver;
 	}
 
+	/**
+	 * Set the number of threads to use for pre-instantiating non-lazy singletons
+	 * in {@link #preInstantiateSingletons()}.
+	 * <p>Default is 1, creating all singletons one after the other on the calling
+	 * thread, in registration order. A higher value creates independent singletons
+	 * concurrently on a dedicated {@link ForkJoinPool}, ordered by the dependency
+	 * graph derived from the merged bean definitions: {@code depends-on} declarations,
+	 * factory bean names and bean references in constructor arguments and property
+	 * values. Dependencies that are only discovered at creation time (e.g. through
+	 * autowiring) are still resolved on demand by the creating thread.
+	 * <p>Concurrent creation relies on the per-bean creation locks of
+	 * {@link DefaultSingletonBeanRegistry}, which never expose early references
+	 * across threads. A singleton that fails with a
+	 * {@link BeanCurrentlyInCreationException} because of a circular reference
+	 * across threads is created again on the calling thread once all other
+	 * singletons have been created, after the usual cleanup of its failed creation.
+	 * <p>{@link SmartInitializingSingleton} callbacks are invoked on the calling
+	 * thread in registration order once all singletons have been created, just like
+	 * in the sequential case.
+	 * @since 5.3.14
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+		Assert.isTrue(preInstantiationParallelism > 0, "Pre-instantiation parallelism must be greater than 0");
+		this.preInstantiationParallelism = preInstantiationParallelism;
+	}
+
+	/**
+	 * Return the number of threads to use for pre-instantiating non-lazy singletons.
+	 * @since 5.3.14
+	 */
+	public int getPreInstantiationParallelism() {
+		return this.preInstantiationParallelism;
+	}
+
 
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
@@ -325,6 +376,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			this.preInstantiationParallelism = otherListableFactory.preInstantiationParallelism;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware
 			setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
 			// Make resolvable dependencies (e.g. ResourceLoader) available here as well
@@ -926,39 +978,19 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		//循环我们所有的bean定义名称
-		for (String beanName : beanNames) {
-			//合并我们的bean定义，转换为统一的RootBeanDefinition类型(在)， 方便后续处理
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);/**
-			 * 根据bean定义判断是不是抽象的&& 不是单例的 &&不是懒加载的
-			 */
-
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				//是不是工厂bean
-				if (isFactoryBean(beanName)) {
-					// 是factoryBean会先生成实际的bean  &beanName 是用来获取实际bean的
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged(
-									(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						//调用真正的getBean的流程
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				else {
-					//非工厂Bean 就是普通的bean
-					getBean(beanName);
+		if (this.preInstantiationParallelism > 1) {
+			new ParallelSingletonInstantiation(beanNames, this.preInstantiationParallelism).run();
+		}
+		else {
+			//循环我们所有的bean定义名称
+			for (String beanName : beanNames) {
+				//合并我们的bean定义，转换为统一的RootBeanDefinition类型(在)， 方便后续处理
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);/**
+				 * 根据bean定义判断是不是抽象的&& 不是单例的 &&不是懒加载的
+				 */
+
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					preInstantiateSingleton(beanName);
 				}
 			}
 		}
@@ -988,6 +1020,106 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	/**
+	 * Pre-instantiate the given non-lazy singleton, including the object
+	 * exposed by an eagerly initialized {@link SmartFactoryBean}.
+	 * @param beanName the name of the bean
+	 */
+	private void preInstantiateSingleton(String beanName) {
+		//是不是工厂bean
+		if (isFactoryBean(beanName)) {
+			// 是factoryBean会先生成实际的bean  &beanName 是用来获取实际bean的
+			Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+			if (bean instanceof FactoryBean) {
+				FactoryBean<?> factory = (FactoryBean<?>) bean;
+				boolean isEagerInit;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					isEagerInit = AccessController.doPrivileged(
+							(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+							getAccessControlContext());
+				}
+				else {
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+				}
+				//调用真正的getBean的流程
+				if (isEagerInit) {
+					getBean(beanName);
+				}
+			}
+		}
+		else {
+			//非工厂Bean 就是普通的bean
+			getBean(beanName);
+		}
+	}
+
+	/**
+	 * Determine the names of the beans that the given bean definition is known
+	 * to depend on before actually creating it: {@code depends-on} declarations,
+	 * the factory bean name and bean references in constructor arguments and
+	 * property values, including those of inner bean definitions.
+	 * @param mbd the merged bean definition to introspect
+	 * @return the (canonical) names of the referenced beans
+	 */
+	private Set<String> getDeclaredDependencies(BeanDefinition mbd) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		collectDeclaredDependencies(mbd, dependencies);
+		return dependencies;
+	}
+
+	private void collectDeclaredDependencies(BeanDefinition bd, Set<String> dependencies) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dep : dependsOn) {
+				dependencies.add(transformedBeanName(dep));
+			}
+		}
+		if (bd.getFactoryBeanName() != null) {
+			dependencies.add(transformedBeanName(bd.getFactoryBeanName()));
+		}
+		if (bd.hasConstructorArgumentValues()) {
+			ConstructorArgumentValues cav = bd.getConstructorArgumentValues();
+			for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getIndexedArgumentValues().values()) {
+				collectReferencedBeanNames(valueHolder.getValue(), dependencies);
+			}
+			for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getGenericArgumentValues()) {
+				collectReferencedBeanNames(valueHolder.getValue(), dependencies);
+			}
+		}
+		if (bd.hasPropertyValues()) {
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+				collectReferencedBeanNames(pv.getValue(), dependencies);
+			}
+		}
+	}
+
+	private void collectReferencedBeanNames(@Nullable Object value, Set<String> dependencies) {
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			if (!ref.isToParent()) {
+				dependencies.add(transformedBeanName(ref.getBeanName()));
+			}
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectDeclaredDependencies(((BeanDefinitionHolder) value).getBeanDefinition(), dependencies);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectDeclaredDependencies((BeanDefinition) value, dependencies);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectReferencedBeanNames(element, dependencies);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectReferencedBeanNames(entry.getKey(), dependencies);
+				collectReferencedBeanNames(entry.getValue(), dependencies);
+			}
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -2158,6 +2290,193 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Pre-instantiates non-lazy singletons concurrently on a dedicated
+	 * {@link ForkJoinPool}, scheduling each singleton once the beans it is
+	 * declared to depend on have been created.
+	 * <p>Declared dependencies that form a cycle are not used for ordering:
+	 * such beans are resolved by whichever thread creates the first of them,
+	 * just like in the sequential case. Singletons that are in creation by
+	 * another thread which is waiting for the creating thread are left to the
+	 * calling thread, creating them sequentially once the pool is done.
+	 * Singletons are created within the
+	 * {@link #getAccessControlContext() AccessControlContext} of this factory.
+	 */
+	private class ParallelSingletonInstantiation {
+
+		private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+		private final Map<String, CompletableFuture<Void>> instantiations = new HashMap<>();
+
+		private final Set<String> currentlyScheduling = new HashSet<>();
+
+		private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+		private final Set<String> deferred = ConcurrentHashMap.newKeySet();
+
+		private final AccessControlContext accessControlContext;
+
+		private final ForkJoinPool pool;
+
+		public ParallelSingletonInstantiation(List<String> beanNames, int parallelism) {
+			for (String beanName : beanNames) {
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					this.dependencies.put(beanName, getDeclaredDependencies(bd));
+				}
+			}
+			this.accessControlContext = getAccessControlContext();
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+			this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+				thread.setName("singleton-instantiation-" + thread.getPoolIndex());
+				thread.setContextClassLoader(classLoader);
+				return thread;
+			}, null, false);
+		}
+
+		public void run() {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Pre-instantiating " + this.dependencies.size() + " singletons using " +
+						this.pool.getParallelism() + " threads in " + DefaultListableBeanFactory.this);
+			}
+			try {
+				for (String beanName : this.dependencies.keySet()) {
+					schedule(beanName);
+				}
+				try {
+					CompletableFuture.allOf(this.instantiations.values().toArray(new CompletableFuture<?>[0])).join();
+				}
+				catch (CompletionException ex) {
+					// Report the failure of the first bean in registration order below
+				}
+			}
+			finally {
+				this.pool.shutdown();
+			}
+			for (String beanName : this.dependencies.keySet()) {
+				Throwable ex = this.failures.get(beanName);
+				if (ex instanceof RuntimeException) {
+					throw (RuntimeException) ex;
+				}
+				else if (ex instanceof Error) {
+					throw (Error) ex;
+				}
+				else if (ex != null) {
+					throw new BeanCreationException(beanName, "Failed to pre-instantiate singleton", ex);
+				}
+			}
+			// Fall back to sequential creation for singletons involved in circular references across threads
+			for (String beanName : this.dependencies.keySet()) {
+				if (this.deferred.contains(beanName)) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Pre-instantiating singleton '" + beanName + "' sequentially " +
+								"after a circular reference across threads");
+					}
+					doInstantiate(beanName);
+				}
+			}
+		}
+
+		/**
+		 * Schedule the given singleton after the beans it depends on, walking
+		 * the declared dependencies depth-first with an explicit stack so that
+		 * long dependency chains do not exhaust the calling thread's stack.
+		 */
+		private void schedule(String beanName) {
+			if (this.instantiations.containsKey(beanName)) {
+				return;
+			}
+			Deque<SingletonScheduling> stack = new ArrayDeque<>();
+			stack.push(new SingletonScheduling(beanName, this.dependencies.get(beanName)));
+			this.currentlyScheduling.add(beanName);
+			while (!stack.isEmpty()) {
+				SingletonScheduling scheduling = stack.peek();
+				if (scheduling.dependencies.hasNext()) {
+					String dependency = scheduling.dependencies.next();
+					if (dependency.equals(scheduling.beanName) || !this.dependencies.containsKey(dependency) ||
+							this.currentlyScheduling.contains(dependency)) {
+						continue;
+					}
+					CompletableFuture<Void> instantiation = this.instantiations.get(dependency);
+					if (instantiation != null) {
+						scheduling.prerequisites.add(instantiation);
+					}
+					else {
+						stack.push(new SingletonScheduling(dependency, this.dependencies.get(dependency)));
+						this.currentlyScheduling.add(dependency);
+					}
+				}
+				else {
+					stack.pop();
+					this.currentlyScheduling.remove(scheduling.beanName);
+					List<CompletableFuture<Void>> prerequisites = scheduling.prerequisites;
+					CompletableFuture<Void> instantiation = (prerequisites.isEmpty() ?
+							CompletableFuture.completedFuture(null) :
+							CompletableFuture.allOf(prerequisites.toArray(new CompletableFuture<?>[0])))
+							.thenRunAsync(() -> instantiate(scheduling.beanName), this.pool);
+					this.instantiations.put(scheduling.beanName, instantiation);
+					if (!stack.isEmpty()) {
+						stack.peek().prerequisites.add(instantiation);
+					}
+				}
+			}
+		}
+
+		private void instantiate(String beanName) {
+			if (!this.failures.isEmpty()) {
+				// Do not start any further singletons once a singleton failed
+				return;
+			}
+			try {
+				doInstantiate(beanName);
+			}
+			catch (BeanCreationException ex) {
+				if (!ex.contains(BeanCurrentlyInCreationException.class)) {
+					this.failures.put(beanName, ex);
+					throw ex;
+				}
+				// Its failed creation has been cleaned up already: create it again later on.
+				this.deferred.add(beanName);
+			}
+			catch (Throwable ex) {
+				this.failures.put(beanName, ex);
+				throw ex;
+			}
+		}
+
+		private void doInstantiate(String beanName) {
+			if (System.getSecurityManager() != null) {
+				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+					preInstantiateSingleton(beanName);
+					return null;
+				}, this.accessControlContext);
+			}
+			else {
+				preInstantiateSingleton(beanName);
+			}
+		}
+	}
+
+
+	/**
+	 * SingletonScheduling state of a singleton whose dependencies are being scheduled.
+	 */
+	private static class SingletonScheduling {
+
+		final String beanName;
+
+		final Iterator<String> dependencies;
+
+		final List<CompletableFuture<Void>> prerequisites = new ArrayList<>();
+
+		SingletonScheduling(String beanName, Set<String> dependencies) {
+			this.beanName = beanName;
+			this.dependencies = dependencies.iterator();
+		}
+	}
+
+
 	/**
 	 * An {@link org.springframework.core.OrderComparator.OrderSourceProvider} implementation
 	 * that is aware of the bean metadata of the instances to sort.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
@@ -32,6 +33,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -97,12 +99,18 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Set<String> inCreationCheckExclusions =
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
-	/** Collection of suppressed Exceptions, available for associating related causes. */
-	@Nullable
-	private Set<Exception> suppressedExceptions;
+	/** Locks for singletons currently in creation: bean name to lock. */
+	private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(16);
+
+	/** Threads blocked on a singleton creation lock: thread to lock. */
+	private final Map<Thread, SingletonCreationLock> singletonCreationWaits = new HashMap<>(16);
+
+	/** Collection of suppressed Exceptions per thread, available for associating related causes. */
+	private final ThreadLocal<Set<Exception>> suppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions during singleton creation");
 
 	/** Flag that indicates whether we're currently within destroySingletons. */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
 
 	/** Disposable bean instances: bean name to disposable instance. */
 	private final Map<String, Object> disposableBeans = new LinkedHashMap<>();
@@ -177,6 +185,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * Return the (raw) singleton object registered under the given name.
 	 * <p>Checks already instantiated singletons and also allows for an early
 	 * reference to a currently created singleton (resolving a circular reference).
+	 * Early references are only exposed to the thread creating the singleton.
 	 * @param beanName the name of the bean to look for
 	 * @param allowEarlyReference whether early references should be created or not
 	 * @return the registered singleton object, or {@code null} if none found
@@ -193,7 +202,8 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		 * 若在第一级缓存中没有获取到对象,并且singletonsCurrentlyInCreation这个list包含该beanName
 		 * IOC容器初始化加载单实例bean的时候第一次进来的时候 该list中一般返回空,但是循环依赖的时候可以满足该条件
 		 */
-		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName) &&
+				isSingletonInCreationByCurrentThread(beanName)) {
 			/**
 			 * 尝试去二级缓存中获取对象(二级缓存中的对象是一个早期对象)
 			 * 何为早期对象:就是bean刚刚调用了构造方法，还来不及给bean的属性进行赋值的对象(纯净态)
@@ -204,43 +214,78 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			 * 二级缓存中也没有获取到对象,allowEarlyReference为true(参数是有上一个方法传递进来的true)
 			 */
 			if (singletonObject == null && allowEarlyReference) {
-				//加锁
-				synchronized (this.singletonObjects) {
-					// 重新从一级缓存取
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						//重新从二级缓存取
-						singletonObject = this.earlySingletonObjects.get(beanName);
-						if (singletonObject == null) {
-							/**
-							 * 直接从三级缓存中获取 ObjectFactory对象 这个对接就是用来解决循环依赖的关键所在
-							 * 在ioc后期的过程中,当bean调用了构造方法的时候,把早期对象包裹成一个ObjectFactory
-							 * 暴露到三级缓存中
-							 */
-							ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-							//从三级缓存中获取到对象不为空
-							if (singletonFactory != null) {
-								/**
-								 * 在这里通过暴露的ObjectFactory 包装对象中,通过调用他的getObject()来获取我们的早期对象
-								 * 在这个环节中会调用到 getEarlyBeanReference()来进行后置处理
-								 */
-								singletonObject = singletonFactory.getObject();
-								//把早期对象放置在二级缓存,
-								this.earlySingletonObjects.put(beanName, singletonObject);
-								//ObjectFactory 包装对象从三级缓存中删除掉
-								this.singletonFactories.remove(beanName);
-							}
-						}
-					}
-				}
+				singletonObject = getEarlySingleton(beanName);
 			}
 		}
 		return singletonObject;
 	}
 
+	/**
+	 * Obtain an early reference to the given singleton, creating it from its
+	 * registered singleton factory if necessary.
+	 * <p>To be called by the thread creating the singleton only.
+	 * @param beanName the name of the bean
+	 * @return the early singleton reference, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingleton(String beanName) {
+		ObjectFactory<?> singletonFactory;
+		//加锁
+		synchronized (this.singletonObjects) {
+			// 重新从一级缓存取
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				//重新从二级缓存取
+				singletonObject = this.earlySingletonObjects.get(beanName);
+			}
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			/**
+			 * 直接从三级缓存中获取 ObjectFactory对象 这个对接就是用来解决循环依赖的关键所在
+			 * 在ioc后期的过程中,当bean调用了构造方法的时候,把早期对象包裹成一个ObjectFactory
+			 * 暴露到三级缓存中
+			 */
+			singletonFactory = this.singletonFactories.get(beanName);
+			if (singletonFactory == null) {
+				return null;
+			}
+		}
+		// Not within the cache lock since post-processing may trigger other singleton creation,
+		// but within the creation lock for the bean since only its creating thread gets here...
+		/**
+		 * 在这里通过暴露的ObjectFactory 包装对象中,通过调用他的getObject()来获取我们的早期对象
+		 * 在这个环节中会调用到 getEarlyBeanReference()来进行后置处理
+		 */
+		Object singletonObject = singletonFactory.getObject();
+		synchronized (this.singletonObjects) {
+			Object existingObject = this.singletonObjects.get(beanName);
+			if (existingObject == null) {
+				existingObject = this.earlySingletonObjects.get(beanName);
+			}
+			if (existingObject != null) {
+				return existingObject;
+			}
+			//把早期对象放置在二级缓存, ObjectFactory 包装对象从三级缓存中删除掉
+			if (this.singletonFactories.remove(beanName) != null) {
+				this.earlySingletonObjects.put(beanName, singletonObject);
+			}
+			return singletonObject;
+		}
+	}
+
 	/**
 	 * Return the (raw) singleton object registered under the given name,
 	 * creating and registering a new one if none registered yet.
+	 * <p>Creation is guarded by a lock for the given bean name only, so that
+	 * unrelated singletons can be created by different threads in parallel.
+	 * A thread requesting a singleton currently created by another thread
+	 * waits for its completion, unless that thread is in turn waiting for a
+	 * singleton created by the requesting thread or the requesting thread holds
+	 * the {@link #getSingletonMutex() singleton mutex}: Since neither thread
+	 * could proceed then, the request fails with a
+	 * {@link BeanCurrentlyInCreationException}. Early references are never
+	 * exposed across threads.
 	 * @param beanName the name of the bean
 	 * @param singletonFactory the ObjectFactory to lazily create the singleton
 	 * with, if necessary
@@ -248,8 +293,14 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
-		synchronized (this.singletonObjects) {
-			Object singletonObject = this.singletonObjects.get(beanName);
+		// Quick check for existing instance without creation lock
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		SingletonCreationLock creationLock = acquireSingletonCreationLock(beanName);
+		try {
+			singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
 				if (this.singletonsCurrentlyInDestruction) {
 					throw new BeanCreationNotAllowedException(beanName,
@@ -261,9 +312,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				beforeSingletonCreation(beanName);
 				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+				Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+				boolean recordSuppressedExceptions = (suppressedExceptions == null);
 				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+					suppressedExceptions = new LinkedHashSet<>();
+					this.suppressedExceptions.set(suppressedExceptions);
 				}
 				try {
 					singletonObject = singletonFactory.getObject();
@@ -279,7 +332,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				catch (BeanCreationException ex) {
 					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
+						for (Exception suppressedException : suppressedExceptions) {
 							ex.addRelatedCause(suppressedException);
 						}
 					}
@@ -287,7 +340,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				finally {
 					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
+						this.suppressedExceptions.remove();
 					}
 					afterSingletonCreation(beanName);
 				}
@@ -297,22 +350,188 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			}
 			return singletonObject;
 		}
+		finally {
+			releaseSingletonCreationLock(beanName, creationLock);
+		}
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton, waiting for another
+	 * thread to finish its creation if necessary.
+	 * <p>A thread holding the {@link #getSingletonMutex() singleton mutex} never
+	 * waits since the creating thread needs the mutex to register its singleton.
+	 * @param beanName the name of the bean
+	 * @return the acquired lock
+	 * @throws BeanCurrentlyInCreationException if the singleton is in creation by
+	 * another thread while the current thread holds the singleton mutex, or by a
+	 * thread which is (directly or indirectly) waiting for the current thread
+	 */
+	private SingletonCreationLock acquireSingletonCreationLock(String beanName) {
+		while (true) {
+			SingletonCreationLock creationLock =
+					this.singletonCreationLocks.computeIfAbsent(beanName, name -> new SingletonCreationLock());
+			if (!creationLock.tryLock()) {
+				if (Thread.holdsLock(this.singletonObjects)) {
+					throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+							"by another thread which cannot complete it while the current thread holds the singleton mutex");
+				}
+				Thread currentThread = Thread.currentThread();
+				synchronized (this.singletonCreationWaits) {
+					if (isWaitingForThread(creationLock, currentThread)) {
+						throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+								"by another thread which is waiting for a bean in creation by the current thread");
+					}
+					this.singletonCreationWaits.put(currentThread, creationLock);
+				}
+				try {
+					creationLock.lock();
+				}
+				finally {
+					synchronized (this.singletonCreationWaits) {
+						this.singletonCreationWaits.remove(currentThread);
+					}
+				}
+			}
+			if (!creationLock.retired) {
+				return creationLock;
+			}
+			// Lock released for good in the meantime -> start over with a new one.
+			creationLock.unlock();
+		}
+	}
+
+	/**
+	 * Release the given creation lock, retiring it when released by its
+	 * outermost holder since the singleton does not need it anymore then.
+	 */
+	private void releaseSingletonCreationLock(String beanName, SingletonCreationLock creationLock) {
+		if (creationLock.getHoldCount() == 1) {
+			creationLock.retired = true;
+			this.singletonCreationLocks.remove(beanName, creationLock);
+		}
+		creationLock.unlock();
+	}
+
+	/**
+	 * Retire the creation lock for the given singleton unless it is currently held.
+	 */
+	private void retireSingletonCreationLock(String beanName) {
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		if (creationLock != null && creationLock.tryLock()) {
+			if (creationLock.getHoldCount() == 1) {
+				releaseSingletonCreationLock(beanName, creationLock);
+			}
+			else {
+				creationLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the owner of the given lock is blocked, through a chain
+	 * of singleton creation locks, on a lock held by the given thread.
+	 * <p>To be called within synchronization on the wait registry.
+	 */
+	private boolean isWaitingForThread(SingletonCreationLock creationLock, Thread thread) {
+		Set<Thread> seen = null;
+		Thread owner = creationLock.getCreatingThread();
+		while (owner != null) {
+			if (owner == thread) {
+				return true;
+			}
+			SingletonCreationLock awaitedLock = this.singletonCreationWaits.get(owner);
+			if (awaitedLock == null) {
+				return false;
+			}
+			if (seen == null) {
+				seen = new HashSet<>();
+			}
+			if (!seen.add(owner)) {
+				return false;
+			}
+			owner = awaitedLock.getCreatingThread();
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether the given singleton is currently being created
+	 * by the current thread, i.e. whether the current thread holds its
+	 * creation lock. Early references are exposed to that thread only.
+	 * @param beanName the name of the bean
+	 * @since 5.3.14
+	 */
+	protected boolean isSingletonInCreationByCurrentThread(String beanName) {
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		return (creationLock != null && creationLock.isHeldByCurrentThread());
+	}
+
+	/**
+	 * Try to acquire the creation lock for the given singleton without waiting,
+	 * for an extended singleton creation phase outside of
+	 * {@link #getSingleton(String, ObjectFactory)}. A successful call must be
+	 * followed by {@link #unlockSingletonCreation}.
+	 * @param beanName the name of the bean
+	 * @return {@code true} if the lock has been acquired, {@code false} if the
+	 * singleton is currently being created by another thread
+	 * @since 5.3.14
+	 */
+	protected boolean tryLockSingletonCreation(String beanName) {
+		while (true) {
+			SingletonCreationLock creationLock =
+					this.singletonCreationLocks.computeIfAbsent(beanName, name -> new SingletonCreationLock());
+			if (!creationLock.tryLock()) {
+				return false;
+			}
+			if (!creationLock.retired) {
+				return true;
+			}
+			creationLock.unlock();
+		}
+	}
+
+	/**
+	 * Acquire the creation lock for the given singleton, for an extended singleton
+	 * creation phase outside of {@link #getSingleton(String, ObjectFactory)},
+	 * waiting for another thread to finish its creation phase if necessary.
+	 * Must be followed by {@link #unlockSingletonCreation}.
+	 * @param beanName the name of the bean
+	 * @throws BeanCurrentlyInCreationException if the singleton is being created
+	 * by another thread while the current thread holds the singleton mutex, or
+	 * by a thread which is in turn waiting for the current thread
+	 * @since 5.3.14
+	 */
+	protected void lockSingletonCreation(String beanName) {
+		acquireSingletonCreationLock(beanName);
+	}
+
+	/**
+	 * Release the creation lock for the given singleton, as acquired through
+	 * {@link #tryLockSingletonCreation} or {@link #lockSingletonCreation}.
+	 * @param beanName the name of the bean
+	 * @since 5.3.14
+	 */
+	protected void unlockSingletonCreation(String beanName) {
+		SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+		if (creationLock != null && creationLock.isHeldByCurrentThread()) {
+			releaseSingletonCreationLock(beanName, creationLock);
+		}
 	}
 
 	/**
 	 * Register an exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
 	 * <p>The default implementation preserves any given exception in this registry's
-	 * collection of suppressed exceptions, up to a limit of 100 exceptions, adding
+	 * collection of suppressed exceptions for the current thread, up to a limit of
+	 * 100 exceptions, adding
 	 * them as related causes to an eventual top-level {@link BeanCreationException}.
 	 * @param ex the Exception to register
 	 * @see BeanCreationException#getRelatedCauses()
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+		if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+			suppressedExceptions.add(ex);
 		}
 	}
 
@@ -329,6 +548,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.earlySingletonObjects.remove(beanName);
 			this.registeredSingletons.remove(beanName);
 		}
+		retireSingletonCreationLock(beanName);
 	}
 
 	@Override
@@ -543,9 +763,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		if (logger.isTraceEnabled()) {
 			logger.trace("Destroying singletons in " + this);
 		}
-		synchronized (this.singletonObjects) {
-			this.singletonsCurrentlyInDestruction = true;
-		}
+		this.singletonsCurrentlyInDestruction = true;
 
 		String[] disposableBeanNames;
 		synchronized (this.disposableBeans) {
@@ -574,6 +792,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.registeredSingletons.clear();
 			this.singletonsCurrentlyInDestruction = false;
 		}
+		for (String beanName : this.singletonCreationLocks.keySet()) {
+			retireSingletonCreationLock(beanName);
+		}
 	}
 
 	/**
@@ -658,14 +879,36 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
 	/**
 	 * Exposes the singleton mutex to subclasses and external collaborators.
-	 * <p>Subclasses should synchronize on the given Object if they perform
-	 * any sort of extended singleton creation phase. In particular, subclasses
-	 * should <i>not</i> have their own mutexes involved in singleton creation,
-	 * to avoid the potential for deadlocks in lazy-init situations.
+	 * <p>As of 5.3.14, singleton creation is guarded by a lock per bean name,
+	 * with this mutex guarding the registration of created singletons: Holding
+	 * it prevents other threads from completing any singleton creation. The
+	 * mutex is never released while waiting: A thread holding it fails with a
+	 * {@link BeanCurrentlyInCreationException} when requesting a singleton that
+	 * is currently being created by another thread, since that thread would have
+	 * to wait for the mutex itself. Subclasses performing any sort of extended singleton
+	 * creation phase should use {@link #lockSingletonCreation} or
+	 * {@link #tryLockSingletonCreation} as well.
 	 */
 	@Override
 	public final Object getSingletonMutex() {
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Reentrant lock for the creation of a specific singleton,
+	 * exposing its owner for the detection of circular waits.
+	 */
+	@SuppressWarnings("serial")
+	private static class SingletonCreationLock extends ReentrantLock {
+
+		/** Whether the lock has been released for good, to be replaced on next use. */
+		volatile boolean retired;
+
+		@Nullable
+		Thread getCreatingThread() {
+			return getOwner();
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -100,7 +100,9 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 		 *   2. 非单例 FactoryBean 生成的 bean 实例则不会被放入缓存中，每次都会创建新的实例
 		 **/
 		if (factory.isSingleton() && containsSingleton(beanName)) {
-			synchronized (getSingletonMutex()) {
+			// Lock for this bean only, failing in case of a thread waiting for the current one
+			lockSingletonCreation(beanName);
+			try {
 				// 从缓存中取 bean 实例，避免多次创建 bean 实例
 				Object object = this.factoryBeanObjectCache.get(beanName);
 				if (object == null) {
@@ -140,6 +142,9 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 				}
 				return object;
 			}
+			finally {
+				unlockSingletonCreation(beanName);
+			}
 		}
 		else {
 			Object object = doGetObjectFromFactoryBean(factory, beanName);
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates {@link Instantiator} classes that invoke a given constructor or
+ * factory method through plain bytecode instead of reflection.
+ *
+ * <p>Generated classes are defined in a child class loader of a class loader
+ * that can see all types involved, analogous to compiled SpEL expressions.
+ * Only public members of public classes with public parameter types qualify,
+ * since generated classes live in a package of their own.
+ *
+ * @since 5.3.14
+ * @see BytecodeInstantiationStrategy
+ */
+final class InstantiatorGenerator implements Opcodes {
+
+	private static final String INSTANTIATOR_TYPE = Type.getInternalName(Instantiator.class);
+
+	private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	// A generator is created for each class loader, managing a child class loader of it
+	private static final Map<ClassLoader, InstantiatorGenerator> generators = new ConcurrentReferenceHashMap<>();
+
+
+	private final ChildClassLoader childClassLoader;
+
+	private final AtomicInteger suffixId = new AtomicInteger();
+
+
+	private InstantiatorGenerator(ClassLoader classLoader) {
+		this.childClassLoader = new ChildClassLoader(classLoader);
+	}
+
+
+	/**
+	 * Determine whether an {@link Instantiator} can be generated for the given
+	 * constructor or method.
+	 */
+	static boolean isGeneratable(Executable executable) {
+		Class<?> declaringClass = executable.getDeclaringClass();
+		if (!Modifier.isPublic(executable.getModifiers()) || !isPublic(declaringClass) ||
+				(executable instanceof Constructor && Modifier.isAbstract(declaringClass.getModifiers()))) {
+			return false;
+		}
+		for (Class<?> parameterType : executable.getParameterTypes()) {
+			if (!isPublic(parameterType)) {
+				return false;
+			}
+		}
+		return (determineClassLoader(executable) != null);
+	}
+
+	/**
+	 * Generate an {@link Instantiator} for the given constructor or method.
+	 * @param executable the constructor or method to invoke
+	 * @return the generated instantiator
+	 * @throws IllegalArgumentException if the given constructor or method
+	 * does not qualify for generation
+	 * @see #isGeneratable(Executable)
+	 */
+	static Instantiator generate(Executable executable) {
+		ClassLoader classLoader = determineClassLoader(executable);
+		if (classLoader == null) {
+			throw new IllegalArgumentException("No ClassLoader found that can see all types of " + executable);
+		}
+		InstantiatorGenerator generator = generators.get(classLoader);
+		if (generator == null) {
+			// Full lock now since we're creating a child ClassLoader
+			synchronized (generators) {
+				generator = generators.computeIfAbsent(classLoader, InstantiatorGenerator::new);
+			}
+		}
+		Class<?> instantiatorClass = generator.createInstantiatorClass(executable);
+		try {
+			return (Instantiator) ReflectionUtils.accessibleConstructor(instantiatorClass).newInstance();
+		}
+		catch (Throwable ex) {
+			throw new IllegalStateException("Failed to instantiate generated Instantiator for " + executable, ex);
+		}
+	}
+
+	private static boolean isPublic(Class<?> type) {
+		Class<?> typeToCheck = componentType(type);
+		// Nested classes are accessible from bytecode based on their own modifiers
+		return (typeToCheck.isPrimitive() || Modifier.isPublic(typeToCheck.getModifiers()));
+	}
+
+	@Nullable
+	private static ClassLoader determineClassLoader(Executable executable) {
+		ClassLoader classLoader = executable.getDeclaringClass().getClassLoader();
+		if (classLoader != null && canSeeAllTypes(classLoader, executable)) {
+			return classLoader;
+		}
+		classLoader = Instantiator.class.getClassLoader();
+		if (classLoader != null && canSeeAllTypes(classLoader, executable)) {
+			return classLoader;
+		}
+		return null;
+	}
+
+	private static boolean canSeeAllTypes(ClassLoader classLoader, Executable executable) {
+		if (!ClassUtils.isVisible(Instantiator.class, classLoader) ||
+				!ClassUtils.isVisible(executable.getDeclaringClass(), classLoader)) {
+			return false;
+		}
+		for (Class<?> parameterType : executable.getParameterTypes()) {
+			Class<?> typeToCheck = componentType(parameterType);
+			if (!typeToCheck.isPrimitive() && !ClassUtils.isVisible(typeToCheck, classLoader)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Class<?> componentType(Class<?> type) {
+		Class<?> componentType = type;
+		while (componentType.isArray()) {
+			componentType = componentType.getComponentType();
+		}
+		return componentType;
+	}
+
+
+	private Class<?> createInstantiatorClass(Executable executable) {
+		String className = "spring/beans/Instantiator" + this.suffixId.incrementAndGet();
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, "java/lang/Object",
+				new String[] {INSTANTIATOR_TYPE});
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+
+		mv = cw.visitMethod(ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null, new String[] {"java/lang/Throwable"});
+		mv.visitCode();
+		String owner = Type.getInternalName(executable.getDeclaringClass());
+		if (executable instanceof Constructor) {
+			mv.visitTypeInsn(NEW, owner);
+			mv.visitInsn(DUP);
+			loadArguments(mv, executable.getParameterTypes());
+			mv.visitMethodInsn(INVOKESPECIAL, owner, "<init>",
+					Type.getConstructorDescriptor((Constructor<?>) executable), false);
+		}
+		else {
+			Method method = (Method) executable;
+			boolean isInterface = method.getDeclaringClass().isInterface();
+			if (Modifier.isStatic(method.getModifiers())) {
+				loadArguments(mv, method.getParameterTypes());
+				mv.visitMethodInsn(INVOKESTATIC, owner, method.getName(), Type.getMethodDescriptor(method), isInterface);
+			}
+			else {
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, owner);
+				loadArguments(mv, method.getParameterTypes());
+				mv.visitMethodInsn((isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL), owner,
+						method.getName(), Type.getMethodDescriptor(method), isInterface);
+			}
+			Class<?> returnType = method.getReturnType();
+			if (returnType == void.class) {
+				mv.visitInsn(ACONST_NULL);
+			}
+			else if (returnType.isPrimitive()) {
+				box(mv, returnType);
+			}
+		}
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+		cw.visitEnd();
+
+		return this.childClassLoader.defineClass(className.replace('/', '.'), cw.toByteArray());
+	}
+
+	private static void loadArguments(MethodVisitor mv, Class<?>[] parameterTypes) {
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Class<?> parameterType = parameterTypes[i];
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(AALOAD);
+			if (parameterType.isPrimitive()) {
+				Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(parameterType);
+				String wrapper = Type.getInternalName(wrapperType);
+				mv.visitTypeInsn(CHECKCAST, wrapper);
+				mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, parameterType.getName() + "Value",
+						"()" + Type.getDescriptor(parameterType), false);
+			}
+			else if (parameterType != Object.class) {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameterType));
+			}
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> primitiveType) {
+		String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(primitiveType));
+		mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf",
+				"(" + Type.getDescriptor(primitiveType) + ")L" + wrapper + ";", false);
+	}
+
+
+	/**
+	 * Invokes a constructor or factory method through generated bytecode.
+	 */
+	public interface Instantiator {
+
+		/**
+		 * Invoke the underlying constructor or method.
+		 * @param target the target instance for an instance method,
+		 * or {@code null} for a constructor or a static method
+		 * @param args the arguments, matching the parameter types
+		 * (with non-null values for primitive parameters)
+		 * @return the new instance or the method's return value
+		 * ({@code null} for a {@code void} method)
+		 * @throws Throwable any exception thrown by the invoked code, as-is
+		 */
+		@Nullable
+		Object invoke(@Nullable Object target, Object[] args) throws Throwable;
+	}
+
+
+	/**
+	 * A ChildClassLoader will load the generated instantiator classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		public ChildClassLoader(ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
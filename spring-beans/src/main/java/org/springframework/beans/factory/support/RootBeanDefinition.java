@@ -398,6 +398,16 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
 		this.isFactoryMethodUnique = false;
 	}
 
+	/**
+	 * Return whether the factory method name refers to a non-overloaded method.
+	 * @since 5.3.14
+	 * @see #setUniqueFactoryMethodName
+	 * @see #setNonUniqueFactoryMethodName
+	 */
+	public boolean isFactoryMethodUnique() {
+		return this.isFactoryMethodUnique;
+	}
+
 	/**
 	 * Check whether the given candidate qualifies as a factory method.
 	 */
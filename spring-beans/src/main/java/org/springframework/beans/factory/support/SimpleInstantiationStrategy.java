@@ -84,7 +84,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 					}
 				}
 			}
-			return BeanUtils.instantiateClass(constructorToUse);
+			return instantiateClass(constructorToUse);
 		}
 		else {
 			// Must generate CGLIB subclass.
@@ -114,7 +114,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 					return null;
 				});
 			}
-			return BeanUtils.instantiateClass(ctor, args);
+			return instantiateClass(ctor, args);
 		}
 		else {
 			return instantiateWithMethodInjection(bd, beanName, owner, ctor, args);
@@ -151,7 +151,7 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 			Method priorInvokedFactoryMethod = currentlyInvokedFactoryMethod.get();
 			try {
 				currentlyInvokedFactoryMethod.set(factoryMethod);
-				Object result = factoryMethod.invoke(factoryBean, args);
+				Object result = invokeFactoryMethod(factoryBean, factoryMethod, args);
 				if (result == null) {
 					result = new NullBean();
 				}
@@ -186,4 +186,39 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
 		}
 	}
 
+	/**
+	 * Instantiate a class using the given constructor, without any method overrides.
+	 * <p>The default implementation delegates to {@link BeanUtils#instantiateClass};
+	 * subclasses may override this in order to use a faster invocation path.
+	 * @param ctor the constructor to instantiate
+	 * @param args the constructor arguments to apply
+	 * @return the new instance
+	 * @throws BeanInstantiationException if the bean cannot be instantiated
+	 * @since 5.3.14
+	 */
+	protected Object instantiateClass(Constructor<?> ctor, Object... args) throws BeanInstantiationException {
+		return BeanUtils.instantiateClass(ctor, args);
+	}
+
+	/**
+	 * Invoke the given factory method, with the factory method already exposed
+	 * through {@link #getCurrentlyInvokedFactoryMethod()}.
+	 * <p>The default implementation uses reflection; subclasses may override this
+	 * in order to use a faster invocation path.
+	 * @param factoryBean the factory bean instance to call the factory method on,
+	 * or {@code null} in case of a static factory method
+	 * @param factoryMethod the factory method to invoke
+	 * @param args the factory method arguments to apply
+	 * @return the factory method's return value
+	 * @throws IllegalAccessException if the factory method is not accessible
+	 * @throws InvocationTargetException if the factory method threw an exception
+	 * @since 5.3.14
+	 */
+	@Nullable
+	protected Object invokeFactoryMethod(@Nullable Object factoryBean, Method factoryMethod, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		return factoryMethod.invoke(factoryBean, args);
+	}
+
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Runs all {@link BeanWrapperTests} with compiled property access enabled,
+ * plus specific tests for compiled accessors.
+ *
+ * @since 5.3.14
+ */
+class CompiledBeanWrapperTests extends BeanWrapperTests {
+
+	@Override
+	protected BeanWrapperImpl createAccessor(Object target) {
+		BeanWrapperImpl accessor = new BeanWrapperImpl(target);
+		accessor.setCompiledPropertyAccess(true);
+		return accessor;
+	}
+
+
+	@Test
+	void compiledAccessorIsUsedForPublicProperties() {
+		CompiledBean target = new CompiledBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("name", "juergen");
+		accessor.setPropertyValue("age", 42);
+		assertThat(target.getName()).isEqualTo("juergen");
+		assertThat(target.getAge()).isEqualTo(42);
+		assertThat(target.compiledWrite).isTrue();
+		assertThat(accessor.getPropertyValue("age")).isEqualTo(42);
+		assertThat(accessor.getPropertyValue("compiledRead")).isEqualTo(true);
+	}
+
+	@Test
+	void convertedValueIsWrittenThroughCompiledAccessor() {
+		CompiledBean target = new CompiledBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("age", "42");
+		assertThat(target.getAge()).isEqualTo(42);
+		assertThat(target.compiledWrite).isTrue();
+	}
+
+	@Test
+	void nestedPropertyPathIsCompiled() {
+		CompiledBean target = new CompiledBean();
+		target.setNested(new CompiledBean());
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("nested.name", "juergen");
+		assertThat(target.getNested().getName()).isEqualTo("juergen");
+		assertThat(target.getNested().compiledWrite).isTrue();
+		assertThat(accessor.getPropertyValue("nested.name")).isEqualTo("juergen");
+	}
+
+	@Test
+	void nullForPrimitivePropertyFallsBackToReflection() {
+		CompiledBean target = new CompiledBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		assertThatExceptionOfType(TypeMismatchException.class).isThrownBy(() ->
+				accessor.setPropertyValue("age", null));
+	}
+
+	@Test
+	void setterExceptionIsWrapped() {
+		CompiledBean target = new CompiledBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		assertThatExceptionOfType(MethodInvocationException.class).isThrownBy(() ->
+				accessor.setPropertyValue("failing", "value"))
+			.withCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void compiledAccessorRejectsUnsupportedAccess() throws Exception {
+		PropertyAccessorCompiler.CompiledAccessor getter =
+				PropertyAccessorCompiler.getAccessor(CompiledBean.class.getMethod("getName"));
+		PropertyAccessorCompiler.CompiledAccessor setter =
+				PropertyAccessorCompiler.getAccessor(CompiledBean.class.getMethod("setName", String.class));
+		assertThat(getter).isNotNull();
+		assertThat(setter).isNotNull();
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() ->
+				getter.set(new CompiledBean(), "juergen"));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() ->
+				setter.get(new CompiledBean()));
+	}
+
+	@Test
+	void compiledAccessorIsCachedPerMember() throws Exception {
+		PropertyAccessorCompiler.CompiledAccessor accessor =
+				PropertyAccessorCompiler.getAccessor(CompiledBean.class.getMethod("getAge"));
+		assertThat(accessor).isNotNull();
+		assertThat(PropertyAccessorCompiler.getAccessor(CompiledBean.class.getMethod("getAge"))).isSameAs(accessor);
+	}
+
+	@Test
+	void nonPublicBeanUsesReflection() {
+		NonPublicBean target = new NonPublicBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("name", "juergen");
+		assertThat(target.name).isEqualTo("juergen");
+		assertThat(target.compiledWrite).isFalse();
+	}
+
+
+	private static boolean isCalledFromCompiledAccessor() {
+		StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+		// [0] this method, [1] getter or setter, [2] its caller
+		return stackTrace[2].getClassName().startsWith("spring.beans.CompiledAccessor");
+	}
+
+
+	public static class CompiledBean {
+
+		boolean compiledWrite;
+
+		private String name;
+
+		private int age;
+
+		private CompiledBean nested;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+			this.compiledWrite = isCalledFromCompiledAccessor();
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+			this.compiledWrite = isCalledFromCompiledAccessor();
+		}
+
+		public CompiledBean getNested() {
+			return this.nested;
+		}
+
+		public void setNested(CompiledBean nested) {
+			this.nested = nested;
+		}
+
+		public boolean isCompiledRead() {
+			return isCalledFromCompiledAccessor();
+		}
+
+		public void setFailing(String value) {
+			throw new IllegalStateException("failure");
+		}
+	}
+
+
+	static class NonPublicBean {
+
+		boolean compiledWrite;
+
+		String name;
+
+		public void setName(String name) {
+			this.name = name;
+			this.compiledWrite = isCalledFromCompiledAccessor();
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Runs all {@link DirectFieldAccessorTests} with compiled property access
+ * enabled, plus specific tests for compiled field access.
+ *
+ * @since 5.3.14
+ */
+class CompiledDirectFieldAccessorTests extends DirectFieldAccessorTests {
+
+	@Override
+	protected DirectFieldAccessor createAccessor(Object target) {
+		DirectFieldAccessor accessor = new DirectFieldAccessor(target);
+		accessor.setCompiledPropertyAccess(true);
+		return accessor;
+	}
+
+
+	@Test
+	void publicFieldsAreAccessed() {
+		FieldBean target = new FieldBean();
+		target.nested = new FieldBean();
+		DirectFieldAccessor accessor = createAccessor(target);
+		accessor.setPropertyValue("name", "juergen");
+		accessor.setPropertyValue("age", "42");
+		accessor.setPropertyValue("nested.age", 43);
+		assertThat(target.name).isEqualTo("juergen");
+		assertThat(target.age).isEqualTo(42);
+		assertThat(target.nested.age).isEqualTo(43);
+		assertThat(accessor.getPropertyValue("age")).isEqualTo(42);
+		assertThat(accessor.getPropertyValue("nested.age")).isEqualTo(43);
+	}
+
+	@Test
+	void nullForPrimitiveFieldFallsBackToReflection() {
+		DirectFieldAccessor accessor = createAccessor(new FieldBean());
+		assertThatExceptionOfType(TypeMismatchException.class).isThrownBy(() ->
+				accessor.setPropertyValue("age", null));
+	}
+
+
+	public static class FieldBean {
+
+		public String name;
+
+		public int age;
+
+		public FieldBean nested;
+	}
+
+}
@@ -37,6 +37,9 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -2169,6 +2172,117 @@ class DefaultListableBeanFactoryTests {
 		}
 	}
 
+	@Test
+	void extensiveCircularReferenceWithParallelPreInstantiation() {
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 1000; i++) {
+			MutablePropertyValues pvs = new MutablePropertyValues();
+			pvs.addPropertyValue(new PropertyValue("spouse", new RuntimeBeanReference("bean" + (i < 99 ? i + 1 : 0))));
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.setPropertyValues(pvs);
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		lbf.preInstantiateSingletons();
+		for (int i = 0; i < 1000; i++) {
+			TestBean bean = (TestBean) lbf.getBean("bean" + i);
+			TestBean otherBean = (TestBean) lbf.getBean("bean" + (i < 99 ? i + 1 : 0));
+			assertThat(bean.getSpouse() == otherBean).isTrue();
+		}
+	}
+
+	@Test
+	void parallelPreInstantiationWithDeclaredDependencies() {
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 200; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			if (i > 0) {
+				bd.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("bean" + (i - 1)));
+			}
+			if (i % 10 == 0) {
+				bd.setDependsOn("independent" + i);
+				lbf.registerBeanDefinition("independent" + i, new RootBeanDefinition(NestedTestBean.class));
+			}
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		lbf.preInstantiateSingletons();
+		for (int i = 1; i < 200; i++) {
+			assertThat(lbf.containsSingleton("bean" + i)).isTrue();
+			assertThat(((TestBean) lbf.getBean("bean" + i)).getSpouse()).isSameAs(lbf.getBean("bean" + (i - 1)));
+		}
+		assertThat(lbf.getDependentBeans("independent10")).containsExactly("bean10");
+	}
+
+	@Test
+	void parallelPreInstantiationWithLongDependencyChain() {
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 20000; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			if (i > 0) {
+				bd.setDependsOn("bean" + (i - 1));
+			}
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		lbf.preInstantiateSingletons();
+		assertThat(lbf.getSingletonCount()).isEqualTo(20000);
+		assertThat(lbf.getDependentBeans("bean0")).containsExactly("bean1");
+	}
+
+	@Test
+	void parallelPreInstantiationWithSmartInitializingSingleton() {
+		lbf.setPreInstantiationParallelism(4);
+		RootBeanDefinition smartBd = new RootBeanDefinition(SmartInitializingBean.class);
+		smartBd.getPropertyValues().add("beanFactory", lbf);
+		lbf.registerBeanDefinition("smart", smartBd);
+		for (int i = 0; i < 100; i++) {
+			lbf.registerBeanDefinition("bean" + i, new RootBeanDefinition(TestBean.class));
+		}
+		lbf.registerBeanDefinition("factory", new RootBeanDefinition(EagerInitFactory.class));
+		lbf.preInstantiateSingletons();
+		SmartInitializingBean smart = lbf.getBean("smart", SmartInitializingBean.class);
+		assertThat(smart.invocationCount).isEqualTo(1);
+		assertThat(smart.singletonCountOnInvocation).isEqualTo(lbf.getSingletonCount());
+		assertThat(smart.invokingThread).isSameAs(Thread.currentThread());
+		assertThat(((EagerInitFactory) lbf.getBean("&factory")).initialized).isTrue();
+	}
+
+	@Test
+	void parallelPreInstantiationWithFailingBean() {
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 100; i++) {
+			lbf.registerBeanDefinition("bean" + i, new RootBeanDefinition(TestBean.class));
+		}
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(ITestBean.class));
+		RootBeanDefinition dependentBd = new RootBeanDefinition(TestBean.class);
+		dependentBd.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("test"));
+		lbf.registerBeanDefinition("dependent", dependentBd);
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(
+				lbf::preInstantiateSingletons)
+			.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("test"));
+		assertThat(lbf.containsSingleton("dependent")).isFalse();
+	}
+
+	@Test
+	void parallelPreInstantiationWithCircularReferenceAcrossThreads() {
+		lbf.setPreInstantiationParallelism(4);
+		CycleState state = new CycleState();
+		RootBeanDefinition bd1 = new RootBeanDefinition(CyclicBean1.class);
+		bd1.getConstructorArgumentValues().addGenericArgumentValue(state);
+		bd1.setAutowireMode(RootBeanDefinition.AUTOWIRE_BY_TYPE);
+		lbf.registerBeanDefinition("bean1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(CyclicBean2.class);
+		bd2.getConstructorArgumentValues().addGenericArgumentValue(state);
+		bd2.setAutowireMode(RootBeanDefinition.AUTOWIRE_BY_TYPE);
+		lbf.registerBeanDefinition("bean2", bd2);
+		lbf.preInstantiateSingletons();
+
+		CyclicBean1 bean1 = lbf.getBean(CyclicBean1.class);
+		CyclicBean2 bean2 = lbf.getBean(CyclicBean2.class);
+		assertThat(bean1.getCyclicBean2()).isSameAs(bean2);
+		assertThat(bean2.getCyclicBean1()).isSameAs(bean1);
+		// One thread backed out of its creation, leaving the bean to the other thread
+		assertThat(state.creationCount.get()).isEqualTo(3);
+	}
+
 	@Test
 	void circularReferenceThroughAutowiring() {
 		RootBeanDefinition bd = new RootBeanDefinition(ConstructorDependencyBean.class);
@@ -2949,6 +3063,84 @@ class DefaultListableBeanFactoryTests {
 	}
 
 
+	static class CycleState {
+
+		final CountDownLatch bothInCreation = new CountDownLatch(2);
+
+		final AtomicInteger creationCount = new AtomicInteger();
+
+		void created() {
+			this.creationCount.incrementAndGet();
+			this.bothInCreation.countDown();
+			try {
+				this.bothInCreation.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	public static class CyclicBean1 {
+
+		private CyclicBean2 cyclicBean2;
+
+		public CyclicBean1(CycleState state) {
+			state.created();
+		}
+
+		public CyclicBean2 getCyclicBean2() {
+			return this.cyclicBean2;
+		}
+
+		public void setCyclicBean2(CyclicBean2 cyclicBean2) {
+			this.cyclicBean2 = cyclicBean2;
+		}
+	}
+
+
+	public static class CyclicBean2 {
+
+		private CyclicBean1 cyclicBean1;
+
+		public CyclicBean2(CycleState state) {
+			state.created();
+		}
+
+		public CyclicBean1 getCyclicBean1() {
+			return this.cyclicBean1;
+		}
+
+		public void setCyclicBean1(CyclicBean1 cyclicBean1) {
+			this.cyclicBean1 = cyclicBean1;
+		}
+	}
+
+
+	public static class SmartInitializingBean implements SmartInitializingSingleton {
+
+		private DefaultListableBeanFactory beanFactory;
+
+		int invocationCount;
+
+		int singletonCountOnInvocation;
+
+		Thread invokingThread;
+
+		public void setBeanFactory(DefaultListableBeanFactory beanFactory) {
+			this.beanFactory = beanFactory;
+		}
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.invocationCount++;
+			this.singletonCountOnInvocation = this.beanFactory.getSingletonCount();
+			this.invokingThread = Thread.currentThread();
+		}
+	}
+
+
 	public static class TestBeanFactory {
 
 		public static boolean initialized = false;
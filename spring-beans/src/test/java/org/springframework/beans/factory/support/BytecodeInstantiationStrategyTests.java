@@ -0,0 +1,235 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link BytecodeInstantiationStrategy}.
+ *
+ * @since 5.3.14
+ */
+class BytecodeInstantiationStrategyTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private final BytecodeInstantiationStrategy instantiationStrategy = new BytecodeInstantiationStrategy();
+
+
+	@BeforeEach
+	void setup() {
+		this.instantiationStrategy.setGenerationThreshold(0);
+		this.beanFactory.setInstantiationStrategy(this.instantiationStrategy);
+	}
+
+
+	@Test
+	void defaultConstructor() {
+		registerPrototype("bean", new RootBeanDefinition(CreatedBean.class));
+		CreatedBean bean = this.beanFactory.getBean("bean", CreatedBean.class);
+		assertThat(bean.generated).isTrue();
+	}
+
+	@Test
+	void constructorWithArguments() {
+		RootBeanDefinition bd = new RootBeanDefinition(CreatedBean.class);
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(1, "99");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(2, new RuntimeBeanReference("other"));
+		registerPrototype("bean", bd);
+		registerPrototype("other", new RootBeanDefinition(CreatedBean.class));
+
+		CreatedBean bean = this.beanFactory.getBean("bean", CreatedBean.class);
+		assertThat(bean.generated).isTrue();
+		assertThat(bean.name).isEqualTo("juergen");
+		assertThat(bean.age).isEqualTo(99);
+		assertThat(bean.other).isNotNull();
+		assertThat(this.beanFactory.getBean("bean")).isNotSameAs(bean);
+	}
+
+	@Test
+	void staticFactoryMethod() {
+		RootBeanDefinition bd = new RootBeanDefinition(CreatedBean.class);
+		bd.setFactoryMethodName("create");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "42");
+		registerPrototype("bean", bd);
+
+		CreatedBean bean = this.beanFactory.getBean("bean", CreatedBean.class);
+		assertThat(bean.age).isEqualTo(42);
+		assertThat(bean.generatedFactoryMethod).isTrue();
+	}
+
+	@Test
+	void instanceFactoryMethod() {
+		this.beanFactory.registerBeanDefinition("factory", new RootBeanDefinition(BeanFactoryBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition();
+		bd.setFactoryBeanName("factory");
+		bd.setFactoryMethodName("createBean");
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "juergen");
+		registerPrototype("bean", bd);
+
+		CreatedBean bean = (CreatedBean) this.beanFactory.getBean("bean");
+		assertThat(bean.name).isEqualTo("juergen");
+		assertThat(bean.generatedFactoryMethod).isTrue();
+	}
+
+	@Test
+	void instanceFactoryMethodWithPrimitiveReturnType() {
+		this.beanFactory.registerBeanDefinition("factory", new RootBeanDefinition(BeanFactoryBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition();
+		bd.setFactoryBeanName("factory");
+		bd.setFactoryMethodName("createAge");
+		registerPrototype("bean", bd);
+
+		assertThat(this.beanFactory.getBean("bean")).isEqualTo(42);
+	}
+
+	@Test
+	void factoryMethodReturningNull() {
+		RootBeanDefinition bd = new RootBeanDefinition(CreatedBean.class);
+		bd.setFactoryMethodName("createNull");
+		registerPrototype("bean", bd);
+
+		assertThat(this.beanFactory.getBean("bean").toString()).isEqualTo("null");
+	}
+
+	@Test
+	void nonPublicClassUsesReflection() {
+		registerPrototype("bean", new RootBeanDefinition(NonPublicBean.class));
+		NonPublicBean bean = this.beanFactory.getBean("bean", NonPublicBean.class);
+		assertThat(bean.generated).isFalse();
+	}
+
+	@Test
+	void constructorExceptionIsWrapped() {
+		RootBeanDefinition bd = new RootBeanDefinition(CreatedBean.class);
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, true);
+		registerPrototype("bean", bd);
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() -> this.beanFactory.getBean("bean"))
+				.havingRootCause().isInstanceOf(IllegalStateException.class).withMessage("failure");
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() -> this.beanFactory.getBean("bean"))
+				.withCauseInstanceOf(BeanInstantiationException.class);
+	}
+
+	@Test
+	void factoryMethodExceptionIsWrapped() {
+		RootBeanDefinition bd = new RootBeanDefinition(CreatedBean.class);
+		bd.setFactoryMethodName("createFailing");
+		registerPrototype("bean", bd);
+
+		assertThatExceptionOfType(BeanCreationException.class).isThrownBy(() -> this.beanFactory.getBean("bean"))
+				.havingRootCause().isInstanceOf(IllegalStateException.class).withMessage("failure");
+	}
+
+	@Test
+	void generationAfterThreshold() {
+		this.instantiationStrategy.setGenerationThreshold(3);
+		registerPrototype("bean", new RootBeanDefinition(CreatedBean.class));
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(this.beanFactory.getBean("bean", CreatedBean.class).generated).isFalse();
+		}
+		assertThat(this.beanFactory.getBean("bean", CreatedBean.class).generated).isTrue();
+		assertThat(this.beanFactory.getBean("bean", CreatedBean.class).generated).isTrue();
+	}
+
+	private void registerPrototype(String beanName, RootBeanDefinition bd) {
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		this.beanFactory.registerBeanDefinition(beanName, bd);
+	}
+
+
+	private static boolean isCalledFromGeneratedCode() {
+		StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+		// [0] this method, [1] constructor or factory method, [2] its caller
+		return stackTrace[2].getClassName().startsWith("spring.beans.Instantiator");
+	}
+
+
+	public static class CreatedBean {
+
+		final boolean generated = isCalledFromGeneratedCode();
+
+		boolean generatedFactoryMethod;
+
+		String name;
+
+		int age;
+
+		CreatedBean other;
+
+		public CreatedBean() {
+		}
+
+		public CreatedBean(String name, int age, CreatedBean other) {
+			this.name = name;
+			this.age = age;
+			this.other = other;
+		}
+
+		public CreatedBean(boolean fail) {
+			throw new IllegalStateException("failure");
+		}
+
+		public static CreatedBean create(int age) {
+			CreatedBean bean = new CreatedBean();
+			bean.age = age;
+			bean.generatedFactoryMethod = isCalledFromGeneratedCode();
+			return bean;
+		}
+
+		public static CreatedBean createNull() {
+			return null;
+		}
+
+		public static CreatedBean createFailing() {
+			throw new IllegalStateException("failure");
+		}
+	}
+
+
+	public static class BeanFactoryBean {
+
+		public Object createBean(String name) {
+			CreatedBean bean = new CreatedBean();
+			bean.name = name;
+			bean.generatedFactoryMethod = isCalledFromGeneratedCode();
+			return bean;
+		}
+
+		public int createAge() {
+			return 42;
+		}
+	}
+
+
+	static class NonPublicBean {
+
+		final boolean generated = isCalledFromGeneratedCode();
+	}
+
+}
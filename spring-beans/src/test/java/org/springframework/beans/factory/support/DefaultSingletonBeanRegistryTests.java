@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,28 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.lang.Nullable;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 
 /**
  * @author Juergen Hoeller
@@ -101,4 +115,202 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+
+	@Test
+	public void testUnrelatedSingletonsCreatedInParallel() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CountDownLatch bothInCreation = new CountDownLatch(2);
+		ObjectFactory<Object> factory = () -> {
+			bothInCreation.countDown();
+			await(bothInCreation);
+			return new TestBean();
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> tb1 = executor.submit(() -> beanRegistry.getSingleton("tb1", factory));
+			Future<Object> tb2 = executor.submit(() -> beanRegistry.getSingleton("tb2", factory));
+			assertThat(tb1.get(10, TimeUnit.SECONDS)).isSameAs(beanRegistry.getSingleton("tb1"));
+			assertThat(tb2.get(10, TimeUnit.SECONDS)).isSameAs(beanRegistry.getSingleton("tb2"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testSameSingletonCreatedOnceForConcurrentRequests() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		AtomicInteger creationCount = new AtomicInteger();
+		CountDownLatch inCreation = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		ObjectFactory<Object> factory = () -> {
+			creationCount.incrementAndGet();
+			inCreation.countDown();
+			await(proceed);
+			return new TestBean();
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> tb1 = executor.submit(() -> beanRegistry.getSingleton("tb", factory));
+			await(inCreation);
+			Future<Object> tb2 = executor.submit(() -> beanRegistry.getSingleton("tb", factory));
+			assertThat(beanRegistry.getSingleton("tb")).isNull();
+			proceed.countDown();
+			assertThat(tb1.get(10, TimeUnit.SECONDS)).isSameAs(tb2.get(10, TimeUnit.SECONDS));
+			assertThat(creationCount.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testEarlyReferenceNotExposedToOtherThreads() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean tb = new TestBean();
+		CountDownLatch earlyExposed = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> created = executor.submit(() -> beanRegistry.getSingleton("tb", () -> {
+				beanRegistry.addSingletonFactory("tb", () -> tb);
+				assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+				earlyExposed.countDown();
+				await(proceed);
+				return tb;
+			}));
+			await(earlyExposed);
+			assertThat(beanRegistry.isSingletonCurrentlyInCreation("tb")).isTrue();
+			assertThat(beanRegistry.getSingleton("tb")).isNull();
+			proceed.countDown();
+			assertThat(created.get(10, TimeUnit.SECONDS)).isSameAs(tb);
+			assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCircularReferenceAcrossThreadsFailsWithoutRetry() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		CountDownLatch bothInCreation = new CountDownLatch(2);
+		AtomicInteger creationCount = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> created1 = executor.submit(() -> getBean(beanRegistry, "tb1",
+					circularFactory(beanRegistry, "tb1", "tb2", bothInCreation, creationCount)));
+			Future<Object> created2 = executor.submit(() -> getBean(beanRegistry, "tb2",
+					circularFactory(beanRegistry, "tb2", "tb1", bothInCreation, creationCount)));
+			TestBean tb1 = getOrNull(created1);
+			TestBean tb2 = getOrNull(created2);
+
+			// Exactly one thread backs out, without creating its singleton again
+			assertThat(tb1 == null ^ tb2 == null).isTrue();
+			TestBean created = (tb1 != null ? tb1 : tb2);
+			assertThat(beanRegistry.getSingleton(created.getName())).isSameAs(created);
+			assertThat(created.getSpouse()).isSameAs(beanRegistry.getSingleton(created.getSpouse().getName()));
+			assertThat(created.getSpouse().getSpouse()).isSameAs(created);
+			assertThat(creationCount.get()).isEqualTo(3);
+			assertThat(getSingletonCreationLocks(beanRegistry)).isEmpty();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testSingletonCreationLocksRemovedAfterFailure() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		assertThatIllegalStateException().isThrownBy(() -> beanRegistry.getSingleton("tb", () -> {
+			throw new IllegalStateException("failed");
+		}));
+		assertThat(beanRegistry.isSingletonCurrentlyInCreation("tb")).isFalse();
+		assertThat(getSingletonCreationLocks(beanRegistry)).isEmpty();
+
+		TestBean tb = new TestBean();
+		assertThat(beanRegistry.getSingleton("tb", () -> tb)).isSameAs(tb);
+		assertThat(getSingletonCreationLocks(beanRegistry)).isEmpty();
+	}
+
+	@Test
+	public void testSingletonMutexGuardsRegistration() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean tb = new TestBean();
+		CountDownLatch inCreation = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> creation;
+			synchronized (beanRegistry.getSingletonMutex()) {
+				creation = executor.submit(() -> beanRegistry.getSingleton("tb", () -> {
+					inCreation.countDown();
+					return tb;
+				}));
+				await(inCreation);
+				// Waiting for the creating thread would deadlock while holding the mutex
+				assertThatExceptionOfType(BeanCurrentlyInCreationException.class).isThrownBy(() ->
+						beanRegistry.getSingleton("tb", () -> {
+							throw new IllegalStateException("Should be created by the other thread");
+						}));
+				// The mutex has not been released in the meantime
+				assertThat(beanRegistry.containsSingleton("tb")).isFalse();
+			}
+			assertThat(creation.get(10, TimeUnit.SECONDS)).isSameAs(tb);
+			assertThat(beanRegistry.getSingleton("tb")).isSameAs(tb);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static ObjectFactory<Object> circularFactory(DefaultSingletonBeanRegistry beanRegistry,
+			String beanName, String spouseName, CountDownLatch bothInCreation, AtomicInteger creationCount) {
+
+		return () -> {
+			creationCount.incrementAndGet();
+			TestBean bean = new TestBean(beanName);
+			beanRegistry.addSingletonFactory(beanName, () -> bean);
+			bothInCreation.countDown();
+			await(bothInCreation);
+			bean.setSpouse((TestBean) getBean(beanRegistry, spouseName,
+					circularFactory(beanRegistry, spouseName, beanName, bothInCreation, creationCount)));
+			return bean;
+		};
+	}
+
+	@Nullable
+	private static TestBean getOrNull(Future<Object> future) throws Exception {
+		try {
+			return (TestBean) future.get(10, TimeUnit.SECONDS);
+		}
+		catch (ExecutionException ex) {
+			assertThat(ex.getCause()).isInstanceOf(BeanCurrentlyInCreationException.class);
+			return null;
+		}
+	}
+
+	private static Map<?, ?> getSingletonCreationLocks(DefaultSingletonBeanRegistry beanRegistry) {
+		return (Map<?, ?>) new DirectFieldAccessor(beanRegistry).getPropertyValue("singletonCreationLocks");
+	}
+
+	private static Object getBean(DefaultSingletonBeanRegistry beanRegistry, String beanName, ObjectFactory<?> factory) {
+		Object singleton = beanRegistry.getSingleton(beanName);
+		return (singleton != null ? singleton : beanRegistry.getSingleton(beanName, factory));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+	}
+
 }
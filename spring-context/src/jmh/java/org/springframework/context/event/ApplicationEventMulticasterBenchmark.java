@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Benchmark for publishing events through the default and the indexed
+ * {@link ApplicationEventMulticaster}.
+ *
+ * @see IndexedApplicationEventMulticaster
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ApplicationEventMulticasterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"simple", "indexed"})
+		public String multicaster;
+
+		@Param({"1", "10"})
+		public int listeners;
+
+		public GenericApplicationContext context;
+
+		@Setup
+		public void setup() {
+			this.context = new GenericApplicationContext();
+			if ("indexed".equals(this.multicaster)) {
+				IndexedApplicationEventMulticaster eventMulticaster =
+						new IndexedApplicationEventMulticaster(this.context.getBeanFactory());
+				eventMulticaster.setPrecomputedEventTypes(String.class, TestEvent.class);
+				this.context.getBeanFactory().registerSingleton(
+						AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, eventMulticaster);
+			}
+			for (int i = 0; i < this.listeners; i++) {
+				this.context.addApplicationListener(new CountingListener<TestEvent>() {});
+				this.context.addApplicationListener(new CountingListener<OtherEvent>() {});
+			}
+			this.context.refresh();
+		}
+
+		@TearDown
+		public void teardown() {
+			this.context.close();
+		}
+	}
+
+	@Benchmark
+	public void publishEvent(BenchmarkState state) {
+		state.context.publishEvent(new TestEvent(state.context));
+	}
+
+	@Benchmark
+	public void publishPayload(BenchmarkState state) {
+		state.context.publishEvent("payload");
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class TestEvent extends ApplicationEvent {
+
+		public TestEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class OtherEvent extends ApplicationEvent {
+
+		public OtherEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	private abstract static class CountingListener<E extends ApplicationEvent> implements ApplicationListener<E> {
+
+		int count;
+
+		@Override
+		public void onApplicationEvent(E event) {
+			this.count++;
+		}
+	}
+
+}
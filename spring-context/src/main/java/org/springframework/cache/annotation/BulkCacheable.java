@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.core.annotation.AliasFor;
+
+/**
+ * Annotation indicating that the result of invoking a bulk loading method can
+ * be cached per element.
+ *
+ * <p>The annotated method must declare a single {@link java.util.Collection}
+ * parameter holding the keys to load, and return a {@link java.util.Map} from
+ * those keys to their values. The cache key of each element is computed by the
+ * configured {@link org.springframework.cache.interceptor.KeyGenerator} as for a
+ * method taking that element as its only argument. With the default key
+ * generation, this is the element itself, which makes the cached entries
+ * compatible with a single-key {@link Cacheable} method.
+ *
+ * <p>Each time the method is invoked, the requested keys are looked up in the
+ * associated cache(s) first and the method is only invoked for the missing
+ * ones, with a collection of the same type holding those keys only. Keys that
+ * are already being loaded by a concurrent invocation are not loaded again
+ * but awaited. The loaded values are stored per key and the returned map is
+ * assembled in the iteration order of the requested keys; keys for which the
+ * method does not return a value are not cached and left out of the result.
+ *
+ * <p>Invoking the method with the subset of missing keys requires proxy-based
+ * interception; with other aspect implementations, the method is invoked with
+ * all requested keys on a cache miss. The arguments of the original invocation
+ * are never modified.
+ *
+ * <p>This annotation may be used as a <em>meta-annotation</em> to create custom
+ * <em>composed annotations</em> with attribute overrides.
+ *
+ * @since 5.3.14
+ * @see Cacheable
+ * @see CacheConfig
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface BulkCacheable {
+
+	/**
+	 * Alias for {@link #cacheNames}.
+	 */
+	@AliasFor("cacheNames")
+	String[] value() default {};
+
+	/**
+	 * Names of the caches in which the loaded values are stored.
+	 * <p>Names may be used to determine the target cache (or caches), matching
+	 * the qualifier value or bean name of a specific bean definition.
+	 * @see #value
+	 * @see CacheConfig#cacheNames
+	 */
+	@AliasFor("value")
+	String[] cacheNames() default {};
+
+	/**
+	 * The bean name of the custom {@link org.springframework.cache.CacheManager} to use to
+	 * create a default {@link org.springframework.cache.interceptor.CacheResolver} if none
+	 * is set already.
+	 * <p>Mutually exclusive with the {@link #cacheResolver}  attribute.
+	 * @see org.springframework.cache.interceptor.SimpleCacheResolver
+	 * @see CacheConfig#cacheManager
+	 */
+	String cacheManager() default "";
+
+	/**
+	 * The bean name of the custom {@link org.springframework.cache.interceptor.CacheResolver}
+	 * to use.
+	 * @see CacheConfig#cacheResolver
+	 */
+	String cacheResolver() default "";
+
+	/**
+	 * Spring Expression Language (SpEL) expression used for making the method
+	 * caching conditional.
+	 * <p>Default is {@code ""}, meaning the loaded values are always cached.
+	 * <p>The SpEL expression evaluates against the same context as the
+	 * {@link Cacheable#condition() condition} of {@code @Cacheable}.
+	 */
+	String condition() default "";
+
+	/**
+	 * Spring Expression Language (SpEL) expression used to veto the caching
+	 * of a loaded value.
+	 * <p>The expression is evaluated for each loaded value, which is available
+	 * as {@code #result}.
+	 * <p>Default is {@code ""}, meaning that caching is never vetoed.
+	 * @see Cacheable#unless()
+	 */
+	String unless() default "";
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.springframework.cache.interceptor.BulkCacheableOperation;
 import org.springframework.cache.interceptor.CacheEvictOperation;
 import org.springframework.cache.interceptor.CacheOperation;
 import org.springframework.cache.interceptor.CachePutOperation;
@@ -36,7 +37,7 @@ import org.springframework.util.StringUtils;
 
 /**
  * Strategy implementation for parsing Spring's {@link Caching}, {@link Cacheable},
- * {@link CacheEvict}, and {@link CachePut} annotations.
+ * {@link CacheEvict}, {@link CachePut}, and {@link BulkCacheable} annotations.
  *
  * @author Costin Leau
  * @author Juergen Hoeller
@@ -56,6 +57,7 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		CACHE_OPERATION_ANNOTATIONS.add(CacheEvict.class);
 		CACHE_OPERATION_ANNOTATIONS.add(CachePut.class);
 		CACHE_OPERATION_ANNOTATIONS.add(Caching.class);
+		CACHE_OPERATION_ANNOTATIONS.add(BulkCacheable.class);
 	}
 
 
@@ -111,6 +113,8 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 				ann -> ops.add(parsePutAnnotation(ae, cachingConfig, (CachePut) ann)));
 		anns.stream().filter(ann -> ann instanceof Caching).forEach(
 				ann -> parseCachingAnnotation(ae, cachingConfig, (Caching) ann, ops));
+		anns.stream().filter(ann -> ann instanceof BulkCacheable).forEach(
+				ann -> ops.add(parseBulkCacheableAnnotation(ae, cachingConfig, (BulkCacheable) ann)));
 		return ops;
 	}
 
@@ -179,6 +183,25 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		return op;
 	}
 
+	private BulkCacheableOperation parseBulkCacheableAnnotation(
+			AnnotatedElement ae, DefaultCacheConfig defaultConfig, BulkCacheable bulkCacheable) {
+
+		BulkCacheableOperation.Builder builder = new BulkCacheableOperation.Builder();
+
+		builder.setName(ae.toString());
+		builder.setCacheNames(bulkCacheable.cacheNames());
+		builder.setCondition(bulkCacheable.condition());
+		builder.setUnless(bulkCacheable.unless());
+		builder.setCacheManager(bulkCacheable.cacheManager());
+		builder.setCacheResolver(bulkCacheable.cacheResolver());
+
+		defaultConfig.applyDefault(builder);
+		BulkCacheableOperation op = builder.build();
+		validateCacheOperation(ae, op);
+
+		return op;
+	}
+
 	private void parseCachingAnnotation(
 			AnnotatedElement ae, DefaultCacheConfig defaultConfig, Caching caching, Collection<CacheOperation> ops) {
 
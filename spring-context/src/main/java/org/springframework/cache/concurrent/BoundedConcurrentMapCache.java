@@ -0,0 +1,1059 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.core.serializer.support.SerializationDelegate;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Size-bounded {@link org.springframework.cache.Cache} implementation based on
+ * the core JDK {@code java.util.concurrent} package, for safe in-memory caching
+ * without a third-party caching library.
+ *
+ * <p>Entries are evicted according to a W-TinyLFU policy once the
+ * {@linkplain #getMaximumSize() maximum size} is exceeded: new entries enter
+ * a small LRU admission window, and an entry leaving the window is only
+ * admitted to the main segmented LRU space if it has been requested more
+ * frequently than the entry it would replace. Access frequencies are tracked
+ * in a compact, periodically aged count-min sketch.
+ *
+ * <p>Entries may expire after a {@linkplain #setTimeToLive default} or
+ * {@linkplain #put(Object, Object, Duration) per-entry} time-to-live. Entries
+ * may also be {@linkplain #setRefreshAfterWrite refreshed ahead} of their
+ * expiration by a {@linkplain #setRefreshLoader refresh loader}, asynchronously
+ * reloading the value while the current one is still served.
+ * {@linkplain #getStatistics() Statistics} are recorded for hits, misses,
+ * evictions, expirations and refreshes.
+ *
+ * <p>Reads reorder the eviction queues on a best-effort basis: if the queues
+ * are being updated concurrently, the reordering for a read is skipped rather
+ * than blocking the reading thread. Values obtained through
+ * {@link #get(Object, Callable)} are loaded outside of the internal map's locks,
+ * with concurrent requests for the same key awaiting the first load.
+ *
+ * @since 5.3.14
+ * @see ConcurrentMapCacheManager#setMaximumSize
+ */
+public class BoundedConcurrentMapCache extends AbstractValueAdaptingCache {
+
+	private static final Log logger = LogFactory.getLog(BoundedConcurrentMapCache.class);
+
+	private static final byte NONE = 0;
+
+	private static final byte WINDOW = 1;
+
+	private static final byte PROBATION = 2;
+
+	private static final byte PROTECTED = 3;
+
+
+	private final String name;
+
+	private final int maximumSize;
+
+	private final ConcurrentMap<Object, Node> store;
+
+	@Nullable
+	private final SerializationDelegate serialization;
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final FrequencySketch sketch;
+
+	private final NodeQueue window = new NodeQueue(WINDOW);
+
+	private final NodeQueue probation = new NodeQueue(PROBATION);
+
+	private final NodeQueue protectedQueue = new NodeQueue(PROTECTED);
+
+	private final int maximumWindowSize;
+
+	private final int maximumMainSize;
+
+	private final int maximumProtectedSize;
+
+	private final ConcurrentMap<Object, LoadingValue> loading = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Object, Boolean> refreshing = new ConcurrentHashMap<>();
+
+	private long timeToLiveNanos;
+
+	private long refreshAfterWriteNanos;
+
+	@Nullable
+	private Function<Object, ?> refreshLoader;
+
+	private Executor refreshExecutor = ForkJoinPool.commonPool();
+
+	LongSupplier ticker = System::nanoTime;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final LongAdder expirationCount = new LongAdder();
+
+	private final LongAdder refreshCount = new LongAdder();
+
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name
+	 * and maximum size.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 */
+	public BoundedConcurrentMapCache(String name, int maximumSize) {
+		this(name, maximumSize, true);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name
+	 * and maximum size.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 * @param allowNullValues whether to accept and convert {@code null}
+	 * values for this cache
+	 */
+	public BoundedConcurrentMapCache(String name, int maximumSize, boolean allowNullValues) {
+		this(name, maximumSize, allowNullValues, null);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name and
+	 * maximum size. If the {@link SerializationDelegate} is specified,
+	 * {@link #isStoreByValue() store-by-value} is enabled.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 * @param serialization the {@link SerializationDelegate} to use
+	 * to serialize cache entry or {@code null} to store the reference
+	 */
+	protected BoundedConcurrentMapCache(String name, int maximumSize,
+			boolean allowNullValues, @Nullable SerializationDelegate serialization) {
+
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(maximumSize > 0, "Maximum size must be greater than 0");
+		this.name = name;
+		this.maximumSize = maximumSize;
+		this.store = new ConcurrentHashMap<>(Math.min(maximumSize, 256));
+		this.serialization = serialization;
+		this.sketch = new FrequencySketch(maximumSize);
+		this.maximumWindowSize = Math.max(1, maximumSize / 100);
+		this.maximumMainSize = maximumSize - this.maximumWindowSize;
+		this.maximumProtectedSize = (int) (this.maximumMainSize * 0.8);
+	}
+
+
+	/**
+	 * Set the default time-to-live for entries of this cache, measured from
+	 * the time an entry has been written.
+	 * <p>Default is none, keeping entries until they are evicted.
+	 * @see #put(Object, Object, Duration)
+	 */
+	public void setTimeToLive(@Nullable Duration timeToLive) {
+		this.timeToLiveNanos = toNanos(timeToLive);
+	}
+
+	/**
+	 * Return the default time-to-live for entries of this cache, if any.
+	 */
+	@Nullable
+	public Duration getTimeToLive() {
+		return toDuration(this.timeToLiveNanos);
+	}
+
+	/**
+	 * Set the age after which a requested entry is reloaded asynchronously with
+	 * the {@linkplain #setRefreshLoader refresh loader}, serving the current
+	 * value until the reload completes.
+	 * <p>This is typically set to a fraction of the {@linkplain #setTimeToLive
+	 * time-to-live}, so that frequently requested entries never expire.
+	 * Default is none. Only applies if a refresh loader has been specified.
+	 * @see #setRefreshExecutor
+	 */
+	public void setRefreshAfterWrite(@Nullable Duration refreshAfterWrite) {
+		this.refreshAfterWriteNanos = toNanos(refreshAfterWrite);
+	}
+
+	/**
+	 * Return the age after which entries are refreshed ahead, if any.
+	 */
+	@Nullable
+	public Duration getRefreshAfterWrite() {
+		return toDuration(this.refreshAfterWriteNanos);
+	}
+
+	/**
+	 * Set the function to reload the value for a given key with when refreshing
+	 * ahead.
+	 * <p>The function is invoked on the {@linkplain #setRefreshExecutor refresh
+	 * executor}, independent from the request that triggered the refresh: it
+	 * must not rely on the context of any particular caller. The value loader
+	 * passed to {@link #get(Object, Callable)} is never used for refreshing.
+	 * @see #setRefreshAfterWrite
+	 */
+	public void setRefreshLoader(@Nullable Function<Object, ?> refreshLoader) {
+		this.refreshLoader = refreshLoader;
+	}
+
+	/**
+	 * Return the function to reload values with when refreshing ahead, if any.
+	 */
+	@Nullable
+	public Function<Object, ?> getRefreshLoader() {
+		return this.refreshLoader;
+	}
+
+	/**
+	 * Set the {@link Executor} to reload entries on when refreshing ahead.
+	 * <p>Default is the {@link ForkJoinPool#commonPool() common pool}.
+	 */
+	public void setRefreshExecutor(Executor refreshExecutor) {
+		Assert.notNull(refreshExecutor, "Executor must not be null");
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	/**
+	 * Return the maximum number of entries in this cache.
+	 */
+	public final int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Return whether this cache stores a copy of each entry ({@code true}) or
+	 * a reference ({@code false}, default). If store by value is enabled, each
+	 * entry in the cache must be serializable.
+	 */
+	public final boolean isStoreByValue() {
+		return (this.serialization != null);
+	}
+
+	/**
+	 * Return the number of entries currently held by this cache, possibly
+	 * including entries that have expired but have not been removed yet.
+	 */
+	public int estimatedSize() {
+		return this.store.size();
+	}
+
+	/**
+	 * Return a snapshot of the statistics of this cache.
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(this.hitCount.sum(), this.missCount.sum(), this.evictionCount.sum(),
+				this.expirationCount.sum(), this.refreshCount.sum());
+	}
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	/**
+	 * This implementation returns the cache itself, as it is its own
+	 * native implementation.
+	 */
+	@Override
+	public final Object getNativeCache() {
+		return this;
+	}
+
+	@Override
+	@Nullable
+	protected Object lookup(Object key) {
+		Node node = this.store.get(key);
+		long now = this.ticker.getAsLong();
+		if (node == null || expireIfNecessary(node, now)) {
+			this.missCount.increment();
+			recordMiss(key);
+			return null;
+		}
+		this.hitCount.increment();
+		recordAccess(node);
+		refreshIfNecessary(node, now);
+		return node.value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		long now = this.ticker.getAsLong();
+		Node node = this.store.get(key);
+		if (node != null && !expireIfNecessary(node, now)) {
+			this.hitCount.increment();
+			recordAccess(node);
+			refreshIfNecessary(node, now);
+			return (T) fromStoreValue(node.value);
+		}
+		return (T) fromStoreValue(load(key, valueLoader));
+	}
+
+	private Object load(Object key, Callable<?> valueLoader) {
+		LoadingValue loadingValue = new LoadingValue();
+		LoadingValue existing = this.loading.putIfAbsent(key, loadingValue);
+		if (existing != null) {
+			if (existing.owner == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive load of cache key '" + key + "' in cache '" + this.name + "'");
+			}
+			Object storeValue = existing.await(key, valueLoader);
+			this.hitCount.increment();
+			return storeValue;
+		}
+		try {
+			// Re-check after registration, a concurrent load may have completed in the meantime
+			Node node = this.store.get(key);
+			Object storeValue;
+			if (node != null && !expireIfNecessary(node, this.ticker.getAsLong())) {
+				this.hitCount.increment();
+				recordAccess(node);
+				storeValue = node.value;
+			}
+			else {
+				this.missCount.increment();
+				storeValue = toStoreValue(valueLoader.call());
+				synchronized (loadingValue) {
+					if (!loadingValue.invalidated) {
+						Node loaded = createNode(key, storeValue, this.timeToLiveNanos, this.ticker.getAsLong());
+						Node previous = doPutIfAbsent(loaded);
+						if (previous != null) {
+							// Value stored by a concurrent put takes precedence
+							storeValue = previous.value;
+						}
+					}
+				}
+			}
+			loadingValue.complete(storeValue);
+			return storeValue;
+		}
+		catch (Throwable ex) {
+			loadingValue.completeExceptionally(ex);
+			throw new ValueRetrievalException(key, valueLoader, ex);
+		}
+		finally {
+			this.loading.remove(key, loadingValue);
+		}
+	}
+
+	@Override
+	@Nullable
+	public CompletableFuture<?> retrieve(Object key) {
+		Object value = lookup(key);
+		return (value != null ? CompletableFuture.completedFuture(
+				isAllowNullValues() ? toValueWrapper(value) : fromStoreValue(value)) : null);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return get(key, () -> valueLoader.get().join());
+			}
+			catch (ValueRetrievalException ex) {
+				Throwable cause = ex.getCause();
+				throw (cause instanceof CompletionException ? (CompletionException) cause : new CompletionException(cause));
+			}
+		});
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		doPut(key, value, this.timeToLiveNanos);
+	}
+
+	/**
+	 * Associate the specified value with the specified key in this cache,
+	 * expiring it after the given time-to-live instead of the
+	 * {@linkplain #setTimeToLive default} one.
+	 * @param key the key with which the specified value is to be associated
+	 * @param value the value to be associated with the specified key
+	 * @param timeToLive the time-to-live of the entry
+	 */
+	public void put(Object key, @Nullable Object value, Duration timeToLive) {
+		Assert.notNull(timeToLive, "Time-to-live must not be null");
+		doPut(key, value, toNanos(timeToLive));
+	}
+
+	private void doPut(Object key, @Nullable Object value, long timeToLiveNanos) {
+		Node node = createNode(key, toStoreValue(value), timeToLiveNanos, this.ticker.getAsLong());
+		Node previous = this.store.put(key, node);
+		afterWrite(node, previous);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		Node node = createNode(key, toStoreValue(value), this.timeToLiveNanos, this.ticker.getAsLong());
+		Node existing = doPutIfAbsent(node);
+		return (existing != null ? toValueWrapper(existing.value) : null);
+	}
+
+	/**
+	 * Store the given node unless a live entry exists for its key.
+	 * @return the existing live entry, or {@code null} if the node has been stored
+	 */
+	@Nullable
+	private Node doPutIfAbsent(Node node) {
+		while (true) {
+			Node existing = this.store.putIfAbsent(node.key, node);
+			if (existing == null) {
+				afterWrite(node, null);
+				return null;
+			}
+			if (!existing.isExpired(node.writeTime)) {
+				recordAccess(existing);
+				return existing;
+			}
+			if (this.store.replace(node.key, existing, node)) {
+				this.expirationCount.increment();
+				afterWrite(node, existing);
+				return null;
+			}
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		evictIfPresent(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		invalidateLoad(key);
+		Node node = this.store.remove(key);
+		if (node == null) {
+			return false;
+		}
+		afterRemoval(node);
+		return !node.isExpired(this.ticker.getAsLong());
+	}
+
+	@Override
+	public void clear() {
+		for (Iterator<LoadingValue> it = this.loading.values().iterator(); it.hasNext();) {
+			it.next().invalidate();
+			it.remove();
+		}
+		this.evictionLock.lock();
+		try {
+			this.store.clear();
+			this.window.clear();
+			this.probation.clear();
+			this.protectedQueue.clear();
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean notEmpty = !this.store.isEmpty();
+		clear();
+		return notEmpty;
+	}
+
+	/**
+	 * Remove all entries that have expired.
+	 * <p>Expired entries are otherwise removed when they are requested
+	 * or evicted.
+	 */
+	public void cleanUp() {
+		long now = this.ticker.getAsLong();
+		for (Node node : this.store.values()) {
+			expireIfNecessary(node, now);
+		}
+	}
+
+	@Override
+	protected Object toStoreValue(@Nullable Object userValue) {
+		Object storeValue = super.toStoreValue(userValue);
+		if (this.serialization != null) {
+			try {
+				return this.serialization.serializeToByteArray(storeValue);
+			}
+			catch (Throwable ex) {
+				throw new IllegalArgumentException("Failed to serialize cache value '" + userValue +
+						"'. Does it implement Serializable?", ex);
+			}
+		}
+		else {
+			return storeValue;
+		}
+	}
+
+	@Override
+	protected Object fromStoreValue(@Nullable Object storeValue) {
+		if (storeValue != null && this.serialization != null) {
+			try {
+				return super.fromStoreValue(this.serialization.deserializeFromByteArray((byte[]) storeValue));
+			}
+			catch (Throwable ex) {
+				throw new IllegalArgumentException("Failed to deserialize cache value '" + storeValue + "'", ex);
+			}
+		}
+		else {
+			return super.fromStoreValue(storeValue);
+		}
+	}
+
+
+	private Node createNode(Object key, Object storeValue, long timeToLiveNanos, long now) {
+		long expirationTime = (timeToLiveNanos > 0 ? now + timeToLiveNanos : 0);
+		return new Node(key, storeValue, now, expirationTime);
+	}
+
+	/**
+	 * Prevent a load in progress for the given key from storing its value,
+	 * with subsequent requests for the key starting a new load.
+	 */
+	private void invalidateLoad(Object key) {
+		LoadingValue loadingValue = this.loading.remove(key);
+		if (loadingValue != null) {
+			loadingValue.invalidate();
+		}
+	}
+
+	private boolean expireIfNecessary(Node node, long now) {
+		if (!node.isExpired(now)) {
+			return false;
+		}
+		if (this.store.remove(node.key, node)) {
+			this.expirationCount.increment();
+			afterRemoval(node);
+		}
+		return true;
+	}
+
+	private void refreshIfNecessary(Node node, long now) {
+		Function<Object, ?> refreshLoader = this.refreshLoader;
+		if (refreshLoader == null || this.refreshAfterWriteNanos <= 0 ||
+				now - node.writeTime < this.refreshAfterWriteNanos ||
+				this.refreshing.putIfAbsent(node.key, Boolean.TRUE) != null) {
+			return;
+		}
+		try {
+			this.refreshExecutor.execute(() -> {
+				try {
+					Object storeValue = toStoreValue(refreshLoader.apply(node.key));
+					long writeTime = this.ticker.getAsLong();
+					long timeToLive = (node.expirationTime > 0 ? node.expirationTime - node.writeTime : 0);
+					Node refreshed = createNode(node.key, storeValue, timeToLive, writeTime);
+					if (this.store.replace(node.key, node, refreshed)) {
+						this.refreshCount.increment();
+						afterRefresh(node, refreshed);
+					}
+				}
+				catch (Throwable ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to refresh entry for key '" + node.key +
+								"' in cache '" + this.name + "'", ex);
+					}
+				}
+				finally {
+					this.refreshing.remove(node.key);
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			this.refreshing.remove(node.key);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to schedule refresh of entry for key '" + node.key +
+						"' in cache '" + this.name + "'", ex);
+			}
+		}
+	}
+
+	private void recordMiss(Object key) {
+		if (this.evictionLock.tryLock()) {
+			try {
+				this.sketch.increment(key.hashCode());
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private void recordAccess(Node node) {
+		if (this.evictionLock.tryLock()) {
+			try {
+				this.sketch.increment(node.key.hashCode());
+				onAccess(node);
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private void afterWrite(Node node, @Nullable Node previous) {
+		this.evictionLock.lock();
+		try {
+			if (previous != null) {
+				unlink(previous);
+			}
+			this.sketch.increment(node.key.hashCode());
+			// Skip a node that has been replaced or removed concurrently
+			if (this.store.get(node.key) == node && node.queue == NONE) {
+				this.window.addLast(node);
+				evictEntries();
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void afterRefresh(Node previous, Node refreshed) {
+		this.evictionLock.lock();
+		try {
+			if (previous.queue != NONE) {
+				queueFor(previous.queue).replace(previous, refreshed);
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void afterRemoval(Node node) {
+		this.evictionLock.lock();
+		try {
+			unlink(node);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void unlink(Node node) {
+		if (node.queue != NONE) {
+			queueFor(node.queue).remove(node);
+		}
+	}
+
+	private NodeQueue queueFor(byte queue) {
+		return (queue == WINDOW ? this.window : queue == PROBATION ? this.probation : this.protectedQueue);
+	}
+
+	private void onAccess(Node node) {
+		if (node.queue == WINDOW) {
+			this.window.moveToLast(node);
+		}
+		else if (node.queue == PROBATION) {
+			this.probation.remove(node);
+			this.protectedQueue.addLast(node);
+			if (this.protectedQueue.size > this.maximumProtectedSize) {
+				Node demoted = this.protectedQueue.first;
+				if (demoted != null) {
+					this.protectedQueue.remove(demoted);
+					this.probation.addLast(demoted);
+				}
+			}
+		}
+		else if (node.queue == PROTECTED) {
+			this.protectedQueue.moveToLast(node);
+		}
+	}
+
+	private void evictEntries() {
+		while (this.window.size > this.maximumWindowSize) {
+			Node candidate = this.window.first;
+			if (candidate == null) {
+				break;
+			}
+			this.window.remove(candidate);
+			if (this.probation.size + this.protectedQueue.size < this.maximumMainSize) {
+				this.probation.addLast(candidate);
+				continue;
+			}
+			Node victim = (this.probation.first != null ? this.probation.first : this.protectedQueue.first);
+			if (victim != null && this.sketch.frequency(candidate.key.hashCode()) >
+					this.sketch.frequency(victim.key.hashCode())) {
+				queueFor(victim.queue).remove(victim);
+				this.probation.addLast(candidate);
+				evict(victim);
+			}
+			else {
+				evict(candidate);
+			}
+		}
+	}
+
+	private void evict(Node node) {
+		if (this.store.remove(node.key, node)) {
+			this.evictionCount.increment();
+		}
+	}
+
+	private static long toNanos(@Nullable Duration duration) {
+		return (duration != null && !duration.isNegative() ? duration.toNanos() : 0);
+	}
+
+	@Nullable
+	private static Duration toDuration(long nanos) {
+		return (nanos > 0 ? Duration.ofNanos(nanos) : null);
+	}
+
+
+	/**
+	 * Snapshot of the statistics of a {@link BoundedConcurrentMapCache}.
+	 */
+	public static final class Statistics {
+
+		private final long hitCount;
+
+		private final long missCount;
+
+		private final long evictionCount;
+
+		private final long expirationCount;
+
+		private final long refreshCount;
+
+		Statistics(long hitCount, long missCount, long evictionCount, long expirationCount, long refreshCount) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.evictionCount = evictionCount;
+			this.expirationCount = expirationCount;
+			this.refreshCount = refreshCount;
+		}
+
+		/**
+		 * Return the number of lookups that found a live entry.
+		 */
+		public long getHitCount() {
+			return this.hitCount;
+		}
+
+		/**
+		 * Return the number of lookups that found no live entry.
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * Return the ratio of lookups that found a live entry,
+		 * or {@code 1.0} if there have been no lookups yet.
+		 */
+		public double getHitRatio() {
+			long requestCount = this.hitCount + this.missCount;
+			return (requestCount > 0 ? (double) this.hitCount / requestCount : 1.0);
+		}
+
+		/**
+		 * Return the number of entries evicted because of the size bound.
+		 */
+		public long getEvictionCount() {
+			return this.evictionCount;
+		}
+
+		/**
+		 * Return the number of entries removed because they expired.
+		 */
+		public long getExpirationCount() {
+			return this.expirationCount;
+		}
+
+		/**
+		 * Return the number of entries reloaded ahead of their expiration.
+		 */
+		public long getRefreshCount() {
+			return this.refreshCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics [hits = " + this.hitCount + ", misses = " + this.missCount +
+					", evictions = " + this.evictionCount + ", expirations = " + this.expirationCount +
+					", refreshes = " + this.refreshCount + "]";
+		}
+	}
+
+
+	/**
+	 * A store value being loaded, awaited by concurrent requests for the same key.
+	 * Guards its invalidation against the storing of the loaded value.
+	 */
+	private static final class LoadingValue extends CompletableFuture<Object> {
+
+		final Thread owner = Thread.currentThread();
+
+		boolean invalidated;
+
+		synchronized void invalidate() {
+			this.invalidated = true;
+		}
+
+		Object await(Object key, Callable<?> valueLoader) {
+			try {
+				return get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new ValueRetrievalException(key, valueLoader, ex);
+			}
+			catch (ExecutionException ex) {
+				throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+			}
+		}
+	}
+
+
+	/**
+	 * A cache entry, linked into one of the eviction queues
+	 * while guarded by the eviction lock.
+	 */
+	private static final class Node {
+
+		final Object key;
+
+		final Object value;
+
+		final long writeTime;
+
+		final long expirationTime;
+
+		byte queue = NONE;
+
+		@Nullable
+		Node prev;
+
+		@Nullable
+		Node next;
+
+		Node(Object key, Object value, long writeTime, long expirationTime) {
+			this.key = key;
+			this.value = value;
+			this.writeTime = writeTime;
+			this.expirationTime = expirationTime;
+		}
+
+		boolean isExpired(long now) {
+			return (this.expirationTime != 0 && now - this.expirationTime >= 0);
+		}
+	}
+
+
+	/**
+	 * Doubly-linked access-ordered queue of nodes.
+	 */
+	private static final class NodeQueue {
+
+		private final byte type;
+
+		@Nullable
+		Node first;
+
+		@Nullable
+		Node last;
+
+		int size;
+
+		NodeQueue(byte type) {
+			this.type = type;
+		}
+
+		void addLast(Node node) {
+			node.queue = this.type;
+			node.prev = this.last;
+			node.next = null;
+			if (this.last != null) {
+				this.last.next = node;
+			}
+			else {
+				this.first = node;
+			}
+			this.last = node;
+			this.size++;
+		}
+
+		void remove(Node node) {
+			if (node.prev != null) {
+				node.prev.next = node.next;
+			}
+			else {
+				this.first = node.next;
+			}
+			if (node.next != null) {
+				node.next.prev = node.prev;
+			}
+			else {
+				this.last = node.prev;
+			}
+			node.prev = null;
+			node.next = null;
+			node.queue = NONE;
+			this.size--;
+		}
+
+		void moveToLast(Node node) {
+			if (node != this.last) {
+				remove(node);
+				addLast(node);
+			}
+		}
+
+		void replace(Node existing, Node replacement) {
+			replacement.queue = this.type;
+			replacement.prev = existing.prev;
+			replacement.next = existing.next;
+			if (existing.prev != null) {
+				existing.prev.next = replacement;
+			}
+			else {
+				this.first = replacement;
+			}
+			if (existing.next != null) {
+				existing.next.prev = replacement;
+			}
+			else {
+				this.last = replacement;
+			}
+			existing.prev = null;
+			existing.next = null;
+			existing.queue = NONE;
+		}
+
+		void clear() {
+			Node node = this.first;
+			while (node != null) {
+				Node next = node.next;
+				node.prev = null;
+				node.next = null;
+				node.queue = NONE;
+				node = next;
+			}
+			this.first = null;
+			this.last = null;
+			this.size = 0;
+		}
+	}
+
+
+	/**
+	 * Count-min sketch with 4-bit counters, estimating the access frequency
+	 * of keys. All counters are halved once a sample of accesses proportional
+	 * to the cache size has been recorded, so that the sketch favors recent
+	 * popularity.
+	 */
+	private static final class FrequencySketch {
+
+		private static final long[] SEEDS = {
+				0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+		private static final long RESET_MASK = 0x7777777777777777L;
+
+		private final long[] table;
+
+		private final int tableMask;
+
+		private final int sampleSize;
+
+		private int additions;
+
+		FrequencySketch(int maximumSize) {
+			int capacity = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 26)) - 1) << 1;
+			this.table = new long[capacity];
+			this.tableMask = capacity - 1;
+			this.sampleSize = 10 * Math.max(maximumSize, 16);
+		}
+
+		int frequency(int hashCode) {
+			int hash = spread(hashCode);
+			int start = (hash & 3) << 2;
+			int frequency = 15;
+			for (int i = 0; i < 4; i++) {
+				int index = indexOf(hash, i);
+				int count = (int) ((this.table[index] >>> ((start + i) << 2)) & 0xfL);
+				frequency = Math.min(frequency, count);
+			}
+			return frequency;
+		}
+
+		void increment(int hashCode) {
+			int hash = spread(hashCode);
+			int start = (hash & 3) << 2;
+			boolean added = false;
+			for (int i = 0; i < 4; i++) {
+				added |= incrementAt(indexOf(hash, i), start + i);
+			}
+			if (added && ++this.additions >= this.sampleSize) {
+				reset();
+			}
+		}
+
+		private boolean incrementAt(int index, int counter) {
+			int offset = counter << 2;
+			long mask = (0xfL << offset);
+			if ((this.table[index] & mask) != mask) {
+				this.table[index] += (1L << offset);
+				return true;
+			}
+			return false;
+		}
+
+		private void reset() {
+			for (int i = 0; i < this.table.length; i++) {
+				this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+			}
+			this.additions = this.additions / 2;
+		}
+
+		private int indexOf(int hash, int i) {
+			long h = (hash + SEEDS[i]) * SEEDS[i];
+			h += (h >>> 32);
+			return ((int) h) & this.tableMask;
+		}
+
+		private static int spread(int hashCode) {
+			int h = hashCode;
+			h = ((h >>> 16) ^ h) * 0x45d9f3b;
+			h = ((h >>> 16) ^ h) * 0x45d9f3b;
+			return (h >>> 16) ^ h;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,14 @@
 
 package org.springframework.cache.concurrent;
 
+import java.util.Iterator;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.core.serializer.support.SerializationDelegate;
@@ -38,6 +43,12 @@ import org.springframework.util.Assert;
  * them with a predefined internal object. This behavior can be changed through the
  * {@link #ConcurrentMapCache(String, ConcurrentMap, boolean)} constructor.
  *
+ * <p>Values obtained through {@link #get(Object, Callable)} are loaded outside of
+ * the internal map's locks: concurrent requests for the same key await the value
+ * loaded by the first one, without blocking requests for any other key. A value
+ * whose load is in progress while its key is evicted or the cache is cleared is
+ * returned to its callers but not stored.
+ *
  * @author Costin Leau
  * @author Juergen Hoeller
  * @author Stephane Nicoll
@@ -53,6 +64,8 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 	@Nullable
 	private final SerializationDelegate serialization;
 
+	private final ConcurrentMap<Object, LoadingValue> loading = new ConcurrentHashMap<>(16);
+
 
 	/**
 	 * Create a new ConcurrentMapCache with the specified name.
@@ -139,14 +152,59 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 	@Override
 	@Nullable
 	public <T> T get(Object key, Callable<T> valueLoader) {
-		return (T) fromStoreValue(this.store.computeIfAbsent(key, k -> {
+		Object storeValue = this.store.get(key);
+		if (storeValue == null) {
+			storeValue = load(key, valueLoader);
+		}
+		return (T) fromStoreValue(storeValue);
+	}
+
+	private Object load(Object key, Callable<?> valueLoader) {
+		LoadingValue loadingValue = new LoadingValue();
+		LoadingValue existing = this.loading.putIfAbsent(key, loadingValue);
+		if (existing != null) {
+			if (existing.owner == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive load of cache key '" + key + "' in cache '" + this.name + "'");
+			}
+			return existing.await(key, valueLoader);
+		}
+		try {
+			// Re-check after registration, a concurrent load may have completed in the meantime
+			Object storeValue = this.store.get(key);
+			if (storeValue == null) {
+				storeValue = loadingValue.publish(this.store, key, toStoreValue(valueLoader.call()));
+			}
+			loadingValue.complete(storeValue);
+			return storeValue;
+		}
+		catch (Throwable ex) {
+			loadingValue.completeExceptionally(ex);
+			throw new ValueRetrievalException(key, valueLoader, ex);
+		}
+		finally {
+			this.loading.remove(key, loadingValue);
+		}
+	}
+
+	@Override
+	@Nullable
+	public CompletableFuture<?> retrieve(Object key) {
+		Object value = lookup(key);
+		return (value != null ? CompletableFuture.completedFuture(
+				isAllowNullValues() ? toValueWrapper(value) : fromStoreValue(value)) : null);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		return CompletableFuture.supplyAsync(() -> {
 			try {
-				return toStoreValue(valueLoader.call());
+				return get(key, () -> valueLoader.get().join());
 			}
-			catch (Throwable ex) {
-				throw new ValueRetrievalException(key, valueLoader, ex);
+			catch (ValueRetrievalException ex) {
+				Throwable cause = ex.getCause();
+				throw (cause instanceof CompletionException ? (CompletionException) cause : new CompletionException(cause));
 			}
-		}));
+		});
 	}
 
 	@Override
@@ -163,26 +221,48 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 
 	@Override
 	public void evict(Object key) {
+		invalidateLoad(key);
 		this.store.remove(key);
 	}
 
 	@Override
 	public boolean evictIfPresent(Object key) {
+		invalidateLoad(key);
 		return (this.store.remove(key) != null);
 	}
 
 	@Override
 	public void clear() {
+		invalidateLoads();
 		this.store.clear();
 	}
 
 	@Override
 	public boolean invalidate() {
+		invalidateLoads();
 		boolean notEmpty = !this.store.isEmpty();
 		this.store.clear();
 		return notEmpty;
 	}
 
+	/**
+	 * Prevent a load in progress for the given key from storing its value,
+	 * with subsequent requests for the key starting a new load.
+	 */
+	private void invalidateLoad(Object key) {
+		LoadingValue loadingValue = this.loading.remove(key);
+		if (loadingValue != null) {
+			loadingValue.invalidate();
+		}
+	}
+
+	private void invalidateLoads() {
+		for (Iterator<LoadingValue> it = this.loading.values().iterator(); it.hasNext();) {
+			it.next().invalidate();
+			it.remove();
+		}
+	}
+
 	@Override
 	protected Object toStoreValue(@Nullable Object userValue) {
 		Object storeValue = super.toStoreValue(userValue);
@@ -215,4 +295,45 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 		}
 	}
 
+
+	/**
+	 * A store value being loaded, awaited by concurrent requests for the same key.
+	 */
+	private static final class LoadingValue extends CompletableFuture<Object> {
+
+		final Thread owner = Thread.currentThread();
+
+		private boolean invalidated;
+
+		/**
+		 * Store the loaded value unless this load has been invalidated, with
+		 * any value stored by a concurrent {@code put} taking precedence.
+		 * @return the value to expose for the key
+		 */
+		synchronized Object publish(ConcurrentMap<Object, Object> store, Object key, Object storeValue) {
+			if (this.invalidated) {
+				return storeValue;
+			}
+			Object previous = store.putIfAbsent(key, storeValue);
+			return (previous != null ? previous : storeValue);
+		}
+
+		synchronized void invalidate() {
+			this.invalidated = true;
+		}
+
+		Object await(Object key, Callable<?> valueLoader) {
+			try {
+				return get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new ValueRetrievalException(key, valueLoader, ex);
+			}
+			catch (ExecutionException ex) {
+				throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+			}
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,21 @@
 
 package org.springframework.cache.concurrent;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.core.serializer.support.SerializationDelegate;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
 
 /**
  * {@link CacheManager} implementation that lazily builds {@link ConcurrentMapCache}
@@ -35,9 +38,12 @@ import org.springframework.lang.Nullable;
  * the set of cache names is pre-defined through {@link #setCacheNames}, with no
  * dynamic creation of further cache regions at runtime.
  *
- * <p>Note: This is by no means a sophisticated CacheManager; it comes with no
+ * <p>Note: This is by no means a sophisticated CacheManager; it comes with few
  * cache configuration options. However, it may be useful for testing or simple
- * caching scenarios. For advanced local caching needs, consider
+ * caching scenarios. As of 5.3.14, caches may be bounded to a
+ * {@linkplain #setMaximumSize maximum size}, optionally with a
+ * {@linkplain #setTimeToLive time-to-live}, through {@link BoundedConcurrentMapCache}.
+ * For advanced local caching needs, consider
  * {@link org.springframework.cache.jcache.JCacheCacheManager},
  * {@link org.springframework.cache.ehcache.EhCacheCacheManager},
  * {@link org.springframework.cache.caffeine.CaffeineCacheManager}.
@@ -56,6 +62,17 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 
 	private boolean storeByValue = false;
 
+	private int maximumSize = 0;
+
+	@Nullable
+	private Duration timeToLive;
+
+	@Nullable
+	private Duration refreshAfterWrite;
+
+	@Nullable
+	private Function<Object, ?> refreshLoader;
+
 	@Nullable
 	private SerializationDelegate serialization;
 
@@ -146,6 +163,107 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 		return this.storeByValue;
 	}
 
+	/**
+	 * Specify the maximum number of entries for each cache in this cache manager,
+	 * creating size-bounded {@link BoundedConcurrentMapCache} instances.
+	 * <p>Default is 0, creating unbounded {@link ConcurrentMapCache} instances.
+	 * <p>Note: A change of the maximum size will reset all existing caches,
+	 * if any, to reconfigure them with the new bound.
+	 * @since 5.3.14
+	 */
+	public void setMaximumSize(int maximumSize) {
+		if (maximumSize != this.maximumSize) {
+			this.maximumSize = maximumSize;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the maximum number of entries for each cache in this cache manager,
+	 * or 0 if the caches are unbounded.
+	 * @since 5.3.14
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Specify the time-to-live for the entries of all caches in this cache manager.
+	 * <p>Only applies to bounded caches, i.e. if a {@linkplain #setMaximumSize
+	 * maximum size} has been specified.
+	 * <p>Note: A change of the time-to-live will reset all existing caches,
+	 * if any, to reconfigure them with the new expiration.
+	 * @since 5.3.14
+	 * @see BoundedConcurrentMapCache#setTimeToLive
+	 */
+	public void setTimeToLive(@Nullable Duration timeToLive) {
+		if (!ObjectUtils.nullSafeEquals(timeToLive, this.timeToLive)) {
+			this.timeToLive = timeToLive;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the time-to-live for the entries of all caches in this cache manager.
+	 * @since 5.3.14
+	 */
+	@Nullable
+	public Duration getTimeToLive() {
+		return this.timeToLive;
+	}
+
+	/**
+	 * Specify the age after which requested entries of all caches in this cache
+	 * manager are refreshed ahead through the {@linkplain #setRefreshLoader
+	 * refresh loader}.
+	 * <p>Only applies to bounded caches, i.e. if a {@linkplain #setMaximumSize
+	 * maximum size} has been specified.
+	 * <p>Note: A change of this setting will reset all existing caches,
+	 * if any, to reconfigure them with the new refresh interval.
+	 * @since 5.3.14
+	 * @see BoundedConcurrentMapCache#setRefreshAfterWrite
+	 */
+	public void setRefreshAfterWrite(@Nullable Duration refreshAfterWrite) {
+		if (!ObjectUtils.nullSafeEquals(refreshAfterWrite, this.refreshAfterWrite)) {
+			this.refreshAfterWrite = refreshAfterWrite;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the age after which entries are refreshed ahead, if any.
+	 * @since 5.3.14
+	 */
+	@Nullable
+	public Duration getRefreshAfterWrite() {
+		return this.refreshAfterWrite;
+	}
+
+	/**
+	 * Specify the function to reload the value for a given key with when
+	 * refreshing ahead the entries of all caches in this cache manager.
+	 * <p>Note: A change of this setting will reset all existing caches,
+	 * if any, to reconfigure them with the new refresh loader.
+	 * @since 5.3.14
+	 * @see #setRefreshAfterWrite
+	 * @see BoundedConcurrentMapCache#setRefreshLoader
+	 */
+	public void setRefreshLoader(@Nullable Function<Object, ?> refreshLoader) {
+		if (refreshLoader != this.refreshLoader) {
+			this.refreshLoader = refreshLoader;
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the function to reload values with when refreshing ahead, if any.
+	 * @since 5.3.14
+	 */
+	@Nullable
+	public Function<Object, ?> getRefreshLoader() {
+		return this.refreshLoader;
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.serialization = new SerializationDelegate(classLoader);
@@ -185,11 +303,21 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 
 	/**
 	 * Create a new ConcurrentMapCache instance for the specified cache name.
+	 * <p>As of 5.3.14, this creates a {@link BoundedConcurrentMapCache} if a
+	 * {@linkplain #setMaximumSize maximum size} has been specified.
 	 * @param name the name of the cache
 	 * @return the ConcurrentMapCache (or a decorator thereof)
 	 */
 	protected Cache createConcurrentMapCache(String name) {
 		SerializationDelegate actualSerialization = (isStoreByValue() ? this.serialization : null);
+		if (this.maximumSize > 0) {
+			BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(
+					name, this.maximumSize, isAllowNullValues(), actualSerialization);
+			cache.setTimeToLive(this.timeToLive);
+			cache.setRefreshAfterWrite(this.refreshAfterWrite);
+			cache.setRefreshLoader(this.refreshLoader);
+			return cache;
+		}
 		return new ConcurrentMapCache(name, new ConcurrentHashMap<>(256), isAllowNullValues(), actualSerialization);
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.cache.interceptor;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
 import org.springframework.cache.Cache;
 import org.springframework.lang.Nullable;
 import org.springframework.util.function.SingletonSupplier;
@@ -78,6 +82,72 @@ public abstract class AbstractCacheInvoker {
 		}
 	}
 
+	/**
+	 * Execute {@link Cache#retrieve(Object)} on the specified {@link Cache} and
+	 * invoke the error handler if an exception occurs, either immediately or
+	 * on completion of the returned future. Return {@code null} (or a future
+	 * completing with {@code null}) if the handler does not throw any exception,
+	 * which simulates a cache miss in case of error.
+	 * <p>Falls back to {@link #doGet(Cache, Object)} if the cache does not
+	 * support {@code CompletableFuture}-based retrieval.
+	 * @since 5.3.14
+	 * @see Cache#retrieve(Object)
+	 */
+	@Nullable
+	protected CompletableFuture<?> doRetrieve(Cache cache, Object key) {
+		try {
+			CompletableFuture<?> result = cache.retrieve(key);
+			if (result == null) {
+				return null;
+			}
+			return result.exceptionally(ex -> {
+				getErrorHandler().handleCacheGetError(
+						(ex instanceof RuntimeException ? (RuntimeException) ex : new CompletionException(ex)), cache, key);
+				return null;  // If the exception is handled, return a late-determined cache miss
+			});
+		}
+		catch (UnsupportedOperationException ex) {
+			Cache.ValueWrapper wrapper = doGet(cache, key);
+			return (wrapper != null ? CompletableFuture.completedFuture(wrapper) : null);
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCacheGetError(ex, cache, key);
+			return null;  // If the exception is handled, return a cache miss
+		}
+	}
+
+	/**
+	 * Execute {@link Cache#retrieve(Object, Supplier)} on the specified
+	 * {@link Cache} and invoke the error handler if an exception occurs.
+	 * Invoke the {@code valueLoader} directly if the handler does not throw
+	 * any exception, which simulates a cache miss in case of error.
+	 * <p>Falls back to {@link #doGet(Cache, Object)} and
+	 * {@link #doPut(Cache, Object, Object)} if the cache does not support
+	 * {@code CompletableFuture}-based retrieval.
+	 * @since 5.3.14
+	 * @see Cache#retrieve(Object, Supplier)
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> CompletableFuture<T> doRetrieve(Cache cache, Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		try {
+			return cache.retrieve(key, valueLoader);
+		}
+		catch (UnsupportedOperationException ex) {
+			Cache.ValueWrapper wrapper = doGet(cache, key);
+			if (wrapper != null) {
+				return CompletableFuture.completedFuture((T) wrapper.get());
+			}
+			return valueLoader.get().thenApply(value -> {
+				doPut(cache, key, value);
+				return value;
+			});
+		}
+		catch (RuntimeException ex) {
+			getErrorHandler().handleCacheGetError(ex, cache, key);
+			return valueLoader.get();
+		}
+	}
+
 	/**
 	 * Execute {@link Cache#put(Object, Object)} on the specified {@link Cache}
 	 * and invoke the error handler if an exception occurs.
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Class describing a cache 'bulk cacheable' operation, caching the values
+ * of a method loading a collection of keys per key.
+ *
+ * @since 5.3.14
+ * @see org.springframework.cache.annotation.BulkCacheable
+ */
+public class BulkCacheableOperation extends CacheOperation {
+
+	@Nullable
+	private final String unless;
+
+
+	/**
+	 * Create a new {@link BulkCacheableOperation} instance from the given builder.
+	 */
+	public BulkCacheableOperation(BulkCacheableOperation.Builder b) {
+		super(b);
+		this.unless = b.unless;
+	}
+
+
+	@Nullable
+	public String getUnless() {
+		return this.unless;
+	}
+
+
+	/**
+	 * A builder that can be used to create a {@link BulkCacheableOperation}.
+	 */
+	public static class Builder extends CacheOperation.Builder {
+
+		@Nullable
+		private String unless;
+
+		public void setUnless(String unless) {
+			this.unless = unless;
+		}
+
+		@Override
+		protected StringBuilder getOperationDescription() {
+			StringBuilder sb = super.getOperationDescription();
+			sb.append(" | unless='");
+			sb.append(this.unless);
+			sb.append('\'');
+			return sb;
+		}
+
+		@Override
+		public BulkCacheableOperation build() {
+			return new BulkCacheableOperation(this);
+		}
+	}
+
+}
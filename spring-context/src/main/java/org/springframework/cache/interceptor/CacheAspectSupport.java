@@ -21,14 +21,22 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
@@ -42,7 +50,11 @@ import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.context.expression.CachedExpressionEvaluator.ExpressionMetrics;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -69,6 +81,11 @@ import org.springframework.util.function.SupplierUtils;
  * used for determining caching operations, a {@link KeyGenerator} will build the
  * cache keys, and a {@link CacheResolver} will resolve the actual cache(s) to use.
  *
+ * <p>Methods returning a {@link CompletableFuture} or a reactive type such as a
+ * Reactor {@link Mono} or {@link Flux} cache the values emitted by the returned
+ * handle rather than the handle itself, using the {@code CompletableFuture}-based
+ * {@link Cache#retrieve(Object)} operations where supported by the cache.
+ *
  * <p>Note: A cache aspect is serializable but does not perform any actual caching
  * after deserialization.
  *
@@ -83,12 +100,22 @@ import org.springframework.util.function.SupplierUtils;
 public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		implements BeanFactoryAware, InitializingBean, SmartInitializingSingleton {
 
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Flux", CacheAspectSupport.class.getClassLoader());
+
+	private static final Object NOT_HANDLED = new Object();
+
+	private static final Object NO_VALUE = new Object();
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
 
 	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+	private final ConcurrentMap<BulkLoadKey, BulkLoad> bulkLoads = new ConcurrentHashMap<>(64);
+
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
 
@@ -100,6 +127,9 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	@Nullable
 	private BeanFactory beanFactory;
 
+	@Nullable
+	private final ReactiveCachingHandler reactiveCachingHandler = (reactorPresent ? new ReactiveCachingHandler() : null);
+
 	private boolean initialized = false;
 
 
@@ -325,6 +355,15 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return BeanFactoryAnnotationUtils.qualifiedBeanOfType(this.beanFactory, expectedType, beanName);
 	}
 
+	/**
+	 * Return a snapshot of the metrics for the SpEL expressions
+	 * (keys, conditions, unless clauses) evaluated by this aspect.
+	 * @since 5.3.14
+	 */
+	public ExpressionMetrics getExpressionMetrics() {
+		return this.evaluator.getMetrics();
+	}
+
 	/**
 	 * Clear the cached metadata.
 	 */
@@ -374,38 +413,228 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	private Object execute(final CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
 		// Special handling of synchronized invocation
 		if (contexts.isSynchronized()) {
-			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
-			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
-				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
-				Cache cache = context.getCaches().iterator().next();
-				try {
-					return wrapCacheValue(method, handleSynchronizedGet(invoker, key, cache));
-				}
-				catch (Cache.ValueRetrievalException ex) {
-					// Directly propagate ThrowableWrapper from the invoker,
-					// or potentially also an IllegalArgumentException etc.
-					ReflectionUtils.rethrowRuntimeException(ex.getCause());
-				}
-			}
-			else {
-				// No caching required, only call the underlying method
-				return invokeOperation(invoker);
-			}
+			return executeSynchronized(invoker, method, contexts);
 		}
 
+		// Special handling of bulk invocation
+		if (contexts.isBulk()) {
+			return executeBulk(invoker, method, contexts);
+		}
 
 		// Process any early evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
 				CacheOperationExpressionEvaluator.NO_RESULT);
 
 		// Check if we have a cached item matching the conditions
-		Cache.ValueWrapper cacheHit = findCachedItem(contexts.get(CacheableOperation.class));
+		Object cacheHit = findCachedValue(invoker, method, contexts);
+		if (cacheHit == null || cacheHit instanceof Cache.ValueWrapper) {
+			return evaluate(cacheHit, invoker, method, contexts);
+		}
+
+		// Asynchronous lookup, evaluated once the cached value has been retrieved
+		return cacheHit;
+	}
+
+	@Nullable
+	private Object executeSynchronized(CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+		if (!isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+			// No caching required, only call the underlying method
+			return invokeOperation(invoker);
+		}
+
+		Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+		Cache cache = context.getCaches().iterator().next();
+		if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+			return doRetrieve(cache, key, () -> invokeAsyncOperation(invoker, method));
+		}
+		if (this.reactiveCachingHandler != null) {
+			Object returnValue = this.reactiveCachingHandler.executeSynchronized(invoker, method, cache, key);
+			if (returnValue != NOT_HANDLED) {
+				return returnValue;
+			}
+		}
+		try {
+			return wrapCacheValue(method, handleSynchronizedGet(invoker, key, cache));
+		}
+		catch (Cache.ValueRetrievalException ex) {
+			// Directly propagate ThrowableWrapper from the invoker,
+			// or potentially also an IllegalArgumentException etc.
+			ReflectionUtils.rethrowRuntimeException(ex.getCause());
+			return null;
+		}
+	}
+
+	@Nullable
+	private Object handleSynchronizedGet(CacheOperationInvoker invoker, Object key, Cache cache) {
+		InvocationAwareResult invocationResult = new InvocationAwareResult();
+		Object result = cache.get(key, () -> {
+			invocationResult.invoked = true;
+			if (logger.isTraceEnabled()) {
+				logger.trace("No cache entry for key '" + key + "' in cache " + cache.getName());
+			}
+			return unwrapReturnValue(invokeOperation(invoker));
+		});
+		if (!invocationResult.invoked && logger.isTraceEnabled()) {
+			logger.trace("Cache entry for key '" + key + "' found in cache '" + cache.getName() + "'");
+		}
+		return result;
+	}
+
+	/**
+	 * Execute a {@link BulkCacheableOperation}: look up each requested key, invoke
+	 * the underlying method for the missing keys that are not being loaded by a
+	 * concurrent invocation already, and await the values of the latter.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private Object executeBulk(CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		CacheOperationContext context = contexts.get(BulkCacheableOperation.class).iterator().next();
+		Collection<Object> keys = (Collection<Object>) context.getArgs()[0];
+		if (CollectionUtils.isEmpty(keys) ||
+				!isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+			// No caching required, only call the underlying method
+			return invokeOperation(invoker);
+		}
+
+		Cache primaryCache = context.getCaches().iterator().next();
+		Map<Object, Object> cacheKeys = new HashMap<>(keys.size());
+		Map<Object, Object> values = new HashMap<>(keys.size());
+		Map<Object, BulkLoad> claimed = new LinkedHashMap<>();
+		Map<Object, BulkLoad> awaited = new LinkedHashMap<>();
+		for (Object key : keys) {
+			if (cacheKeys.containsKey(key)) {
+				continue;
+			}
+			Object cacheKey = generateBulkKey(context, key);
+			cacheKeys.put(key, cacheKey);
+			Cache.ValueWrapper wrapper = getFromCaches(context, cacheKey);
+			if (wrapper != null) {
+				values.put(key, wrapper.get());
+				continue;
+			}
+			BulkLoad load = new BulkLoad();
+			BulkLoad existing = this.bulkLoads.putIfAbsent(new BulkLoadKey(primaryCache, cacheKey), load);
+			if (existing != null && existing.owner != Thread.currentThread()) {
+				awaited.put(key, existing);
+			}
+			else if (existing != null) {
+				// Recursive invocation for a key loaded by the current thread: load it again
+				claimed.put(key, new BulkLoad());
+			}
+			else {
+				// A concurrent load may have completed in the meantime
+				wrapper = getFromCaches(context, cacheKey);
+				if (wrapper != null) {
+					values.put(key, wrapper.get());
+					load.complete(wrapper.get());
+					this.bulkLoads.remove(new BulkLoadKey(primaryCache, cacheKey), load);
+				}
+				else {
+					claimed.put(key, load);
+				}
+			}
+		}
+
+		if (!claimed.isEmpty()) {
+			loadBulk(invoker, method, context, primaryCache, cacheKeys, claimed, values);
+		}
+		for (Map.Entry<Object, BulkLoad> entry : awaited.entrySet()) {
+			Object value = entry.getValue().await();
+			if (value != NO_VALUE) {
+				values.put(entry.getKey(), value);
+			}
+		}
+
+		Map<Object, Object> result = CollectionFactory.createMap(method.getReturnType(), values.size());
+		for (Object key : keys) {
+			if (values.containsKey(key)) {
+				result.put(key, values.get(key));
+			}
+		}
+		return result;
+	}
+
+	private void loadBulk(CacheOperationInvoker invoker, Method method, CacheOperationContext context,
+			Cache primaryCache, Map<Object, Object> cacheKeys, Map<Object, BulkLoad> claimed,
+			Map<Object, Object> values) {
+
+		Collection<Object> missingKeys = CollectionFactory.createCollection(method.getParameterTypes()[0], claimed.size());
+		missingKeys.addAll(claimed.keySet());
+		// Invoke the method for the missing keys only, if the invocation allows for it
+		CacheOperationInvoker bulkInvoker = invoker.withArguments(new Object[] {missingKeys});
+		try {
+			Map<?, ?> loaded = (Map<?, ?>) invokeOperation(bulkInvoker != null ? bulkInvoker : invoker);
+			for (Map.Entry<Object, BulkLoad> entry : claimed.entrySet()) {
+				Object key = entry.getKey();
+				if (loaded != null && loaded.containsKey(key)) {
+					Object value = loaded.get(key);
+					if (context.canPutToCache(value)) {
+						for (Cache cache : context.getCaches()) {
+							doPut(cache, cacheKeys.get(key), value);
+						}
+					}
+					values.put(key, value);
+					entry.getValue().complete(value);
+				}
+				else {
+					entry.getValue().complete(NO_VALUE);
+				}
+			}
+		}
+		catch (RuntimeException | Error ex) {
+			claimed.values().forEach(load -> load.completeExceptionally(ex));
+			throw ex;
+		}
+		finally {
+			claimed.forEach((key, load) -> this.bulkLoads.remove(new BulkLoadKey(primaryCache, cacheKeys.get(key)), load));
+		}
+	}
+
+	@Nullable
+	private Cache.ValueWrapper getFromCaches(CacheOperationContext context, Object key) {
+		for (Cache cache : context.getCaches()) {
+			Cache.ValueWrapper wrapper = doGet(cache, key);
+			if (wrapper != null) {
+				return wrapper;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Invoke an operation returning a {@link CompletableFuture}, exposing any
+	 * exception thrown by the invoker through the returned future.
+	 */
+	@SuppressWarnings("unchecked")
+	private CompletableFuture<Object> invokeAsyncOperation(CacheOperationInvoker invoker, Method method) {
+		try {
+			CompletableFuture<Object> future = (CompletableFuture<Object>) invokeOperation(invoker);
+			Assert.state(future != null, () -> "Returned CompletableFuture must not be null: " + method);
+			return future;
+		}
+		catch (CacheOperationInvoker.ThrowableWrapper ex) {
+			CompletableFuture<Object> future = new CompletableFuture<>();
+			future.completeExceptionally(ex.getOriginal());
+			return future;
+		}
+	}
+
+	/**
+	 * Apply the caching operations given a cache hit (if any): either return the
+	 * cached value or invoke the underlying method, then process the put requests
+	 * and late evictions against the result, once available for asynchronous
+	 * and reactive return types.
+	 */
+	@Nullable
+	private Object evaluate(@Nullable Object cacheHit, CacheOperationInvoker invoker, Method method,
+			CacheOperationContexts contexts) {
 
 		// Collect puts from any @Cacheable miss, if no cached item is found
 		List<CachePutRequest> cachePutRequests = new ArrayList<>();
 		if (cacheHit == null) {
 			collectPutRequests(contexts.get(CacheableOperation.class),
-					CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
+					CacheOperationExpressionEvaluator.NO_RESULT, true, cachePutRequests);
 		}
 
 		Object cacheValue;
@@ -413,7 +642,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		if (cacheHit != null && !hasCachePut(contexts)) {
 			// If there are no put requests, just use the cache hit
-			cacheValue = cacheHit.get();
+			cacheValue = unwrapCacheValue(cacheHit);
 			returnValue = wrapCacheValue(method, cacheValue);
 		}
 		else {
@@ -422,8 +651,43 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			cacheValue = unwrapReturnValue(returnValue);
 		}
 
-		// Collect any explicit @CachePuts
-		collectPutRequests(contexts.get(CachePutOperation.class), cacheValue, cachePutRequests);
+		// Collect any explicit @CachePuts, with their keys computed once the result is available
+		collectPutRequests(contexts.get(CachePutOperation.class), cacheValue,
+				isResultAvailable(returnValue), cachePutRequests);
+
+		if (cachePutRequests.isEmpty() && contexts.get(CacheEvictOperation.class).isEmpty()) {
+			return returnValue;
+		}
+
+		// Defer puts and late evictions until an asynchronous result is available
+		if (returnValue instanceof CompletableFuture) {
+			return ((CompletableFuture<?>) returnValue).thenApply(value -> {
+				processResult(value, cachePutRequests, contexts);
+				return value;
+			});
+		}
+		if (this.reactiveCachingHandler != null) {
+			Object result = this.reactiveCachingHandler.processResult(returnValue, cachePutRequests, contexts);
+			if (result != NOT_HANDLED) {
+				return result;
+			}
+		}
+
+		processResult(cacheValue, cachePutRequests, contexts);
+		return returnValue;
+	}
+
+	/**
+	 * Determine whether the given return value is the actual result rather than
+	 * an asynchronous or reactive handle for it.
+	 */
+	private boolean isResultAvailable(@Nullable Object returnValue) {
+		return !(returnValue instanceof CompletableFuture) &&
+				(this.reactiveCachingHandler == null || !this.reactiveCachingHandler.isReactive(returnValue));
+	}
+
+	private void processResult(@Nullable Object cacheValue, List<CachePutRequest> cachePutRequests,
+			CacheOperationContexts contexts) {
 
 		// Process any collected put requests, either from @CachePut or a @Cacheable miss
 		for (CachePutRequest cachePutRequest : cachePutRequests) {
@@ -432,24 +696,11 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		// Process any late evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), false, cacheValue);
-
-		return returnValue;
 	}
 
 	@Nullable
-	private Object handleSynchronizedGet(CacheOperationInvoker invoker, Object key, Cache cache) {
-		InvocationAwareResult invocationResult = new InvocationAwareResult();
-		Object result = cache.get(key, () -> {
-			invocationResult.invoked = true;
-			if (logger.isTraceEnabled()) {
-				logger.trace("No cache entry for key '" + key + "' in cache " + cache.getName());
-			}
-			return unwrapReturnValue(invokeOperation(invoker));
-		});
-		if (!invocationResult.invoked && logger.isTraceEnabled()) {
-			logger.trace("Cache entry for key '" + key + "' found in cache '" + cache.getName() + "'");
-		}
-		return result;
+	private Object unwrapCacheValue(@Nullable Object cacheValue) {
+		return (cacheValue instanceof Cache.ValueWrapper ? ((Cache.ValueWrapper) cacheValue).get() : cacheValue);
 	}
 
 	@Nullable
@@ -523,17 +774,20 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	/**
 	 * Find a cached item only for {@link CacheableOperation} that passes the condition.
-	 * @param contexts the cacheable operations
-	 * @return a {@link Cache.ValueWrapper} holding the cached item,
-	 * or {@code null} if none is found
+	 * @param invoker the invoker handling the operation being cached
+	 * @param method the method being invoked
+	 * @param contexts the cache operation contexts
+	 * @return a {@link Cache.ValueWrapper} holding the cached item, an asynchronous
+	 * or reactive handle that evaluates the cache operations once the cached item
+	 * has been retrieved, or {@code null} if none is found
 	 */
 	@Nullable
-	private Cache.ValueWrapper findCachedItem(Collection<CacheOperationContext> contexts) {
+	private Object findCachedValue(CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
 		Object result = CacheOperationExpressionEvaluator.NO_RESULT;
-		for (CacheOperationContext context : contexts) {
+		for (CacheOperationContext context : contexts.get(CacheableOperation.class)) {
 			if (isConditionPassing(context, result)) {
 				Object key = generateKey(context, result);
-				Cache.ValueWrapper cached = findInCaches(context, key);
+				Object cached = findInCaches(context, key, invoker, method, contexts);
 				if (cached != null) {
 					return cached;
 				}
@@ -552,22 +806,44 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	 * the specified result item.
 	 * @param contexts the contexts to handle
 	 * @param result the result item (never {@code null})
+	 * @param generateKey whether to compute the keys against the given result
+	 * right away, or against the actual result once available
 	 * @param putRequests the collection to update
 	 */
 	private void collectPutRequests(Collection<CacheOperationContext> contexts,
-			@Nullable Object result, Collection<CachePutRequest> putRequests) {
+			@Nullable Object result, boolean generateKey, Collection<CachePutRequest> putRequests) {
 
 		for (CacheOperationContext context : contexts) {
 			if (isConditionPassing(context, result)) {
-				Object key = generateKey(context, result);
+				Object key = (generateKey ? generateKey(context, result) : null);
 				putRequests.add(new CachePutRequest(context, key));
 			}
 		}
 	}
 
 	@Nullable
-	private Cache.ValueWrapper findInCaches(CacheOperationContext context, Object key) {
+	private Object findInCaches(CacheOperationContext context, Object key,
+			CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+
 		for (Cache cache : context.getCaches()) {
+			if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+				CompletableFuture<?> cachedFuture = doRetrieve(cache, key);
+				if (cachedFuture != null) {
+					return cachedFuture.thenCompose(value -> evaluateAsync(
+							(value != null ? CompletableFuture.completedFuture(unwrapCacheValue(value)) : null),
+							invoker, method, contexts));
+				}
+				continue;
+			}
+			if (this.reactiveCachingHandler != null) {
+				Object returnValue = this.reactiveCachingHandler.findInCaches(cache, key, invoker, method, contexts);
+				if (returnValue != NOT_HANDLED) {
+					if (returnValue != null) {
+						return returnValue;
+					}
+					continue;
+				}
+			}
 			Cache.ValueWrapper wrapper = doGet(cache, key);
 			if (wrapper != null) {
 				if (logger.isTraceEnabled()) {
@@ -579,6 +855,26 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return null;
 	}
 
+	/**
+	 * Evaluate the cache operations after a late-determined cache hit or miss
+	 * for a method returning a {@link CompletableFuture}.
+	 */
+	@SuppressWarnings("unchecked")
+	private CompletableFuture<Object> evaluateAsync(@Nullable Object cacheHit, CacheOperationInvoker invoker,
+			Method method, CacheOperationContexts contexts) {
+
+		try {
+			CompletableFuture<Object> future = (CompletableFuture<Object>) evaluate(cacheHit, invoker, method, contexts);
+			Assert.state(future != null, () -> "Returned CompletableFuture must not be null: " + method);
+			return future;
+		}
+		catch (CacheOperationInvoker.ThrowableWrapper ex) {
+			CompletableFuture<Object> future = new CompletableFuture<>();
+			future.completeExceptionally(ex.getOriginal());
+			return future;
+		}
+	}
+
 	private boolean isConditionPassing(CacheOperationContext context, @Nullable Object result) {
 		boolean passing = context.isConditionPassing(result);
 		if (!passing && logger.isTraceEnabled()) {
@@ -588,6 +884,20 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return passing;
 	}
 
+	/**
+	 * Compute the cache key for a single element of the keys of a bulk operation,
+	 * as the configured {@link KeyGenerator} would for a method taking that
+	 * element as its only argument.
+	 */
+	private Object generateBulkKey(CacheOperationContext context, Object element) {
+		Object key = context.metadata.keyGenerator.generate(context.target, context.metadata.method, element);
+		if (key == null) {
+			throw new IllegalArgumentException("Null key returned for element '" + element +
+					"' of cache operation " + context.metadata.operation);
+		}
+		return key;
+	}
+
 	private Object generateKey(CacheOperationContext context, @Nullable Object result) {
 		Object key = context.generateKey(result);
 		if (key == null) {
@@ -607,6 +917,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final boolean sync;
 
+		private final boolean bulk;
+
 		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
 				Object[] args, Object target, Class<?> targetClass) {
 
@@ -615,6 +927,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
 			}
 			this.sync = determineSyncFlag(method);
+			this.bulk = determineBulkFlag(method);
 		}
 
 		public Collection<CacheOperationContext> get(Class<? extends CacheOperation> operationClass) {
@@ -626,6 +939,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			return this.sync;
 		}
 
+		public boolean isBulk() {
+			return this.bulk;
+		}
+
 		private boolean determineSyncFlag(Method method) {
 			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
 			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
@@ -661,6 +978,30 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 			return false;
 		}
+
+		private boolean determineBulkFlag(Method method) {
+			List<CacheOperationContext> bulkOperationContexts = this.contexts.get(BulkCacheableOperation.class);
+			if (bulkOperationContexts == null) {  // no @BulkCacheable operation at all
+				return false;
+			}
+			if (this.contexts.size() > 1) {
+				throw new IllegalStateException(
+						"@BulkCacheable cannot be combined with other cache operations on '" + method + "'");
+			}
+			if (bulkOperationContexts.size() > 1) {
+				throw new IllegalStateException(
+						"Only one @BulkCacheable entry is allowed on '" + method + "'");
+			}
+			if (method.getParameterCount() != 1 || !Collection.class.isAssignableFrom(method.getParameterTypes()[0])) {
+				throw new IllegalStateException(
+						"@BulkCacheable requires a single Collection parameter on '" + method + "'");
+			}
+			if (!Map.class.isAssignableFrom(method.getReturnType())) {
+				throw new IllegalStateException(
+						"@BulkCacheable requires a Map return type on '" + method + "'");
+			}
+			return true;
+		}
 	}
 
 
@@ -778,6 +1119,9 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			else if (this.metadata.operation instanceof CachePutOperation) {
 				unless = ((CachePutOperation) this.metadata.operation).getUnless();
 			}
+			else if (this.metadata.operation instanceof BulkCacheableOperation) {
+				unless = ((BulkCacheableOperation) this.metadata.operation).getUnless();
+			}
 			if (StringUtils.hasText(unless)) {
 				EvaluationContext evaluationContext = createEvaluationContext(value);
 				return !evaluator.unless(unless, this.metadata.methodKey, evaluationContext);
@@ -824,23 +1168,116 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final CacheOperationContext context;
 
+		@Nullable
 		private final Object key;
 
-		public CachePutRequest(CacheOperationContext context, Object key) {
+		public CachePutRequest(CacheOperationContext context, @Nullable Object key) {
 			this.context = context;
 			this.key = key;
 		}
 
 		public void apply(@Nullable Object result) {
 			if (this.context.canPutToCache(result)) {
+				// Key not computed before if it depends on an asynchronous result
+				Object key = (this.key != null ? this.key : generateKey(this.context, result));
 				for (Cache cache : this.context.getCaches()) {
-					doPut(cache, this.key, result);
+					doPut(cache, key, result);
 				}
 			}
 		}
 	}
 
 
+	/**
+	 * Inner class to avoid a hard dependency on the Reactive Streams API and Reactor
+	 * at runtime: caches the values emitted by reactive return types, with a
+	 * single-value publisher cached as its value and a multi-value publisher cached
+	 * as the {@link List} of its emitted values.
+	 */
+	private class ReactiveCachingHandler {
+
+		private final ReactiveAdapterRegistry registry = ReactiveAdapterRegistry.getSharedInstance();
+
+		@Nullable
+		public Object executeSynchronized(CacheOperationInvoker invoker, Method method, Cache cache, Object key) {
+			ReactiveAdapter adapter = this.registry.getAdapter(method.getReturnType());
+			if (adapter == null) {
+				return NOT_HANDLED;
+			}
+			if (adapter.isMultiValue()) {
+				// Flux or similar
+				return adapter.fromPublisher(Mono.fromFuture(doRetrieve(cache, key,
+						() -> Flux.from(invokePublisher(invoker, adapter)).collectList().toFuture()))
+						.flatMapIterable(values -> values));
+			}
+			// Mono or similar
+			return adapter.fromPublisher(Mono.fromFuture(doRetrieve(cache, key,
+					() -> Mono.from(invokePublisher(invoker, adapter)).toFuture())));
+		}
+
+		@Nullable
+		public Object findInCaches(Cache cache, Object key, CacheOperationInvoker invoker, Method method,
+				CacheOperationContexts contexts) {
+
+			ReactiveAdapter adapter = this.registry.getAdapter(method.getReturnType());
+			if (adapter == null) {
+				return NOT_HANDLED;
+			}
+			CompletableFuture<?> cachedFuture = doRetrieve(cache, key);
+			if (cachedFuture == null) {
+				return null;
+			}
+			Mono<Optional<Object>> cached = Mono.fromFuture(cachedFuture.thenApply(
+					value -> Optional.ofNullable(unwrapCacheValue(value))));
+			if (adapter.isMultiValue()) {
+				// Flux or similar
+				return adapter.fromPublisher(cached.flatMapMany(value -> adapter.toPublisher(evaluate(
+						value.map(values -> adapter.fromPublisher(Flux.fromIterable((Iterable<?>) values))).orElse(null),
+						invoker, method, contexts))));
+			}
+			// Mono or similar
+			return adapter.fromPublisher(cached.flatMap(value -> Mono.from(adapter.toPublisher(evaluate(
+					value.map(cachedValue -> adapter.fromPublisher(Mono.just(cachedValue))).orElse(null),
+					invoker, method, contexts)))));
+		}
+
+		public boolean isReactive(@Nullable Object result) {
+			return (result != null && this.registry.getAdapter(result.getClass()) != null);
+		}
+
+		@Nullable
+		public Object processResult(@Nullable Object result, List<CachePutRequest> cachePutRequests,
+				CacheOperationContexts contexts) {
+
+			ReactiveAdapter adapter = (result != null ? this.registry.getAdapter(result.getClass()) : null);
+			if (adapter == null) {
+				return NOT_HANDLED;
+			}
+			if (adapter.isMultiValue()) {
+				// Flux or similar: collect the emitted values without delaying them
+				return adapter.fromPublisher(Flux.defer(() -> {
+					List<Object> values = new ArrayList<>();
+					return Flux.from(adapter.toPublisher(result))
+							.doOnNext(values::add)
+							.doOnComplete(() -> CacheAspectSupport.this.processResult(values, cachePutRequests, contexts));
+				}));
+			}
+			// Mono or similar
+			return adapter.fromPublisher(Mono.from(adapter.toPublisher(result))
+					.doOnSuccess(value -> CacheAspectSupport.this.processResult(value, cachePutRequests, contexts)));
+		}
+
+		private Publisher<Object> invokePublisher(CacheOperationInvoker invoker, ReactiveAdapter adapter) {
+			try {
+				return adapter.toPublisher(CacheAspectSupport.this.invokeOperation(invoker));
+			}
+			catch (CacheOperationInvoker.ThrowableWrapper ex) {
+				return Mono.error(ex.getOriginal());
+			}
+		}
+	}
+
+
 	private static final class CacheOperationCacheKey implements Comparable<CacheOperationCacheKey> {
 
 		private final CacheOperation cacheOperation;
@@ -885,6 +1322,65 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 	}
 
+	/**
+	 * Key of a value being loaded by a bulk invocation.
+	 */
+	private static final class BulkLoadKey {
+
+		private final Cache cache;
+
+		private final Object key;
+
+		BulkLoadKey(Cache cache, Object key) {
+			this.cache = cache;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof BulkLoadKey)) {
+				return false;
+			}
+			BulkLoadKey otherKey = (BulkLoadKey) other;
+			return (this.cache == otherKey.cache && this.key.equals(otherKey.key));
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.cache) * 31 + this.key.hashCode();
+		}
+	}
+
+
+	/**
+	 * A value being loaded by a bulk invocation, awaited by concurrent
+	 * invocations requesting the same key.
+	 */
+	private static final class BulkLoad extends CompletableFuture<Object> {
+
+		final Thread owner = Thread.currentThread();
+
+		Object await() {
+			try {
+				return join();
+			}
+			catch (CompletionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new CacheOperationInvoker.ThrowableWrapper(cause);
+			}
+		}
+	}
+
+
 	/**
 	 * Internal holder class for recording that a cache method was invoked.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -24,7 +25,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cache.Cache;
 import org.springframework.context.expression.AnnotatedElementKey;
-import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
@@ -37,6 +37,10 @@ import org.springframework.lang.Nullable;
  * <p>Performs internal caching for performance reasons
  * using {@link AnnotatedElementKey}.
  *
+ * <p>As of 5.3.14, expressions are compiled in
+ * {@link org.springframework.expression.spel.SpelCompilerMode#MIXED MIXED}
+ * mode unless a compiler mode is configured explicitly.
+ *
  * @author Costin Leau
  * @author Phillip Webb
  * @author Sam Brannen
@@ -68,6 +72,11 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 	private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<>(64);
 
 
+	CacheOperationExpressionEvaluator() {
+		super(createCompilingParser());
+	}
+
+
 	/**
 	 * Create an {@link EvaluationContext}.
 	 * @param caches the current caches
@@ -93,9 +102,7 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 		else if (result != NO_RESULT) {
 			evaluationContext.setVariable(RESULT_VARIABLE, result);
 		}
-		if (beanFactory != null) {
-			evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
-		}
+		applySharedDelegates(evaluationContext, beanFactory);
 		return evaluationContext;
 	}
 
@@ -114,6 +121,11 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 				evalContext, Boolean.class)));
 	}
 
+	@Override
+	protected Collection<Map<ExpressionKey, Expression>> getExpressionCaches() {
+		return Arrays.asList(this.keyCache, this.conditionCache, this.unlessCache);
+	}
+
 	/**
 	 * Clear all caches.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +41,20 @@ public interface CacheOperationInvoker {
 	@Nullable
 	Object invoke() throws ThrowableWrapper;
 
+	/**
+	 * Return an invoker for the same cache operation that is invoked with the
+	 * given arguments instead of the original ones, if supported.
+	 * <p>The default implementation returns {@code null}.
+	 * @param args the arguments to use
+	 * @return the invoker to use, or {@code null} if the arguments of this
+	 * invocation cannot be replaced
+	 * @since 5.3.14
+	 */
+	@Nullable
+	default CacheOperationInvoker withArguments(Object[] args) {
+		return null;
+	}
+
 
 	/**
 	 * Wrap any exception thrown while invoking {@link #invoke()}.
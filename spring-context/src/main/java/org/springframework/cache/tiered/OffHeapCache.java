@@ -0,0 +1,632 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.cache.Cache} implementation that stores serialized
+ * values outside of the garbage-collected heap, either in direct
+ * {@link ByteBuffer ByteBuffers} or in a memory-mapped file.
+ *
+ * <p>The storage is divided into fixed-size blocks, and each value occupies
+ * a chain of blocks. Only the keys and the block index of each entry are held
+ * on the heap, so that large amounts of cached data do not add to the cost of
+ * garbage collection. Once the {@linkplain #getCapacity() capacity} is
+ * exhausted, the least recently used entries are evicted to make room.
+ *
+ * <p>Values are converted through a {@link Serializer} / {@link Deserializer}
+ * pair, using standard Java serialization by default. Every read deserializes
+ * a new copy of the value: this cache is therefore typically used as the
+ * second tier of a {@link TieredCache}, behind a small in-heap first tier.
+ *
+ * <p>Access to the storage is guarded by a single lock. Serialization and
+ * deserialization happen outside of that lock. Concurrent loads of the same
+ * key through {@link #get(Object, Callable)} are coalesced.
+ *
+ * <p>The off-heap memory is released once the cache is garbage-collected.
+ * A memory-mapped file is only used as backing storage for the cache
+ * content; it is not read back on startup.
+ *
+ * @since 5.3.14
+ * @see TieredCache
+ * @see TieredCacheManager
+ */
+public class OffHeapCache extends AbstractValueAdaptingCache {
+
+	/**
+	 * The default size of the storage blocks, in bytes.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 256;
+
+	private static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+	private static final int END_OF_CHAIN = -1;
+
+
+	private final String name;
+
+	private final int blockSize;
+
+	private final int blockCount;
+
+	private final int blocksPerSegment;
+
+	private final ByteBuffer[] segments;
+
+	private final int[] nextBlocks;
+
+	private final Serializer<Object> serializer;
+
+	private final Deserializer<Object> deserializer;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final LinkedHashMap<Object, Slot> index = new LinkedHashMap<>(256, 0.75f, true);
+
+	private final ConcurrentMap<Object, LoadingValue> loading = new ConcurrentHashMap<>();
+
+	private int freeBlock;
+
+	private int freeBlockCount;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final LongAdder rejectionCount = new LongAdder();
+
+
+	/**
+	 * Create a new OffHeapCache with the specified name and capacity,
+	 * backed by direct buffers.
+	 * @param name the name of the cache
+	 * @param capacity the capacity of the off-heap storage, in bytes
+	 */
+	public OffHeapCache(String name, long capacity) {
+		this(name, capacity, true);
+	}
+
+	/**
+	 * Create a new OffHeapCache with the specified name and capacity,
+	 * backed by direct buffers.
+	 * @param name the name of the cache
+	 * @param capacity the capacity of the off-heap storage, in bytes
+	 * @param allowNullValues whether to accept and convert {@code null}
+	 * values for this cache
+	 */
+	public OffHeapCache(String name, long capacity, boolean allowNullValues) {
+		this(name, capacity, DEFAULT_BLOCK_SIZE, allowNullValues,
+				new DefaultSerializer(), new DefaultDeserializer(), null);
+	}
+
+	/**
+	 * Create a new OffHeapCache with the specified name, capacity and codec.
+	 * @param name the name of the cache
+	 * @param capacity the capacity of the off-heap storage, in bytes
+	 * @param blockSize the size of the storage blocks, in bytes
+	 * @param allowNullValues whether to accept and convert {@code null}
+	 * values for this cache
+	 * @param serializer the serializer to write values to the storage with
+	 * @param deserializer the deserializer to read values from the storage with
+	 * @param mappedFile the file to map the storage to, or {@code null}
+	 * to allocate direct buffers
+	 */
+	public OffHeapCache(String name, long capacity, int blockSize, boolean allowNullValues,
+			Serializer<Object> serializer, Deserializer<Object> deserializer, @Nullable File mappedFile) {
+
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(blockSize > 0 && blockSize <= MAX_SEGMENT_SIZE, "Invalid block size: " + blockSize);
+		Assert.isTrue(capacity >= blockSize, "Capacity must hold at least one block");
+		Assert.isTrue(capacity / blockSize <= Integer.MAX_VALUE, "Capacity exceeds the maximum number of blocks");
+		Assert.notNull(serializer, "Serializer must not be null");
+		Assert.notNull(deserializer, "Deserializer must not be null");
+		this.name = name;
+		this.blockSize = blockSize;
+		this.blockCount = (int) (capacity / blockSize);
+		this.blocksPerSegment = MAX_SEGMENT_SIZE / blockSize;
+		this.segments = allocateSegments(mappedFile);
+		this.nextBlocks = new int[this.blockCount];
+		this.serializer = serializer;
+		this.deserializer = deserializer;
+		resetBlocks();
+	}
+
+	private ByteBuffer[] allocateSegments(@Nullable File mappedFile) {
+		int segmentCount = (this.blockCount - 1) / this.blocksPerSegment + 1;
+		ByteBuffer[] segments = new ByteBuffer[segmentCount];
+		if (mappedFile == null) {
+			for (int i = 0; i < segmentCount; i++) {
+				segments[i] = ByteBuffer.allocateDirect(getSegmentSize(i));
+			}
+			return segments;
+		}
+		try (FileChannel channel = FileChannel.open(mappedFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			for (int i = 0; i < segmentCount; i++) {
+				long position = (long) i * this.blocksPerSegment * this.blockSize;
+				segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, getSegmentSize(i));
+			}
+			return segments;
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to map storage of cache '" + this.name +
+					"' to file [" + mappedFile + "]", ex);
+		}
+	}
+
+	private int getSegmentSize(int segment) {
+		int blocks = Math.min(this.blocksPerSegment, this.blockCount - segment * this.blocksPerSegment);
+		return blocks * this.blockSize;
+	}
+
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	/**
+	 * This implementation returns the OffHeapCache itself.
+	 */
+	@Override
+	public final Object getNativeCache() {
+		return this;
+	}
+
+	/**
+	 * Return the capacity of the off-heap storage, in bytes.
+	 */
+	public final long getCapacity() {
+		return (long) this.blockCount * this.blockSize;
+	}
+
+	/**
+	 * Return the size of the storage blocks, in bytes.
+	 */
+	public final int getBlockSize() {
+		return this.blockSize;
+	}
+
+	/**
+	 * Return a snapshot of the statistics recorded for this cache.
+	 */
+	public Statistics getStatistics() {
+		int entryCount;
+		long usedBytes;
+		this.lock.lock();
+		try {
+			entryCount = this.index.size();
+			usedBytes = (long) (this.blockCount - this.freeBlockCount) * this.blockSize;
+		}
+		finally {
+			this.lock.unlock();
+		}
+		return new Statistics(this.hitCount.sum(), this.missCount.sum(), this.evictionCount.sum(),
+				this.rejectionCount.sum(), entryCount, usedBytes, getCapacity());
+	}
+
+	@Override
+	@Nullable
+	protected Object lookup(Object key) {
+		byte[] bytes = read(key);
+		if (bytes == null) {
+			this.missCount.increment();
+			return null;
+		}
+		this.hitCount.increment();
+		return deserialize(bytes);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Object storeValue = lookup(key);
+		if (storeValue == null) {
+			storeValue = load(key, valueLoader);
+		}
+		return (T) fromStoreValue(storeValue);
+	}
+
+	private Object load(Object key, Callable<?> valueLoader) {
+		LoadingValue loadingValue = new LoadingValue();
+		LoadingValue existing = this.loading.putIfAbsent(key, loadingValue);
+		if (existing != null) {
+			if (existing.owner == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive load of cache key '" + key + "' in cache '" + this.name + "'");
+			}
+			return existing.await(key, valueLoader);
+		}
+		try {
+			// Re-check after registration, a concurrent load may have completed in the meantime
+			byte[] bytes = read(key);
+			Object storeValue;
+			if (bytes != null) {
+				storeValue = deserialize(bytes);
+			}
+			else {
+				Object value = valueLoader.call();
+				ValueWrapper previous = putIfAbsent(key, value);
+				storeValue = toStoreValue(previous != null ? previous.get() : value);
+			}
+			loadingValue.complete(storeValue);
+			return storeValue;
+		}
+		catch (Throwable ex) {
+			loadingValue.completeExceptionally(ex);
+			throw new ValueRetrievalException(key, valueLoader, ex);
+		}
+		finally {
+			this.loading.remove(key, loadingValue);
+		}
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		byte[] bytes = serialize(value);
+		this.lock.lock();
+		try {
+			Slot existing = this.index.remove(key);
+			if (existing != null) {
+				release(existing);
+			}
+			store(key, bytes);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		byte[] bytes = serialize(value);
+		byte[] existingBytes;
+		this.lock.lock();
+		try {
+			Slot existing = this.index.get(key);
+			if (existing == null) {
+				store(key, bytes);
+				return null;
+			}
+			existingBytes = read(existing);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		return toValueWrapper(deserialize(existingBytes));
+	}
+
+	@Override
+	public void evict(Object key) {
+		evictIfPresent(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		this.lock.lock();
+		try {
+			Slot existing = this.index.remove(key);
+			if (existing != null) {
+				release(existing);
+				return true;
+			}
+			return false;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		invalidate();
+	}
+
+	@Override
+	public boolean invalidate() {
+		this.lock.lock();
+		try {
+			boolean notEmpty = !this.index.isEmpty();
+			this.index.clear();
+			resetBlocks();
+			return notEmpty;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+
+	private byte[] serialize(@Nullable Object userValue) {
+		Object storeValue = toStoreValue(userValue);
+		try {
+			return this.serializer.serializeToByteArray(storeValue);
+		}
+		catch (Throwable ex) {
+			throw new IllegalArgumentException("Failed to serialize cache value '" + userValue +
+					"'. Does it implement Serializable?", ex);
+		}
+	}
+
+	private Object deserialize(byte[] bytes) {
+		try {
+			return this.deserializer.deserializeFromByteArray(bytes);
+		}
+		catch (Throwable ex) {
+			throw new IllegalArgumentException("Failed to deserialize cache value from cache '" + this.name + "'", ex);
+		}
+	}
+
+	private void resetBlocks() {
+		for (int i = 0; i < this.blockCount; i++) {
+			this.nextBlocks[i] = i + 1;
+		}
+		this.nextBlocks[this.blockCount - 1] = END_OF_CHAIN;
+		this.freeBlock = 0;
+		this.freeBlockCount = this.blockCount;
+	}
+
+	/**
+	 * Store the given bytes for the given key, evicting the least recently
+	 * used entries as necessary. Must be called with the lock held.
+	 */
+	private void store(Object key, byte[] bytes) {
+		int blocks = Math.max(1, (bytes.length - 1) / this.blockSize + 1);
+		if (blocks > this.blockCount) {
+			this.rejectionCount.increment();
+			return;
+		}
+		Iterator<Map.Entry<Object, Slot>> leastRecentlyUsed = this.index.entrySet().iterator();
+		while (this.freeBlockCount < blocks) {
+			Slot victim = leastRecentlyUsed.next().getValue();
+			leastRecentlyUsed.remove();
+			release(victim);
+			this.evictionCount.increment();
+		}
+		int firstBlock = this.freeBlock;
+		int block = firstBlock;
+		for (int i = 0; i < blocks; i++) {
+			int offset = i * this.blockSize;
+			positionAt(block).put(bytes, offset, Math.min(this.blockSize, bytes.length - offset));
+			int next = this.nextBlocks[block];
+			if (i == blocks - 1) {
+				this.nextBlocks[block] = END_OF_CHAIN;
+			}
+			block = next;
+		}
+		this.freeBlock = block;
+		this.freeBlockCount -= blocks;
+		this.index.put(key, new Slot(firstBlock, bytes.length, blocks));
+	}
+
+	@Nullable
+	private byte[] read(Object key) {
+		this.lock.lock();
+		try {
+			Slot slot = this.index.get(key);
+			return (slot != null ? read(slot) : null);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Read the bytes of the given entry. Must be called with the lock held.
+	 */
+	private byte[] read(Slot slot) {
+		byte[] bytes = new byte[slot.length];
+		int block = slot.firstBlock;
+		for (int offset = 0; offset < bytes.length; offset += this.blockSize) {
+			positionAt(block).get(bytes, offset, Math.min(this.blockSize, bytes.length - offset));
+			block = this.nextBlocks[block];
+		}
+		return bytes;
+	}
+
+	/**
+	 * Return the blocks of the given entry to the free list.
+	 * Must be called with the lock held.
+	 */
+	private void release(Slot slot) {
+		int lastBlock = slot.firstBlock;
+		while (this.nextBlocks[lastBlock] != END_OF_CHAIN) {
+			lastBlock = this.nextBlocks[lastBlock];
+		}
+		this.nextBlocks[lastBlock] = this.freeBlock;
+		this.freeBlock = slot.firstBlock;
+		this.freeBlockCount += slot.blockCount;
+	}
+
+	private ByteBuffer positionAt(int block) {
+		ByteBuffer segment = this.segments[block / this.blocksPerSegment];
+		((Buffer) segment).clear();
+		((Buffer) segment).position((block % this.blocksPerSegment) * this.blockSize);
+		return segment;
+	}
+
+
+	/**
+	 * An immutable snapshot of the statistics recorded for an {@link OffHeapCache}.
+	 */
+	public static final class Statistics {
+
+		private final long hitCount;
+
+		private final long missCount;
+
+		private final long evictionCount;
+
+		private final long rejectionCount;
+
+		private final int entryCount;
+
+		private final long usedBytes;
+
+		private final long capacity;
+
+		Statistics(long hitCount, long missCount, long evictionCount, long rejectionCount,
+				int entryCount, long usedBytes, long capacity) {
+
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.evictionCount = evictionCount;
+			this.rejectionCount = rejectionCount;
+			this.entryCount = entryCount;
+			this.usedBytes = usedBytes;
+			this.capacity = capacity;
+		}
+
+		/**
+		 * Return the number of lookups that found an entry.
+		 */
+		public long getHitCount() {
+			return this.hitCount;
+		}
+
+		/**
+		 * Return the number of lookups that found no entry.
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * Return the ratio of lookups that found an entry,
+		 * or {@code 1.0} if there have been no lookups yet.
+		 */
+		public double getHitRatio() {
+			long requestCount = this.hitCount + this.missCount;
+			return (requestCount > 0 ? (double) this.hitCount / requestCount : 1.0);
+		}
+
+		/**
+		 * Return the number of entries evicted to make room for new ones.
+		 */
+		public long getEvictionCount() {
+			return this.evictionCount;
+		}
+
+		/**
+		 * Return the number of values not stored because they exceed the capacity.
+		 */
+		public long getRejectionCount() {
+			return this.rejectionCount;
+		}
+
+		/**
+		 * Return the number of entries currently stored.
+		 */
+		public int getEntryCount() {
+			return this.entryCount;
+		}
+
+		/**
+		 * Return the number of bytes currently occupied by stored entries,
+		 * rounded up to whole blocks.
+		 */
+		public long getUsedBytes() {
+			return this.usedBytes;
+		}
+
+		/**
+		 * Return the capacity of the off-heap storage, in bytes.
+		 */
+		public long getCapacity() {
+			return this.capacity;
+		}
+
+		@Override
+		public String toString() {
+			return "OffHeapCache.Statistics[hits=" + this.hitCount + ", misses=" + this.missCount +
+					", evictions=" + this.evictionCount + ", rejections=" + this.rejectionCount +
+					", entries=" + this.entryCount + ", usedBytes=" + this.usedBytes +
+					", capacity=" + this.capacity + "]";
+		}
+	}
+
+
+	/**
+	 * A store value being loaded, awaited by concurrent requests for the same key.
+	 */
+	private static final class LoadingValue extends CompletableFuture<Object> {
+
+		final Thread owner = Thread.currentThread();
+
+		Object await(Object key, Callable<?> valueLoader) {
+			try {
+				return get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new ValueRetrievalException(key, valueLoader, ex);
+			}
+			catch (ExecutionException ex) {
+				throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+			}
+		}
+	}
+
+
+	/**
+	 * The location of a stored entry: the first block of its chain,
+	 * the length of its serialized value and the number of blocks it occupies.
+	 */
+	private static final class Slot {
+
+		final int firstBlock;
+
+		final int length;
+
+		final int blockCount;
+
+		Slot(int firstBlock, int length, int blockCount) {
+			this.firstBlock = firstBlock;
+			this.length = length;
+			this.blockCount = blockCount;
+		}
+	}
+
+}
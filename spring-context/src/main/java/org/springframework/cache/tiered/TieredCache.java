@@ -0,0 +1,273 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Two-level {@link Cache} implementation, combining a small and fast first tier,
+ * typically an in-heap {@link org.springframework.cache.concurrent.BoundedConcurrentMapCache},
+ * with a larger second tier, typically an {@link OffHeapCache}.
+ *
+ * <p>Writes and evictions go through to both tiers. A lookup is served from the
+ * first tier if possible; a value found in the second tier only is promoted to
+ * the first tier. Loading a value through {@link #get(Object, Callable)} is
+ * delegated to the first tier, so that concurrent loads for the same key are
+ * coalesced if the first tier supports it.
+ *
+ * <p>The tiers are updated one after the other without a common lock, so a
+ * concurrent lookup may promote a value that is being evicted at the same time.
+ * {@linkplain #getStatistics() Statistics} are recorded for the hits in each
+ * tier; the tiers themselves may provide further statistics.
+ *
+ * @since 5.3.14
+ * @see TieredCacheManager
+ */
+public class TieredCache implements Cache {
+
+	private final String name;
+
+	private final Cache firstTier;
+
+	private final Cache secondTier;
+
+	private final LongAdder firstTierHitCount = new LongAdder();
+
+	private final LongAdder secondTierHitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+
+	/**
+	 * Create a new TieredCache with the specified name and tiers.
+	 * @param name the name of the cache
+	 * @param firstTier the cache to consult first and to promote values to
+	 * @param secondTier the cache to consult on a miss in the first tier
+	 */
+	public TieredCache(String name, Cache firstTier, Cache secondTier) {
+		Assert.notNull(name, "Name must not be null");
+		Assert.notNull(firstTier, "First tier must not be null");
+		Assert.notNull(secondTier, "Second tier must not be null");
+		this.name = name;
+		this.firstTier = firstTier;
+		this.secondTier = secondTier;
+	}
+
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	/**
+	 * This implementation returns the TieredCache itself.
+	 */
+	@Override
+	public final Object getNativeCache() {
+		return this;
+	}
+
+	/**
+	 * Return the first tier of this cache.
+	 */
+	public final Cache getFirstTier() {
+		return this.firstTier;
+	}
+
+	/**
+	 * Return the second tier of this cache.
+	 */
+	public final Cache getSecondTier() {
+		return this.secondTier;
+	}
+
+	/**
+	 * Return a snapshot of the statistics recorded for this cache.
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(this.firstTierHitCount.sum(), this.secondTierHitCount.sum(), this.missCount.sum());
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		ValueWrapper wrapper = this.firstTier.get(key);
+		if (wrapper != null) {
+			this.firstTierHitCount.increment();
+			return wrapper;
+		}
+		wrapper = this.secondTier.get(key);
+		if (wrapper != null) {
+			this.secondTierHitCount.increment();
+			this.firstTier.put(key, wrapper.get());
+			return wrapper;
+		}
+		this.missCount.increment();
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = (wrapper != null ? wrapper.get() : null);
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper wrapper = this.firstTier.get(key);
+		if (wrapper != null) {
+			this.firstTierHitCount.increment();
+			return (T) wrapper.get();
+		}
+		return this.firstTier.get(key, () -> {
+			ValueWrapper secondTierWrapper = this.secondTier.get(key);
+			if (secondTierWrapper != null) {
+				this.secondTierHitCount.increment();
+				return (T) secondTierWrapper.get();
+			}
+			this.missCount.increment();
+			T value = valueLoader.call();
+			this.secondTier.put(key, value);
+			return value;
+		});
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		this.secondTier.put(key, value);
+		this.firstTier.put(key, value);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		ValueWrapper existing = this.firstTier.get(key);
+		if (existing != null) {
+			return existing;
+		}
+		existing = this.secondTier.putIfAbsent(key, value);
+		this.firstTier.put(key, (existing != null ? existing.get() : value));
+		return existing;
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.secondTier.evict(key);
+		this.firstTier.evict(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean secondTierPresent = this.secondTier.evictIfPresent(key);
+		boolean firstTierPresent = this.firstTier.evictIfPresent(key);
+		return (firstTierPresent || secondTierPresent);
+	}
+
+	@Override
+	public void clear() {
+		this.secondTier.clear();
+		this.firstTier.clear();
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean secondTierNotEmpty = this.secondTier.invalidate();
+		boolean firstTierNotEmpty = this.firstTier.invalidate();
+		return (firstTierNotEmpty || secondTierNotEmpty);
+	}
+
+
+	/**
+	 * An immutable snapshot of the statistics recorded for a {@link TieredCache},
+	 * counting each lookup once in the tier that served it.
+	 */
+	public static final class Statistics {
+
+		private final long firstTierHitCount;
+
+		private final long secondTierHitCount;
+
+		private final long missCount;
+
+		Statistics(long firstTierHitCount, long secondTierHitCount, long missCount) {
+			this.firstTierHitCount = firstTierHitCount;
+			this.secondTierHitCount = secondTierHitCount;
+			this.missCount = missCount;
+		}
+
+		/**
+		 * Return the number of lookups served by the first tier.
+		 */
+		public long getFirstTierHitCount() {
+			return this.firstTierHitCount;
+		}
+
+		/**
+		 * Return the number of lookups served by the second tier.
+		 */
+		public long getSecondTierHitCount() {
+			return this.secondTierHitCount;
+		}
+
+		/**
+		 * Return the number of lookups that found no entry in either tier.
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * Return the ratio of lookups served by either tier,
+		 * or {@code 1.0} if there have been no lookups yet.
+		 */
+		public double getHitRatio() {
+			long hitCount = this.firstTierHitCount + this.secondTierHitCount;
+			long requestCount = hitCount + this.missCount;
+			return (requestCount > 0 ? (double) hitCount / requestCount : 1.0);
+		}
+
+		/**
+		 * Return the ratio of lookups served by the first tier,
+		 * or {@code 1.0} if there have been no lookups yet.
+		 */
+		public double getFirstTierHitRatio() {
+			long requestCount = this.firstTierHitCount + this.secondTierHitCount + this.missCount;
+			return (requestCount > 0 ? (double) this.firstTierHitCount / requestCount : 1.0);
+		}
+
+		@Override
+		public String toString() {
+			return "TieredCache.Statistics[firstTierHits=" + this.firstTierHitCount +
+					", secondTierHits=" + this.secondTierHitCount + ", misses=" + this.missCount + "]";
+		}
+	}
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.BoundedConcurrentMapCache;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} implementation that lazily builds {@link TieredCache}
+ * instances for each {@link #getCache} request, each combining an in-heap
+ * {@link BoundedConcurrentMapCache} as first tier with an {@link OffHeapCache}
+ * as second tier. Also supports a 'static' mode where the set of cache names
+ * is pre-defined through {@link #setCacheNames}, with no dynamic creation of
+ * further cache regions at runtime.
+ *
+ * <p>Since every cache reserves its off-heap capacity upfront, caches are only
+ * created on first access. The configuration of this cache manager is expected
+ * to be complete by then: changes do not apply to caches created before.
+ *
+ * @since 5.3.14
+ * @see TieredCache
+ */
+public class TieredCacheManager implements CacheManager, BeanClassLoaderAware {
+
+	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<>(16);
+
+	private final Set<String> cacheNames = new LinkedHashSet<>();
+
+	private boolean dynamic = true;
+
+	private boolean allowNullValues = true;
+
+	private int firstTierMaximumSize = 1000;
+
+	private long secondTierCapacity = 64 * 1024 * 1024;
+
+	private int blockSize = OffHeapCache.DEFAULT_BLOCK_SIZE;
+
+	@Nullable
+	private File mappedFileDirectory;
+
+	private Serializer<Object> serializer = new DefaultSerializer();
+
+	@Nullable
+	private Deserializer<Object> deserializer;
+
+	@Nullable
+	private ClassLoader beanClassLoader;
+
+
+	/**
+	 * Construct a dynamic TieredCacheManager,
+	 * lazily creating cache instances as they are being requested.
+	 */
+	public TieredCacheManager() {
+	}
+
+	/**
+	 * Construct a static TieredCacheManager,
+	 * managing caches for the specified cache names only.
+	 */
+	public TieredCacheManager(String... cacheNames) {
+		setCacheNames(Arrays.asList(cacheNames));
+	}
+
+
+	/**
+	 * Specify the set of cache names for this CacheManager's 'static' mode.
+	 * <p>The number of caches and their names will be fixed after a call to this method,
+	 * with no creation of further cache regions at runtime.
+	 * <p>Calling this with a {@code null} collection argument resets the
+	 * mode to 'dynamic', allowing for further creation of caches again.
+	 */
+	public synchronized void setCacheNames(@Nullable Collection<String> cacheNames) {
+		if (cacheNames != null) {
+			this.cacheNames.addAll(cacheNames);
+			this.dynamic = false;
+		}
+		else {
+			this.dynamic = true;
+		}
+	}
+
+	/**
+	 * Specify whether to accept and convert {@code null} values for all caches
+	 * in this cache manager.
+	 * <p>Default is "true". An internal holder object will be used to store
+	 * user-level {@code null}s.
+	 */
+	public void setAllowNullValues(boolean allowNullValues) {
+		this.allowNullValues = allowNullValues;
+	}
+
+	/**
+	 * Return whether this cache manager accepts and converts {@code null} values
+	 * for all of its caches.
+	 */
+	public boolean isAllowNullValues() {
+		return this.allowNullValues;
+	}
+
+	/**
+	 * Specify the maximum number of entries in the in-heap first tier of each cache.
+	 * <p>Default is 1000.
+	 * @see BoundedConcurrentMapCache#getMaximumSize()
+	 */
+	public void setFirstTierMaximumSize(int firstTierMaximumSize) {
+		Assert.isTrue(firstTierMaximumSize > 0, "First tier maximum size must be positive");
+		this.firstTierMaximumSize = firstTierMaximumSize;
+	}
+
+	/**
+	 * Return the maximum number of entries in the first tier of each cache.
+	 */
+	public int getFirstTierMaximumSize() {
+		return this.firstTierMaximumSize;
+	}
+
+	/**
+	 * Specify the capacity of the off-heap second tier of each cache, in bytes.
+	 * <p>Default is 64 MB.
+	 * @see OffHeapCache#getCapacity()
+	 */
+	public void setSecondTierCapacity(long secondTierCapacity) {
+		Assert.isTrue(secondTierCapacity > 0, "Second tier capacity must be positive");
+		this.secondTierCapacity = secondTierCapacity;
+	}
+
+	/**
+	 * Return the capacity of the second tier of each cache, in bytes.
+	 */
+	public long getSecondTierCapacity() {
+		return this.secondTierCapacity;
+	}
+
+	/**
+	 * Specify the size of the storage blocks of the second tier, in bytes.
+	 * <p>Default is {@link OffHeapCache#DEFAULT_BLOCK_SIZE}. A larger block size
+	 * reduces the bookkeeping per entry at the expense of more unused space
+	 * in the last block of each entry.
+	 */
+	public void setBlockSize(int blockSize) {
+		Assert.isTrue(blockSize > 0, "Block size must be positive");
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Return the size of the storage blocks of the second tier, in bytes.
+	 */
+	public int getBlockSize() {
+		return this.blockSize;
+	}
+
+	/**
+	 * Specify a directory to memory-map the second tier of each cache to,
+	 * using a file named after the cache.
+	 * <p>Default is none, allocating direct buffers instead.
+	 */
+	public void setMappedFileDirectory(@Nullable File mappedFileDirectory) {
+		this.mappedFileDirectory = mappedFileDirectory;
+	}
+
+	/**
+	 * Return the directory to memory-map the second tier of each cache to, if any.
+	 */
+	@Nullable
+	public File getMappedFileDirectory() {
+		return this.mappedFileDirectory;
+	}
+
+	/**
+	 * Specify the serializer to write values to the second tier with.
+	 * <p>Default is a {@link DefaultSerializer}, using standard Java serialization.
+	 */
+	public void setSerializer(Serializer<Object> serializer) {
+		Assert.notNull(serializer, "Serializer must not be null");
+		this.serializer = serializer;
+	}
+
+	/**
+	 * Specify the deserializer to read values from the second tier with.
+	 * <p>Default is a {@link DefaultDeserializer} for the bean class loader,
+	 * using standard Java serialization.
+	 */
+	public void setDeserializer(Deserializer<Object> deserializer) {
+		Assert.notNull(deserializer, "Deserializer must not be null");
+		this.deserializer = deserializer;
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.beanClassLoader = classLoader;
+	}
+
+
+	@Override
+	public synchronized Collection<String> getCacheNames() {
+		Set<String> names = new LinkedHashSet<>(this.cacheNames);
+		names.addAll(this.cacheMap.keySet());
+		return Collections.unmodifiableSet(names);
+	}
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		Cache cache = this.cacheMap.get(name);
+		if (cache == null) {
+			synchronized (this) {
+				cache = this.cacheMap.get(name);
+				if (cache == null && (this.dynamic || this.cacheNames.contains(name))) {
+					cache = createTieredCache(name);
+					this.cacheMap.put(name, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Create a new TieredCache instance for the specified cache name.
+	 * @param name the name of the cache
+	 * @return the TieredCache (or a decorator thereof)
+	 */
+	protected Cache createTieredCache(String name) {
+		Cache firstTier = new BoundedConcurrentMapCache(name, this.firstTierMaximumSize, this.allowNullValues);
+		Deserializer<Object> deserializer = (this.deserializer != null ?
+				this.deserializer : new DefaultDeserializer(this.beanClassLoader));
+		File mappedFile = (this.mappedFileDirectory != null ? new File(this.mappedFileDirectory, name + ".cache") : null);
+		Cache secondTier = new OffHeapCache(name, this.secondTierCapacity, this.blockSize, this.allowNullValues,
+				this.serializer, deserializer, mappedFile);
+		return new TieredCache(name, firstTier, secondTier);
+	}
+
+}
@@ -0,0 +1,11 @@
+/**
+ * Implementation package for two-level caches, combining a small
+ * in-heap first tier with a large off-heap second tier that stores
+ * serialized values outside of the garbage-collected heap.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.cache.tiered;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
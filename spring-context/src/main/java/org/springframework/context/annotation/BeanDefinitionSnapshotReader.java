@@ -0,0 +1,481 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinitionReader;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Bean definition reader for snapshots written by a {@link BeanDefinitionSnapshotWriter},
+ * typically registering the restored bean definitions with a
+ * {@link org.springframework.context.support.GenericApplicationContext}:
+ *
+ * <pre class="code">
+ * GenericApplicationContext context = new GenericApplicationContext();
+ * new BeanDefinitionSnapshotReader(context).loadBeanDefinitions(
+ *     "classpath:" + BeanDefinitionSnapshotWriter.DEFAULT_SNAPSHOT_LOCATION);
+ * context.refresh();
+ * </pre>
+ *
+ * <p>The restored configuration class definitions are marked as processed, so
+ * that the {@link ConfigurationClassPostProcessor} contained in the snapshot only
+ * enhances them at refresh time instead of parsing them and scanning the classpath
+ * again. The {@code @PropertySource} declarations captured at build time are added
+ * to the environment of the registry, resolving their locations at runtime.
+ * Root bean definitions, e.g. for {@code @Bean} methods, are restored as root
+ * bean definitions including their resolved factory method and target type.
+ *
+ * @since 5.3.14
+ * @see BeanDefinitionSnapshotWriter
+ */
+public class BeanDefinitionSnapshotReader extends AbstractBeanDefinitionReader {
+
+	/**
+	 * Create a new {@code BeanDefinitionSnapshotReader} for the given registry.
+	 * @param registry the BeanFactory to load bean definitions into,
+	 * in the form of a BeanDefinitionRegistry
+	 */
+	public BeanDefinitionSnapshotReader(BeanDefinitionRegistry registry) {
+		super(registry);
+	}
+
+
+	@Override
+	public int loadBeanDefinitions(Resource resource) throws BeanDefinitionStoreException {
+		if (logger.isTraceEnabled()) {
+			logger.trace("Loading bean definition snapshot from " + resource);
+		}
+		try (InputStream is = resource.getInputStream()) {
+			return loadBeanDefinitions(new DataInputStream(new BufferedInputStream(is)));
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException(
+					"IOException reading bean definition snapshot from " + resource, ex);
+		}
+		catch (ClassNotFoundException ex) {
+			throw new BeanDefinitionStoreException(
+					"Class referenced in bean definition snapshot " + resource + " not found", ex);
+		}
+	}
+
+	private int loadBeanDefinitions(DataInputStream dis) throws IOException, ClassNotFoundException {
+		if (dis.readInt() != BeanDefinitionSnapshotWriter.MAGIC) {
+			throw new IOException("Not a bean definition snapshot");
+		}
+		int version = dis.readInt();
+		if (version != BeanDefinitionSnapshotWriter.VERSION) {
+			throw new IOException("Unsupported bean definition snapshot version " + version);
+		}
+
+		int propertySourceCount = dis.readInt();
+		PropertySourceRegistrar propertySourceRegistrar = null;
+		if (propertySourceCount > 0) {
+			if (!(getEnvironment() instanceof ConfigurableEnvironment)) {
+				throw new IllegalStateException("Cannot restore @PropertySource declarations: " +
+						"Environment must implement ConfigurableEnvironment");
+			}
+			ResourceLoader resourceLoader = getResourceLoader();
+			propertySourceRegistrar = new PropertySourceRegistrar((ConfigurableEnvironment) getEnvironment(),
+					(resourceLoader != null ? resourceLoader : new DefaultResourceLoader(getBeanClassLoader())));
+		}
+		for (int i = 0; i < propertySourceCount; i++) {
+			AnnotationAttributes propertySource = readPropertySource(dis);
+			propertySourceRegistrar.processPropertySource(propertySource);
+		}
+
+		BeanDefinitionRegistry registry = getRegistry();
+		int beanCount = dis.readInt();
+		for (int i = 0; i < beanCount; i++) {
+			String beanName = dis.readUTF();
+			String[] aliases = readStrings(dis);
+			registry.registerBeanDefinition(beanName, readBeanDefinition(dis));
+			if (aliases != null) {
+				for (String alias : aliases) {
+					registry.registerAlias(beanName, alias);
+				}
+			}
+		}
+
+		int importCount = dis.readInt();
+		if (importCount > 0) {
+			SnapshotImportRegistry importRegistry = new SnapshotImportRegistry(getBeanClassLoader());
+			for (int i = 0; i < importCount; i++) {
+				importRegistry.imports.put(dis.readUTF(), dis.readUTF());
+			}
+			registerImportRegistry(importRegistry);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Restored " + beanCount + " bean definitions from snapshot");
+		}
+		return beanCount;
+	}
+
+	private void registerImportRegistry(ImportRegistry importRegistry) {
+		BeanDefinitionRegistry registry = getRegistry();
+		SingletonBeanRegistry singletonRegistry = null;
+		if (registry instanceof ConfigurableApplicationContext) {
+			singletonRegistry = ((ConfigurableApplicationContext) registry).getBeanFactory();
+		}
+		else if (registry instanceof SingletonBeanRegistry) {
+			singletonRegistry = (SingletonBeanRegistry) registry;
+		}
+		if (singletonRegistry != null &&
+				!singletonRegistry.containsSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME)) {
+			singletonRegistry.registerSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME, importRegistry);
+		}
+	}
+
+	private AnnotationAttributes readPropertySource(DataInputStream dis) throws IOException, ClassNotFoundException {
+		AnnotationAttributes propertySource = new AnnotationAttributes(PropertySource.class);
+		propertySource.put("name", readString(dis));
+		propertySource.put("value", readStrings(dis));
+		propertySource.put("ignoreResourceNotFound", dis.readBoolean());
+		propertySource.put("encoding", readString(dis));
+		propertySource.put("factory", ClassUtils.forName(dis.readUTF(), getBeanClassLoader()));
+		return propertySource;
+	}
+
+	private AbstractBeanDefinition readBeanDefinition(DataInputStream dis) throws IOException, ClassNotFoundException {
+		AbstractBeanDefinition bd;
+		if (dis.readBoolean()) {
+			String derivedBeanName = readString(dis);
+			bd = (derivedBeanName != null ? new BeanMethodDefinition(derivedBeanName) : new RootBeanDefinition());
+		}
+		else {
+			bd = new GenericBeanDefinition();
+		}
+		bd.setParentName(readString(dis));
+		bd.setBeanClassName(readString(dis));
+		bd.setScope(readString(dis));
+		bd.setAbstract(dis.readBoolean());
+		Boolean lazyInit = (Boolean) readValue(dis);
+		if (lazyInit != null) {
+			bd.setLazyInit(lazyInit);
+		}
+		bd.setAutowireMode(dis.readInt());
+		bd.setDependencyCheck(dis.readInt());
+		bd.setDependsOn(readStrings(dis));
+		bd.setAutowireCandidate(dis.readBoolean());
+		bd.setPrimary(dis.readBoolean());
+		int qualifierCount = dis.readInt();
+		for (int i = 0; i < qualifierCount; i++) {
+			AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(dis.readUTF());
+			int attributeCount = dis.readInt();
+			for (int j = 0; j < attributeCount; j++) {
+				qualifier.setAttribute(dis.readUTF(), readValue(dis));
+			}
+			bd.addQualifier(qualifier);
+		}
+		bd.setNonPublicAccessAllowed(dis.readBoolean());
+		bd.setLenientConstructorResolution(dis.readBoolean());
+		bd.setFactoryBeanName(readString(dis));
+		bd.setFactoryMethodName(readString(dis));
+
+		ConstructorArgumentValues cav = bd.getConstructorArgumentValues();
+		int indexedArgumentCount = dis.readInt();
+		for (int i = 0; i < indexedArgumentCount; i++) {
+			int index = dis.readInt();
+			cav.addIndexedArgumentValue(index, readValueHolder(dis));
+		}
+		int genericArgumentCount = dis.readInt();
+		for (int i = 0; i < genericArgumentCount; i++) {
+			cav.addGenericArgumentValue(readValueHolder(dis));
+		}
+		MutablePropertyValues pvs = bd.getPropertyValues();
+		int propertyCount = dis.readInt();
+		for (int i = 0; i < propertyCount; i++) {
+			String name = dis.readUTF();
+			pvs.add(name, readValue(dis));
+		}
+		int overrideCount = dis.readInt();
+		for (int i = 0; i < overrideCount; i++) {
+			String methodName = dis.readUTF();
+			bd.getMethodOverrides().addOverride(new LookupOverride(methodName, readString(dis)));
+		}
+
+		bd.setInitMethodName(readString(dis));
+		bd.setEnforceInitMethod(dis.readBoolean());
+		bd.setDestroyMethodName(readString(dis));
+		bd.setEnforceDestroyMethod(dis.readBoolean());
+		bd.setSynthetic(dis.readBoolean());
+		bd.setRole(dis.readInt());
+		bd.setDescription(readString(dis));
+		bd.setResourceDescription(readString(dis));
+		int attributeCount = dis.readInt();
+		for (int i = 0; i < attributeCount; i++) {
+			bd.setAttribute(dis.readUTF(), readValue(dis));
+		}
+		if (bd instanceof RootBeanDefinition) {
+			readFactoryMethodMetadata(dis, (RootBeanDefinition) bd);
+		}
+		return bd;
+	}
+
+	private void readFactoryMethodMetadata(DataInputStream dis, RootBeanDefinition rbd)
+			throws IOException, ClassNotFoundException {
+
+		String factoryMethodName = rbd.getFactoryMethodName();
+		boolean factoryMethodUnique = dis.readBoolean();
+		if (factoryMethodName != null) {
+			if (factoryMethodUnique) {
+				rbd.setUniqueFactoryMethodName(factoryMethodName);
+			}
+			else {
+				rbd.setNonUniqueFactoryMethodName(factoryMethodName);
+			}
+		}
+		if (dis.readBoolean()) {
+			Class<?> declaringClass = ClassUtils.forName(dis.readUTF(), getBeanClassLoader());
+			String methodName = dis.readUTF();
+			Class<?>[] parameterTypes = new Class<?>[dis.readInt()];
+			for (int i = 0; i < parameterTypes.length; i++) {
+				parameterTypes[i] = ClassUtils.forName(dis.readUTF(), getBeanClassLoader());
+			}
+			Method factoryMethod = ReflectionUtils.findMethod(declaringClass, methodName, parameterTypes);
+			if (factoryMethod == null) {
+				throw new IOException("Factory method '" + methodName + "' on class [" +
+						declaringClass.getName() + "] referenced in bean definition snapshot not found");
+			}
+			rbd.setResolvedFactoryMethod(factoryMethod);
+		}
+		if (dis.readBoolean()) {
+			rbd.setTargetType(readType(dis));
+		}
+	}
+
+	private ResolvableType readType(DataInputStream dis) throws IOException, ClassNotFoundException {
+		if (dis.readBoolean()) {
+			return ResolvableType.forArrayComponent(readType(dis));
+		}
+		Class<?> type = ClassUtils.forName(dis.readUTF(), getBeanClassLoader());
+		ResolvableType[] generics = new ResolvableType[dis.readInt()];
+		for (int i = 0; i < generics.length; i++) {
+			generics[i] = readType(dis);
+		}
+		return (generics.length > 0 ? ResolvableType.forClassWithGenerics(type, generics) : ResolvableType.forClass(type));
+	}
+
+	private ConstructorArgumentValues.ValueHolder readValueHolder(DataInputStream dis)
+			throws IOException, ClassNotFoundException {
+
+		Object value = readValue(dis);
+		return new ConstructorArgumentValues.ValueHolder(value, readString(dis), readString(dis));
+	}
+
+	@Nullable
+	private Object readValue(DataInputStream dis) throws IOException, ClassNotFoundException {
+		byte tag = dis.readByte();
+		switch (tag) {
+			case BeanDefinitionSnapshotWriter.NULL:
+				return null;
+			case BeanDefinitionSnapshotWriter.STRING:
+				return dis.readUTF();
+			case BeanDefinitionSnapshotWriter.TYPED_STRING: {
+				TypedStringValue typedStringValue = new TypedStringValue(readString(dis));
+				typedStringValue.setTargetTypeName(readString(dis));
+				if (dis.readBoolean()) {
+					typedStringValue.setDynamic();
+				}
+				return typedStringValue;
+			}
+			case BeanDefinitionSnapshotWriter.BEAN_REFERENCE:
+				return new RuntimeBeanReference(dis.readUTF(), dis.readBoolean());
+			case BeanDefinitionSnapshotWriter.BEAN_NAME_REFERENCE:
+				return new RuntimeBeanNameReference(dis.readUTF());
+			case BeanDefinitionSnapshotWriter.BOOLEAN:
+				return dis.readBoolean();
+			case BeanDefinitionSnapshotWriter.INTEGER:
+				return dis.readInt();
+			case BeanDefinitionSnapshotWriter.LONG:
+				return dis.readLong();
+			case BeanDefinitionSnapshotWriter.CLASS:
+				return ClassUtils.forName(dis.readUTF(), getBeanClassLoader());
+			case BeanDefinitionSnapshotWriter.BEAN_DEFINITION_HOLDER: {
+				String beanName = dis.readUTF();
+				String[] aliases = readStrings(dis);
+				return new BeanDefinitionHolder(readBeanDefinition(dis), beanName, aliases);
+			}
+			case BeanDefinitionSnapshotWriter.BEAN_DEFINITION:
+				return readBeanDefinition(dis);
+			case BeanDefinitionSnapshotWriter.LIST: {
+				ManagedList<Object> list = new ManagedList<>();
+				list.setElementTypeName(readString(dis));
+				list.setMergeEnabled(dis.readBoolean());
+				int size = dis.readInt();
+				for (int i = 0; i < size; i++) {
+					list.add(readValue(dis));
+				}
+				return list;
+			}
+			case BeanDefinitionSnapshotWriter.SET: {
+				ManagedSet<Object> set = new ManagedSet<>();
+				set.setElementTypeName(readString(dis));
+				set.setMergeEnabled(dis.readBoolean());
+				int size = dis.readInt();
+				for (int i = 0; i < size; i++) {
+					set.add(readValue(dis));
+				}
+				return set;
+			}
+			case BeanDefinitionSnapshotWriter.PROPERTIES: {
+				ManagedProperties properties = new ManagedProperties();
+				properties.setMergeEnabled(dis.readBoolean());
+				int size = dis.readInt();
+				for (int i = 0; i < size; i++) {
+					properties.put(readValue(dis), readValue(dis));
+				}
+				return properties;
+			}
+			case BeanDefinitionSnapshotWriter.MAP: {
+				ManagedMap<Object, Object> map = new ManagedMap<>();
+				map.setKeyTypeName(readString(dis));
+				map.setValueTypeName(readString(dis));
+				map.setMergeEnabled(dis.readBoolean());
+				int size = dis.readInt();
+				for (int i = 0; i < size; i++) {
+					map.put(readValue(dis), readValue(dis));
+				}
+				return map;
+			}
+			default:
+				throw new IOException("Unknown value tag " + tag + " in bean definition snapshot");
+		}
+	}
+
+	@Nullable
+	private static String readString(DataInputStream dis) throws IOException {
+		return (dis.readBoolean() ? dis.readUTF() : null);
+	}
+
+	@Nullable
+	private static String[] readStrings(DataInputStream dis) throws IOException {
+		int length = dis.readInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = dis.readUTF();
+		}
+		return values;
+	}
+
+
+	/**
+	 * {@link RootBeanDefinition} restored for a {@code @Bean} method, only
+	 * considering {@code @Bean} methods for the same bean name as factory method
+	 * candidates, just like the original configuration class bean definition.
+	 */
+	@SuppressWarnings("serial")
+	private static class BeanMethodDefinition extends RootBeanDefinition {
+
+		private final String derivedBeanName;
+
+		BeanMethodDefinition(String derivedBeanName) {
+			this.derivedBeanName = derivedBeanName;
+		}
+
+		private BeanMethodDefinition(BeanMethodDefinition original) {
+			super(original);
+			this.derivedBeanName = original.derivedBeanName;
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate) &&
+					BeanAnnotationHelper.determineBeanNameFor(candidate).equals(this.derivedBeanName));
+		}
+
+		@Override
+		public BeanMethodDefinition cloneBeanDefinition() {
+			return new BeanMethodDefinition(this);
+		}
+	}
+
+
+	/**
+	 * {@link ImportRegistry} restored from a snapshot, introspecting
+	 * importing classes on demand.
+	 */
+	private static class SnapshotImportRegistry implements ImportRegistry {
+
+		private final Map<String, String> imports = new ConcurrentHashMap<>();
+
+		private final Map<String, AnnotationMetadata> metadataCache = new ConcurrentHashMap<>();
+
+		@Nullable
+		private final ClassLoader classLoader;
+
+		SnapshotImportRegistry(@Nullable ClassLoader classLoader) {
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.imports.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			return this.metadataCache.computeIfAbsent(importingClass, className ->
+					AnnotationMetadata.introspect(ClassUtils.resolveClassName(className, this.classLoader)));
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.imports.values().removeIf(importingClass::equals);
+		}
+	}
+
+}
@@ -0,0 +1,557 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Writes a compact binary snapshot of the bean definitions of a
+ * {@link GenericApplicationContext} after configuration class processing,
+ * to be restored on startup through a {@link BeanDefinitionSnapshotReader}
+ * without any classpath scanning or configuration class parsing.
+ *
+ * <p>Meant to be invoked as a build-time step against a context that has been
+ * set up (component classes registered, profiles activated) but not refreshed:
+ * the writer invokes all {@link BeanDefinitionRegistryPostProcessor
+ * BeanDefinitionRegistryPostProcessors}, in particular the
+ * {@link ConfigurationClassPostProcessor}, before capturing the resulting
+ * bean definitions along with the {@code @PropertySource} declarations and
+ * the import metadata needed by {@link ImportAware} configuration classes.
+ *
+ * <p>Root bean definitions, e.g. for {@code @Bean} methods, are captured along
+ * with their factory method metadata and restored as root bean definitions.
+ * Note that profiles and conditions are evaluated at build time.
+ * Bean definitions that cannot be represented in a snapshot, e.g. definitions
+ * with an instance supplier, replaced methods or property values of custom
+ * types, lead to an {@link IllegalStateException}.
+ *
+ * @since 5.3.14
+ * @see BeanDefinitionSnapshotReader
+ */
+public class BeanDefinitionSnapshotWriter {
+
+	/** Default location of a bean definition snapshot in a jar file. */
+	public static final String DEFAULT_SNAPSHOT_LOCATION = "META-INF/spring.beans";
+
+	static final int MAGIC = 0x53424453;
+
+	static final int VERSION = 1;
+
+	static final byte NULL = 0;
+
+	static final byte STRING = 1;
+
+	static final byte TYPED_STRING = 2;
+
+	static final byte BEAN_REFERENCE = 3;
+
+	static final byte BEAN_NAME_REFERENCE = 4;
+
+	static final byte BOOLEAN = 5;
+
+	static final byte INTEGER = 6;
+
+	static final byte LONG = 7;
+
+	static final byte CLASS = 8;
+
+	static final byte BEAN_DEFINITION_HOLDER = 9;
+
+	static final byte BEAN_DEFINITION = 10;
+
+	static final byte LIST = 11;
+
+	static final byte SET = 12;
+
+	static final byte MAP = 13;
+
+	static final byte PROPERTIES = 14;
+
+
+	private final GenericApplicationContext context;
+
+	private final MetadataReaderFactory metadataReaderFactory;
+
+	private boolean registryProcessed;
+
+
+	/**
+	 * Create a new {@code BeanDefinitionSnapshotWriter} for the given context.
+	 * @param context the context to capture, not refreshed yet
+	 */
+	public BeanDefinitionSnapshotWriter(GenericApplicationContext context) {
+		Assert.notNull(context, "GenericApplicationContext must not be null");
+		Assert.state(!context.isActive(), "Cannot snapshot an active ApplicationContext");
+		this.context = context;
+		this.metadataReaderFactory = new CachingMetadataReaderFactory(context);
+	}
+
+
+	/**
+	 * Process the bean definitions of the context and write a snapshot of them
+	 * to the given stream. The stream will be flushed but not closed.
+	 * @param out the stream to write to
+	 * @throws IOException in case of I/O errors
+	 * @throws IllegalStateException if a bean definition cannot be represented
+	 */
+	public void write(OutputStream out) throws IOException {
+		DefaultListableBeanFactory beanFactory = this.context.getDefaultListableBeanFactory();
+		processBeanDefinitionRegistry(beanFactory);
+
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+		dos.writeInt(MAGIC);
+		dos.writeInt(VERSION);
+
+		String[] beanNames = beanFactory.getBeanDefinitionNames();
+		List<AnnotationAttributes> propertySources = new ArrayList<>();
+		Set<String> knownSuperclasses = new HashSet<>();
+		Map<String, String> imports = new LinkedHashMap<>();
+		ImportRegistry importRegistry = (beanFactory.containsSingleton(
+				ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME) ?
+				(ImportRegistry) beanFactory.getSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME) :
+				null);
+		for (String beanName : beanNames) {
+			BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+			if (bd.getAttribute(ConfigurationClassUtils.CONFIGURATION_CLASS_ATTRIBUTE) != null &&
+					bd instanceof AnnotatedBeanDefinition) {
+				collectPropertySources(((AnnotatedBeanDefinition) bd).getMetadata(), knownSuperclasses, propertySources);
+			}
+			String className = bd.getBeanClassName();
+			if (importRegistry != null && className != null) {
+				AnnotationMetadata importingClass = importRegistry.getImportingClassFor(className);
+				if (importingClass != null) {
+					imports.put(className, importingClass.getClassName());
+				}
+			}
+		}
+
+		dos.writeInt(propertySources.size());
+		for (AnnotationAttributes propertySource : propertySources) {
+			writePropertySource(dos, propertySource);
+		}
+		dos.writeInt(beanNames.length);
+		for (String beanName : beanNames) {
+			dos.writeUTF(beanName);
+			writeStrings(dos, beanFactory.getAliases(beanName));
+			writeBeanDefinition(dos, beanName, beanFactory.getBeanDefinition(beanName));
+		}
+		dos.writeInt(imports.size());
+		for (Map.Entry<String, String> entry : imports.entrySet()) {
+			dos.writeUTF(entry.getKey());
+			dos.writeUTF(entry.getValue());
+		}
+		dos.flush();
+	}
+
+	/**
+	 * Invoke all {@link BeanDefinitionRegistryPostProcessor} beans in order,
+	 * including the ones registered by previously invoked post-processors.
+	 * Regular {@code BeanFactoryPostProcessors} are deliberately not invoked
+	 * since they may depend on the runtime environment.
+	 */
+	private void processBeanDefinitionRegistry(DefaultListableBeanFactory beanFactory) {
+		if (this.registryProcessed) {
+			return;
+		}
+		Set<String> processedBeans = new HashSet<>();
+		boolean reiterate = true;
+		while (reiterate) {
+			reiterate = false;
+			List<BeanDefinitionRegistryPostProcessor> postProcessors = new ArrayList<>();
+			for (String ppName : beanFactory.getBeanNamesForType(BeanDefinitionRegistryPostProcessor.class, true, false)) {
+				if (processedBeans.add(ppName)) {
+					BeanDefinitionRegistryPostProcessor postProcessor =
+							beanFactory.getBean(ppName, BeanDefinitionRegistryPostProcessor.class);
+					if (postProcessor instanceof EnvironmentAware) {
+						((EnvironmentAware) postProcessor).setEnvironment(this.context.getEnvironment());
+					}
+					if (postProcessor instanceof ResourceLoaderAware) {
+						((ResourceLoaderAware) postProcessor).setResourceLoader(this.context);
+					}
+					postProcessors.add(postProcessor);
+					reiterate = true;
+				}
+			}
+			AnnotationAwareOrderComparator.sort(postProcessors);
+			for (BeanDefinitionRegistryPostProcessor postProcessor : postProcessors) {
+				postProcessor.postProcessBeanDefinitionRegistry(beanFactory);
+			}
+		}
+		this.registryProcessed = true;
+	}
+
+	/**
+	 * Collect the {@code @PropertySource} declarations of the given configuration
+	 * class and its superclasses, in the order the {@link ConfigurationClassParser}
+	 * processes them.
+	 */
+	private void collectPropertySources(AnnotationMetadata metadata, Set<String> knownSuperclasses,
+			List<AnnotationAttributes> propertySources) throws IOException {
+
+		AnnotationMetadata current = metadata;
+		while (current != null) {
+			propertySources.addAll(AnnotationConfigUtils.attributesForRepeatable(
+					current, PropertySources.class, PropertySource.class));
+			String superclass = current.getSuperClassName();
+			if (superclass != null && !superclass.startsWith("java") && knownSuperclasses.add(superclass)) {
+				current = this.metadataReaderFactory.getMetadataReader(superclass).getAnnotationMetadata();
+			}
+			else {
+				current = null;
+			}
+		}
+	}
+
+	private void writePropertySource(DataOutputStream dos, AnnotationAttributes propertySource) throws IOException {
+		writeString(dos, propertySource.getString("name"));
+		writeStrings(dos, propertySource.getStringArray("value"));
+		dos.writeBoolean(propertySource.getBoolean("ignoreResourceNotFound"));
+		writeString(dos, propertySource.getString("encoding"));
+		dos.writeUTF(propertySource.getClass("factory").getName());
+	}
+
+	private void writeBeanDefinition(DataOutputStream dos, String beanName, BeanDefinition bd) throws IOException {
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw new IllegalStateException("Cannot snapshot bean definition '" + beanName +
+					"' of type [" + bd.getClass().getName() + "]: AbstractBeanDefinition required");
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd.getInstanceSupplier() != null) {
+			throw new IllegalStateException("Cannot snapshot bean definition '" + beanName +
+					"': instance suppliers are not supported");
+		}
+
+		dos.writeBoolean(abd instanceof RootBeanDefinition);
+		if (abd instanceof RootBeanDefinition) {
+			writeString(dos, getDerivedBeanName((RootBeanDefinition) abd));
+		}
+		writeString(dos, abd.getParentName());
+		writeString(dos, abd.getBeanClassName());
+		writeString(dos, abd.getScope());
+		dos.writeBoolean(abd.isAbstract());
+		writeValue(dos, beanName, abd.getLazyInit());
+		dos.writeInt(abd.getAutowireMode());
+		dos.writeInt(abd.getDependencyCheck());
+		writeStrings(dos, abd.getDependsOn());
+		dos.writeBoolean(abd.isAutowireCandidate());
+		dos.writeBoolean(abd.isPrimary());
+		dos.writeInt(abd.getQualifiers().size());
+		for (AutowireCandidateQualifier qualifier : abd.getQualifiers()) {
+			dos.writeUTF(qualifier.getTypeName());
+			writeAttributes(dos, beanName, qualifier.attributeNames(), qualifier::getAttribute);
+		}
+		dos.writeBoolean(abd.isNonPublicAccessAllowed());
+		dos.writeBoolean(abd.isLenientConstructorResolution());
+		writeString(dos, abd.getFactoryBeanName());
+		writeString(dos, abd.getFactoryMethodName());
+
+		ConstructorArgumentValues cav = abd.getConstructorArgumentValues();
+		dos.writeInt(cav.getIndexedArgumentValues().size());
+		for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : cav.getIndexedArgumentValues().entrySet()) {
+			dos.writeInt(entry.getKey());
+			writeValueHolder(dos, beanName, entry.getValue());
+		}
+		dos.writeInt(cav.getGenericArgumentValues().size());
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cav.getGenericArgumentValues()) {
+			writeValueHolder(dos, beanName, valueHolder);
+		}
+		PropertyValue[] pvs = abd.getPropertyValues().getPropertyValues();
+		dos.writeInt(pvs.length);
+		for (PropertyValue pv : pvs) {
+			dos.writeUTF(pv.getName());
+			writeValue(dos, beanName, pv.getValue());
+		}
+		Set<MethodOverride> overrides = abd.getMethodOverrides().getOverrides();
+		dos.writeInt(overrides.size());
+		for (MethodOverride override : overrides) {
+			if (!(override instanceof LookupOverride)) {
+				throw new IllegalStateException("Cannot snapshot bean definition '" + beanName +
+						"': only lookup method overrides are supported");
+			}
+			dos.writeUTF(override.getMethodName());
+			writeString(dos, ((LookupOverride) override).getBeanName());
+		}
+
+		writeString(dos, abd.getInitMethodName());
+		dos.writeBoolean(abd.isEnforceInitMethod());
+		writeString(dos, abd.getDestroyMethodName());
+		dos.writeBoolean(abd.isEnforceDestroyMethod());
+		dos.writeBoolean(abd.isSynthetic());
+		dos.writeInt(abd.getRole());
+		writeString(dos, abd.getDescription());
+		writeString(dos, abd.getResourceDescription());
+		writeAttributes(dos, beanName, abd.attributeNames(), abd::getAttribute);
+		if (abd instanceof RootBeanDefinition) {
+			writeFactoryMethodMetadata(dos, (RootBeanDefinition) abd);
+		}
+	}
+
+	/**
+	 * Determine the bean name derived from the {@code @Bean} method that the given
+	 * bean definition has been created for, if any: Overloaded {@code @Bean} methods
+	 * only qualify as factory method for the bean definition with the same name.
+	 */
+	@Nullable
+	private String getDerivedBeanName(RootBeanDefinition rbd) {
+		if (!(rbd instanceof AnnotatedBeanDefinition)) {
+			return null;
+		}
+		MethodMetadata factoryMethodMetadata = ((AnnotatedBeanDefinition) rbd).getFactoryMethodMetadata();
+		if (factoryMethodMetadata == null) {
+			return null;
+		}
+		AnnotationAttributes bean = AnnotationConfigUtils.attributesFor(factoryMethodMetadata, Bean.class);
+		if (bean == null) {
+			return null;
+		}
+		String[] names = bean.getStringArray("name");
+		return (names.length > 0 ? names[0] : factoryMethodMetadata.getMethodName());
+	}
+
+	/**
+	 * Write the factory method metadata that a {@link RootBeanDefinition} keeps
+	 * beyond its factory method name: the uniqueness of the factory method, the
+	 * resolved factory method (determining the factory method return type)
+	 * and the target type.
+	 */
+	private void writeFactoryMethodMetadata(DataOutputStream dos, RootBeanDefinition rbd) throws IOException {
+		dos.writeBoolean(rbd.isFactoryMethodUnique());
+		Method factoryMethod = rbd.getResolvedFactoryMethod();
+		dos.writeBoolean(factoryMethod != null);
+		if (factoryMethod != null) {
+			dos.writeUTF(factoryMethod.getDeclaringClass().getName());
+			dos.writeUTF(factoryMethod.getName());
+			Class<?>[] parameterTypes = factoryMethod.getParameterTypes();
+			dos.writeInt(parameterTypes.length);
+			for (Class<?> parameterType : parameterTypes) {
+				dos.writeUTF(parameterType.getName());
+			}
+		}
+		Class<?> targetType = rbd.getTargetType();
+		dos.writeBoolean(targetType != null);
+		if (targetType != null) {
+			ResolvableType resolvableType = rbd.getResolvableType();
+			writeType(dos, resolvableType.resolve() == targetType ? resolvableType : ResolvableType.forClass(targetType));
+		}
+	}
+
+	/**
+	 * Write the given type including its generics, as far as resolvable.
+	 */
+	private void writeType(DataOutputStream dos, ResolvableType type) throws IOException {
+		dos.writeBoolean(type.isArray());
+		if (type.isArray()) {
+			writeType(dos, type.getComponentType());
+			return;
+		}
+		dos.writeUTF(type.toClass().getName());
+		ResolvableType[] generics = (type.hasUnresolvableGenerics() ? new ResolvableType[0] : type.getGenerics());
+		dos.writeInt(generics.length);
+		for (ResolvableType generic : generics) {
+			writeType(dos, generic);
+		}
+	}
+
+	private void writeValueHolder(DataOutputStream dos, String beanName,
+			ConstructorArgumentValues.ValueHolder valueHolder) throws IOException {
+
+		writeValue(dos, beanName, valueHolder.getValue());
+		writeString(dos, valueHolder.getType());
+		writeString(dos, valueHolder.getName());
+	}
+
+	/**
+	 * Write the attributes with a simple value type, skipping any others:
+	 * those are typically derived metadata that will be recomputed at runtime.
+	 */
+	private void writeAttributes(DataOutputStream dos, String beanName, String[] attributeNames,
+			Function<String, Object> attributeAccessor) throws IOException {
+
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		for (String attributeName : attributeNames) {
+			Object value = attributeAccessor.apply(attributeName);
+			if (value instanceof String || value instanceof Boolean || value instanceof Integer ||
+					value instanceof Long || value instanceof Class) {
+				attributes.put(attributeName, value);
+			}
+		}
+		dos.writeInt(attributes.size());
+		for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+			dos.writeUTF(entry.getKey());
+			writeValue(dos, beanName, entry.getValue());
+		}
+	}
+
+	private void writeValue(DataOutputStream dos, String beanName, @Nullable Object value) throws IOException {
+		if (value == null) {
+			dos.writeByte(NULL);
+		}
+		else if (value instanceof String) {
+			dos.writeByte(STRING);
+			dos.writeUTF((String) value);
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedStringValue = (TypedStringValue) value;
+			dos.writeByte(TYPED_STRING);
+			writeString(dos, typedStringValue.getValue());
+			writeString(dos, typedStringValue.getTargetTypeName());
+			dos.writeBoolean(typedStringValue.isDynamic());
+		}
+		else if (value instanceof RuntimeBeanReference && ((RuntimeBeanReference) value).getBeanType() == null) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			dos.writeByte(BEAN_REFERENCE);
+			dos.writeUTF(reference.getBeanName());
+			dos.writeBoolean(reference.isToParent());
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			dos.writeByte(BEAN_NAME_REFERENCE);
+			dos.writeUTF(((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else if (value instanceof Boolean) {
+			dos.writeByte(BOOLEAN);
+			dos.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			dos.writeByte(INTEGER);
+			dos.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			dos.writeByte(LONG);
+			dos.writeLong((Long) value);
+		}
+		else if (value instanceof Class) {
+			dos.writeByte(CLASS);
+			dos.writeUTF(((Class<?>) value).getName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+			dos.writeByte(BEAN_DEFINITION_HOLDER);
+			dos.writeUTF(holder.getBeanName());
+			writeStrings(dos, holder.getAliases());
+			writeBeanDefinition(dos, holder.getBeanName(), holder.getBeanDefinition());
+		}
+		else if (value instanceof BeanDefinition) {
+			dos.writeByte(BEAN_DEFINITION);
+			writeBeanDefinition(dos, beanName + "#inner", (BeanDefinition) value);
+		}
+		else if (value instanceof List) {
+			dos.writeByte(LIST);
+			writeString(dos, value instanceof ManagedList ? ((ManagedList<?>) value).getElementTypeName() : null);
+			dos.writeBoolean(value instanceof ManagedList && ((ManagedList<?>) value).isMergeEnabled());
+			writeElements(dos, beanName, (List<?>) value);
+		}
+		else if (value instanceof Set) {
+			dos.writeByte(SET);
+			writeString(dos, value instanceof ManagedSet ? ((ManagedSet<?>) value).getElementTypeName() : null);
+			dos.writeBoolean(value instanceof ManagedSet && ((ManagedSet<?>) value).isMergeEnabled());
+			writeElements(dos, beanName, (Set<?>) value);
+		}
+		else if (value instanceof Properties) {
+			dos.writeByte(PROPERTIES);
+			dos.writeBoolean(value instanceof ManagedProperties && ((ManagedProperties) value).isMergeEnabled());
+			writeEntries(dos, beanName, (Properties) value);
+		}
+		else if (value instanceof Map) {
+			dos.writeByte(MAP);
+			writeString(dos, value instanceof ManagedMap ? ((ManagedMap<?, ?>) value).getKeyTypeName() : null);
+			writeString(dos, value instanceof ManagedMap ? ((ManagedMap<?, ?>) value).getValueTypeName() : null);
+			dos.writeBoolean(value instanceof ManagedMap && ((ManagedMap<?, ?>) value).isMergeEnabled());
+			writeEntries(dos, beanName, (Map<?, ?>) value);
+		}
+		else {
+			throw new IllegalStateException("Cannot snapshot bean definition '" + beanName +
+					"': unsupported value type [" + value.getClass().getName() + "]");
+		}
+	}
+
+	private void writeElements(DataOutputStream dos, String beanName, Collection<?> elements) throws IOException {
+		dos.writeInt(elements.size());
+		for (Object element : elements) {
+			writeValue(dos, beanName, element);
+		}
+	}
+
+	private void writeEntries(DataOutputStream dos, String beanName, Map<?, ?> entries) throws IOException {
+		dos.writeInt(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			writeValue(dos, beanName, entry.getKey());
+			writeValue(dos, beanName, entry.getValue());
+		}
+	}
+
+	private static void writeString(DataOutputStream dos, @Nullable String value) throws IOException {
+		dos.writeBoolean(value != null);
+		if (value != null) {
+			dos.writeUTF(value);
+		}
+	}
+
+	private static void writeStrings(DataOutputStream dos, @Nullable String[] values) throws IOException {
+		dos.writeInt(values != null ? values.length : -1);
+		if (values != null) {
+			for (String value : values) {
+				dos.writeUTF(value);
+			}
+		}
+	}
+
+}
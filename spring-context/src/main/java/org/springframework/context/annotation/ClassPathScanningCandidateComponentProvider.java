@@ -16,6 +16,7 @@
 
 package org.springframework.context.annotation;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
@@ -24,6 +25,9 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,13 +37,18 @@ import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.Lookup;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
 import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
@@ -49,6 +58,7 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.PersistentMetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
@@ -60,6 +70,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * A component provider that provides candidate components from a base package. Can
@@ -89,6 +100,34 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that determines the default number of threads used for
+	 * reading candidate class files: {@code "spring.context.scanning.parallelism"}.
+	 * <p>The default is 1, reading class files on the scanning thread. This
+	 * allows for enabling parallel scanning for {@code @ComponentScan} and
+	 * {@code <context:component-scan>} without custom scanner setup.
+	 * @since 5.3.14
+	 * @see #setScanningParallelism
+	 */
+	public static final String SCANNING_PARALLELISM_PROPERTY_NAME = "spring.context.scanning.parallelism";
+
+	/**
+	 * System property that specifies a file for persisting the class metadata
+	 * read during scanning across restarts: {@code "spring.context.scanning.metadataCacheFile"}.
+	 * <p>If set, a {@link PersistentMetadataReaderFactory} for the given file is
+	 * used instead of a plain {@link CachingMetadataReaderFactory}, restoring the
+	 * header metadata of unchanged class files without reading them again.
+	 * <p>Within an {@link ConfigurableApplicationContext}, all scanners share one
+	 * such factory per cache file, and the metadata read by them is persisted
+	 * once the context has been refreshed. Otherwise the cache file only gets
+	 * written on {@link #persistMetadataCache()}.
+	 * @since 5.3.14
+	 * @see #persistMetadataCache()
+	 */
+	public static final String METADATA_CACHE_FILE_PROPERTY_NAME = "spring.context.scanning.metadataCacheFile";
+
+	private static final int defaultScanningParallelism = determineDefaultScanningParallelism();
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -113,6 +152,8 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	private int scanningParallelism = defaultScanningParallelism;
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -263,10 +304,40 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Override
 	public void setResourceLoader(@Nullable ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
-		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		String metadataCacheFile = SpringProperties.getProperty(METADATA_CACHE_FILE_PROPERTY_NAME);
+		this.metadataReaderFactory = (StringUtils.hasText(metadataCacheFile) ?
+				createPersistentMetadataReaderFactory(resourceLoader, new File(metadataCacheFile.trim())) :
+				new CachingMetadataReaderFactory(resourceLoader));
 		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
 	}
 
+	/**
+	 * Create a {@link PersistentMetadataReaderFactory} for the given cache file,
+	 * shared by all scanners of an application context and persisted once the
+	 * context has been refreshed: persisting only drops entries which have not
+	 * been read through the same factory, not the ones read by other scanners.
+	 */
+	private PersistentMetadataReaderFactory createPersistentMetadataReaderFactory(
+			@Nullable ResourceLoader resourceLoader, File cacheFile) {
+
+		if (resourceLoader instanceof ConfigurableApplicationContext && resourceLoader instanceof DefaultResourceLoader) {
+			ConfigurableApplicationContext context = (ConfigurableApplicationContext) resourceLoader;
+			Log logger = this.logger;
+			return ((DefaultResourceLoader) resourceLoader).getResourceCache(PersistentMetadataReaderFactory.class)
+					.computeIfAbsent(new FileSystemResource(cacheFile), key -> {
+						PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(resourceLoader, cacheFile);
+						context.addApplicationListener(event -> {
+							if (event instanceof ContextRefreshedEvent &&
+									((ContextRefreshedEvent) event).getApplicationContext() == context) {
+								persistMetadataCache(factory, logger);
+							}
+						});
+						return factory;
+					});
+		}
+		return new PersistentMetadataReaderFactory(resourceLoader, cacheFile);
+	}
+
 	/**
 	 * Return the ResourceLoader that this component provider uses.
 	 */
@@ -302,6 +373,32 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Set the number of threads to read and parse candidate class files with
+	 * when scanning the classpath.
+	 * <p>With a value greater than 1, the class files found for a base package
+	 * are read through the {@link #getMetadataReaderFactory() MetadataReaderFactory}
+	 * by a dedicated pool of that many threads, which requires a thread-safe
+	 * factory such as the default {@link CachingMetadataReaderFactory}. Type
+	 * filters and conditions are still applied on the scanning thread, in the
+	 * order of the resolved resources.
+	 * <p>Default is 1, unless the {@link #SCANNING_PARALLELISM_PROPERTY_NAME}
+	 * system property is set.
+	 * @since 5.3.14
+	 */
+	public void setScanningParallelism(int scanningParallelism) {
+		Assert.isTrue(scanningParallelism > 0, "Scanning parallelism must be greater than 0");
+		this.scanningParallelism = scanningParallelism;
+	}
+
+	/**
+	 * Return the number of threads to read candidate class files with.
+	 * @since 5.3.14
+	 */
+	public int getScanningParallelism() {
+		return this.scanningParallelism;
+	}
+
 
 	/**
 	 * Scan the class path for candidate components.
@@ -426,14 +523,27 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
+			//并行模式下先用多个线程读取并解析所有class文件，结果按resources的顺序保存
+			Object[] readResults = (this.scanningParallelism > 1 && resources.length > 1 ?
+					readMetadataInParallel(resources) : null);
 			//循环resources集合
-			for (Resource resource : resources) {
+			for (int i = 0; i < resources.length; i++) {
+				Resource resource = resources[i];
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
 				}
 				try {
 					//metadataReader 元数据读取器，解析resource，也可以理解为描述资源的数据结构
-					MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+					MetadataReader metadataReader;
+					if (readResults != null) {
+						if (readResults[i] instanceof Throwable) {
+							throw (Throwable) readResults[i];
+						}
+						metadataReader = (MetadataReader) readResults[i];
+					}
+					else {
+						metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+					}
 					//在isCandidateComponent方法内部会真正执行匹配规则
 					//注册配置类自身会被排除，不会进入到这个if
 					if (isCandidateComponent(metadataReader)) {
@@ -479,6 +589,66 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	}
 
 
+	/**
+	 * Read the metadata for the given class file resources on a dedicated pool
+	 * of {@link #getScanningParallelism()} threads, each taking a contiguous
+	 * slice of the resources.
+	 * @param resources the class file resources to read
+	 * @return an array with either the {@link MetadataReader} or the failure
+	 * for each resource, in the order of the given resources
+	 */
+	private Object[] readMetadataInParallel(Resource[] resources) {
+		MetadataReaderFactory metadataReaderFactory = getMetadataReaderFactory();
+		Object[] results = new Object[resources.length];
+		int parallelism = Math.min(this.scanningParallelism, resources.length);
+		// A few slices per thread balance out differently sized class files
+		int sliceCount = Math.min(parallelism * 4, resources.length);
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		ForkJoinPool pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("classpath-scanning-" + thread.getPoolIndex());
+			thread.setContextClassLoader(classLoader);
+			return thread;
+		}, null, false);
+		try {
+			List<ForkJoinTask<?>> tasks = new ArrayList<>(sliceCount);
+			for (int slice = 0; slice < sliceCount; slice++) {
+				int start = (int) ((long) resources.length * slice / sliceCount);
+				int end = (int) ((long) resources.length * (slice + 1) / sliceCount);
+				tasks.add(pool.submit(() -> {
+					for (int i = start; i < end; i++) {
+						try {
+							results[i] = metadataReaderFactory.getMetadataReader(resources[i]);
+						}
+						catch (Throwable ex) {
+							results[i] = ex;
+						}
+					}
+				}));
+			}
+			for (ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		return results;
+	}
+
+	private static int determineDefaultScanningParallelism() {
+		String parallelism = SpringProperties.getProperty(SCANNING_PARALLELISM_PROPERTY_NAME);
+		if (StringUtils.hasText(parallelism)) {
+			try {
+				return Math.max(Integer.parseInt(parallelism.trim()), 1);
+			}
+			catch (NumberFormatException ex) {
+				// Not a number - keep scanning on the calling thread.
+			}
+		}
+		return 1;
+	}
+
 	/**
 	 * Resolve the specified base package into a pattern specification for
 	 * the package search path.
@@ -540,6 +710,32 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	}
 
 
+	/**
+	 * Write the class metadata read so far to the persistent metadata cache,
+	 * if a {@link PersistentMetadataReaderFactory} is in use. A failure to
+	 * write the cache file is logged but does not affect scanning.
+	 * <p>Within an application context, this happens automatically once the
+	 * context has been refreshed.
+	 * @since 5.3.14
+	 * @see #METADATA_CACHE_FILE_PROPERTY_NAME
+	 */
+	public void persistMetadataCache() {
+		if (this.metadataReaderFactory instanceof PersistentMetadataReaderFactory) {
+			persistMetadataCache((PersistentMetadataReaderFactory) this.metadataReaderFactory, this.logger);
+		}
+	}
+
+	private static void persistMetadataCache(PersistentMetadataReaderFactory factory, Log logger) {
+		try {
+			factory.persist();
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to write metadata cache file [" + factory.getCacheFile() + "]", ex);
+			}
+		}
+	}
+
 	/**
 	 * Clear the local metadata cache, if any, removing all cached class metadata.
 	 */
@@ -198,9 +198,7 @@ public abstract class AbstractApplicationEventMulticaster
 		CachedListenerRetriever existingRetriever = this.retrieverCache.get(cacheKey);
 		if (existingRetriever == null) {
 			// Caching a new ListenerRetriever if possible
-			if (this.beanClassLoader == null ||
-					(ClassUtils.isCacheSafe(event.getClass(), this.beanClassLoader) &&
-							(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
+			if (isCacheSafe(event.getClass(), sourceType)) {
 				newRetriever = new CachedListenerRetriever();
 				existingRetriever = this.retrieverCache.putIfAbsent(cacheKey, newRetriever);
 				if (existingRetriever != null) {
@@ -221,6 +219,43 @@ public abstract class AbstractApplicationEventMulticaster
 		return retrieveApplicationListeners(eventType, sourceType, newRetriever);
 	}
 
+	/**
+	 * Determine whether listeners resolved for the given event and source type
+	 * may be cached, i.e. whether those types are cache-safe with respect to
+	 * the bean ClassLoader.
+	 */
+	boolean isCacheSafe(Class<?> eventClass, @Nullable Class<?> sourceType) {
+		return (this.beanClassLoader == null ||
+				(ClassUtils.isCacheSafe(eventClass, this.beanClassLoader) &&
+						(sourceType == null || ClassUtils.isCacheSafe(sourceType, this.beanClassLoader))));
+	}
+
+	/**
+	 * Determine whether any listener registered by bean name is not a singleton,
+	 * requiring a fresh bean lookup for every event.
+	 */
+	boolean hasNonSingletonListenerBeans() {
+		Set<String> listenerBeans;
+		synchronized (this.defaultRetriever) {
+			if (this.defaultRetriever.applicationListenerBeans.isEmpty()) {
+				return false;
+			}
+			listenerBeans = new LinkedHashSet<>(this.defaultRetriever.applicationListenerBeans);
+		}
+		ConfigurableBeanFactory beanFactory = getBeanFactory();
+		for (String listenerBeanName : listenerBeans) {
+			try {
+				if (!beanFactory.isSingleton(listenerBeanName)) {
+					return true;
+				}
+			}
+			catch (NoSuchBeanDefinitionException ex) {
+				// Listener bean disappeared - probably in the middle of the destruction phase
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Actually retrieve the application listeners for the given event and source type.
 	 * @param eventType the event type
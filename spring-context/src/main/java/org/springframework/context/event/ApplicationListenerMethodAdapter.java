@@ -315,7 +315,14 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		logger.error("Unexpected error occurred in asynchronous listener", t);
 	}
 
-	private boolean shouldHandle(ApplicationEvent event, @Nullable Object[] args) {
+	/**
+	 * Determine whether the specified {@link ApplicationEvent} should be handled
+	 * with the given resolved arguments, evaluating the condition, if any.
+	 * @param event the event to handle
+	 * @param args the arguments as {@linkplain #resolveArguments resolved} for the event
+	 * @since 5.3.14
+	 */
+	protected boolean shouldHandle(ApplicationEvent event, @Nullable Object[] args) {
 		if (args == null) {
 			return false;
 		}
@@ -371,6 +378,16 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		return this.applicationContext.getBean(this.beanName);
 	}
 
+	/**
+	 * Return the {@link ApplicationContext} that this listener has been
+	 * initialized with, if any.
+	 * @since 5.3.14
+	 */
+	@Nullable
+	protected ApplicationContext getApplicationContext() {
+		return this.applicationContext;
+	}
+
 	/**
 	 * Return the target listener method.
 	 * @since 5.3
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,13 +17,14 @@
 package org.springframework.context.event;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.expression.AnnotatedElementKey;
-import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.expression.Expression;
@@ -33,6 +34,10 @@ import org.springframework.lang.Nullable;
  * Utility class for handling SpEL expression parsing for application events.
  * <p>Meant to be used as a reusable, thread-safe component.
  *
+ * <p>As of 5.3.14, condition expressions are compiled in
+ * {@link org.springframework.expression.spel.SpelCompilerMode#MIXED MIXED}
+ * mode unless a compiler mode is configured explicitly.
+ *
  * @author Stephane Nicoll
  * @since 4.2
  * @see CachedExpressionEvaluator
@@ -42,6 +47,11 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<>(64);
 
 
+	EventExpressionEvaluator() {
+		super(createCompilingParser());
+	}
+
+
 	/**
 	 * Determine if the condition defined by the specified expression evaluates
 	 * to {@code true}.
@@ -52,12 +62,15 @@ class EventExpressionEvaluator extends CachedExpressionEvaluator {
 		EventExpressionRootObject root = new EventExpressionRootObject(event, args);
 		MethodBasedEvaluationContext evaluationContext = new MethodBasedEvaluationContext(
 				root, targetMethod, args, getParameterNameDiscoverer());
-		if (beanFactory != null) {
-			evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
-		}
+		applySharedDelegates(evaluationContext, beanFactory);
 
 		return (Boolean.TRUE.equals(getExpression(this.conditionCache, methodKey, conditionExpression).getValue(
 				evaluationContext, Boolean.class)));
 	}
 
+	@Override
+	protected Collection<Map<ExpressionKey, Expression>> getExpressionCaches() {
+		return Collections.singletonList(this.conditionCache);
+	}
+
 }
@@ -39,6 +39,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.expression.CachedExpressionEvaluator.ExpressionMetrics;
 import org.springframework.core.MethodIntrospector;
 import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotatedElementUtils;
@@ -116,6 +117,17 @@ public class EventListenerMethodProcessor
 		this.eventListenerFactories = factories;
 	}
 
+	/**
+	 * Return a snapshot of the metrics for the SpEL condition expressions
+	 * evaluated by the listeners that this processor registered.
+	 * @return the metrics, or {@code null} if SpEL support is disabled
+	 * @since 5.3.14
+	 */
+	@Nullable
+	public ExpressionMetrics getExpressionMetrics() {
+		return (this.evaluator != null ? this.evaluator.getMetrics() : null);
+	}
+
 
 	@Override
 	public void afterSingletonsInstantiated() {
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link SimpleApplicationEventMulticaster} variant that dispatches events
+ * through precomputed, immutable arrays of listeners per event type and
+ * source type, avoiding listener resolution for every published event.
+ *
+ * <p>Dispatch arrays get built on first publication of an event type or,
+ * for the {@linkplain #setPrecomputedEventTypes event types specified upfront},
+ * right when the application context has been refreshed. All dispatch arrays
+ * are discarded whenever listeners are added or removed. If any listener bean
+ * is not a singleton, listeners are resolved for every event just like in
+ * {@code SimpleApplicationEventMulticaster}.
+ *
+ * <p>With a {@linkplain #setTaskExecutor task executor} and a
+ * {@linkplain #setBatchSize batch size} specified, events are queued per
+ * listener and delivered in batches: each listener receives its events in
+ * publication order, one batch at a time, whereas different listeners are
+ * served in parallel. Like dispatch arrays, this requires all listener beans
+ * to be singletons; otherwise, a separate task is submitted per listener and
+ * event.
+ *
+ * <p>To be used through registering a bean of this type under the name
+ * {@value org.springframework.context.support.AbstractApplicationContext#APPLICATION_EVENT_MULTICASTER_BEAN_NAME}.
+ *
+ * @since 5.3.14
+ * @see #setPrecomputedEventTypes
+ * @see #setBatchSize
+ */
+public class IndexedApplicationEventMulticaster extends SimpleApplicationEventMulticaster {
+
+	private static final ApplicationListener<?>[] NO_LISTENERS = new ApplicationListener<?>[0];
+
+
+	private volatile DispatchTable dispatchTable = new DispatchTable();
+
+	private Class<?>[] precomputedEventTypes = new Class<?>[0];
+
+	private int batchSize = 0;
+
+	private final Map<ApplicationListener<?>, ListenerQueue> listenerQueues = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new IndexedApplicationEventMulticaster.
+	 */
+	public IndexedApplicationEventMulticaster() {
+	}
+
+	/**
+	 * Create a new IndexedApplicationEventMulticaster for the given BeanFactory.
+	 */
+	public IndexedApplicationEventMulticaster(BeanFactory beanFactory) {
+		super(beanFactory);
+	}
+
+
+	/**
+	 * Specify event types to build dispatch arrays for once the application
+	 * context has been refreshed, rather than on their first publication.
+	 * <p>Each type may either be an {@link ApplicationEvent} subclass or a
+	 * payload type published through
+	 * {@link org.springframework.context.ApplicationEventPublisher#publishEvent(Object)}.
+	 * Dispatch arrays are built for events with the application context as
+	 * their source, as is the case for payload events and for
+	 * {@link ApplicationContextEvent ApplicationContextEvents}.
+	 */
+	public void setPrecomputedEventTypes(Class<?>... precomputedEventTypes) {
+		Assert.noNullElements(precomputedEventTypes, "Event types must not contain null elements");
+		this.precomputedEventTypes = precomputedEventTypes.clone();
+	}
+
+	/**
+	 * Set the maximum number of events to deliver to a listener per task
+	 * submitted to the {@linkplain #setTaskExecutor task executor}.
+	 * <p>Default is 0, submitting a separate task for every listener and event
+	 * without any ordering guarantees, just like
+	 * {@code SimpleApplicationEventMulticaster}. A positive value switches to
+	 * queued delivery, preserving the publication order per listener.
+	 * <p>Without a task executor, this setting has no effect.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize >= 0, "Batch size must not be negative");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the maximum number of events to deliver to a listener per task.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+
+	@Override
+	public void addApplicationListener(ApplicationListener<?> listener) {
+		super.addApplicationListener(listener);
+		invalidateDispatchTable();
+	}
+
+	@Override
+	public void addApplicationListenerBean(String listenerBeanName) {
+		super.addApplicationListenerBean(listenerBeanName);
+		invalidateDispatchTable();
+	}
+
+	@Override
+	public void removeApplicationListener(ApplicationListener<?> listener) {
+		super.removeApplicationListener(listener);
+		invalidateDispatchTable();
+		this.listenerQueues.remove(listener);
+	}
+
+	@Override
+	public void removeApplicationListenerBean(String listenerBeanName) {
+		super.removeApplicationListenerBean(listenerBeanName);
+		invalidateDispatchTable();
+		discardListenerQueues();
+	}
+
+	@Override
+	public void removeApplicationListeners(Predicate<ApplicationListener<?>> predicate) {
+		super.removeApplicationListeners(predicate);
+		invalidateDispatchTable();
+		this.listenerQueues.keySet().removeIf(predicate);
+	}
+
+	@Override
+	public void removeApplicationListenerBeans(Predicate<String> predicate) {
+		super.removeApplicationListenerBeans(predicate);
+		invalidateDispatchTable();
+		discardListenerQueues();
+	}
+
+	@Override
+	public void removeAllListeners() {
+		super.removeAllListeners();
+		invalidateDispatchTable();
+		this.listenerQueues.clear();
+	}
+
+	/**
+	 * Discard all dispatch arrays, to be rebuilt for subsequent events.
+	 * <p>Called after every change of registered listeners. A dispatch array
+	 * resolved concurrently against the previous listeners ends up in the
+	 * discarded table rather than in the current one.
+	 */
+	protected void invalidateDispatchTable() {
+		this.dispatchTable = new DispatchTable();
+	}
+
+	/**
+	 * Discard all event queues, since the listener instances of removed
+	 * listener beans are not known. Idle queues are discarded right away,
+	 * others once drained, so that the events of remaining listeners are
+	 * still delivered in publication order.
+	 */
+	private void discardListenerQueues() {
+		for (ListenerQueue listenerQueue : this.listenerQueues.values()) {
+			listenerQueue.discard();
+		}
+	}
+
+
+	@Override
+	public void multicastEvent(ApplicationEvent event) {
+		multicastEvent(event, null);
+	}
+
+	@Override
+	public void multicastEvent(ApplicationEvent event, @Nullable ResolvableType eventType) {
+		ApplicationListener<?>[] listeners = getDispatchListeners(event, eventType);
+		Executor executor = getTaskExecutor();
+		if (executor != null && this.batchSize > 0 && this.dispatchTable.isCacheable()) {
+			for (ApplicationListener<?> listener : listeners) {
+				this.listenerQueues.computeIfAbsent(listener, ListenerQueue::new).add(event, executor);
+			}
+		}
+		else if (executor != null) {
+			for (ApplicationListener<?> listener : listeners) {
+				executor.execute(() -> invokeListener(listener, event));
+			}
+		}
+		else {
+			for (ApplicationListener<?> listener : listeners) {
+				invokeListener(listener, event);
+			}
+		}
+
+		if (event instanceof ContextRefreshedEvent && this.precomputedEventTypes.length > 0) {
+			precomputeDispatchTable(((ContextRefreshedEvent) event).getApplicationContext());
+		}
+	}
+
+	/**
+	 * Return the listeners to dispatch the given event to, from a precomputed
+	 * dispatch array if possible.
+	 * @param event the event to be propagated
+	 * @param eventType the event type, or {@code null} to be resolved from the event
+	 * @return the matching listeners, in invocation order
+	 */
+	protected ApplicationListener<?>[] getDispatchListeners(ApplicationEvent event, @Nullable ResolvableType eventType) {
+		Object source = event.getSource();
+		Class<?> sourceType = (source != null ? source.getClass() : null);
+		// Resolve the event type only if it may differ between instances of the same event class
+		ResolvableType type = (eventType == null && event instanceof ResolvableTypeProvider ?
+				ResolvableType.forInstance(event) : eventType);
+		DispatchKey key = new DispatchKey(type != null ? type : event.getClass(), sourceType);
+
+		DispatchTable dispatchTable = this.dispatchTable;
+		ApplicationListener<?>[] listeners = dispatchTable.entries.get(key);
+		if (listeners == null) {
+			listeners = getApplicationListeners(event, type != null ? type : ResolvableType.forInstance(event))
+					.toArray(NO_LISTENERS);
+			if (dispatchTable.isCacheable() && isCacheSafe(event.getClass(), sourceType)) {
+				dispatchTable.entries.putIfAbsent(key, listeners);
+			}
+		}
+		return listeners;
+	}
+
+	private void precomputeDispatchTable(ApplicationContext applicationContext) {
+		Class<?> sourceType = applicationContext.getClass();
+		DispatchTable dispatchTable = this.dispatchTable;
+		for (Class<?> precomputedEventType : this.precomputedEventTypes) {
+			// Keyed just like events of the given type with the context as source:
+			// by event class for ApplicationEvents, by resolved type for payloads
+			ApplicationEvent event;
+			ResolvableType eventType;
+			DispatchKey key;
+			if (ApplicationEvent.class.isAssignableFrom(precomputedEventType)) {
+				event = new PrecomputationEvent(applicationContext);
+				eventType = ResolvableType.forClass(precomputedEventType);
+				key = new DispatchKey(precomputedEventType, sourceType);
+			}
+			else {
+				event = new PayloadApplicationEvent<>(applicationContext, applicationContext);
+				eventType = ResolvableType.forClassWithGenerics(PayloadApplicationEvent.class, precomputedEventType);
+				key = new DispatchKey(eventType, sourceType);
+			}
+			if (dispatchTable.isCacheable() && isCacheSafe(precomputedEventType, sourceType)) {
+				dispatchTable.entries.computeIfAbsent(key,
+						k -> getApplicationListeners(event, eventType).toArray(NO_LISTENERS));
+			}
+		}
+	}
+
+
+	/**
+	 * Dispatch key, based on the event class or resolved event type and the source type.
+	 */
+	private static final class DispatchKey {
+
+		private final Object eventType;
+
+		@Nullable
+		private final Class<?> sourceType;
+
+		private final int hashCode;
+
+		DispatchKey(Object eventType, @Nullable Class<?> sourceType) {
+			this.eventType = eventType;
+			this.sourceType = sourceType;
+			this.hashCode = eventType.hashCode() * 29 + ObjectUtils.nullSafeHashCode(sourceType);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof DispatchKey)) {
+				return false;
+			}
+			DispatchKey otherKey = (DispatchKey) other;
+			return (this.eventType.equals(otherKey.eventType) && this.sourceType == otherKey.sourceType);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Dispatch arrays for the currently registered listeners.
+	 */
+	private final class DispatchTable {
+
+		final Map<DispatchKey, ApplicationListener<?>[]> entries = new ConcurrentHashMap<>(64);
+
+		@Nullable
+		private volatile Boolean cacheable;
+
+		boolean isCacheable() {
+			Boolean cacheable = this.cacheable;
+			if (cacheable == null) {
+				cacheable = !hasNonSingletonListenerBeans();
+				this.cacheable = cacheable;
+			}
+			return cacheable;
+		}
+	}
+
+
+	/**
+	 * Queue of pending events for a specific listener, drained in batches
+	 * by at most one task at a time.
+	 */
+	private final class ListenerQueue implements Runnable {
+
+		private final ApplicationListener<?> listener;
+
+		private final Queue<ApplicationEvent> events = new ConcurrentLinkedQueue<>();
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		@Nullable
+		private volatile Executor executor;
+
+		private volatile boolean discarded;
+
+		ListenerQueue(ApplicationListener<?> listener) {
+			this.listener = listener;
+		}
+
+		void add(ApplicationEvent event, Executor executor) {
+			this.events.add(event);
+			this.executor = executor;
+			schedule(executor);
+		}
+
+		void discard() {
+			this.discarded = true;
+			if (!this.scheduled.get()) {
+				listenerQueues.remove(this.listener, this);
+			}
+		}
+
+		private void schedule(Executor executor) {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					executor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				int batchSize = getBatchSize();
+				ApplicationEvent event;
+				for (int i = 0; (batchSize == 0 || i < batchSize) && (event = this.events.poll()) != null; i++) {
+					invokeListener(this.listener, event);
+				}
+			}
+			finally {
+				this.scheduled.set(false);
+				// Continue with remaining events in a new task, also after a listener failure
+				Executor executor = this.executor;
+				if (executor != null && !this.events.isEmpty()) {
+					schedule(executor);
+				}
+				else if (this.discarded) {
+					listenerQueues.remove(this.listener, this);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Placeholder event for resolving listeners by event type upfront.
+	 */
+	@SuppressWarnings("serial")
+	private static final class PrecomputationEvent extends ApplicationEvent {
+
+		PrecomputationEvent(Object source) {
+			super(source);
+		}
+	}
+
+}
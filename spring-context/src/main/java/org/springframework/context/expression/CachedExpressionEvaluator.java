@@ -16,14 +16,32 @@
 
 package org.springframework.context.expression;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.SpringProperties;
 import org.springframework.expression.Expression;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -38,7 +56,21 @@ public abstract class CachedExpressionEvaluator {
 
 	private final SpelExpressionParser parser;
 
-	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+	private final ParameterNameDiscoverer parameterNameDiscoverer =
+			new CachingParameterNameDiscoverer(new DefaultParameterNameDiscoverer());
+
+	private final List<PropertyAccessor> propertyAccessors =
+			Collections.singletonList(new ReflectivePropertyAccessor());
+
+	private final List<MethodResolver> methodResolvers =
+			Collections.singletonList(new ReflectiveMethodResolver());
+
+	@Nullable
+	private volatile SharedBeanResolver sharedBeanResolver;
+
+	private final LongAdder cacheHits = new LongAdder();
+
+	private final LongAdder cacheMisses = new LongAdder();
 
 
 	/**
@@ -64,6 +96,24 @@ public abstract class CachedExpressionEvaluator {
 		return this.parser;
 	}
 
+	/**
+	 * Create a {@link SpelExpressionParser} that compiles frequently evaluated
+	 * expressions in {@link SpelCompilerMode#MIXED MIXED} mode, unless a compiler
+	 * mode has been configured explicitly through the
+	 * {@value SpelParserConfiguration#SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME}
+	 * property.
+	 * <p>In mixed mode, an expression is interpreted until it has been evaluated
+	 * a number of times, then compiled, and falls back to interpretation if the
+	 * compiled form fails, e.g. because of changing argument types.
+	 * @since 5.3.14
+	 */
+	protected static SpelExpressionParser createCompilingParser() {
+		if (SpringProperties.getProperty(SpelParserConfiguration.SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME) != null) {
+			return new SpelExpressionParser();
+		}
+		return new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+	}
+
 	/**
 	 * Return a shared parameter name discoverer which caches data internally.
 	 * @since 4.3
@@ -72,6 +122,65 @@ public abstract class CachedExpressionEvaluator {
 		return this.parameterNameDiscoverer;
 	}
 
+	/**
+	 * Apply the delegates shared by all evaluation contexts of this evaluator
+	 * to the given context: a property accessor and a method resolver which keep
+	 * their reflective lookups across evaluations, and a bean resolver for the
+	 * given {@link BeanFactory}, if any.
+	 * <p>The given context receives its own lists of property accessors and
+	 * method resolvers, so further delegates may be added to it. The shared
+	 * delegates themselves must not be modified through the given context,
+	 * e.g. by registering a method filter.
+	 * @param evaluationContext the context for a specific evaluation
+	 * @param beanFactory the BeanFactory to resolve bean references against
+	 * @since 5.3.14
+	 */
+	protected void applySharedDelegates(StandardEvaluationContext evaluationContext,
+			@Nullable BeanFactory beanFactory) {
+
+		evaluationContext.setPropertyAccessors(new ArrayList<>(this.propertyAccessors));
+		evaluationContext.setMethodResolvers(new ArrayList<>(this.methodResolvers));
+		if (beanFactory != null) {
+			SharedBeanResolver sharedBeanResolver = this.sharedBeanResolver;
+			if (sharedBeanResolver == null || sharedBeanResolver.beanFactory != beanFactory) {
+				sharedBeanResolver = new SharedBeanResolver(beanFactory);
+				this.sharedBeanResolver = sharedBeanResolver;
+			}
+			evaluationContext.setBeanResolver(sharedBeanResolver.beanResolver);
+		}
+	}
+
+	/**
+	 * Return a snapshot of the expression cache and compilation metrics
+	 * of this evaluator.
+	 * @since 5.3.14
+	 * @see #getExpressionCaches()
+	 */
+	public ExpressionMetrics getMetrics() {
+		long cachedExpressions = 0;
+		long compiledExpressions = 0;
+		for (Map<ExpressionKey, Expression> cache : getExpressionCaches()) {
+			for (Expression expression : cache.values()) {
+				cachedExpressions++;
+				if (expression instanceof SpelExpression && ((SpelExpression) expression).isCompiled()) {
+					compiledExpressions++;
+				}
+			}
+		}
+		return new ExpressionMetrics(this.cacheHits.sum(), this.cacheMisses.sum(),
+				cachedExpressions, compiledExpressions);
+	}
+
+	/**
+	 * Return the expression caches used by this evaluator, for exposing
+	 * {@linkplain #getMetrics() metrics} about the cached expressions.
+	 * <p>The default implementation returns an empty collection.
+	 * @since 5.3.14
+	 */
+	protected Collection<Map<ExpressionKey, Expression>> getExpressionCaches() {
+		return Collections.emptyList();
+	}
+
 
 	/**
 	 * Return the {@link Expression} for the specified SpEL value
@@ -86,9 +195,13 @@ public abstract class CachedExpressionEvaluator {
 		ExpressionKey expressionKey = createKey(elementKey, expression);
 		Expression expr = cache.get(expressionKey);
 		if (expr == null) {
+			this.cacheMisses.increment();
 			expr = parseExpression(expression);
 			cache.put(expressionKey, expr);
 		}
+		else {
+			this.cacheHits.increment();
+		}
 		return expr;
 	}
 
@@ -155,4 +268,116 @@ public abstract class CachedExpressionEvaluator {
 		}
 	}
 
+
+	/**
+	 * Snapshot of the metrics of a {@link CachedExpressionEvaluator}.
+	 * @since 5.3.14
+	 */
+	public static final class ExpressionMetrics {
+
+		private final long cacheHitCount;
+
+		private final long cacheMissCount;
+
+		private final long cachedExpressionCount;
+
+		private final long compiledExpressionCount;
+
+		ExpressionMetrics(long cacheHitCount, long cacheMissCount,
+				long cachedExpressionCount, long compiledExpressionCount) {
+
+			this.cacheHitCount = cacheHitCount;
+			this.cacheMissCount = cacheMissCount;
+			this.cachedExpressionCount = cachedExpressionCount;
+			this.compiledExpressionCount = compiledExpressionCount;
+		}
+
+		/**
+		 * Return the number of expression lookups answered from the cache.
+		 */
+		public long getCacheHitCount() {
+			return this.cacheHitCount;
+		}
+
+		/**
+		 * Return the number of expression lookups that required parsing.
+		 */
+		public long getCacheMissCount() {
+			return this.cacheMissCount;
+		}
+
+		/**
+		 * Return the number of expressions currently cached.
+		 */
+		public long getCachedExpressionCount() {
+			return this.cachedExpressionCount;
+		}
+
+		/**
+		 * Return the number of cached expressions currently evaluated
+		 * in compiled form.
+		 */
+		public long getCompiledExpressionCount() {
+			return this.compiledExpressionCount;
+		}
+
+		@Override
+		public String toString() {
+			return "ExpressionMetrics [cacheHits = " + this.cacheHitCount + ", cacheMisses = " +
+					this.cacheMissCount + ", cachedExpressions = " + this.cachedExpressionCount +
+					", compiledExpressions = " + this.compiledExpressionCount + "]";
+		}
+	}
+
+
+	/**
+	 * Holder for the bean resolver shared for a given BeanFactory.
+	 */
+	private static final class SharedBeanResolver {
+
+		final BeanFactory beanFactory;
+
+		final BeanFactoryResolver beanResolver;
+
+		SharedBeanResolver(BeanFactory beanFactory) {
+			this.beanFactory = beanFactory;
+			this.beanResolver = new BeanFactoryResolver(beanFactory);
+		}
+	}
+
+
+	/**
+	 * Parameter name discoverer that caches the names per method,
+	 * including the absence of names.
+	 */
+	private static final class CachingParameterNameDiscoverer implements ParameterNameDiscoverer {
+
+		private static final String[] NO_NAMES = new String[0];
+
+		private final ParameterNameDiscoverer delegate;
+
+		private final Map<Method, String[]> parameterNamesCache = new ConcurrentReferenceHashMap<>(256);
+
+		CachingParameterNameDiscoverer(ParameterNameDiscoverer delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		@Nullable
+		public String[] getParameterNames(Method method) {
+			String[] parameterNames = this.parameterNamesCache.get(method);
+			if (parameterNames == null) {
+				parameterNames = this.delegate.getParameterNames(method);
+				this.parameterNamesCache.put(method, (parameterNames != null ? parameterNames : NO_NAMES));
+			}
+			return (parameterNames != NO_NAMES ? parameterNames : null);
+		}
+
+		@Override
+		@Nullable
+		public String[] getParameterNames(Constructor<?> ctor) {
+			return this.delegate.getParameterNames(ctor);
+		}
+	}
+
 }
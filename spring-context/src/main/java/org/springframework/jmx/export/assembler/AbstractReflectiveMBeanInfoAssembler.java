@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -439,7 +439,7 @@ public abstract class AbstractReflectiveMBeanInfoAssembler extends AbstractMBean
 	 * @see org.springframework.aop.framework.AopProxyUtils#proxiedUserInterfaces(Object)
 	 */
 	protected Class<?> getClassForDescriptor(Object managedBean) {
-		if (AopUtils.isJdkDynamicProxy(managedBean)) {
+		if (AopUtils.isJdkDynamicProxy(managedBean) || AopUtils.isGeneratedInterfaceProxy(managedBean)) {
 			return AopProxyUtils.proxiedUserInterfaces(managedBean)[0];
 		}
 		return getClassToExpose(managedBean);
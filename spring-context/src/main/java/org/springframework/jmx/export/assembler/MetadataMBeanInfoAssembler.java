@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -105,12 +105,13 @@ public class MetadataMBeanInfoAssembler extends AbstractReflectiveMBeanInfoAssem
 
 
 	/**
-	 * Throws an IllegalArgumentException if it encounters a JDK dynamic proxy.
+	 * Throws an IllegalArgumentException if it encounters a JDK dynamic proxy
+	 * or a generated interface proxy.
 	 * Metadata can only be read from target classes and CGLIB proxies!
 	 */
 	@Override
 	protected void checkManagedBean(Object managedBean) throws IllegalArgumentException {
-		if (AopUtils.isJdkDynamicProxy(managedBean)) {
+		if (AopUtils.isJdkDynamicProxy(managedBean) || AopUtils.isGeneratedInterfaceProxy(managedBean)) {
 			throw new IllegalArgumentException(
 					"MetadataMBeanInfoAssembler does not support JDK dynamic proxies - " +
 					"export the target beans directly or use CGLIB proxies instead");
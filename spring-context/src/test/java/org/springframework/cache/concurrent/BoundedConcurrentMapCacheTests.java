@@ -0,0 +1,266 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.context.testfixture.cache.AbstractValueAdaptingCacheTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BoundedConcurrentMapCache}.
+ *
+ * @since 5.3.14
+ */
+class BoundedConcurrentMapCacheTests extends AbstractValueAdaptingCacheTests<BoundedConcurrentMapCache> {
+
+	private final AtomicLong time = new AtomicLong();
+
+	private BoundedConcurrentMapCache cache;
+
+	private BoundedConcurrentMapCache cacheNoNull;
+
+
+	@BeforeEach
+	void setup() {
+		this.cache = new BoundedConcurrentMapCache(CACHE_NAME, 100, true);
+		this.cache.ticker = this.time::get;
+		this.cacheNoNull = new BoundedConcurrentMapCache(CACHE_NAME_NO_NULL, 100, false);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache() {
+		return getCache(true);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache(boolean allowNull) {
+		return (allowNull ? this.cache : this.cacheNoNull);
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	void evictBeyondMaximumSize() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 10);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i);
+		}
+		assertThat(cache.estimatedSize()).isEqualTo(10);
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(90);
+	}
+
+	@Test
+	void retainFrequentlyUsedEntries() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 100);
+		for (int i = 0; i < 50; i++) {
+			cache.put("hot" + i, i);
+		}
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 50; i++) {
+				assertThat(cache.get("hot" + i)).isNotNull();
+			}
+		}
+		// A scan of entries requested only once must not flush the frequently used ones
+		for (int i = 0; i < 1000; i++) {
+			cache.put("scan" + i, i);
+		}
+		for (int i = 0; i < 50; i++) {
+			assertThat(cache.get("hot" + i)).as("hot" + i).isNotNull();
+		}
+		assertThat(cache.estimatedSize()).isLessThanOrEqualTo(100);
+	}
+
+	@Test
+	void expireAfterTimeToLive() {
+		this.cache.setTimeToLive(Duration.ofSeconds(10));
+		this.cache.put("key", "value");
+		this.time.addAndGet(Duration.ofSeconds(9).toNanos());
+		assertThat(this.cache.get("key", String.class)).isEqualTo("value");
+
+		this.time.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertThat(this.cache.get("key")).isNull();
+		assertThat(this.cache.estimatedSize()).isEqualTo(0);
+		assertThat(this.cache.getStatistics().getExpirationCount()).isEqualTo(1);
+	}
+
+	@Test
+	void expireAfterPerEntryTimeToLive() {
+		this.cache.setTimeToLive(Duration.ofSeconds(10));
+		this.cache.put("short", "value", Duration.ofSeconds(1));
+		this.cache.put("long", "value");
+		this.time.addAndGet(Duration.ofSeconds(2).toNanos());
+		assertThat(this.cache.get("short")).isNull();
+		assertThat(this.cache.get("long")).isNotNull();
+	}
+
+	@Test
+	void reloadExpiredEntryWithValueLoader() {
+		this.cache.setTimeToLive(Duration.ofSeconds(1));
+		assertThat(this.cache.get("key", () -> "first")).isEqualTo("first");
+		this.time.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertThat(this.cache.get("key", () -> "second")).isEqualTo("second");
+		assertThat(this.cache.putIfAbsent("key", "third").get()).isEqualTo("second");
+	}
+
+	@Test
+	void cleanUpExpiredEntries() {
+		this.cache.setTimeToLive(Duration.ofSeconds(1));
+		this.cache.put("key1", "value");
+		this.cache.put("key2", "value");
+		this.time.addAndGet(Duration.ofSeconds(1).toNanos());
+		this.cache.cleanUp();
+		assertThat(this.cache.estimatedSize()).isEqualTo(0);
+		assertThat(this.cache.getStatistics().getExpirationCount()).isEqualTo(2);
+	}
+
+	@Test
+	void refreshAheadWithRefreshLoader() {
+		List<Runnable> tasks = new ArrayList<>();
+		AtomicInteger reloads = new AtomicInteger();
+		this.cache.setTimeToLive(Duration.ofSeconds(10));
+		this.cache.setRefreshAfterWrite(Duration.ofSeconds(5));
+		this.cache.setRefreshLoader(key -> key + "-" + reloads.incrementAndGet());
+		this.cache.setRefreshExecutor(tasks::add);
+		this.cache.get("key", () -> "first");
+
+		this.time.addAndGet(Duration.ofSeconds(6).toNanos());
+		assertThat(this.cache.get("key", () -> "second")).isEqualTo("first");
+		assertThat(this.cache.get("key", String.class)).isEqualTo("first");
+		assertThat(tasks).hasSize(1);
+
+		tasks.get(0).run();
+		assertThat(this.cache.get("key", String.class)).isEqualTo("key-1");
+		assertThat(this.cache.getStatistics().getRefreshCount()).isEqualTo(1);
+
+		// The refreshed entry expires relative to its reload
+		this.time.addAndGet(Duration.ofSeconds(9).toNanos());
+		assertThat(this.cache.get("key", String.class)).isEqualTo("key-1");
+	}
+
+	@Test
+	void doNotRefreshAheadWithoutRefreshLoader() {
+		List<Runnable> tasks = new ArrayList<>();
+		this.cache.setRefreshAfterWrite(Duration.ofSeconds(5));
+		this.cache.setRefreshExecutor(tasks::add);
+		this.cache.get("key", () -> "first");
+
+		this.time.addAndGet(Duration.ofSeconds(6).toNanos());
+		assertThat(this.cache.get("key", () -> "second")).isEqualTo("first");
+		assertThat(tasks).isEmpty();
+	}
+
+	@Test
+	void loadOutsideOfMapLocks() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger invocations = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> first = executor.submit(() -> this.cache.get("key", () -> {
+				invocations.incrementAndGet();
+				loading.countDown();
+				release.await();
+				return "value";
+			}));
+			assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+			Future<Object> second = executor.submit(() -> this.cache.get("key", () -> {
+				invocations.incrementAndGet();
+				return "other";
+			}));
+
+			// Neither loading another key nor evicting is blocked by the pending load
+			assertThat(this.cache.get("anotherKey", () -> "anotherValue")).isEqualTo("anotherValue");
+			this.cache.evict("anotherKey");
+
+			release.countDown();
+			assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+			assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+			assertThat(invocations.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void discardLoadedValueAfterEviction() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> pending = executor.submit(() -> this.cache.get("key", () -> {
+				loading.countDown();
+				release.await();
+				return "stale";
+			}));
+			assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+			this.cache.evict("key");
+			assertThat(this.cache.get("key", () -> "fresh")).isEqualTo("fresh");
+
+			release.countDown();
+			assertThat(pending.get(10, TimeUnit.SECONDS)).isEqualTo("stale");
+			assertThat(this.cache.get("key", String.class)).isEqualTo("fresh");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void recordStatistics() {
+		this.cache.put("key", "value");
+		this.cache.get("key");
+		this.cache.get("key");
+		this.cache.get("other");
+		BoundedConcurrentMapCache.Statistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getHitCount()).isEqualTo(2);
+		assertThat(statistics.getMissCount()).isEqualTo(1);
+		assertThat(statistics.getHitRatio()).isEqualTo(2.0 / 3);
+	}
+
+	@Test
+	void createBoundedCachesFromCacheManager() {
+		ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+		assertThat(cacheManager.getCache("unbounded")).isInstanceOf(ConcurrentMapCache.class);
+
+		cacheManager.setMaximumSize(10);
+		cacheManager.setTimeToLive(Duration.ofMinutes(1));
+		BoundedConcurrentMapCache cache = (BoundedConcurrentMapCache) cacheManager.getCache("unbounded");
+		assertThat(cache.getMaximumSize()).isEqualTo(10);
+		assertThat(cache.getTimeToLive()).isEqualTo(Duration.ofMinutes(1));
+		assertThat(cache.getRefreshAfterWrite()).isNull();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,12 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -116,6 +122,86 @@ public class ConcurrentMapCacheTests extends AbstractValueAdaptingCacheTests<Con
 	}
 
 
+	@Test
+	public void testGetWithValueLoaderCoalescesConcurrentLoads() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger invocations = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> first = executor.submit(() -> this.cache.get("key", () -> {
+				invocations.incrementAndGet();
+				loading.countDown();
+				release.await();
+				return "value";
+			}));
+			assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+			Future<Object> second = executor.submit(() -> this.cache.get("key", () -> {
+				invocations.incrementAndGet();
+				return "other";
+			}));
+
+			// Loading another key is not blocked by the pending load
+			assertThat(this.cache.get("anotherKey", () -> "anotherValue")).isEqualTo("anotherValue");
+
+			release.countDown();
+			assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+			assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+			assertThat(invocations.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testEvictDuringGetWithValueLoaderDiscardsLoadedValue() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> pending = executor.submit(() -> this.cache.get("key", () -> {
+				loading.countDown();
+				release.await();
+				return "stale";
+			}));
+			assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+			this.cache.evict("key");
+
+			// Not awaiting the invalidated load
+			assertThat(this.cache.get("key", () -> "fresh")).isEqualTo("fresh");
+			release.countDown();
+			assertThat(pending.get(10, TimeUnit.SECONDS)).isEqualTo("stale");
+			assertThat(this.cache.get("key").get()).isEqualTo("fresh");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testClearDuringGetWithValueLoaderDiscardsLoadedValue() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> pending = executor.submit(() -> this.cache.get("key", () -> {
+				loading.countDown();
+				release.await();
+				return "stale";
+			}));
+			assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+			this.cache.clear();
+			release.countDown();
+			assertThat(pending.get(10, TimeUnit.SECONDS)).isEqualTo("stale");
+			assertThat(this.cache.get("key")).isNull();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
 	private ConcurrentMapCache createCacheWithStoreByValue() {
 		return new ConcurrentMapCache(CACHE_NAME, this.nativeCache, true,
 				new SerializationDelegate(ConcurrentMapCacheTests.class.getClassLoader()));
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for caching the values emitted by {@link CompletableFuture} and
+ * reactive return types.
+ *
+ * @since 5.3.14
+ */
+class AsyncCachingTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	private AsyncService service;
+
+	private Cache cache;
+
+
+	@BeforeEach
+	void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.service = this.context.getBean(AsyncService.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("testCache");
+	}
+
+	@AfterEach
+	void close() {
+		this.context.close();
+	}
+
+
+	@Test
+	void cacheCompletableFutureValue() {
+		Long first = this.service.cacheFuture("key").join();
+		assertThat(this.service.cacheFuture("key").join()).isEqualTo(first);
+		assertThat(this.service.cacheFuture("other").join()).isNotEqualTo(first);
+		assertThat(this.cache.get("key", Long.class)).isEqualTo(first);
+	}
+
+	@Test
+	void cacheCompletableFutureValueWithSync() {
+		Long first = this.service.cacheFutureSync("key").join();
+		assertThat(this.service.cacheFutureSync("key").join()).isEqualTo(first);
+		assertThat(this.cache.get("key", Long.class)).isEqualTo(first);
+	}
+
+	@Test
+	void generateCompletableFutureKeyBeforeInvocation() {
+		AtomicReference<String> holder = new AtomicReference<>("key");
+		Long first = this.service.cacheFutureMutatingKey(holder).join();
+		assertThat(holder.get()).isEqualTo("mutated");
+		assertThat(this.cache.get("key", Long.class)).isEqualTo(first);
+		assertThat(this.cache.get("mutated")).isNull();
+	}
+
+	@Test
+	void doNotCacheFailedCompletableFuture() {
+		assertThatExceptionOfType(CompletionException.class).isThrownBy(() ->
+				this.service.cacheFailingFuture("key").join())
+				.withCauseInstanceOf(IllegalStateException.class);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	void evaluateUnlessAgainstCompletableFutureValue() {
+		this.service.putFuture("key", 5L).join();
+		assertThat(this.cache.get("key", Long.class)).isEqualTo(5L);
+		this.service.putFuture("key", -1L).join();
+		assertThat(this.cache.get("key", Long.class)).isEqualTo(5L);
+	}
+
+	@Test
+	void evictAfterCompletableFutureCompletion() {
+		this.cache.put("key", 5L);
+		this.service.evictFuture("key").join();
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	void cacheMonoValue() {
+		Long first = this.service.cacheMono("key").block();
+		assertThat(this.service.cacheMono("key").block()).isEqualTo(first);
+		assertThat(this.service.cacheMono("other").block()).isNotEqualTo(first);
+		assertThat(this.cache.get("key", Long.class)).isEqualTo(first);
+	}
+
+	@Test
+	void cacheMonoValueWithSync() {
+		Long first = this.service.cacheMonoSync("key").block();
+		assertThat(this.service.cacheMonoSync("key").block()).isEqualTo(first);
+		assertThat(this.cache.get("key", Long.class)).isEqualTo(first);
+	}
+
+	@Test
+	void cacheFluxValues() {
+		List<Long> first = this.service.cacheFlux("key").collectList().block();
+		assertThat(first).hasSize(3);
+		assertThat(this.service.cacheFlux("key").collectList().block()).isEqualTo(first);
+		assertThat(this.cache.get("key", List.class)).isEqualTo(first);
+	}
+
+	@Test
+	void cacheFluxValuesWithSync() {
+		List<Long> first = this.service.cacheFluxSync("key").collectList().block();
+		assertThat(first).hasSize(3);
+		assertThat(this.service.cacheFluxSync("key").collectList().block()).isEqualTo(first);
+		assertThat(this.cache.get("key", List.class)).isEqualTo(first);
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache");
+		}
+
+		@Bean
+		AsyncService asyncService() {
+			return new AsyncService();
+		}
+	}
+
+
+	static class AsyncService {
+
+		private final AtomicLong counter = new AtomicLong();
+
+		@Cacheable("testCache")
+		public CompletableFuture<Long> cacheFuture(Object arg) {
+			return CompletableFuture.supplyAsync(this.counter::getAndIncrement);
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public CompletableFuture<Long> cacheFutureSync(Object arg) {
+			return CompletableFuture.completedFuture(this.counter.getAndIncrement());
+		}
+
+		@Cacheable(cacheNames = "testCache", key = "#holder.get()")
+		public CompletableFuture<Long> cacheFutureMutatingKey(AtomicReference<String> holder) {
+			holder.set("mutated");
+			return CompletableFuture.supplyAsync(this.counter::getAndIncrement);
+		}
+
+		@Cacheable("testCache")
+		public CompletableFuture<Long> cacheFailingFuture(Object arg) {
+			CompletableFuture<Long> future = new CompletableFuture<>();
+			future.completeExceptionally(new IllegalStateException("failed"));
+			return future;
+		}
+
+		@CachePut(cacheNames = "testCache", key = "#arg", unless = "#result < 0")
+		public CompletableFuture<Long> putFuture(Object arg, long value) {
+			return CompletableFuture.supplyAsync(() -> value);
+		}
+
+		@CacheEvict("testCache")
+		public CompletableFuture<Void> evictFuture(Object arg) {
+			return CompletableFuture.runAsync(() -> {});
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> cacheMono(Object arg) {
+			return Mono.fromSupplier(this.counter::getAndIncrement);
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Mono<Long> cacheMonoSync(Object arg) {
+			return Mono.fromSupplier(this.counter::getAndIncrement);
+		}
+
+		@Cacheable("testCache")
+		public Flux<Long> cacheFlux(Object arg) {
+			return Flux.defer(() -> Flux.fromIterable(Arrays.asList(
+					this.counter.getAndIncrement(), this.counter.getAndIncrement(), this.counter.getAndIncrement())));
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Flux<Long> cacheFluxSync(Object arg) {
+			return Flux.defer(() -> Flux.fromIterable(Arrays.asList(
+					this.counter.getAndIncrement(), this.counter.getAndIncrement(), this.counter.getAndIncrement())));
+		}
+	}
+
+}
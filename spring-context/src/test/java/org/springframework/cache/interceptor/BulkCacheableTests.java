@@ -0,0 +1,267 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.BulkCacheable;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link org.springframework.cache.annotation.BulkCacheable @BulkCacheable}.
+ *
+ * @since 5.3.14
+ */
+class BulkCacheableTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	private UserRepository repository;
+
+	private Cache cache;
+
+
+	@BeforeEach
+	void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.repository = this.context.getBean(UserRepository.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("users");
+	}
+
+	@AfterEach
+	void close() {
+		this.context.close();
+	}
+
+
+	@Test
+	void loadMissingKeysOnly() {
+		this.cache.put(2L, "cached-2");
+		Map<Long, String> users = this.repository.findAll(Arrays.asList(1L, 2L, 3L));
+		assertThat(users).containsExactly(entry(1L, "user-1"), entry(2L, "cached-2"), entry(3L, "user-3"));
+		assertThat(this.repository.getRequests()).containsExactly(Arrays.asList(1L, 3L));
+
+		assertThat(this.repository.findAll(Arrays.asList(3L, 1L))).containsExactly(entry(3L, "user-3"), entry(1L, "user-1"));
+		assertThat(this.repository.getRequests()).hasSize(1);
+	}
+
+	@Test
+	void shareEntriesWithCacheable() {
+		this.repository.findAll(Arrays.asList(1L, 2L));
+		assertThat(this.repository.findOne(1L)).isEqualTo("user-1");
+		assertThat(this.repository.getRequests()).hasSize(1);
+
+		this.repository.findOne(3L);
+		assertThat(this.repository.findAll(Arrays.asList(1L, 3L))).containsExactly(entry(1L, "user-1"), entry(3L, "user-3"));
+		assertThat(this.repository.getRequests()).hasSize(2);
+	}
+
+	@Test
+	void doNotCacheAbsentValues() {
+		Map<Long, String> users = this.repository.findAll(Arrays.asList(1L, -1L));
+		assertThat(users).containsOnlyKeys(1L);
+		assertThat(this.cache.get(-1L)).isNull();
+		this.repository.findAll(Collections.singletonList(-1L));
+		assertThat(this.repository.getRequests()).containsExactly(Arrays.asList(1L, -1L), Collections.singletonList(-1L));
+	}
+
+	@Test
+	void vetoCachingWithUnless() {
+		this.repository.findAllUnlessBlocked(Arrays.asList(1L, 2L));
+		assertThat(this.cache.get(1L)).isNotNull();
+		assertThat(this.cache.get(2L)).isNull();
+	}
+
+	@Test
+	void coalesceConcurrentMisses() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Map<Long, String>> pending = executor.submit(() -> this.repository.findAllBlocking(Arrays.asList(1L, 2L)));
+			assertThat(this.repository.getLoading().await(10, TimeUnit.SECONDS)).isTrue();
+
+			// Thread loading 1 and 2 is blocked: 3 is loaded, 2 is awaited
+			Future<Map<Long, String>> concurrent = executor.submit(
+					() -> this.repository.findAllBlocking(Arrays.asList(2L, 3L)));
+			this.repository.getRelease().countDown();
+
+			assertThat(pending.get(10, TimeUnit.SECONDS)).containsExactly(entry(1L, "user-1"), entry(2L, "user-2"));
+			assertThat(concurrent.get(10, TimeUnit.SECONDS)).containsExactly(entry(2L, "user-2"), entry(3L, "user-3"));
+			assertThat(this.repository.getRequests().stream().mapToInt(List::size).sum()).isEqualTo(3);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void generateKeysWithKeyGenerator() {
+		PrefixedUserRepository prefixedRepository = this.context.getBean(PrefixedUserRepository.class);
+		assertThat(prefixedRepository.findAll(Arrays.asList(1L, 2L))).containsExactly(entry(1L, "user-1"), entry(2L, "user-2"));
+		assertThat(this.cache.get("user:1", String.class)).isEqualTo("user-1");
+		assertThat(this.cache.get(1L)).isNull();
+
+		assertThat(prefixedRepository.findOne(2L)).isEqualTo("user-2");
+		assertThat(prefixedRepository.findAll(Arrays.asList(1L, 3L))).containsExactly(entry(1L, "user-1"), entry(3L, "user-3"));
+		assertThat(prefixedRepository.getRequests()).containsExactly(Arrays.asList(1L, 2L), Collections.singletonList(3L));
+	}
+
+	@Test
+	void rejectInvalidSignature() {
+		assertThatIllegalStateException().isThrownBy(() -> this.repository.findAllAsList(Collections.singleton(1L)))
+				.withMessageContaining("Map return type");
+	}
+
+
+	private static Map.Entry<Long, String> entry(Long key, String value) {
+		return Collections.singletonMap(key, value).entrySet().iterator().next();
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("users");
+		}
+
+		@Bean
+		UserRepository userRepository() {
+			return new UserRepository();
+		}
+
+		@Bean
+		PrefixedUserRepository prefixedUserRepository() {
+			return new PrefixedUserRepository();
+		}
+
+		@Bean
+		KeyGenerator prefixKeyGenerator() {
+			return (target, method, params) -> "user:" + params[0];
+		}
+	}
+
+
+	static class UserRepository {
+
+		private final List<List<Long>> requests = new CopyOnWriteArrayList<>();
+
+		private final CountDownLatch loading = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		public List<List<Long>> getRequests() {
+			return this.requests;
+		}
+
+		public CountDownLatch getLoading() {
+			return this.loading;
+		}
+
+		public CountDownLatch getRelease() {
+			return this.release;
+		}
+
+		@Cacheable("users")
+		public String findOne(Long id) {
+			this.requests.add(Collections.singletonList(id));
+			return "user-" + id;
+		}
+
+		@BulkCacheable("users")
+		public Map<Long, String> findAll(Collection<Long> ids) {
+			return load(ids);
+		}
+
+		@BulkCacheable(cacheNames = "users", unless = "#result.endsWith('2')")
+		public Map<Long, String> findAllUnlessBlocked(List<Long> ids) {
+			return load(ids);
+		}
+
+		@BulkCacheable("users")
+		public Map<Long, String> findAllBlocking(Collection<Long> ids) throws InterruptedException {
+			if (ids.contains(1L)) {
+				this.loading.countDown();
+				this.release.await(10, TimeUnit.SECONDS);
+			}
+			return load(ids);
+		}
+
+		@BulkCacheable("users")
+		public List<String> findAllAsList(Set<Long> ids) {
+			return new ArrayList<>(load(ids).values());
+		}
+
+		private Map<Long, String> load(Collection<Long> ids) {
+			this.requests.add(new ArrayList<>(ids));
+			Map<Long, String> result = new LinkedHashMap<>();
+			for (Long id : ids) {
+				if (id > 0) {
+					result.put(id, "user-" + id);
+				}
+			}
+			return result;
+		}
+	}
+
+
+	@CacheConfig(cacheNames = "users", keyGenerator = "prefixKeyGenerator")
+	static class PrefixedUserRepository extends UserRepository {
+
+		@Override
+		@Cacheable
+		public String findOne(Long id) {
+			return super.findOne(id);
+		}
+
+		@Override
+		@BulkCacheable
+		public Map<Long, String> findAll(Collection<Long> ids) {
+			return super.findAll(ids);
+		}
+	}
+
+}
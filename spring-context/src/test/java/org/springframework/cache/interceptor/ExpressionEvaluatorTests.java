@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.context.expression.CachedExpressionEvaluator.ExpressionMetrics;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
@@ -136,6 +137,31 @@ public class ExpressionEvaluatorTests {
 		assertThat(value).isEqualTo(String.class.getName());
 	}
 
+	@Test
+	public void compileFrequentlyEvaluatedExpression() {
+		AnnotatedClass target = new AnnotatedClass();
+		Method method = ReflectionUtils.findMethod(
+				AnnotatedClass.class, "multipleCaching", Object.class, Object.class);
+		Collection<ConcurrentMapCache> caches = Collections.singleton(new ConcurrentMapCache("test"));
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+
+		for (int i = 0; i < 200; i++) {
+			Object[] args = new Object[] {"a" + i, "b"};
+			EvaluationContext evalCtx = this.eval.createEvaluationContext(caches, method, args,
+					target, target.getClass(), method, CacheOperationExpressionEvaluator.NO_RESULT, null);
+			assertThat(this.eval.key("#a", key, evalCtx)).isEqualTo(args[0]);
+		}
+
+		ExpressionMetrics metrics = this.eval.getMetrics();
+		assertThat(metrics.getCacheMissCount()).isEqualTo(1);
+		assertThat(metrics.getCacheHitCount()).isEqualTo(199);
+		assertThat(metrics.getCachedExpressionCount()).isEqualTo(1);
+		assertThat(metrics.getCompiledExpressionCount()).isEqualTo(1);
+
+		this.eval.clear();
+		assertThat(this.eval.getMetrics().getCachedExpressionCount()).isEqualTo(0);
+	}
+
 	private EvaluationContext createEvaluationContext(Object result) {
 		return createEvaluationContext(result, null);
 	}
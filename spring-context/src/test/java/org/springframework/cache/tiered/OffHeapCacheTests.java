@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.context.testfixture.cache.AbstractValueAdaptingCacheTests;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OffHeapCache}.
+ *
+ * @since 5.3.14
+ */
+class OffHeapCacheTests extends AbstractValueAdaptingCacheTests<OffHeapCache> {
+
+	private OffHeapCache cache;
+
+	private OffHeapCache cacheNoNull;
+
+
+	@BeforeEach
+	void setup() {
+		this.cache = new OffHeapCache(CACHE_NAME, 64 * 1024, true);
+		this.cacheNoNull = new OffHeapCache(CACHE_NAME_NO_NULL, 64 * 1024, false);
+	}
+
+	@Override
+	protected OffHeapCache getCache() {
+		return getCache(true);
+	}
+
+	@Override
+	protected OffHeapCache getCache(boolean allowNull) {
+		return (allowNull ? this.cache : this.cacheNoNull);
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	void storeCopyOfValue() {
+		List<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+		this.cache.put("key", value);
+		value.add("c");
+		assertThat(this.cache.get("key", List.class)).containsExactly("a", "b");
+		assertThat(this.cache.get("key", List.class)).isNotSameAs(this.cache.get("key", List.class));
+	}
+
+	@Test
+	void storeValuesSpanningSeveralBlocks() {
+		char[] chars = new char[10 * OffHeapCache.DEFAULT_BLOCK_SIZE];
+		Arrays.fill(chars, 'x');
+		String large = new String(chars);
+		this.cache.put("large", large);
+		this.cache.put("small", "value");
+		assertThat(this.cache.get("large", String.class)).isEqualTo(large);
+		assertThat(this.cache.get("small", String.class)).isEqualTo("value");
+
+		this.cache.put("large", "replaced");
+		assertThat(this.cache.get("large", String.class)).isEqualTo("replaced");
+		assertThat(this.cache.getStatistics().getUsedBytes()).isEqualTo(2 * OffHeapCache.DEFAULT_BLOCK_SIZE);
+	}
+
+	@Test
+	void evictLeastRecentlyUsedEntries() {
+		OffHeapCache cache = new OffHeapCache(CACHE_NAME, 4 * OffHeapCache.DEFAULT_BLOCK_SIZE);
+		cache.put("key1", "value1");
+		cache.put("key2", "value2");
+		cache.put("key3", "value3");
+		cache.put("key4", "value4");
+		assertThat(cache.get("key1")).isNotNull();
+
+		cache.put("key5", "value5");
+		assertThat(cache.get("key2")).isNull();
+		assertThat(cache.get("key1")).isNotNull();
+		assertThat(cache.get("key5")).isNotNull();
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+		assertThat(cache.getStatistics().getEntryCount()).isEqualTo(4);
+	}
+
+	@Test
+	void rejectValueExceedingCapacity() {
+		OffHeapCache cache = new OffHeapCache(CACHE_NAME, 2 * OffHeapCache.DEFAULT_BLOCK_SIZE);
+		cache.put("key", "value");
+		cache.put("key", new byte[4 * OffHeapCache.DEFAULT_BLOCK_SIZE]);
+		assertThat(cache.get("key")).isNull();
+		assertThat(cache.getStatistics().getRejectionCount()).isEqualTo(1);
+		assertThat(cache.getStatistics().getUsedBytes()).isEqualTo(0);
+	}
+
+	@Test
+	void reuseStorageAfterClear() {
+		OffHeapCache cache = new OffHeapCache(CACHE_NAME, 4 * OffHeapCache.DEFAULT_BLOCK_SIZE);
+		cache.put("key1", "value1");
+		cache.put("key2", "value2");
+		assertThat(cache.invalidate()).isTrue();
+		assertThat(cache.getStatistics().getUsedBytes()).isEqualTo(0);
+		for (int i = 0; i < 4; i++) {
+			cache.put("key" + i, "value" + i);
+		}
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(0);
+		assertThat(cache.get("key3", String.class)).isEqualTo("value3");
+	}
+
+	@Test
+	void storeInMemoryMappedFile(@TempDir File directory) {
+		OffHeapCache cache = new OffHeapCache(CACHE_NAME, 64 * 1024, 128, true,
+				new DefaultSerializer(), new DefaultDeserializer(), new File(directory, "test.cache"));
+		cache.put("key", "value");
+		assertThat(cache.get("key", String.class)).isEqualTo("value");
+		assertThat(new File(directory, "test.cache").length()).isEqualTo(64 * 1024);
+	}
+
+	@Test
+	void recordStatistics() {
+		this.cache.put("key", "value");
+		this.cache.get("key");
+		this.cache.get("other");
+		OffHeapCache.Statistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getHitCount()).isEqualTo(1);
+		assertThat(statistics.getMissCount()).isEqualTo(1);
+		assertThat(statistics.getEntryCount()).isEqualTo(1);
+		assertThat(statistics.getUsedBytes()).isEqualTo(OffHeapCache.DEFAULT_BLOCK_SIZE);
+		assertThat(statistics.getCapacity()).isEqualTo(64 * 1024);
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.tiered;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.concurrent.BoundedConcurrentMapCache;
+import org.springframework.context.testfixture.cache.AbstractCacheTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TieredCache} and {@link TieredCacheManager}.
+ *
+ * @since 5.3.14
+ */
+class TieredCacheTests extends AbstractCacheTests<TieredCache> {
+
+	private TieredCache cache;
+
+
+	@BeforeEach
+	void setup() {
+		this.cache = new TieredCache(CACHE_NAME, new BoundedConcurrentMapCache(CACHE_NAME, 2),
+				new OffHeapCache(CACHE_NAME, 64 * 1024));
+	}
+
+	@Override
+	protected TieredCache getCache() {
+		return this.cache;
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	void promoteSecondTierHit() {
+		this.cache.getSecondTier().put("key", "value");
+		assertThat(this.cache.get("key", String.class)).isEqualTo("value");
+		assertThat(this.cache.getFirstTier().get("key")).isNotNull();
+		assertThat(this.cache.get("key", String.class)).isEqualTo("value");
+
+		TieredCache.Statistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getFirstTierHitCount()).isEqualTo(1);
+		assertThat(statistics.getSecondTierHitCount()).isEqualTo(1);
+		assertThat(statistics.getMissCount()).isEqualTo(0);
+	}
+
+	@Test
+	void keepEntriesEvictedFromFirstTier() {
+		for (int i = 0; i < 10; i++) {
+			this.cache.put("key" + i, "value" + i);
+		}
+		for (int i = 0; i < 10; i++) {
+			assertThat(this.cache.get("key" + i, String.class)).isEqualTo("value" + i);
+		}
+		assertThat(((OffHeapCache) this.cache.getSecondTier()).getStatistics().getEntryCount()).isEqualTo(10);
+		assertThat(this.cache.getStatistics().getSecondTierHitCount()).isGreaterThan(0);
+	}
+
+	@Test
+	void loadThroughBothTiers() {
+		assertThat(this.cache.get("key", () -> "value")).isEqualTo("value");
+		assertThat(this.cache.getFirstTier().get("key")).isNotNull();
+		assertThat(this.cache.getSecondTier().get("key")).isNotNull();
+
+		this.cache.getFirstTier().evict("key");
+		assertThat(this.cache.get("key", () -> "other")).isEqualTo("value");
+		assertThat(this.cache.getStatistics().getSecondTierHitCount()).isEqualTo(1);
+		assertThat(this.cache.getStatistics().getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	void evictFromBothTiers() {
+		this.cache.put("key", "value");
+		assertThat(this.cache.evictIfPresent("key")).isTrue();
+		assertThat(this.cache.getFirstTier().get("key")).isNull();
+		assertThat(this.cache.getSecondTier().get("key")).isNull();
+		assertThat(this.cache.evictIfPresent("key")).isFalse();
+	}
+
+	@Test
+	void createTieredCachesFromCacheManager() {
+		TieredCacheManager cacheManager = new TieredCacheManager("users");
+		cacheManager.setFirstTierMaximumSize(10);
+		cacheManager.setSecondTierCapacity(1024 * 1024);
+		assertThat(cacheManager.getCache("other")).isNull();
+		assertThat(cacheManager.getCacheNames()).containsExactly("users");
+
+		TieredCache cache = (TieredCache) cacheManager.getCache("users");
+		assertThat(cacheManager.getCache("users")).isSameAs(cache);
+		assertThat(((BoundedConcurrentMapCache) cache.getFirstTier()).getMaximumSize()).isEqualTo(10);
+		assertThat(((OffHeapCache) cache.getSecondTier()).getCapacity()).isEqualTo(1024 * 1024);
+	}
+
+}
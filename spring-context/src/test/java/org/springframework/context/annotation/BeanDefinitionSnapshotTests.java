@@ -0,0 +1,206 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.type.AnnotationMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link BeanDefinitionSnapshotWriter} and {@link BeanDefinitionSnapshotReader}.
+ *
+ * @since 5.3.14
+ */
+class BeanDefinitionSnapshotTests {
+
+	@Test
+	void restoreConfigurationClasses() throws IOException {
+		AnnotationConfigApplicationContext buildContext = new AnnotationConfigApplicationContext();
+		buildContext.register(SnapshotConfig.class);
+		GenericApplicationContext ctx = restore(snapshot(buildContext));
+		ctx.refresh();
+
+		TestBean testBean = ctx.getBean("testBean", TestBean.class);
+		assertThat(testBean.getName()).isEqualTo("p1TestBean");
+		assertThat(ctx.getBean("spouse", TestBean.class).getSpouse()).isSameAs(testBean);
+		assertThat(ctx.getBeanFactory().getBeanDefinition("testBean").isPrimary()).isTrue();
+		assertThat(ctx.getBeanFactory().getBeanDefinition("spouse").isLazyInit()).isTrue();
+		assertThat(ctx.getBeanFactory().getBeanDefinition("prototype").getScope())
+				.isEqualTo(BeanDefinition.SCOPE_PROTOTYPE);
+		assertThat(ctx.getBean("prototype")).isNotSameAs(ctx.getBean("prototype"));
+		assertThat(ctx.getAliases("testBean")).containsExactly("aliasedTestBean");
+		assertThat(ctx.getEnvironment().getProperty("from.p1")).isEqualTo("p1Value");
+
+		AnnotationMetadata importMetadata = ctx.getBean(ImportAwareConfig.class).importMetadata;
+		assertThat(importMetadata).isNotNull();
+		assertThat(importMetadata.getClassName()).isEqualTo(SnapshotConfig.class.getName());
+		assertThat(ctx.getBean("importedBean")).isEqualTo("imported");
+		ctx.close();
+	}
+
+	@Test
+	void restoreManagedValues() throws IOException {
+		GenericApplicationContext buildContext = new GenericApplicationContext();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getConstructorArgumentValues().addIndexedArgumentValue(0, "name");
+		bd.getPropertyValues().add("age", "42");
+		bd.getPropertyValues().add("spouse", new RootBeanDefinition(TestBean.class));
+		ManagedList<Object> friends = new ManagedList<>();
+		friends.add(new RuntimeBeanReference("other"));
+		friends.add(new TypedStringValue("friend"));
+		bd.getPropertyValues().add("friends", friends);
+		buildContext.registerBeanDefinition("testBean", bd);
+		buildContext.registerBeanDefinition("other", new RootBeanDefinition(TestBean.class));
+
+		GenericApplicationContext ctx = restore(snapshot(buildContext));
+		ctx.refresh();
+		TestBean testBean = ctx.getBean("testBean", TestBean.class);
+		assertThat(testBean.getName()).isEqualTo("name");
+		assertThat(testBean.getAge()).isEqualTo(42);
+		assertThat(testBean.getSpouse()).isNotNull();
+		assertThat(testBean.getFriends()).containsExactly(ctx.getBean("other"), "friend");
+		ctx.close();
+	}
+
+	@Test
+	void restoreFactoryMethodMetadata() throws Exception {
+		AnnotationConfigApplicationContext buildContext = new AnnotationConfigApplicationContext();
+		buildContext.register(SnapshotConfig.class);
+		GenericApplicationContext ctx = restore(snapshot(buildContext));
+
+		BeanDefinition bd = ctx.getBeanDefinition("prototype");
+		assertThat(bd).isInstanceOf(RootBeanDefinition.class);
+		RootBeanDefinition rbd = (RootBeanDefinition) bd;
+		assertThat(rbd.isFactoryMethodUnique()).isTrue();
+		assertThat(rbd.getResolvedFactoryMethod()).isEqualTo(SnapshotConfig.class.getDeclaredMethod("prototype"));
+		assertThat(ctx.getDefaultListableBeanFactory().getBeanNamesForType(
+				ResolvableType.forClassWithGenerics(List.class, String.class))).containsExactly("prototype");
+		assertThat(ctx.getDefaultListableBeanFactory().getBeanNamesForType(
+				ResolvableType.forClassWithGenerics(List.class, Integer.class))).isEmpty();
+	}
+
+	@Test
+	void restoreTargetType() throws IOException {
+		GenericApplicationContext buildContext = new GenericApplicationContext();
+		RootBeanDefinition bd = new RootBeanDefinition(ArrayList.class);
+		bd.setTargetType(ResolvableType.forClassWithGenerics(List.class, String.class));
+		buildContext.registerBeanDefinition("list", bd);
+
+		GenericApplicationContext ctx = restore(snapshot(buildContext));
+		RootBeanDefinition restored = (RootBeanDefinition) ctx.getBeanDefinition("list");
+		assertThat(restored.getTargetType()).isEqualTo(List.class);
+		assertThat(restored.getResolvableType().resolveGeneric(0)).isEqualTo(String.class);
+	}
+
+	@Test
+	void instanceSupplierIsRejected() {
+		GenericApplicationContext buildContext = new GenericApplicationContext();
+		buildContext.registerBean("testBean", TestBean.class, (Supplier<TestBean>) TestBean::new);
+		assertThatIllegalStateException().isThrownBy(() -> snapshot(buildContext))
+				.withMessageContaining("testBean");
+	}
+
+	@Test
+	void invalidSnapshotIsRejected() {
+		GenericApplicationContext ctx = new GenericApplicationContext();
+		assertThatExceptionOfType(BeanDefinitionStoreException.class).isThrownBy(() ->
+				new BeanDefinitionSnapshotReader(ctx).loadBeanDefinitions(new ByteArrayResource(new byte[] {1, 2, 3, 4})));
+	}
+
+
+	private static byte[] snapshot(GenericApplicationContext context) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BeanDefinitionSnapshotWriter(context).write(out);
+		return out.toByteArray();
+	}
+
+	private static GenericApplicationContext restore(byte[] snapshot) {
+		GenericApplicationContext ctx = new GenericApplicationContext();
+		new BeanDefinitionSnapshotReader(ctx).loadBeanDefinitions(new ByteArrayResource(snapshot));
+		return ctx;
+	}
+
+
+	@Configuration
+	@Import(ImportAwareConfig.class)
+	@PropertySource("classpath:org/springframework/context/annotation/p1.properties")
+	static class SnapshotConfig {
+
+		@Autowired
+		Environment env;
+
+		@Bean({"testBean", "aliasedTestBean"})
+		@Primary
+		TestBean testBean() {
+			return new TestBean(this.env.getProperty("testbean.name"));
+		}
+
+		@Bean
+		@Lazy
+		TestBean spouse() {
+			TestBean spouse = new TestBean("spouse");
+			spouse.setSpouse(testBean());
+			return spouse;
+		}
+
+		@Bean
+		@Scope(BeanDefinition.SCOPE_PROTOTYPE)
+		List<String> prototype() {
+			return new ArrayList<>();
+		}
+	}
+
+
+	@Configuration
+	static class ImportAwareConfig implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+
+		@Bean
+		String importedBean() {
+			return "imported";
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.context.annotation;
 
+import java.io.File;
+import java.nio.file.Path;
+
 import example.scannable.CustomComponent;
 import example.scannable.FooService;
 import example.scannable.FooServiceImpl;
@@ -23,6 +26,7 @@ import example.scannable.NamedStubDao;
 import example.scannable.StubFooDao;
 import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.beans.BeanInstantiationException;
 import org.springframework.beans.factory.BeanCreationException;
@@ -37,6 +41,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.annotation2.NamedStubDao2;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.context.testfixture.index.CandidateComponentsTestClassLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
@@ -526,6 +531,28 @@ public class ClassPathBeanDefinitionScannerTests {
 			.satisfies(ex -> assertThat(ex.getMostSpecificCause()).isInstanceOf(NoSuchBeanDefinitionException.class));
 	}
 
+	@Test
+	public void testMetadataCacheIsPersistedOnceContextIsRefreshed(@TempDir Path tempDir) {
+		File cacheFile = tempDir.resolve("metadata.cache").toFile();
+		SpringProperties.setProperty(ClassPathScanningCandidateComponentProvider.METADATA_CACHE_FILE_PROPERTY_NAME,
+				cacheFile.getPath());
+		try {
+			GenericApplicationContext context = new GenericApplicationContext();
+			ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(context, false);
+			ClassPathBeanDefinitionScanner otherScanner = new ClassPathBeanDefinitionScanner(context, false);
+			assertThat(otherScanner.getMetadataReaderFactory()).isSameAs(scanner.getMetadataReaderFactory());
+			scanner.scan(BASE_PACKAGE);
+			otherScanner.scan("org.springframework.context.annotation2");
+			assertThat(cacheFile).doesNotExist();
+			context.refresh();
+			assertThat(cacheFile).isFile();
+			context.close();
+		}
+		finally {
+			SpringProperties.setProperty(ClassPathScanningCandidateComponentProvider.METADATA_CACHE_FILE_PROPERTY_NAME, null);
+		}
+	}
+
 
 	private static class TestBeanNameGenerator extends AnnotationBeanNameGenerator {
 
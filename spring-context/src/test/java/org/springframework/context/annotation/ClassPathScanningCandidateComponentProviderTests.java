@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,7 +18,9 @@ package org.springframework.context.annotation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.regex.Pattern;
 
 import example.gh24375.AnnotatedComponent;
@@ -56,6 +58,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
  * @author Mark Fisher
@@ -124,6 +127,34 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setScanningParallelism(4);
+		testDefault(provider);
+	}
+
+	@Test
+	public void parallelScanRetainsCandidateOrder() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		List<String> expected = getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE));
+
+		provider.clearCache();
+		provider.setScanningParallelism(3);
+		assertThat(getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE))).isEqualTo(expected);
+	}
+
+	@Test
+	public void scanningParallelismMustBePositive() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		assertThat(provider.getScanningParallelism()).isEqualTo(1);
+		assertThatIllegalArgumentException().isThrownBy(() -> provider.setScanningParallelism(0));
+	}
+
 	@Test
 	public void bogusPackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
@@ -512,6 +543,10 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		return false;
 	}
 
+	private List<String> getBeanClassNames(Set<BeanDefinition> candidates) {
+		return candidates.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+	}
+
 	private void assertBeanDefinitionType(Set<BeanDefinition> candidates) {
 		candidates.forEach(c ->
 			assertThat(c).isInstanceOf(ScannedGenericBeanDefinition.class)
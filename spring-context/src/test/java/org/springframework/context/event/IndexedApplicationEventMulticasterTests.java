@@ -0,0 +1,389 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link IndexedApplicationEventMulticaster}.
+ *
+ * @since 5.3.14
+ */
+class IndexedApplicationEventMulticasterTests {
+
+	private final IndexedApplicationEventMulticaster multicaster = new IndexedApplicationEventMulticaster();
+
+
+	@Test
+	void dispatchToMatchingListenersInOrder() {
+		List<Object> invocations = new ArrayList<>();
+		RecordingListener<TestEvent> second = new RecordingListener<>(invocations, 2);
+		RecordingListener<TestEvent> first = new RecordingListener<>(invocations, 1);
+		RecordingListener<OtherEvent> other = new RecordingListener<>(invocations, 0);
+		this.multicaster.addApplicationListener(new TestEventListener(second));
+		this.multicaster.addApplicationListener(new TestEventListener(first));
+		this.multicaster.addApplicationListener(new OtherEventListener(other));
+
+		TestEvent event = new TestEvent(this, 1);
+		this.multicaster.multicastEvent(event);
+		this.multicaster.multicastEvent(event);
+		assertThat(invocations).containsExactly(first, second, first, second);
+	}
+
+	@Test
+	void reuseDispatchArrayUntilListenersChange() {
+		this.multicaster.addApplicationListener(new TestEventListener(new RecordingListener<>(new ArrayList<>(), 0)));
+		TestEvent event = new TestEvent(this, 1);
+
+		ApplicationListener<?>[] listeners = this.multicaster.getDispatchListeners(event, null);
+		assertThat(listeners).hasSize(1);
+		assertThat(this.multicaster.getDispatchListeners(new TestEvent(this, 2), null)).isSameAs(listeners);
+
+		TestEventListener added = new TestEventListener(new RecordingListener<>(new ArrayList<>(), 0));
+		this.multicaster.addApplicationListener(added);
+		assertThat(this.multicaster.getDispatchListeners(event, null)).hasSize(2).contains(added);
+
+		this.multicaster.removeApplicationListener(added);
+		assertThat(this.multicaster.getDispatchListeners(event, null)).hasSize(1).doesNotContain(added);
+	}
+
+	@Test
+	void dispatchBySourceType() {
+		List<Object> invocations = new ArrayList<>();
+		this.multicaster.addApplicationListener(new SourceFilteringListener(this, new TestEventListener(
+				new RecordingListener<>(invocations, 0))));
+
+		this.multicaster.multicastEvent(new TestEvent(this, 1));
+		this.multicaster.multicastEvent(new TestEvent("other source", 2));
+		this.multicaster.multicastEvent(new TestEvent(this, 3));
+		assertThat(invocations).hasSize(2);
+	}
+
+	@Test
+	void dispatchByResolvedEventType() {
+		AtomicInteger stringEvents = new AtomicInteger();
+		this.multicaster.addApplicationListener(new GenericStringEventListener(stringEvents));
+
+		this.multicaster.multicastEvent(new GenericEvent<>(this, "test"));
+		this.multicaster.multicastEvent(new GenericEvent<>(this, 42));
+		this.multicaster.multicastEvent(new GenericEvent<>(this, "test"));
+		assertThat(stringEvents.get()).isEqualTo(2);
+	}
+
+	@Test
+	void resolvePrototypeListenerBeanForEveryEvent() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(PrototypeListener.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		beanFactory.registerBeanDefinition("listener", bd);
+		this.multicaster.setBeanFactory(beanFactory);
+		this.multicaster.addApplicationListenerBean("listener");
+
+		PrototypeListener.instances.clear();
+		this.multicaster.multicastEvent(new TestEvent(this, 1));
+		this.multicaster.multicastEvent(new TestEvent(this, 2));
+		assertThat(PrototypeListener.instances).hasSize(2);
+		assertThat(PrototypeListener.instances.get(0)).isNotSameAs(PrototypeListener.instances.get(1));
+	}
+
+	@Test
+	void precomputeDispatchArraysOnRefresh() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		this.multicaster.setBeanFactory(context.getBeanFactory());
+		this.multicaster.setPrecomputedEventTypes(String.class, TestEvent.class);
+		context.getBeanFactory().registerSingleton(
+				AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, this.multicaster);
+		CountingSmartListener listener = new CountingSmartListener();
+		context.addApplicationListener(listener);
+		context.refresh();
+
+		assertThat(listener.supportedEventTypes).contains(
+				ResolvableType.forClass(TestEvent.class).toString(),
+				ResolvableType.forClassWithGenerics(PayloadApplicationEvent.class, String.class).toString());
+		int checks = listener.supportedEventTypes.size();
+
+		context.publishEvent("payload");
+		context.publishEvent(new TestEvent(context, 1));
+		assertThat(listener.supportedEventTypes).hasSize(checks);
+		assertThat(listener.receivedEvents).hasSize(2);
+		context.close();
+	}
+
+	@Test
+	void batchedAsyncDeliveryPreservesOrderPerListener() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		this.multicaster.setTaskExecutor(executor);
+		this.multicaster.setBatchSize(8);
+		int eventCount = 1000;
+		CountDownLatch latch = new CountDownLatch(eventCount * 3);
+		List<List<Integer>> received = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			List<Integer> payloads = Collections.synchronizedList(new ArrayList<>());
+			received.add(payloads);
+			this.multicaster.addApplicationListener((ApplicationListener<TestEvent>) event -> {
+				payloads.add(event.payload);
+				latch.countDown();
+			});
+		}
+
+		for (int i = 0; i < eventCount; i++) {
+			this.multicaster.multicastEvent(new TestEvent(this, i));
+		}
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+			for (List<Integer> payloads : received) {
+				assertThat(payloads).hasSize(eventCount);
+				for (int i = 0; i < eventCount; i++) {
+					assertThat(payloads.get(i)).isEqualTo(i);
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void batchedAsyncDeliveryContinuesAfterListenerFailure() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		this.multicaster.setTaskExecutor(task -> executor.execute(() -> {
+			try {
+				task.run();
+			}
+			catch (IllegalStateException ex) {
+				// expected for the failing event
+			}
+		}));
+		this.multicaster.setBatchSize(10);
+		CountDownLatch latch = new CountDownLatch(4);
+		List<Integer> payloads = Collections.synchronizedList(new ArrayList<>());
+		this.multicaster.addApplicationListener((ApplicationListener<TestEvent>) event -> {
+			latch.countDown();
+			if (event.payload == 2) {
+				throw new IllegalStateException("failure");
+			}
+			payloads.add(event.payload);
+		});
+
+		for (int i = 1; i <= 4; i++) {
+			this.multicaster.multicastEvent(new TestEvent(this, i));
+		}
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+			executor.shutdown();
+			assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(payloads).containsExactly(1, 3, 4);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	@Test
+	void batchedAsyncDeliveryStopsForRemovedListenerBean() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBeanDefinition("listener", new RootBeanDefinition(PrototypeListener.class));
+		this.multicaster.setBeanFactory(beanFactory);
+		this.multicaster.addApplicationListenerBean("listener");
+		List<Object> invocations = new ArrayList<>();
+		this.multicaster.addApplicationListener(new TestEventListener(new RecordingListener<>(invocations, 0)));
+		List<Runnable> tasks = new ArrayList<>();
+		this.multicaster.setTaskExecutor(tasks::add);
+		this.multicaster.setBatchSize(10);
+
+		PrototypeListener.instances.clear();
+		this.multicaster.multicastEvent(new TestEvent(this, 1));
+		this.multicaster.removeApplicationListenerBean("listener");
+		this.multicaster.multicastEvent(new TestEvent(this, 2));
+		assertThat(tasks).hasSize(2);
+		tasks.forEach(Runnable::run);
+		assertThat(PrototypeListener.instances).hasSize(1);
+		assertThat(invocations).hasSize(2);
+
+		this.multicaster.multicastEvent(new TestEvent(this, 3));
+		assertThat(tasks).hasSize(3);
+		tasks.get(2).run();
+		assertThat(PrototypeListener.instances).hasSize(1);
+		assertThat(invocations).hasSize(3);
+	}
+
+
+	@SuppressWarnings("serial")
+	static class TestEvent extends ApplicationEvent {
+
+		final int payload;
+
+		TestEvent(Object source, int payload) {
+			super(source);
+			this.payload = payload;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	static class OtherEvent extends ApplicationEvent {
+
+		OtherEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	static class GenericEvent<T> extends ApplicationEvent implements ResolvableTypeProvider {
+
+		private final T payload;
+
+		GenericEvent(Object source, T payload) {
+			super(source);
+			this.payload = payload;
+		}
+
+		@Override
+		public ResolvableType getResolvableType() {
+			return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forInstance(this.payload));
+		}
+	}
+
+
+	static class RecordingListener<E extends ApplicationEvent> implements Ordered {
+
+		private final List<Object> invocations;
+
+		private final int order;
+
+		RecordingListener(List<Object> invocations, int order) {
+			this.invocations = invocations;
+			this.order = order;
+		}
+
+		void record(E event) {
+			this.invocations.add(this);
+		}
+
+		@Override
+		public int getOrder() {
+			return this.order;
+		}
+	}
+
+
+	static class TestEventListener implements ApplicationListener<TestEvent>, Ordered {
+
+		private final RecordingListener<TestEvent> delegate;
+
+		TestEventListener(RecordingListener<TestEvent> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void onApplicationEvent(TestEvent event) {
+			this.delegate.record(event);
+		}
+
+		@Override
+		public int getOrder() {
+			return this.delegate.getOrder();
+		}
+	}
+
+
+	static class OtherEventListener implements ApplicationListener<OtherEvent> {
+
+		private final RecordingListener<OtherEvent> delegate;
+
+		OtherEventListener(RecordingListener<OtherEvent> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void onApplicationEvent(OtherEvent event) {
+			this.delegate.record(event);
+		}
+	}
+
+
+	static class GenericStringEventListener implements ApplicationListener<GenericEvent<String>> {
+
+		private final AtomicInteger counter;
+
+		GenericStringEventListener(AtomicInteger counter) {
+			this.counter = counter;
+		}
+
+		@Override
+		public void onApplicationEvent(GenericEvent<String> event) {
+			this.counter.incrementAndGet();
+		}
+	}
+
+
+	static class PrototypeListener implements ApplicationListener<TestEvent> {
+
+		static final List<PrototypeListener> instances = new ArrayList<>();
+
+		@Override
+		public void onApplicationEvent(TestEvent event) {
+			instances.add(this);
+		}
+	}
+
+
+	static class CountingSmartListener implements GenericApplicationListener {
+
+		final List<String> supportedEventTypes = Collections.synchronizedList(new ArrayList<>());
+
+		final List<ApplicationEvent> receivedEvents = new ArrayList<>();
+
+		@Override
+		public boolean supportsEventType(ResolvableType eventType) {
+			this.supportedEventTypes.add(eventType.toString());
+			return (TestEvent.class.isAssignableFrom(eventType.toClass()) ||
+					PayloadApplicationEvent.class.isAssignableFrom(eventType.toClass()));
+		}
+
+		@Override
+		public void onApplicationEvent(ApplicationEvent event) {
+			this.receivedEvents.add(event);
+		}
+	}
+
+}
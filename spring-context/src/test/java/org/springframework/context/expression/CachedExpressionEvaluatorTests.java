@@ -24,6 +24,8 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.ReflectionUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -66,6 +68,21 @@ public class CachedExpressionEvaluatorTests {
 		assertThat(expressionEvaluator.testCache.size()).as("Cached expression should be based on type").isEqualTo(2);
 	}
 
+	@Test
+	public void sharedDelegatesLeaveContextModifiable() {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		expressionEvaluator.applySharedDelegates(context, null);
+		context.addPropertyAccessor(new MapAccessor());
+		context.addMethodResolver(new ReflectiveMethodResolver());
+		assertThat(context.getPropertyAccessors()).hasSize(2);
+		assertThat(context.getMethodResolvers()).hasSize(2);
+
+		StandardEvaluationContext otherContext = new StandardEvaluationContext();
+		expressionEvaluator.applySharedDelegates(otherContext, null);
+		assertThat(otherContext.getPropertyAccessors()).hasSize(1);
+		assertThat(otherContext.getMethodResolvers()).hasSize(1);
+	}
+
 	private void hasParsedExpression(String expression) {
 		verify(expressionEvaluator.getParser(), times(1)).parseExpression(expression);
 	}
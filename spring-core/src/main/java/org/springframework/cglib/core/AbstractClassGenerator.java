@@ -173,9 +173,34 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 		this.className = className;
 	}
 
-	private String generateClassName(Predicate nameTestPredicate) {
-		return namingPolicy.getClassName(namePrefix, source.name, key, nameTestPredicate);
+	// SPRING PATCH BEGIN
+	private String generateClassName(Predicate nameTestPredicate, Object namingKey) {
+		return namingPolicy.getClassName(namePrefix, source.name, namingKey, nameTestPredicate);
+	}
+
+	/**
+	 * Return the key to derive the name of the generated class from.
+	 * <p>The default implementation returns the cache key. Subclasses with cache keys
+	 * that differ between runs may return a {@link PregeneratedClasses.NamingKey}
+	 * when {@link PregeneratedClasses#isActive() pre-generated classes} are active.
+	 */
+	protected Object getNamingKey() {
+		return key;
+	}
+
+	/**
+	 * Determine whether the given class, loaded under the deterministic name of the
+	 * class to generate, matches the configuration of this generator.
+	 * <p>The default implementation returns {@code true}. If a subclass returns
+	 * {@code false}, e.g. for a class pre-generated from an outdated configuration,
+	 * the class is generated under a regular name instead.
+	 * @param type the pre-generated class
+	 * @see PregeneratedClasses#isLoadingEnabled()
+	 */
+	protected boolean matchesPregeneratedClass(Class type) {
+		return true;
 	}
+	// SPRING PATCH END
 
 	/**
 	 * Set the <code>ClassLoader</code> in which the class will be generated.
@@ -341,22 +366,39 @@ abstract public class AbstractClassGenerator<T> implements ClassGenerator {
 						getClassName() + ". It seems that the loader has been expired from a weak reference somehow. " +
 						"Please file an issue at cglib's issue tracker.");
 			}
+			// SPRING PATCH BEGIN
+			Object namingKey = getNamingKey();
 			synchronized (classLoader) {
-				String name = generateClassName(data.getUniqueNamePredicate());
+				String name = generateClassName(data.getUniqueNamePredicate(), namingKey);
 				data.reserveName(name);
 				this.setClassName(name);
 			}
-			if (attemptLoad) {
+			// Only classes named by digest may have been pre-generated
+			boolean pregenerated = (namingKey instanceof PregeneratedClasses.NamingKey &&
+					PregeneratedClasses.isLoadingEnabled());
+			if (attemptLoad || pregenerated) {
 				try {
 					gen = classLoader.loadClass(getClassName());
-					return gen;
+					if (!(namingKey instanceof PregeneratedClasses.NamingKey) || matchesPregeneratedClass(gen)) {
+						return gen;
+					}
+					// Outdated pre-generated class: generate a matching one under a regular name
+					synchronized (classLoader) {
+						String name = generateClassName(data.getUniqueNamePredicate(), key);
+						data.reserveName(name);
+						this.setClassName(name);
+					}
 				}
 				catch (ClassNotFoundException e) {
 					// ignore
 				}
 			}
+			// SPRING PATCH END
 			byte[] b = strategy.generate(this);
 			String className = ClassNameReader.getClassName(new ClassReader(b));
+			// SPRING PATCH BEGIN
+			PregeneratedClasses.write(className, b);
+			// SPRING PATCH END
 			ProtectionDomain protectionDomain = getProtectionDomain();
 			synchronized (classLoader) { // just in case
 				// SPRING PATCH BEGIN
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cglib.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Support for CGLIB classes generated ahead of time, e.g. as part of the build,
+ * rather than on every startup of the application.
+ *
+ * <p>When either mode below is active, generated class names are derived from a
+ * deterministic key: for an {@link org.springframework.cglib.proxy.Enhancer},
+ * an MD5 digest of the superclass, the interfaces, the callback types and the
+ * callback chosen for each method, included in full in class names built by the
+ * {@link SpringNamingPolicy}. The same configuration therefore leads to the same
+ * class name in every run.
+ * <ul>
+ * <li>With an {@linkplain #setOutputDirectory output directory}, each generated
+ * class is also written to that directory, in the usual package layout. Running the
+ * application once at build time (e.g. through its integration tests) populates the
+ * directory, which can then be packaged as a jar with regular build tooling.
+ * <li>With {@linkplain #setLoadingEnabled loading} enabled, CGLIB first attempts to
+ * load a class of the deterministic name from the target ClassLoader, only falling
+ * back to runtime generation if none is found, or if the class found does not match
+ * the superclass, interfaces and callback types of the configuration. With the jar
+ * above on the classpath, startup skips class generation for all pre-generated classes.
+ * </ul>
+ *
+ * <p>Pre-generated classes have to be recreated whenever the proxied classes
+ * or the proxy configuration change, just like any other build output.
+ *
+ * @since 5.3.14
+ * @see AbstractClassGenerator#setAttemptLoad
+ */
+public final class PregeneratedClasses {
+
+	/**
+	 * System property that instructs Spring to write CGLIB classes to the given
+	 * directory when generating them: {@code "spring.cglib.generatedClassesDirectory"}.
+	 * @see #setOutputDirectory
+	 */
+	public static final String OUTPUT_DIRECTORY_PROPERTY_NAME = "spring.cglib.generatedClassesDirectory";
+
+	/**
+	 * System property that instructs Spring to load pre-generated CGLIB classes
+	 * from the classpath before generating them: {@code "spring.cglib.usePregeneratedClasses"}.
+	 * <p>The default is "false".
+	 * @see #setLoadingEnabled
+	 */
+	public static final String LOADING_ENABLED_PROPERTY_NAME = "spring.cglib.usePregeneratedClasses";
+
+
+	@Nullable
+	private static volatile File outputDirectory;
+
+	private static volatile boolean loadingEnabled = SpringProperties.getFlag(LOADING_ENABLED_PROPERTY_NAME);
+
+	static {
+		String directory = SpringProperties.getProperty(OUTPUT_DIRECTORY_PROPERTY_NAME);
+		if (directory != null) {
+			outputDirectory = new File(directory);
+		}
+	}
+
+
+	private PregeneratedClasses() {
+	}
+
+
+	/**
+	 * Specify a directory to write generated classes to,
+	 * or {@code null} to stop writing them.
+	 * <p>Default is the directory given by the {@link #OUTPUT_DIRECTORY_PROPERTY_NAME}
+	 * system property, if any.
+	 */
+	public static void setOutputDirectory(@Nullable File directory) {
+		outputDirectory = directory;
+	}
+
+	/**
+	 * Return the directory to write generated classes to, if any.
+	 */
+	@Nullable
+	public static File getOutputDirectory() {
+		return outputDirectory;
+	}
+
+	/**
+	 * Specify whether to load pre-generated classes from the target ClassLoader
+	 * before generating them.
+	 * <p>Default is "false", unless the {@link #LOADING_ENABLED_PROPERTY_NAME}
+	 * system property has been set.
+	 */
+	public static void setLoadingEnabled(boolean enabled) {
+		loadingEnabled = enabled;
+	}
+
+	/**
+	 * Return whether pre-generated classes are loaded before generating them.
+	 */
+	public static boolean isLoadingEnabled() {
+		return loadingEnabled;
+	}
+
+	/**
+	 * Return whether generated class names need to be deterministic,
+	 * i.e. whether classes are either written or loaded.
+	 */
+	public static boolean isActive() {
+		return (loadingEnabled || outputDirectory != null);
+	}
+
+	/**
+	 * Build a deterministic naming key for the given description of a generated class.
+	 * @param description a description that identifies the generated class
+	 * @return the key to derive the class name from
+	 */
+	public static NamingKey getNamingKey(String description) {
+		return new NamingKey(DigestUtils.md5DigestAsHex(description.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Write the given generated class to the output directory, if any.
+	 * @param className the name of the generated class
+	 * @param bytecode the bytecode of the generated class
+	 */
+	static void write(String className, byte[] bytecode) {
+		File directory = outputDirectory;
+		if (directory == null) {
+			return;
+		}
+		File file = new File(directory, className.replace('.', File.separatorChar) + ".class");
+		try {
+			Files.createDirectories(file.getParentFile().toPath());
+			Files.write(file.toPath(), bytecode);
+		}
+		catch (IOException ex) {
+			throw new CodeGenerationException(ex);
+		}
+	}
+
+
+	/**
+	 * Deterministic key for naming a generated class, holding the digest
+	 * of a description that identifies the class.
+	 * @see SpringNamingPolicy
+	 */
+	public static final class NamingKey {
+
+		private final String digest;
+
+		private NamingKey(String digest) {
+			this.digest = digest;
+		}
+
+		/**
+		 * Return the hex-encoded digest of the description.
+		 */
+		public String getDigest() {
+			return this.digest;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof NamingKey && this.digest.equals(((NamingKey) other).digest)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.digest.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return this.digest;
+		}
+	}
+
+}
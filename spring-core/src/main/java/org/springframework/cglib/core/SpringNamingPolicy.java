@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,4 +36,30 @@ public class SpringNamingPolicy extends DefaultNamingPolicy {
 		return "BySpringCGLIB";
 	}
 
+	/**
+	 * Includes the full digest of a {@link PregeneratedClasses.NamingKey} in the
+	 * class name, rather than the hash code of the key.
+	 * @since 5.3.14
+	 */
+	@Override
+	public String getClassName(String prefix, String source, Object key, Predicate names) {
+		if (!(key instanceof PregeneratedClasses.NamingKey)) {
+			return super.getClassName(prefix, source, key, names);
+		}
+		if (prefix == null) {
+			prefix = "org.springframework.cglib.empty.Object";
+		}
+		else if (prefix.startsWith("java")) {
+			prefix = "$" + prefix;
+		}
+		String base = prefix + "$$" + source.substring(source.lastIndexOf('.') + 1) + getTag() + "$$" +
+				((PregeneratedClasses.NamingKey) key).getDigest();
+		String attempt = base;
+		int index = 2;
+		while (names.evaluate(attempt)) {
+			attempt = base + "_" + index++;
+		}
+		return attempt;
+	}
+
 }
@@ -48,6 +48,7 @@ import org.springframework.cglib.core.MethodInfo;
 import org.springframework.cglib.core.MethodInfoTransformer;
 import org.springframework.cglib.core.MethodWrapper;
 import org.springframework.cglib.core.ObjectSwitchCallback;
+import org.springframework.cglib.core.PregeneratedClasses;
 import org.springframework.cglib.core.ProcessSwitchCallback;
 import org.springframework.cglib.core.ReflectUtils;
 import org.springframework.cglib.core.RejectModifierPredicate;
@@ -585,6 +586,73 @@ public class Enhancer extends AbstractClassGenerator {
 		return super.generate(data);
 	}
 
+	// SPRING PATCH BEGIN
+	@Override
+	protected Object getNamingKey() {
+		if (!PregeneratedClasses.isActive()) {
+			return super.getNamingKey();
+		}
+		// Deterministic across runs, in contrast to the identity-based CallbackFilter in the cache key
+		StringBuilder description = new StringBuilder();
+		description.append(superclass != null ? superclass.getName() : "");
+		if (interfaces != null) {
+			for (Class ifc : interfaces) {
+				description.append(',').append(ifc.getName());
+			}
+		}
+		for (Type callbackType : callbackTypes) {
+			description.append(';').append(callbackType.getDescriptor());
+		}
+		description.append(';').append(useFactory).append(';').append(interceptDuringConstruction)
+				.append(';').append(serialVersionUID);
+		if (filter != ALL_ZERO) {
+			List methods = new ArrayList();
+			getMethods((superclass != null ? superclass : Object.class), interfaces, methods);
+			for (Object method : methods) {
+				description.append(';').append(((Method) method).getName())
+						.append(Type.getMethodDescriptor((Method) method))
+						.append('=').append(filter.accept((Method) method));
+			}
+		}
+		return PregeneratedClasses.getNamingKey(description.toString());
+	}
+
+	@Override
+	protected boolean matchesPregeneratedClass(Class type) {
+		Class sc = (superclass != null ? superclass : Object.class);
+		if (type.getSuperclass() != sc) {
+			return false;
+		}
+		Set expectedInterfaces = new HashSet();
+		if (interfaces != null) {
+			expectedInterfaces.addAll(Arrays.asList(interfaces));
+		}
+		if (useFactory) {
+			expectedInterfaces.add(Factory.class);
+		}
+		if (!expectedInterfaces.equals(new HashSet(Arrays.asList(type.getInterfaces())))) {
+			return false;
+		}
+		try {
+			for (int i = 0; i < callbackTypes.length; i++) {
+				if (!Type.getType(type.getDeclaredField(getCallbackField(i)).getType()).equals(callbackTypes[i])) {
+					return false;
+				}
+			}
+		}
+		catch (NoSuchFieldException ex) {
+			return false;
+		}
+		try {
+			type.getDeclaredField(getCallbackField(callbackTypes.length));
+			return false;
+		}
+		catch (NoSuchFieldException ex) {
+			return true;
+		}
+	}
+	// SPRING PATCH END
+
 	protected ClassLoader getDefaultClassLoader() {
 		if (superclass != null) {
 			return superclass.getClassLoader();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -120,26 +120,49 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 			// No synchronization necessary...
 			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
+				metadataReader = createMetadataReader(resource);
 				this.metadataReaderCache.put(resource, metadataReader);
 			}
 			return metadataReader;
 		}
 		else if (this.metadataReaderCache != null) {
-			synchronized (this.metadataReaderCache) {
-				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
-					this.metadataReaderCache.put(resource, metadataReader);
+			Map<Resource, MetadataReader> cache = this.metadataReaderCache;
+			MetadataReader metadataReader;
+			synchronized (cache) {
+				metadataReader = cache.get(resource);
+			}
+			if (metadataReader == null) {
+				// Read outside of the lock, allowing for concurrent class file parsing
+				// when scanning in parallel, then keep the first reader registered.
+				metadataReader = createMetadataReader(resource);
+				synchronized (cache) {
+					MetadataReader existing = cache.putIfAbsent(resource, metadataReader);
+					if (existing != null) {
+						metadataReader = existing;
+					}
 				}
-				return metadataReader;
 			}
+			return metadataReader;
 		}
 		else {
-			return super.getMetadataReader(resource);
+			return createMetadataReader(resource);
 		}
 	}
 
+	/**
+	 * Create a new {@link MetadataReader} for the given resource, to be
+	 * registered in the cache if caching is active.
+	 * <p>The default implementation parses the class file through
+	 * {@link SimpleMetadataReaderFactory#getMetadataReader(Resource)}.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @return a new MetadataReader instance
+	 * @throws IOException in case of I/O failure
+	 * @since 5.3.14
+	 */
+	protected MetadataReader createMetadataReader(Resource resource) throws IOException {
+		return super.getMetadataReader(resource);
+	}
+
 	/**
 	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
 	 */
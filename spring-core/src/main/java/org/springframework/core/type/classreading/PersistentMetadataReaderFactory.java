@@ -0,0 +1,439 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * {@link CachingMetadataReaderFactory} that additionally keeps the class
+ * header metadata of scanned class files in a compact binary cache file,
+ * allowing for reuse across restarts of the application.
+ *
+ * <p>For a class file that is unchanged since it has been persisted, the
+ * {@link ClassMetadata} as well as the declared annotation types get restored
+ * from the cache file without reading the class file at all. The full
+ * annotation metadata (annotation attributes and annotated methods) is
+ * resolved from the class file on demand only, typically just for the
+ * classes which turn out to be candidate components.
+ *
+ * <p>Class files in the file system are considered unchanged as long as
+ * their last-modified timestamp and length are unchanged. Class files in
+ * jar files are considered unchanged as long as the outermost archive file
+ * is unchanged. Class files from any other kind of resource are not
+ * persisted and always get read from the class file.
+ *
+ * <p>The cache file is loaded on construction, and the metadata of all class
+ * files read through this factory is written back to it on {@link #persist()},
+ * replacing the previous content. Entries for class files which have not been
+ * read since construction are dropped at that point, so entries for removed
+ * or no longer scanned classes do not accumulate over time.
+ * The cache file may be deleted at any time; an unreadable or incompatible
+ * cache file is ignored and gets replaced on the next persist.
+ *
+ * @since 5.3.14
+ * @see org.springframework.core.type.ClassMetadata
+ */
+public class PersistentMetadataReaderFactory extends CachingMetadataReaderFactory {
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataReaderFactory.class);
+
+
+	private final MetadataStore metadataStore;
+
+	/** Last-modified timestamp and length per archive file, determined once per factory. */
+	private final Map<String, long[]> archiveStamps = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given {@link ResourceLoader},
+	 * using a shared resource cache if supported or a local resource cache otherwise.
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 * @param cacheFile the file to load persisted metadata from and to
+	 * {@linkplain #persist() persist} metadata to
+	 */
+	public PersistentMetadataReaderFactory(@Nullable ResourceLoader resourceLoader, File cacheFile) {
+		super(resourceLoader);
+		Assert.notNull(cacheFile, "Cache file must not be null");
+		this.metadataStore = new MetadataStore(cacheFile);
+	}
+
+
+	/**
+	 * Return the file that metadata gets persisted to.
+	 */
+	public File getCacheFile() {
+		return this.metadataStore.file;
+	}
+
+	@Override
+	protected MetadataReader createMetadataReader(Resource resource) throws IOException {
+		String key = null;
+		long[] stamp = null;
+		try {
+			URL url = resource.getURL();
+			stamp = determineStamp(url);
+			key = url.toString();
+		}
+		catch (IOException ex) {
+			// No URL or file to check against - no persistent caching for this resource
+		}
+
+		if (key != null && stamp != null) {
+			ClassHeader header = this.metadataStore.entries.get(key);
+			if (header != null && header.lastModified == stamp[0] && header.length == stamp[1]) {
+				this.metadataStore.usedKeys.add(key);
+				ClassLoader classLoader = getResourceLoader().getClassLoader();
+				return new SimpleMetadataReader(resource, header.toMetadata(classLoader,
+						() -> SimpleMetadataReader.readFullMetadata(resource, classLoader)));
+			}
+		}
+
+		MetadataReader metadataReader = super.createMetadataReader(resource);
+		if (key != null && stamp != null &&
+				metadataReader.getAnnotationMetadata() instanceof SimpleAnnotationMetadata) {
+			ClassHeader header = ClassHeader.from(
+					(SimpleAnnotationMetadata) metadataReader.getAnnotationMetadata(), stamp[0], stamp[1]);
+			if (header != null) {
+				this.metadataStore.entries.put(key, header);
+				this.metadataStore.usedKeys.add(key);
+				this.metadataStore.dirty = true;
+			}
+		}
+		return metadataReader;
+	}
+
+	/**
+	 * Determine the last-modified timestamp and length that the metadata for
+	 * the given class file URL is valid for.
+	 * @return a two-element array, or {@code null} if not persistable
+	 */
+	@Nullable
+	private long[] determineStamp(URL url) throws IOException {
+		if (ResourceUtils.isFileURL(url)) {
+			return stamp(ResourceUtils.getFile(url));
+		}
+		else if (ResourceUtils.isJarURL(url)) {
+			URL archiveUrl = ResourceUtils.extractArchiveURL(url);
+			if (ResourceUtils.isFileURL(archiveUrl)) {
+				String archiveKey = archiveUrl.toString();
+				long[] stamp = this.archiveStamps.get(archiveKey);
+				if (stamp == null) {
+					stamp = stamp(ResourceUtils.getFile(archiveUrl));
+					if (stamp != null) {
+						this.archiveStamps.put(archiveKey, stamp);
+					}
+				}
+				return stamp;
+			}
+		}
+		return null;
+	}
+
+	@Nullable
+	private static long[] stamp(File file) {
+		long lastModified = file.lastModified();
+		return (lastModified != 0 ? new long[] {lastModified, file.length()} : null);
+	}
+
+	/**
+	 * Write the metadata of all class files read through this factory to the
+	 * cache file, if it differs from the content of the cache file.
+	 * <p>Entries for class files which have not been read through this factory
+	 * are dropped. The cache file is written to a temporary file first and then
+	 * moved into place, so concurrent readers never see a partially written file.
+	 * @throws IOException in case of I/O failure
+	 */
+	public void persist() throws IOException {
+		this.metadataStore.persist();
+	}
+
+	/**
+	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
+	 * <p>Metadata in the cache file remains available for subsequent reads.
+	 */
+	@Override
+	public void clearCache() {
+		super.clearCache();
+		this.archiveStamps.clear();
+	}
+
+
+	/**
+	 * Persistent entries for a cache file.
+	 */
+	private static final class MetadataStore {
+
+		private static final int MAGIC = 0x534d4443;
+
+		private static final int VERSION = 1;
+
+		final File file;
+
+		final Map<String, ClassHeader> entries = new ConcurrentHashMap<>();
+
+		/** Keys of the entries used since construction, as opposed to stale entries. */
+		final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+
+		volatile boolean dirty;
+
+		MetadataStore(File file) {
+			this.file = file;
+			if (file.isFile()) {
+				try {
+					load();
+				}
+				catch (IOException | RuntimeException ex) {
+					this.entries.clear();
+					if (logger.isDebugEnabled()) {
+						logger.debug("Ignoring unreadable metadata cache file [" + file + "]", ex);
+					}
+				}
+			}
+		}
+
+		private void load() throws IOException {
+			try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+				if (dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+					throw new IOException("Incompatible metadata cache file format");
+				}
+				String[] strings = new String[dis.readInt()];
+				for (int i = 0; i < strings.length; i++) {
+					strings[i] = dis.readUTF();
+				}
+				int entryCount = dis.readInt();
+				for (int i = 0; i < entryCount; i++) {
+					String key = strings[dis.readInt()];
+					this.entries.put(key, ClassHeader.read(dis, strings));
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + this.entries.size() + " class headers from metadata cache file [" +
+						this.file + "]");
+			}
+		}
+
+		synchronized void persist() throws IOException {
+			boolean staleEntriesRemoved = this.entries.keySet().removeIf(key -> !this.usedKeys.contains(key));
+			if (!this.dirty && !staleEntriesRemoved) {
+				return;
+			}
+			this.dirty = false;
+			Map<String, ClassHeader> entries = new LinkedHashMap<>(this.entries);
+			Map<String, Integer> stringTable = new LinkedHashMap<>();
+			for (Map.Entry<String, ClassHeader> entry : entries.entrySet()) {
+				index(stringTable, entry.getKey());
+				entry.getValue().index(stringTable);
+			}
+
+			File dir = this.file.getAbsoluteFile().getParentFile();
+			if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+				this.dirty = true;
+				throw new IOException("Cannot create directory for metadata cache file [" + this.file + "]");
+			}
+			File tempFile = File.createTempFile(this.file.getName(), ".tmp", dir);
+			try {
+				try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+					dos.writeInt(MAGIC);
+					dos.writeInt(VERSION);
+					dos.writeInt(stringTable.size());
+					for (String string : stringTable.keySet()) {
+						dos.writeUTF(string);
+					}
+					dos.writeInt(entries.size());
+					for (Map.Entry<String, ClassHeader> entry : entries.entrySet()) {
+						dos.writeInt(stringTable.get(entry.getKey()));
+						entry.getValue().write(dos, stringTable);
+					}
+				}
+				try {
+					Files.move(tempFile.toPath(), this.file.toPath(),
+							StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (AtomicMoveNotSupportedException ex) {
+					Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			catch (IOException ex) {
+				this.dirty = true;
+				Files.deleteIfExists(tempFile.toPath());
+				throw ex;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Persisted " + entries.size() + " class headers to metadata cache file [" +
+						this.file + "]");
+			}
+		}
+
+		private static void index(Map<String, Integer> stringTable, @Nullable String string) {
+			if (string != null) {
+				stringTable.putIfAbsent(string, stringTable.size());
+			}
+		}
+	}
+
+
+	/**
+	 * Classloader-independent header metadata of a class file, as persisted.
+	 */
+	private static final class ClassHeader {
+
+		final long lastModified;
+
+		final long length;
+
+		final String className;
+
+		final int access;
+
+		@Nullable
+		final String enclosingClassName;
+
+		@Nullable
+		final String superClassName;
+
+		final boolean independentInnerClass;
+
+		final String[] interfaceNames;
+
+		final String[] memberClassNames;
+
+		final String[] annotationTypeNames;
+
+		ClassHeader(long lastModified, long length, String className, int access,
+				@Nullable String enclosingClassName, @Nullable String superClassName,
+				boolean independentInnerClass, String[] interfaceNames, String[] memberClassNames,
+				String[] annotationTypeNames) {
+
+			this.lastModified = lastModified;
+			this.length = length;
+			this.className = className;
+			this.access = access;
+			this.enclosingClassName = enclosingClassName;
+			this.superClassName = superClassName;
+			this.independentInnerClass = independentInnerClass;
+			this.interfaceNames = interfaceNames;
+			this.memberClassNames = memberClassNames;
+			this.annotationTypeNames = annotationTypeNames;
+		}
+
+		SimpleAnnotationMetadata toMetadata(@Nullable ClassLoader classLoader,
+				Supplier<SimpleAnnotationMetadata> fullMetadataResolver) {
+
+			return new SimpleAnnotationMetadata(this.className, this.access, this.enclosingClassName,
+					this.superClassName, this.independentInnerClass, this.interfaceNames.clone(),
+					this.memberClassNames.clone(), classLoader, this.annotationTypeNames, fullMetadataResolver);
+		}
+
+		void index(Map<String, Integer> stringTable) {
+			MetadataStore.index(stringTable, this.className);
+			MetadataStore.index(stringTable, this.enclosingClassName);
+			MetadataStore.index(stringTable, this.superClassName);
+			for (String name : this.interfaceNames) {
+				MetadataStore.index(stringTable, name);
+			}
+			for (String name : this.memberClassNames) {
+				MetadataStore.index(stringTable, name);
+			}
+			for (String name : this.annotationTypeNames) {
+				MetadataStore.index(stringTable, name);
+			}
+		}
+
+		void write(DataOutputStream dos, Map<String, Integer> stringTable) throws IOException {
+			dos.writeLong(this.lastModified);
+			dos.writeLong(this.length);
+			dos.writeInt(stringTable.get(this.className));
+			dos.writeInt(this.access);
+			dos.writeInt(this.enclosingClassName != null ? stringTable.get(this.enclosingClassName) : -1);
+			dos.writeInt(this.superClassName != null ? stringTable.get(this.superClassName) : -1);
+			dos.writeBoolean(this.independentInnerClass);
+			writeNames(dos, this.interfaceNames, stringTable);
+			writeNames(dos, this.memberClassNames, stringTable);
+			writeNames(dos, this.annotationTypeNames, stringTable);
+		}
+
+		private static void writeNames(DataOutputStream dos, String[] names, Map<String, Integer> stringTable)
+				throws IOException {
+
+			dos.writeInt(names.length);
+			for (String name : names) {
+				dos.writeInt(stringTable.get(name));
+			}
+		}
+
+		static ClassHeader read(DataInputStream dis, String[] strings) throws IOException {
+			long lastModified = dis.readLong();
+			long length = dis.readLong();
+			String className = strings[dis.readInt()];
+			int access = dis.readInt();
+			int enclosingClassIndex = dis.readInt();
+			int superClassIndex = dis.readInt();
+			boolean independentInnerClass = dis.readBoolean();
+			return new ClassHeader(lastModified, length, className, access,
+					(enclosingClassIndex != -1 ? strings[enclosingClassIndex] : null),
+					(superClassIndex != -1 ? strings[superClassIndex] : null), independentInnerClass,
+					readNames(dis, strings), readNames(dis, strings), readNames(dis, strings));
+		}
+
+		private static String[] readNames(DataInputStream dis, String[] strings) throws IOException {
+			String[] names = new String[dis.readInt()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = strings[dis.readInt()];
+			}
+			return names;
+		}
+
+		@Nullable
+		static ClassHeader from(SimpleAnnotationMetadata metadata, long lastModified, long length) {
+			String[] annotationTypeNames = metadata.getDeclaredAnnotationTypeNames();
+			if (annotationTypeNames == null) {
+				return null;
+			}
+			return new ClassHeader(lastModified, length, metadata.getClassName(), metadata.getAccess(),
+					metadata.getEnclosingClassName(), metadata.getSuperClassName(),
+					metadata.isIndependentInnerClass(), metadata.getInterfaceNames(),
+					metadata.getMemberClassNames(), annotationTypeNames);
+		}
+	}
+
+}
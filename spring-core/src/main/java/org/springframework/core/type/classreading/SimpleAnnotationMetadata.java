@@ -16,20 +16,29 @@
 
 package org.springframework.core.type.classreading;
 
+import java.lang.annotation.Annotation;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.asm.Opcodes;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
 
 /**
  * {@link AnnotationMetadata} created from a
  * {@link SimpleAnnotationMetadataReadingVisitor}.
  *
+ * <p>When created from a header scan, annotations and annotated methods are
+ * resolved on first access, whereas presence checks for annotation types
+ * which are neither declared nor meta-present on the declared annotation
+ * types get answered without resolving the full metadata.
+ *
  * @author Phillip Webb
  * @author Sam Brannen
  * @since 5.2
@@ -52,9 +61,19 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 
 	private final String[] memberClassNames;
 
-	private final MethodMetadata[] annotatedMethods;
+	private MethodMetadata[] annotatedMethods;
+
+	private MergedAnnotations annotations;
+
+	@Nullable
+	private final ClassLoader classLoader;
 
-	private final MergedAnnotations annotations;
+	/** Names of the declared annotation types, if created from a header scan. */
+	@Nullable
+	private final String[] declaredAnnotationTypeNames;
+
+	@Nullable
+	private volatile Supplier<SimpleAnnotationMetadata> fullMetadataResolver;
 
 	@Nullable
 	private Set<String> annotationTypes;
@@ -73,6 +92,27 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 		this.memberClassNames = memberClassNames;
 		this.annotatedMethods = annotatedMethods;
 		this.annotations = annotations;
+		this.classLoader = null;
+		this.declaredAnnotationTypeNames = null;
+	}
+
+	SimpleAnnotationMetadata(String className, int access, @Nullable String enclosingClassName,
+			@Nullable String superClassName, boolean independentInnerClass, String[] interfaceNames,
+			String[] memberClassNames, @Nullable ClassLoader classLoader, String[] declaredAnnotationTypeNames,
+			Supplier<SimpleAnnotationMetadata> fullMetadataResolver) {
+
+		this.className = className;
+		this.access = access;
+		this.enclosingClassName = enclosingClassName;
+		this.superClassName = superClassName;
+		this.independentInnerClass = independentInnerClass;
+		this.interfaceNames = interfaceNames;
+		this.memberClassNames = memberClassNames;
+		this.annotatedMethods = new MethodMetadata[0];
+		this.annotations = MergedAnnotations.of(Collections.emptyList());
+		this.classLoader = classLoader;
+		this.declaredAnnotationTypeNames = declaredAnnotationTypeNames;
+		this.fullMetadataResolver = fullMetadataResolver;
 	}
 
 	@Override
@@ -129,9 +169,34 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 
 	@Override
 	public MergedAnnotations getAnnotations() {
+		resolveFullMetadata();
 		return this.annotations;
 	}
 
+	@Override
+	public boolean isAnnotated(String annotationName) {
+		if (isDefinitelyNotDeclared(annotationName) && isDefinitelyNotMetaPresent(annotationName)) {
+			return false;
+		}
+		return AnnotationMetadata.super.isAnnotated(annotationName);
+	}
+
+	@Override
+	public boolean hasAnnotation(String annotationName) {
+		if (isDefinitelyNotDeclared(annotationName)) {
+			return false;
+		}
+		return AnnotationMetadata.super.hasAnnotation(annotationName);
+	}
+
+	@Override
+	public boolean hasMetaAnnotation(String metaAnnotationName) {
+		if (isDefinitelyNotMetaPresent(metaAnnotationName)) {
+			return false;
+		}
+		return AnnotationMetadata.super.hasMetaAnnotation(metaAnnotationName);
+	}
+
 	@Override
 	public Set<String> getAnnotationTypes() {
 		Set<String> annotationTypes = this.annotationTypes;
@@ -145,6 +210,7 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 
 	@Override
 	public Set<MethodMetadata> getAnnotatedMethods(String annotationName) {
+		resolveFullMetadata();
 		Set<MethodMetadata> annotatedMethods = null;
 		for (MethodMetadata annotatedMethod : this.annotatedMethods) {
 			if (annotatedMethod.isAnnotated(annotationName)) {
@@ -157,6 +223,77 @@ final class SimpleAnnotationMetadata implements AnnotationMetadata {
 		return (annotatedMethods != null ? annotatedMethods : Collections.emptySet());
 	}
 
+	int getAccess() {
+		return this.access;
+	}
+
+	boolean isIndependentInnerClass() {
+		return this.independentInnerClass;
+	}
+
+	/**
+	 * Return the names of the declared annotation types as determined by
+	 * a header scan, or {@code null} if created from a full class file scan.
+	 */
+	@Nullable
+	String[] getDeclaredAnnotationTypeNames() {
+		return this.declaredAnnotationTypeNames;
+	}
+
+	/**
+	 * Determine whether the given annotation type is known not to be declared
+	 * on the class, based on the header scan. A {@code false} return value
+	 * requires a check against the full metadata.
+	 */
+	private boolean isDefinitelyNotDeclared(String annotationName) {
+		String[] declaredAnnotationTypeNames = this.declaredAnnotationTypeNames;
+		return (declaredAnnotationTypeNames != null && this.fullMetadataResolver != null &&
+				!ObjectUtils.containsElement(declaredAnnotationTypeNames, annotationName));
+	}
+
+	/**
+	 * Determine whether the given annotation type is known not to be present
+	 * as a meta-annotation on any declared annotation type, based on the header
+	 * scan. A {@code false} return value requires a check against the full
+	 * metadata. Declared annotation types which cannot be loaded are ignored,
+	 * just like for the full metadata.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean isDefinitelyNotMetaPresent(String annotationName) {
+		String[] declaredAnnotationTypeNames = this.declaredAnnotationTypeNames;
+		if (declaredAnnotationTypeNames == null || this.fullMetadataResolver == null) {
+			return false;
+		}
+		for (String declaredAnnotationTypeName : declaredAnnotationTypeNames) {
+			Class<? extends Annotation> annotationType;
+			try {
+				annotationType = (Class<? extends Annotation>) ClassUtils.forName(
+						declaredAnnotationTypeName, this.classLoader);
+			}
+			catch (ClassNotFoundException | LinkageError ex) {
+				continue;
+			}
+			if (MergedAnnotations.from(annotationType).isPresent(annotationName)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void resolveFullMetadata() {
+		if (this.fullMetadataResolver != null) {
+			synchronized (this) {
+				Supplier<SimpleAnnotationMetadata> fullMetadataResolver = this.fullMetadataResolver;
+				if (fullMetadataResolver != null) {
+					SimpleAnnotationMetadata fullMetadata = fullMetadataResolver.get();
+					this.annotatedMethods = fullMetadata.annotatedMethods;
+					this.annotations = fullMetadata.annotations;
+					this.fullMetadataResolver = null;
+				}
+			}
+		}
+	}
+
 
 	@Override
 	public boolean equals(@Nullable Object obj) {
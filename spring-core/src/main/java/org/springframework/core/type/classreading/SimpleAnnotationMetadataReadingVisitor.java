@@ -20,12 +20,15 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.asm.AnnotationVisitor;
 import org.springframework.asm.ClassVisitor;
 import org.springframework.asm.MethodVisitor;
 import org.springframework.asm.Opcodes;
 import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.core.annotation.AnnotationFilter;
 import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.core.type.MethodMetadata;
@@ -37,6 +40,11 @@ import org.springframework.util.StringUtils;
 /**
  * ASM class visitor that creates {@link SimpleAnnotationMetadata}.
  *
+ * <p>Can also operate in header mode, only collecting the class structure and
+ * the names of the annotation types declared on the class, with annotations
+ * and annotated methods resolved on demand through a given full metadata
+ * resolver.
+ *
  * @author Phillip Webb
  * @since 5.2
  */
@@ -65,6 +73,11 @@ final class SimpleAnnotationMetadataReadingVisitor extends ClassVisitor {
 
 	private List<SimpleMethodMetadata> annotatedMethods = new ArrayList<>();
 
+	@Nullable
+	private final Supplier<SimpleAnnotationMetadata> fullMetadataResolver;
+
+	private final List<String> annotationTypeNames = new ArrayList<>(4);
+
 	@Nullable
 	private SimpleAnnotationMetadata metadata;
 
@@ -75,6 +88,22 @@ final class SimpleAnnotationMetadataReadingVisitor extends ClassVisitor {
 	SimpleAnnotationMetadataReadingVisitor(@Nullable ClassLoader classLoader) {
 		super(SpringAsmInfo.ASM_VERSION);
 		this.classLoader = classLoader;
+		this.fullMetadataResolver = null;
+	}
+
+	/**
+	 * Create a visitor in header mode.
+	 * @param classLoader the ClassLoader to resolve annotation types with
+	 * @param fullMetadataResolver resolver for the full metadata of the class,
+	 * called once annotations or annotated methods are actually requested
+	 * @since 5.3.14
+	 */
+	SimpleAnnotationMetadataReadingVisitor(@Nullable ClassLoader classLoader,
+			Supplier<SimpleAnnotationMetadata> fullMetadataResolver) {
+
+		super(SpringAsmInfo.ASM_VERSION);
+		this.classLoader = classLoader;
+		this.fullMetadataResolver = fullMetadataResolver;
 	}
 
 
@@ -116,6 +145,16 @@ final class SimpleAnnotationMetadataReadingVisitor extends ClassVisitor {
 	@Override
 	@Nullable
 	public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+		if (this.fullMetadataResolver != null) {
+			// Header mode: only keep the names of candidate annotation types
+			if (visible) {
+				String typeName = Type.getType(descriptor).getClassName();
+				if (!AnnotationFilter.PLAIN.matches(typeName)) {
+					this.annotationTypeNames.add(typeName);
+				}
+			}
+			return null;
+		}
 		return MergedAnnotationReadingVisitor.get(this.classLoader, getSource(),
 				descriptor, visible, this.annotations::add);
 	}
@@ -128,7 +167,8 @@ final class SimpleAnnotationMetadataReadingVisitor extends ClassVisitor {
 		// Skip bridge methods - we're only interested in original
 		// annotation-defining user methods. On JDK 8, we'd otherwise run into
 		// double detection of the same annotated method...
-		if (isBridge(access)) {
+		// In header mode, annotated methods are resolved on demand.
+		if (isBridge(access) || this.fullMetadataResolver != null) {
 			return null;
 		}
 		return new SimpleMethodMetadataReadingVisitor(this.classLoader, this.className,
@@ -138,6 +178,13 @@ final class SimpleAnnotationMetadataReadingVisitor extends ClassVisitor {
 	@Override
 	public void visitEnd() {
 		String[] memberClassNames = StringUtils.toStringArray(this.memberClassNames);
+		if (this.fullMetadataResolver != null) {
+			this.metadata = new SimpleAnnotationMetadata(this.className, this.access,
+					this.enclosingClassName, this.superClassName, this.independentInnerClass,
+					this.interfaceNames, memberClassNames, this.classLoader,
+					StringUtils.toStringArray(this.annotationTypeNames), this.fullMetadataResolver);
+			return;
+		}
 		MethodMetadata[] annotatedMethods = this.annotatedMethods.toArray(new MethodMetadata[0]);
 		MergedAnnotations annotations = MergedAnnotations.of(this.annotations);
 		this.metadata = new SimpleAnnotationMetadata(this.className, this.access,
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,26 @@
 
 package org.springframework.core.type.classreading;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
 
 import org.springframework.asm.ClassReader;
 import org.springframework.core.NestedIOException;
+import org.springframework.core.io.AbstractFileResolvingResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.ClassMetadata;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StreamUtils;
 
 /**
  * {@link MetadataReader} implementation based on an ASM
@@ -45,22 +56,111 @@ final class SimpleMetadataReader implements MetadataReader {
 
 
 	SimpleMetadataReader(Resource resource, @Nullable ClassLoader classLoader) throws IOException {
-		SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
-		getClassReader(resource).accept(visitor, PARSING_OPTIONS);
+		// Header scan first: full annotation and method metadata only gets
+		// resolved for classes which actually need it, e.g. matching components.
+		// The class file gets read again for that, rather than retaining its
+		// content for the lifetime of the cached header metadata.
+		ClassReader classReader = getClassReader(resource);
+		SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(
+				classLoader, () -> readFullMetadata(resource, classLoader));
+		classReader.accept(visitor, PARSING_OPTIONS);
 		this.resource = resource;
 		this.annotationMetadata = visitor.getMetadata();
 	}
 
+	SimpleMetadataReader(Resource resource, SimpleAnnotationMetadata annotationMetadata) {
+		this.resource = resource;
+		this.annotationMetadata = annotationMetadata;
+	}
+
+	/**
+	 * Read the full annotation metadata from the given class file resource,
+	 * for header metadata that does not retain the content of the class file.
+	 */
+	static SimpleAnnotationMetadata readFullMetadata(Resource resource, @Nullable ClassLoader classLoader) {
+		try {
+			return readFullMetadata(getClassReader(resource), classLoader);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read class file for full metadata: " + resource, ex);
+		}
+	}
+
+	private static SimpleAnnotationMetadata readFullMetadata(ClassReader classReader, @Nullable ClassLoader classLoader) {
+		SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
+		classReader.accept(visitor, PARSING_OPTIONS);
+		return visitor.getMetadata();
+	}
+
 	private static ClassReader getClassReader(Resource resource) throws IOException {
-		try (InputStream is = resource.getInputStream()) {
-			try {
-				return new ClassReader(is);
+		byte[] classFile = readClassFile(resource);
+		try {
+			return new ClassReader(classFile);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new NestedIOException("ASM ClassReader failed to parse class file - " +
+					"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
+		}
+	}
+
+	/**
+	 * Read the content of the given class file resource in one go, sized
+	 * upfront for files in the file system as well as for jar entries.
+	 * Falls back to plain stream copying if the size is not known.
+	 */
+	private static byte[] readClassFile(Resource resource) throws IOException {
+		if (resource.isFile()) {
+			File file = resource.getFile();
+			try (FileChannel channel = new FileInputStream(file).getChannel()) {
+				long size = channel.size();
+				if (size > 0 && size < Integer.MAX_VALUE) {
+					ByteBuffer buffer = ByteBuffer.allocate((int) size);
+					while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+						// keep reading until the expected size has been reached
+					}
+					if (!buffer.hasRemaining() && channel.position() == channel.size()) {
+						return buffer.array();
+					}
+				}
 			}
-			catch (IllegalArgumentException ex) {
-				throw new NestedIOException("ASM ClassReader failed to parse class file - " +
-						"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
+		}
+		else if (resource instanceof AbstractFileResolvingResource && ResourceUtils.isJarURL(resource.getURL())) {
+			URLConnection con = resource.getURL().openConnection();
+			ResourceUtils.useCachesIfNecessary(con);
+			long size = (con instanceof JarURLConnection ? getEntrySize((JarURLConnection) con) : -1);
+			try (InputStream is = con.getInputStream()) {
+				return (size >= 0 && size < Integer.MAX_VALUE ? readFully(is, (int) size) :
+						StreamUtils.copyToByteArray(is));
 			}
 		}
+		try (InputStream is = resource.getInputStream()) {
+			return StreamUtils.copyToByteArray(is);
+		}
+	}
+
+	private static long getEntrySize(JarURLConnection jarCon) throws IOException {
+		JarEntry entry = jarCon.getJarEntry();
+		return (entry != null ? entry.getSize() : -1);
+	}
+
+	private static byte[] readFully(InputStream is, int size) throws IOException {
+		byte[] bytes = new byte[size];
+		int offset = 0;
+		int bytesRead;
+		while (offset < size && (bytesRead = is.read(bytes, offset, size - offset)) != -1) {
+			offset += bytesRead;
+		}
+		if (offset < size) {
+			return Arrays.copyOf(bytes, offset);
+		}
+		byte[] remaining = StreamUtils.copyToByteArray(is);
+		if (remaining.length > 0) {
+			// Entry larger than declared: append whatever is left
+			byte[] result = Arrays.copyOf(bytes, size + remaining.length);
+			System.arraycopy(remaining, 0, result, size, remaining.length);
+			return result;
+		}
+		return bytes;
 	}
 
 
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cglib.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.FixedValue;
+import org.springframework.cglib.proxy.NoOp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PregeneratedClasses}.
+ */
+class PregeneratedClassesTests {
+
+	@AfterEach
+	void reset() {
+		PregeneratedClasses.setOutputDirectory(null);
+		PregeneratedClasses.setLoadingEnabled(false);
+	}
+
+
+	@Test
+	void generatedClassIsWrittenUnderDeterministicName(@TempDir Path directory) throws IOException {
+		PregeneratedClasses.setOutputDirectory(directory.toFile());
+
+		Class<?> proxyClass = createEnhancer(WrittenTarget.class, 1).createClass();
+		assertThat(proxyClass.getName()).matches(".*\\$\\$[0-9a-f]{32}");
+		File file = new File(directory.toFile(), proxyClass.getName().replace('.', File.separatorChar) + ".class");
+		assertThat(file).isFile();
+		assertThat(Files.readAllBytes(file.toPath())).startsWith((byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE);
+
+		Class<?> sameProxyClass = createEnhancer(WrittenTarget.class, 1).createClass();
+		assertThat(sameProxyClass.getName()).isEqualTo(proxyClass.getName() + "_2");
+		Class<?> otherProxyClass = createEnhancer(WrittenTarget.class, 0).createClass();
+		assertThat(otherProxyClass.getName()).doesNotStartWith(proxyClass.getName());
+	}
+
+	@Test
+	void pregeneratedClassIsLoaded(@TempDir Path directory) throws Exception {
+		PregeneratedClasses.setOutputDirectory(directory.toFile());
+		String className = createEnhancer(LoadedTarget.class, 1).createClass().getName();
+		PregeneratedClasses.setOutputDirectory(null);
+		PregeneratedClasses.setLoadingEnabled(true);
+
+		PregeneratedClassLoader classLoader = new PregeneratedClassLoader(directory.toFile());
+		Enhancer enhancer = createEnhancer(LoadedTarget.class, 1);
+		enhancer.setClassLoader(classLoader);
+		Class<?> proxyClass = enhancer.createClass();
+		assertThat(proxyClass.getName()).isEqualTo(className);
+		assertThat(proxyClass.getClassLoader()).isSameAs(classLoader);
+		assertThat(classLoader.loadedClassName).isEqualTo(className);
+
+		Enhancer.registerCallbacks(proxyClass, new Callback[] {NoOp.INSTANCE, (FixedValue) () -> "fixed"});
+		LoadedTarget proxy = (LoadedTarget) proxyClass.getDeclaredConstructor().newInstance();
+		assertThat(proxy.getValue()).isEqualTo("fixed");
+		assertThat(proxy.toString()).isEqualTo("target");
+	}
+
+
+	@Test
+	void mismatchingPregeneratedClassIsGeneratedAgain(@TempDir Path directory) throws Exception {
+		PregeneratedClasses.setOutputDirectory(directory.toFile());
+		String className = createEnhancer(LoadedTarget.class, 1).createClass().getName();
+		// Same superclass, different callback types, e.g. from an outdated build
+		Class<?> outdatedClass = createEnhancer(LoadedTarget.class, 1, NoOp.class).createClass();
+		PregeneratedClasses.setOutputDirectory(null);
+		PregeneratedClasses.setLoadingEnabled(true);
+
+		ClassLoader classLoader = new ClassLoader(PregeneratedClassesTests.class.getClassLoader()) {
+			@Override
+			protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+				return (name.equals(className) ? outdatedClass : super.loadClass(name, resolve));
+			}
+		};
+		Enhancer enhancer = createEnhancer(LoadedTarget.class, 1);
+		enhancer.setClassLoader(classLoader);
+		Class<?> proxyClass = enhancer.createClass();
+		assertThat(proxyClass).isNotSameAs(outdatedClass);
+		assertThat(proxyClass.getName()).isNotEqualTo(className);
+
+		Enhancer.registerCallbacks(proxyClass, new Callback[] {NoOp.INSTANCE, (FixedValue) () -> "fixed"});
+		LoadedTarget proxy = (LoadedTarget) proxyClass.getDeclaredConstructor().newInstance();
+		assertThat(proxy.getValue()).isEqualTo("fixed");
+	}
+
+
+	@Test
+	void classNotNamedByDigestIsNotLoaded() {
+		PregeneratedClasses.setLoadingEnabled(true);
+		List<String> requestedClassNames = new ArrayList<>();
+		ClassLoader classLoader = new ClassLoader(PregeneratedClassesTests.class.getClassLoader()) {
+			@Override
+			protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+				requestedClassNames.add(name);
+				return super.loadClass(name, resolve);
+			}
+		};
+		// Key factory classes are named by their key, not by a digest of the configuration
+		KeyFactory keyFactory = KeyFactory.create(classLoader, TestKey.class, null);
+		assertThat(requestedClassNames).doesNotContain(keyFactory.getClass().getName());
+	}
+
+
+	private static Enhancer createEnhancer(Class<?> superclass, int valueCallback) {
+		return createEnhancer(superclass, valueCallback, FixedValue.class);
+	}
+
+	private static Enhancer createEnhancer(Class<?> superclass, int valueCallback, Class<?> valueCallbackType) {
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(superclass);
+		enhancer.setUseCache(false);
+		enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+		enhancer.setCallbackTypes(new Class<?>[] {NoOp.class, valueCallbackType});
+		enhancer.setCallbackFilter(method -> (method.getName().equals("getValue") ? valueCallback : 0));
+		return enhancer;
+	}
+
+
+	public interface TestKey {
+
+		Object newInstance(String value);
+	}
+
+
+	public static class WrittenTarget {
+
+		public String getValue() {
+			return "value";
+		}
+	}
+
+
+	public static class LoadedTarget {
+
+		public String getValue() {
+			return "value";
+		}
+
+		@Override
+		public String toString() {
+			return "target";
+		}
+	}
+
+
+	private static class PregeneratedClassLoader extends ClassLoader {
+
+		private final File directory;
+
+		String loadedClassName;
+
+		PregeneratedClassLoader(File directory) {
+			super(PregeneratedClassesTests.class.getClassLoader());
+			this.directory = directory;
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			File file = new File(this.directory, name.replace('.', File.separatorChar) + ".class");
+			if (!file.isFile()) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> loadedClass = findLoadedClass(name);
+				if (loadedClass == null) {
+					try {
+						byte[] bytes = Files.readAllBytes(file.toPath());
+						loadedClass = defineClass(name, bytes, 0, bytes.length);
+						this.loadedClassName = name;
+					}
+					catch (IOException ex) {
+						throw new ClassNotFoundException(name, ex);
+					}
+				}
+				return loadedClass;
+			}
+		}
+	}
+
+}
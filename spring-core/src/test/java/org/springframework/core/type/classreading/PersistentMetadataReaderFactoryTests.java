@@ -0,0 +1,235 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link PersistentMetadataReaderFactory}.
+ *
+ * @since 5.3.14
+ */
+class PersistentMetadataReaderFactoryTests {
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	void restoreHeaderFromCacheFile() throws Exception {
+		Path classFile = copyClassFile(AnnotatedComponent.class, "Component.class");
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		assertAnnotatedComponent(factory.getMetadataReader(new FileSystemResource(classFile)));
+		factory.persist();
+		assertThat(cacheFile).isFile();
+
+		assertAnnotatedComponent(createFactory(cacheFile).getMetadataReader(new FileSystemResource(classFile)));
+	}
+
+	@Test
+	void restoreHeaderWithoutReadingClassFile() throws Exception {
+		Path classFile = copyClassFile(AnnotatedComponent.class, "Component.class");
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.persist();
+
+		// Same size and timestamp but unreadable content: only full metadata needs the class file
+		long lastModified = classFile.toFile().lastModified();
+		byte[] garbage = new byte[(int) Files.size(classFile)];
+		Arrays.fill(garbage, (byte) 1);
+		Files.write(classFile, garbage);
+		assertThat(classFile.toFile().setLastModified(lastModified)).isTrue();
+
+		AnnotationMetadata metadata = createFactory(cacheFile)
+				.getMetadataReader(new FileSystemResource(classFile)).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(AnnotatedComponent.class.getName());
+		assertThat(metadata.getInterfaceNames()).containsExactly(Runnable.class.getName());
+		assertThat(metadata.hasAnnotation(OtherMarker.class.getName())).isFalse();
+		assertThatIllegalStateException().isThrownBy(() -> metadata.hasAnnotatedMethods(Marker.class.getName()));
+	}
+
+	@Test
+	void invalidateOnModifiedClassFile() throws Exception {
+		Path classFile = copyClassFile(AnnotatedComponent.class, "Component.class");
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.persist();
+
+		long lastModified = classFile.toFile().lastModified();
+		copyClassFile(PlainClass.class, "Component.class");
+		assertThat(classFile.toFile().setLastModified(lastModified + 2000)).isTrue();
+
+		MetadataReader metadataReader = createFactory(cacheFile).getMetadataReader(new FileSystemResource(classFile));
+		assertThat(metadataReader.getClassMetadata().getClassName()).isEqualTo(PlainClass.class.getName());
+	}
+
+	@Test
+	void restoreHeaderFromJar() throws Exception {
+		Path jar = this.tempDir.resolve("test.jar");
+		String entryName = AnnotatedComponent.class.getName().replace('.', '/') + ".class";
+		try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(jar));
+				InputStream is = new ClassPathResource(entryName).getInputStream()) {
+			jos.putNextEntry(new JarEntry(entryName));
+			copy(is, jos);
+			jos.closeEntry();
+		}
+		Resource resource = new UrlResource("jar:" + jar.toUri() + "!/" + entryName);
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		assertAnnotatedComponent(factory.getMetadataReader(resource));
+		factory.persist();
+		assertAnnotatedComponent(createFactory(cacheFile).getMetadataReader(resource));
+	}
+
+	@Test
+	void ignoreCorruptCacheFile() throws Exception {
+		Path classFile = copyClassFile(AnnotatedComponent.class, "Component.class");
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+		Files.write(cacheFile.toPath(), new byte[] {1, 2, 3});
+
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		assertAnnotatedComponent(factory.getMetadataReader(new FileSystemResource(classFile)));
+		factory.persist();
+		assertThat(cacheFile.length()).isGreaterThan(3);
+		assertAnnotatedComponent(createFactory(cacheFile).getMetadataReader(new FileSystemResource(classFile)));
+	}
+
+	@Test
+	void dropEntriesNotReadSinceConstruction() throws Exception {
+		Path classFile = copyClassFile(AnnotatedComponent.class, "Component.class");
+		Path otherClassFile = copyClassFile(PlainClass.class, "Other.class");
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+		PersistentMetadataReaderFactory factory = createFactory(cacheFile);
+		factory.getMetadataReader(new FileSystemResource(classFile));
+		factory.getMetadataReader(new FileSystemResource(otherClassFile));
+		factory.persist();
+
+		factory = createFactory(cacheFile);
+		assertAnnotatedComponent(factory.getMetadataReader(new FileSystemResource(classFile)));
+		factory.persist();
+
+		// Same size and timestamp but unreadable content: no longer restored from the cache file
+		long lastModified = otherClassFile.toFile().lastModified();
+		byte[] garbage = new byte[(int) Files.size(otherClassFile)];
+		Arrays.fill(garbage, (byte) 1);
+		Files.write(otherClassFile, garbage);
+		assertThat(otherClassFile.toFile().setLastModified(lastModified)).isTrue();
+
+		PersistentMetadataReaderFactory restoringFactory = createFactory(cacheFile);
+		assertAnnotatedComponent(restoringFactory.getMetadataReader(new FileSystemResource(classFile)));
+		assertThatIOException().isThrownBy(() ->
+				restoringFactory.getMetadataReader(new FileSystemResource(otherClassFile)));
+	}
+
+	@Test
+	void persistWithoutNewMetadata() throws Exception {
+		File cacheFile = this.tempDir.resolve("metadata.cache").toFile();
+		createFactory(cacheFile).persist();
+		assertThat(cacheFile).doesNotExist();
+	}
+
+
+	private PersistentMetadataReaderFactory createFactory(File cacheFile) {
+		return new PersistentMetadataReaderFactory(new DefaultResourceLoader(getClass().getClassLoader()), cacheFile);
+	}
+
+	private Path copyClassFile(Class<?> clazz, String fileName) throws Exception {
+		Path classFile = this.tempDir.resolve(fileName);
+		try (InputStream is = new ClassPathResource(clazz.getName().replace('.', '/') + ".class").getInputStream()) {
+			Files.copy(is, classFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return classFile;
+	}
+
+	private static void copy(InputStream is, OutputStream os) throws Exception {
+		byte[] buffer = new byte[4096];
+		int bytesRead;
+		while ((bytesRead = is.read(buffer)) != -1) {
+			os.write(buffer, 0, bytesRead);
+		}
+	}
+
+	private static void assertAnnotatedComponent(MetadataReader metadataReader) {
+		AnnotationMetadata metadata = metadataReader.getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(AnnotatedComponent.class.getName());
+		assertThat(metadata.getEnclosingClassName()).isEqualTo(PersistentMetadataReaderFactoryTests.class.getName());
+		assertThat(metadata.isIndependent()).isTrue();
+		assertThat(metadata.isAbstract()).isFalse();
+		assertThat(metadata.getSuperClassName()).isEqualTo(Object.class.getName());
+		assertThat(metadata.getInterfaceNames()).containsExactly(Runnable.class.getName());
+		assertThat(metadata.hasAnnotation(Marker.class.getName())).isTrue();
+		assertThat(metadata.hasAnnotation(OtherMarker.class.getName())).isFalse();
+		assertThat(metadata.getAnnotationAttributes(Marker.class.getName())).containsEntry("value", "test");
+		assertThat(metadata.hasAnnotatedMethods(Marker.class.getName())).isTrue();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Marker {
+
+		String value() default "";
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface OtherMarker {
+	}
+
+
+	@Marker("test")
+	static class AnnotatedComponent implements Runnable {
+
+		@Marker
+		@Override
+		public void run() {
+		}
+	}
+
+
+	static class PlainClass {
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AnnotationMetadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for reading class files through {@link SimpleMetadataReader}
+ * and {@link CachingMetadataReaderFactory}, including the header scan
+ * of {@link SimpleAnnotationMetadata}.
+ *
+ * @since 5.3.14
+ */
+class SimpleMetadataReaderTests {
+
+	private static final String CLASS_FILE = ClassPathResource.class.getName().replace('.', '/') + ".class";
+
+	private final SimpleMetadataReaderFactory metadataReaderFactory = new SimpleMetadataReaderFactory();
+
+
+	@Test
+	void readFromFileSystem(@TempDir Path tempDir) throws Exception {
+		Path classFile = tempDir.resolve("ClassPathResource.class");
+		try (InputStream is = new ClassPathResource(CLASS_FILE).getInputStream()) {
+			Files.copy(is, classFile);
+		}
+		assertClassName(new FileSystemResource(classFile));
+		assertClassName(new UrlResource(classFile.toUri()));
+	}
+
+	@Test
+	void readFromJar(@TempDir Path tempDir) throws Exception {
+		Path jar = createJar(tempDir);
+		assertClassName(new UrlResource("jar:" + jar.toUri() + "!/" + CLASS_FILE));
+	}
+
+	@Test
+	void readMissingJarEntry(@TempDir Path tempDir) throws Exception {
+		Path jar = createJar(tempDir);
+		Resource resource = new UrlResource("jar:" + jar.toUri() + "!/org/example/Missing.class");
+		assertThatExceptionOfType(FileNotFoundException.class).isThrownBy(() ->
+				this.metadataReaderFactory.getMetadataReader(resource));
+	}
+
+	@Test
+	void readMissingFile(@TempDir Path tempDir) {
+		Resource resource = new FileSystemResource(tempDir.resolve("Missing.class"));
+		assertThatExceptionOfType(FileNotFoundException.class).isThrownBy(() ->
+				this.metadataReaderFactory.getMetadataReader(resource));
+	}
+
+	@Test
+	void concurrentReadsWithLocalCacheShareReader() throws Exception {
+		CachingMetadataReaderFactory cachingFactory = new CachingMetadataReaderFactory(getClass().getClassLoader());
+		Resource resource = new ClassPathResource(CLASS_FILE);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<MetadataReader>> tasks = IntStream.range(0, 16)
+					.<Callable<MetadataReader>>mapToObj(i -> () -> cachingFactory.getMetadataReader(resource))
+					.collect(Collectors.toList());
+			MetadataReader expected = cachingFactory.getMetadataReader(resource);
+			for (Future<MetadataReader> future : executor.invokeAll(tasks)) {
+				assertThat(future.get()).isSameAs(expected);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void headerScanAnswersAnnotationChecks() throws Exception {
+		AnnotationMetadata metadata = this.metadataReaderFactory
+				.getMetadataReader(AnnotatedClass.class.getName()).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(AnnotatedClass.class.getName());
+		assertThat(metadata.isIndependent()).isTrue();
+		assertThat(metadata.hasAnnotation(ComposedAnnotation.class.getName())).isTrue();
+		assertThat(metadata.hasAnnotation(MetaAnnotation.class.getName())).isFalse();
+		assertThat(metadata.hasAnnotation(OtherAnnotation.class.getName())).isFalse();
+		assertThat(metadata.hasMetaAnnotation(MetaAnnotation.class.getName())).isTrue();
+		assertThat(metadata.hasMetaAnnotation(ComposedAnnotation.class.getName())).isFalse();
+		assertThat(metadata.hasMetaAnnotation(OtherAnnotation.class.getName())).isFalse();
+		assertThat(metadata.isAnnotated(MetaAnnotation.class.getName())).isTrue();
+		assertThat(metadata.isAnnotated(OtherAnnotation.class.getName())).isFalse();
+		assertThat(metadata.isAnnotated(Retention.class.getName())).isFalse();
+	}
+
+	@Test
+	void headerScanResolvesFullMetadataOnDemand() throws Exception {
+		AnnotationMetadata metadata = this.metadataReaderFactory
+				.getMetadataReader(AnnotatedClass.class.getName()).getAnnotationMetadata();
+		assertThat(metadata.getAnnotationAttributes(ComposedAnnotation.class.getName()))
+				.containsEntry("value", "composed");
+		assertThat(metadata.getAnnotationTypes()).containsExactly(ComposedAnnotation.class.getName());
+		assertThat(metadata.getAnnotatedMethods(OtherAnnotation.class.getName())).hasSize(1);
+		assertThat(metadata.hasAnnotatedMethods(MetaAnnotation.class.getName())).isFalse();
+		assertThat(metadata.hasMetaAnnotation(MetaAnnotation.class.getName())).isTrue();
+	}
+
+	@Test
+	void headerScanWithoutAnnotations() throws Exception {
+		AnnotationMetadata metadata = this.metadataReaderFactory
+				.getMetadataReader(SimpleMetadataReaderTests.class.getName()).getAnnotationMetadata();
+		assertThat(metadata.isAnnotated(ComposedAnnotation.class.getName())).isFalse();
+		assertThat(metadata.hasMetaAnnotation(MetaAnnotation.class.getName())).isFalse();
+		assertThat(metadata.getAnnotationTypes()).isEmpty();
+		assertThat(metadata.getMemberClassNames()).contains(AnnotatedClass.class.getName());
+	}
+
+	private void assertClassName(Resource resource) throws Exception {
+		MetadataReader metadataReader = this.metadataReaderFactory.getMetadataReader(resource);
+		assertThat(metadataReader.getClassMetadata().getClassName()).isEqualTo(ClassPathResource.class.getName());
+		assertThat(metadataReader.getResource()).isSameAs(resource);
+	}
+
+	private static Path createJar(Path tempDir) throws Exception {
+		Path jar = tempDir.resolve("classes.jar");
+		try (OutputStream os = Files.newOutputStream(jar); JarOutputStream jos = new JarOutputStream(os);
+				InputStream is = new ClassPathResource(CLASS_FILE).getInputStream()) {
+			jos.putNextEntry(new JarEntry(CLASS_FILE));
+			byte[] buffer = new byte[4096];
+			int bytesRead;
+			while ((bytesRead = is.read(buffer)) != -1) {
+				jos.write(buffer, 0, bytesRead);
+			}
+			jos.closeEntry();
+		}
+		return jar;
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface MetaAnnotation {
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@MetaAnnotation
+	@interface ComposedAnnotation {
+
+		String value();
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface OtherAnnotation {
+	}
+
+
+	@ComposedAnnotation("composed")
+	static class AnnotatedClass {
+
+		@OtherAnnotation
+		public void annotatedMethod() {
+		}
+	}
+
+}
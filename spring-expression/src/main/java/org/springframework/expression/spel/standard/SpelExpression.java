@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -537,6 +537,15 @@ public class SpelExpression implements Expression {
 		}
 	}
 
+	/**
+	 * Determine whether this expression is currently evaluated in compiled form.
+	 * @since 5.3.14
+	 * @see #compileExpression()
+	 */
+	public boolean isCompiled() {
+		return (this.compiledAst != null);
+	}
+
 	/**
 	 * Cause an expression to revert to being interpreted if it has been using a compiled
 	 * form. It also resets the compilation attempt failure count (an expression is normally no
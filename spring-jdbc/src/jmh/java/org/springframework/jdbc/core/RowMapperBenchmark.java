@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark comparing the mapping of a row through {@link BeanPropertyRowMapper},
+ * {@link DataClassRowMapper} and {@link BytecodeRowMapper}, for a bean with
+ * setters and a data class with a constructor.
+ *
+ * @see BytecodeRowMapper
+ */
+@BenchmarkMode(Mode.Throughput)
+public class RowMapperBenchmark {
+
+	private static final String[] COLUMNS = {"name", "age", "birth_date", "balance", "active"};
+
+	private static final Object[] VALUES = {"Bubba", 22L, new Timestamp(1221222L), new BigDecimal("1234.56"), true};
+
+
+	@State(Scope.Benchmark)
+	public static class MapperState {
+
+		@Param({"reflective", "generated"})
+		public String mapperType;
+
+		public ResultSet resultSet;
+
+		public RowMapper<Person> beanMapper;
+
+		public RowMapper<PersonRecord> dataClassMapper;
+
+		@Setup
+		public void setup() {
+			this.resultSet = resultSet();
+			if ("generated".equals(this.mapperType)) {
+				this.beanMapper = new BytecodeRowMapper<>(Person.class);
+				this.dataClassMapper = new BytecodeRowMapper<>(PersonRecord.class);
+			}
+			else {
+				this.beanMapper = new BeanPropertyRowMapper<>(Person.class);
+				this.dataClassMapper = new DataClassRowMapper<>(PersonRecord.class);
+			}
+		}
+	}
+
+	@Benchmark
+	public Person beanProperties(MapperState state) throws SQLException {
+		return state.beanMapper.mapRow(state.resultSet, 1);
+	}
+
+	@Benchmark
+	public PersonRecord dataClass(MapperState state) throws SQLException {
+		return state.dataClassMapper.mapRow(state.resultSet, 1);
+	}
+
+
+	/**
+	 * Return a ResultSet positioned on a single row of {@link #VALUES}.
+	 */
+	private static ResultSet resultSet() {
+		ClassLoader classLoader = RowMapperBenchmark.class.getClassLoader();
+		ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(classLoader,
+				new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+					if (method.getName().equals("getColumnCount")) {
+						return COLUMNS.length;
+					}
+					return COLUMNS[(Integer) args[0] - 1];
+				});
+		return (ResultSet) Proxy.newProxyInstance(classLoader, new Class<?>[] {ResultSet.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getMetaData":
+							return metaData;
+						case "wasNull":
+							return false;
+						case "findColumn":
+							for (int i = 0; i < COLUMNS.length; i++) {
+								if (COLUMNS[i].equalsIgnoreCase((String) args[0])) {
+									return i + 1;
+								}
+							}
+							throw new SQLException("Column not found: " + args[0]);
+						default:
+							return VALUES[(Integer) args[0] - 1];
+					}
+				});
+	}
+
+
+	public static class Person {
+
+		private String name;
+
+		private long age;
+
+		private java.util.Date birthDate;
+
+		private BigDecimal balance;
+
+		private boolean active;
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public void setAge(long age) {
+			this.age = age;
+		}
+
+		public void setBirthDate(java.util.Date birthDate) {
+			this.birthDate = birthDate;
+		}
+
+		public void setBalance(BigDecimal balance) {
+			this.balance = balance;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+
+	public static class PersonRecord {
+
+		final String name;
+
+		final long age;
+
+		final java.util.Date birthDate;
+
+		final BigDecimal balance;
+
+		final boolean active;
+
+		public PersonRecord(String name, long age, java.util.Date birthDate, BigDecimal balance, boolean active) {
+			this.name = name;
+			this.age = age;
+			this.birthDate = birthDate;
+			this.balance = balance;
+			this.active = active;
+		}
+	}
+
+}
@@ -248,6 +248,16 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		}
 	}
 
+	/**
+	 * Return the bean property that the given field name is mapped to, if any.
+	 * @param field the field name, as derived from a column name
+	 * @since 5.3.14
+	 */
+	@Nullable
+	PropertyDescriptor getMappedField(String field) {
+		return (this.mappedFields != null ? this.mappedFields.get(field) : null);
+	}
+
 	/**
 	 * Convert the given name to lower case.
 	 * By default, conversions will happen within the US locale.
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.beans.TypeConverter;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.KotlinDetector;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link RowMapper} implementation that converts a row into a new instance
+ * of the specified mapped target class, following the same rules as
+ * {@link DataClassRowMapper} and {@link BeanPropertyRowMapper} but using
+ * a generated mapper class instead of a {@link BeanWrapper} per row.
+ *
+ * <p>The mapping of columns to constructor parameters and bean properties is
+ * resolved once per shape of the result set, i.e. per sequence of column
+ * names, and compiled into a mapper class invoking the constructor and the
+ * setter methods directly. Values for common types such as String, numeric
+ * primitives and their wrappers, BigDecimal, date and time types and byte
+ * arrays are retrieved through the corresponding typed {@link ResultSet}
+ * getters; any other value is retrieved through
+ * {@link #getColumnValue(ResultSet, int, Class)} and converted through the
+ * configured {@link ConversionService}, if necessary.
+ *
+ * <p>Falls back to the standard mapping of {@link DataClassRowMapper} if the
+ * mapped class or any of its mapped members is not public, for Kotlin
+ * classes, when {@linkplain #setCheckFullyPopulated checking that all
+ * properties are populated}, and for subclasses customizing the mapping
+ * through {@link #constructMappedInstance}, {@link #initBeanWrapper} or
+ * {@code getColumnValue}.
+ *
+ * @since 5.3.14
+ * @param <T> the result type
+ * @see BeanPropertyRowMapper
+ * @see DataClassRowMapper
+ */
+public class BytecodeRowMapper<T> extends DataClassRowMapper<T> {
+
+	/** The maximum number of result set shapes to keep a mapping for. */
+	private static final int SHAPE_CACHE_LIMIT = 32;
+
+
+	/** Whether the mapped class qualifies for a generated mapper. */
+	private boolean generatable;
+
+	private final Map<List<String>, RowMapping> rowMappingCache = new ConcurrentHashMap<>();
+
+	@Nullable
+	private volatile RowMapping lastRowMapping;
+
+
+	/**
+	 * Create a new {@code BytecodeRowMapper} for bean-style configuration.
+	 * @see #setMappedClass
+	 * @see #setConversionService
+	 */
+	public BytecodeRowMapper() {
+	}
+
+	/**
+	 * Create a new {@code BytecodeRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public BytecodeRowMapper(Class<T> mappedClass) {
+		super(mappedClass);
+	}
+
+
+	@Override
+	protected void initialize(Class<T> mappedClass) {
+		super.initialize(mappedClass);
+		this.generatable = isGeneratable(mappedClass);
+	}
+
+	private boolean isGeneratable(Class<T> mappedClass) {
+		Constructor<T> constructor = getMappedConstructor();
+		if (constructor == null || !Modifier.isPublic(constructor.getModifiers()) ||
+				!BytecodeRowMapperGenerator.isAccessible(mappedClass) ||
+				Modifier.isAbstract(mappedClass.getModifiers()) || ClassUtils.isInnerClass(mappedClass) ||
+				(KotlinDetector.isKotlinReflectPresent() && KotlinDetector.isKotlinType(mappedClass))) {
+			return false;
+		}
+		// Customized mapping steps are only available through the standard mapping
+		return (isDeclaredByStandardMapper("constructMappedInstance", ResultSet.class, TypeConverter.class) &&
+				isDeclaredByStandardMapper("initBeanWrapper", BeanWrapper.class) &&
+				isDeclaredByStandardMapper("getColumnValue", ResultSet.class, int.class, PropertyDescriptor.class) &&
+				isDeclaredByStandardMapper("getColumnValue", ResultSet.class, int.class, Class.class));
+	}
+
+	private boolean isDeclaredByStandardMapper(String methodName, Class<?>... parameterTypes) {
+		Method method = ReflectionUtils.findMethod(getClass(), methodName, parameterTypes);
+		return (method != null && (method.getDeclaringClass() == BeanPropertyRowMapper.class ||
+				method.getDeclaringClass() == DataClassRowMapper.class));
+	}
+
+
+	/**
+	 * Map the current row through the generated mapper for the shape of the
+	 * given result set, falling back to the standard mapping if not applicable.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		RowMapping rowMapping = getRowMapping(rs);
+		if (rowMapping == null || rowMapping.generatedMapper == null) {
+			return super.mapRow(rs, rowNumber);
+		}
+		return (T) rowMapping.generatedMapper.mapRow(rs, rowNumber);
+	}
+
+	@Nullable
+	private RowMapping getRowMapping(ResultSet rs) throws SQLException {
+		if (!this.generatable || isCheckFullyPopulated()) {
+			return null;
+		}
+		ResultSetMetaData rsmd = rs.getMetaData();
+		RowMapping rowMapping = this.lastRowMapping;
+		if (rowMapping != null && rowMapping.matches(rsmd)) {
+			return rowMapping;
+		}
+		String[] columns = new String[rsmd.getColumnCount()];
+		for (int index = 1; index <= columns.length; index++) {
+			columns[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+		}
+		List<String> cacheKey = Arrays.asList(columns);
+		rowMapping = this.rowMappingCache.get(cacheKey);
+		if (rowMapping == null) {
+			rowMapping = createRowMapping(rs, columns);
+			if (this.rowMappingCache.size() < SHAPE_CACHE_LIMIT) {
+				this.rowMappingCache.put(cacheKey, rowMapping);
+			}
+		}
+		this.lastRowMapping = rowMapping;
+		return rowMapping;
+	}
+
+	private RowMapping createRowMapping(ResultSet rs, String[] columns) throws SQLException {
+		String[] parameterNames = getConstructorParameterNames();
+		TypeDescriptor[] parameterTypes = getConstructorParameterTypes();
+		int[] parameterColumns = new int[parameterNames != null ? parameterNames.length : 0];
+		for (int i = 0; i < parameterColumns.length; i++) {
+			parameterColumns[i] = rs.findColumn(underscoreName(parameterNames[i]));
+		}
+
+		List<PropertyDescriptor> properties = new ArrayList<>();
+		List<Integer> propertyColumns = new ArrayList<>();
+		for (int index = 1; index <= columns.length; index++) {
+			String field = lowerCaseName(StringUtils.delete(columns[index - 1], " "));
+			PropertyDescriptor pd = getMappedField(field);
+			if (pd != null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + columns[index - 1] + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+				}
+				properties.add(pd);
+				propertyColumns.add(index);
+			}
+		}
+
+		RowMapping rowMapping = new RowMapping(this, columns, parameterColumns,
+				(parameterTypes != null ? parameterTypes : new TypeDescriptor[0]),
+				properties.toArray(new PropertyDescriptor[0]),
+				propertyColumns.stream().mapToInt(Integer::intValue).toArray());
+		rowMapping.generatedMapper = BytecodeRowMapperGenerator.createMapper(rowMapping);
+		return rowMapping;
+	}
+
+
+	/**
+	 * Static factory method to create a new {@code BytecodeRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @see #newInstance(Class, ConversionService)
+	 */
+	public static <T> BytecodeRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new BytecodeRowMapper<>(mappedClass);
+	}
+
+	/**
+	 * Static factory method to create a new {@code BytecodeRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param conversionService the {@link ConversionService} for binding
+	 * JDBC values to bean properties, or {@code null} for none
+	 * @see #newInstance(Class)
+	 * @see #setConversionService
+	 */
+	public static <T> BytecodeRowMapper<T> newInstance(
+			Class<T> mappedClass, @Nullable ConversionService conversionService) {
+
+		BytecodeRowMapper<T> rowMapper = newInstance(mappedClass);
+		rowMapper.setConversionService(conversionService);
+		return rowMapper;
+	}
+
+
+	/**
+	 * The resolved mapping of the columns of a given result set shape to the
+	 * constructor parameters and bean properties of the mapped class.
+	 * <p>Public for access by generated mappers only; not intended for
+	 * use in application code.
+	 */
+	public static final class RowMapping {
+
+		final BytecodeRowMapper<?> rowMapper;
+
+		final Class<?> mappedClass;
+
+		final Constructor<?> constructor;
+
+		private final String[] columns;
+
+		final int[] parameterColumns;
+
+		final TypeDescriptor[] parameterTypes;
+
+		final PropertyDescriptor[] properties;
+
+		final int[] propertyColumns;
+
+		@Nullable
+		private final TypeDescriptor[] propertyTypes;
+
+		@Nullable
+		RowMapper<?> generatedMapper;
+
+		RowMapping(BytecodeRowMapper<?> rowMapper, String[] columns, int[] parameterColumns,
+				TypeDescriptor[] parameterTypes, PropertyDescriptor[] properties, int[] propertyColumns) {
+
+			Class<?> mappedClass = rowMapper.getMappedClass();
+			Constructor<?> constructor = rowMapper.getMappedConstructor();
+			if (mappedClass == null || constructor == null) {
+				throw new IllegalStateException("Mapped class was not specified");
+			}
+			this.rowMapper = rowMapper;
+			this.mappedClass = mappedClass;
+			this.constructor = constructor;
+			this.columns = columns;
+			this.parameterColumns = parameterColumns;
+			this.parameterTypes = parameterTypes;
+			this.properties = properties;
+			this.propertyColumns = propertyColumns;
+			this.propertyTypes = new TypeDescriptor[properties.length];
+		}
+
+		boolean matches(ResultSetMetaData rsmd) throws SQLException {
+			if (rsmd.getColumnCount() != this.columns.length) {
+				return false;
+			}
+			for (int index = 1; index <= this.columns.length; index++) {
+				if (!this.columns[index - 1].equals(JdbcUtils.lookupColumnName(rsmd, index))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Retrieve the value for the given constructor parameter, converted
+		 * to the parameter type if necessary.
+		 * @param rs the ResultSet to map (pre-initialized for the current row)
+		 * @param parameterIndex the index of the constructor parameter
+		 * @return the argument value (the default value for a primitive
+		 * parameter if the column value is {@code null})
+		 */
+		@Nullable
+		public Object getConstructorArgument(ResultSet rs, int parameterIndex) throws SQLException {
+			TypeDescriptor td = this.parameterTypes[parameterIndex];
+			Object value = this.rowMapper.getColumnValue(rs, this.parameterColumns[parameterIndex], td.getType());
+			value = convertIfNecessary(value, td);
+			if (value == null && td.getType().isPrimitive()) {
+				// Default value for the primitive type, as applied by BeanUtils.instantiateClass
+				return Array.get(Array.newInstance(td.getType(), 1), 0);
+			}
+			return value;
+		}
+
+		/**
+		 * Retrieve the value for the given mapped property, converted to the
+		 * property type if necessary.
+		 * @param rs the ResultSet to map (pre-initialized for the current row)
+		 * @param propertyIndex the index of the mapped property
+		 * @param mappedObject the object to populate
+		 * @param rowNumber the number of the current row
+		 * @return the property value, or {@code null} to leave a primitive
+		 * property unpopulated for a {@code null} column value
+		 * @see #handleNullValue
+		 */
+		@Nullable
+		public Object getPropertyValue(ResultSet rs, int propertyIndex, Object mappedObject, int rowNumber)
+				throws SQLException {
+
+			PropertyDescriptor pd = this.properties[propertyIndex];
+			Object value = this.rowMapper.getColumnValue(rs, this.propertyColumns[propertyIndex], pd);
+			if (value == null && pd.getPropertyType().isPrimitive()) {
+				handleNullValue(mappedObject, propertyIndex, rowNumber);
+				return null;
+			}
+			return convertIfNecessary(value, getPropertyType(propertyIndex));
+		}
+
+		/**
+		 * Handle a {@code null} column value for the given primitive property,
+		 * either leaving the property unpopulated or throwing an exception,
+		 * depending on {@link #setPrimitivesDefaultedForNullValue}.
+		 * @param mappedObject the object to populate
+		 * @param propertyIndex the index of the mapped property
+		 * @param rowNumber the number of the current row
+		 * @throws TypeMismatchException if primitives are not defaulted
+		 */
+		public void handleNullValue(Object mappedObject, int propertyIndex, int rowNumber) {
+			PropertyDescriptor pd = this.properties[propertyIndex];
+			TypeMismatchException ex = new TypeMismatchException(
+					new PropertyChangeEvent(mappedObject, pd.getName(), null, null), pd.getPropertyType());
+			if (!this.rowMapper.isPrimitivesDefaultedForNullValue()) {
+				throw ex;
+			}
+			if (this.rowMapper.logger.isDebugEnabled()) {
+				this.rowMapper.logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+						" and column '" + this.columns[this.propertyColumns[propertyIndex] - 1] +
+						"' with null value when setting property '" + pd.getName() + "' of type '" +
+						ClassUtils.getQualifiedName(pd.getPropertyType()) + "' on object: " + mappedObject, ex);
+			}
+		}
+
+		private TypeDescriptor getPropertyType(int propertyIndex) {
+			TypeDescriptor td = this.propertyTypes[propertyIndex];
+			if (td == null) {
+				td = new TypeDescriptor(BeanUtils.getWriteMethodParameter(this.properties[propertyIndex]));
+				this.propertyTypes[propertyIndex] = td;
+			}
+			return td;
+		}
+
+		@Nullable
+		private Object convertIfNecessary(@Nullable Object value, TypeDescriptor td) {
+			if (value != null && td.getObjectType().isInstance(value)) {
+				return value;
+			}
+			// Type converters are not thread-safe: use a fresh one for each conversion
+			SimpleTypeConverter typeConverter = new SimpleTypeConverter();
+			typeConverter.setConversionService(this.rowMapper.getConversionService());
+			return typeConverter.convertIfNecessary(value, td.getType(), td);
+		}
+	}
+
+}
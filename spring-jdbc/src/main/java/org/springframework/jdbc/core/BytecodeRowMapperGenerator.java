@@ -0,0 +1,506 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates mapper classes for {@link BytecodeRowMapper}, each implementing
+ * {@link RowMapper} for a given {@link BytecodeRowMapper.RowMapping}.
+ *
+ * <p>A generated mapper retrieves the values of common types through the
+ * typed {@link ResultSet} getters, delegating to its {@code RowMapping} for
+ * any other value, and invokes the constructor and setter methods of the
+ * mapped class directly. Mapper classes are shared by all mapping instances
+ * with the same constructor, columns and properties, and defined in a child
+ * class loader of the class loader of the mapped class. That child class loader
+ * gets replaced after a number of definitions, along with its mapper classes,
+ * analogous to compiled SpEL expressions.
+ *
+ * @since 5.3.14
+ * @see BytecodeRowMapper
+ */
+final class BytecodeRowMapperGenerator implements Opcodes {
+
+	private static final int CLASSES_DEFINED_LIMIT = 100;
+
+	private static final Log logger = LogFactory.getLog(BytecodeRowMapperGenerator.class);
+
+	private static final String ROW_MAPPING_TYPE = Type.getInternalName(BytecodeRowMapper.RowMapping.class);
+
+	private static final String ROW_MAPPING_DESCRIPTOR = Type.getDescriptor(BytecodeRowMapper.RowMapping.class);
+
+	private static final String RESULT_SET_TYPE = Type.getInternalName(ResultSet.class);
+
+	private static final String ROW_MAPPING_FIELD = "rowMapping";
+
+	/** ResultSet getter method per type retrieved directly. */
+	private static final Map<Class<?>, Method> resultSetGetters = new HashMap<>(32);
+
+	// A generator is created for each class loader, managing a child class loader of it
+	private static final Map<ClassLoader, BytecodeRowMapperGenerator> generators = new ConcurrentReferenceHashMap<>();
+
+	static {
+		registerGetter("getString", String.class);
+		registerGetter("getBoolean", boolean.class, Boolean.class);
+		registerGetter("getByte", byte.class, Byte.class);
+		registerGetter("getShort", short.class, Short.class);
+		registerGetter("getInt", int.class, Integer.class);
+		registerGetter("getLong", long.class, Long.class);
+		registerGetter("getFloat", float.class, Float.class);
+		registerGetter("getDouble", double.class, Double.class);
+		registerGetter("getBigDecimal", BigDecimal.class);
+		registerGetter("getDate", java.sql.Date.class);
+		registerGetter("getTime", java.sql.Time.class);
+		registerGetter("getTimestamp", java.sql.Timestamp.class, java.util.Date.class);
+		registerGetter("getBytes", byte[].class);
+	}
+
+	private static void registerGetter(String methodName, Class<?>... types) {
+		Method getter = ReflectionUtils.findMethod(ResultSet.class, methodName, int.class);
+		Assert.state(getter != null, () -> "No ResultSet method " + methodName);
+		for (Class<?> type : types) {
+			resultSetGetters.put(type, getter);
+		}
+	}
+
+
+	// The child ClassLoader used to load the generated mapper classes
+	private volatile ChildClassLoader childClassLoader;
+
+	private final AtomicInteger suffixId = new AtomicInteger();
+
+
+	private BytecodeRowMapperGenerator(ClassLoader classLoader) {
+		this.childClassLoader = new ChildClassLoader(classLoader);
+	}
+
+
+	/**
+	 * Determine whether the given type is accessible from generated code,
+	 * i.e. whether it is public (or an array of a public type).
+	 */
+	static boolean isAccessible(Class<?> type) {
+		Class<?> typeToCheck = type;
+		while (typeToCheck.isArray()) {
+			typeToCheck = typeToCheck.getComponentType();
+		}
+		// Nested classes are accessible from bytecode based on their own modifiers
+		return (typeToCheck.isPrimitive() || Modifier.isPublic(typeToCheck.getModifiers()));
+	}
+
+	/**
+	 * Create a mapper for the given row mapping, generating its class if necessary.
+	 * @param rowMapping the resolved row mapping
+	 * @return the generated mapper, or {@code null} if the mapping does not
+	 * qualify for generation (in which case the standard mapping has to be used)
+	 */
+	@Nullable
+	static RowMapper<?> createMapper(BytecodeRowMapper.RowMapping rowMapping) {
+		ClassLoader classLoader = rowMapping.mappedClass.getClassLoader();
+		if (classLoader == null || !ClassUtils.isVisible(BytecodeRowMapper.RowMapping.class, classLoader)) {
+			return null;
+		}
+		BytecodeRowMapperGenerator generator = generators.get(classLoader);
+		if (generator == null) {
+			// Full lock now since we're creating a child ClassLoader
+			synchronized (generators) {
+				generator = generators.computeIfAbsent(classLoader, BytecodeRowMapperGenerator::new);
+			}
+		}
+		Object mapperClass = generator.getMapperClass(rowMapping);
+		if (!(mapperClass instanceof Constructor)) {
+			return null;
+		}
+		try {
+			return (RowMapper<?>) ((Constructor<?>) mapperClass).newInstance(rowMapping);
+		}
+		catch (Throwable ex) {
+			throw new IllegalStateException("Failed to instantiate generated row mapper", ex);
+		}
+	}
+
+	private static List<Object> getCacheKey(BytecodeRowMapper.RowMapping rowMapping) {
+		List<Object> key = new ArrayList<>(1 + rowMapping.parameterColumns.length + rowMapping.properties.length * 3);
+		key.add(rowMapping.constructor);
+		for (int column : rowMapping.parameterColumns) {
+			key.add(column);
+		}
+		for (int i = 0; i < rowMapping.properties.length; i++) {
+			key.add(rowMapping.properties[i].getWriteMethod());
+			key.add(rowMapping.properties[i].getPropertyType());
+			key.add(rowMapping.propertyColumns[i]);
+		}
+		return key;
+	}
+
+	private Object getMapperClass(BytecodeRowMapper.RowMapping rowMapping) {
+		List<Object> key = getCacheKey(rowMapping);
+		ChildClassLoader ccl = this.childClassLoader;
+		Object mapperClass = ccl.mapperClasses.get(key);
+		if (mapperClass == null) {
+			ChildClassLoader cclToUse = getChildClassLoaderForDefinition(ccl);
+			mapperClass = cclToUse.mapperClasses.computeIfAbsent(key, k -> createMapperClass(cclToUse, rowMapping));
+		}
+		return mapperClass;
+	}
+
+	/**
+	 * Return the child class loader to define a new mapper class with. Makes sure
+	 * that a class loader isn't used too much: it anchors all of its mapper classes
+	 * in memory, whereas the mapper classes of a replaced one can be garbage
+	 * collected once no mapper instance refers to them anymore.
+	 * @param ccl the current child class loader
+	 * @return the given class loader or its replacement
+	 */
+	private ChildClassLoader getChildClassLoaderForDefinition(ChildClassLoader ccl) {
+		if (ccl.getClassesDefinedCount() >= CLASSES_DEFINED_LIMIT) {
+			synchronized (this) {
+				ChildClassLoader currentCcl = this.childClassLoader;
+				if (ccl == currentCcl) {
+					// Still the same ClassLoader that needs to be replaced...
+					ccl = new ChildClassLoader(ccl.getParent());
+					this.childClassLoader = ccl;
+				}
+				else {
+					// Already replaced by some other thread, let's pick it up.
+					ccl = currentCcl;
+				}
+			}
+		}
+		return ccl;
+	}
+
+	private Object createMapperClass(ChildClassLoader ccl, BytecodeRowMapper.RowMapping rowMapping) {
+		if (!isVisible(rowMapping)) {
+			return Boolean.FALSE;
+		}
+		try {
+			String className = "spring/jdbc/RowMapper" + this.suffixId.incrementAndGet();
+			Class<?> mapperClass = ccl.defineClass(
+					className.replace('/', '.'), generateMapperClass(className, rowMapping));
+			return mapperClass.getConstructor(BytecodeRowMapper.RowMapping.class);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate row mapper for " + rowMapping.mappedClass +
+						" - falling back to standard mapping", ex);
+			}
+			return Boolean.FALSE;
+		}
+	}
+
+	/**
+	 * Determine whether all types in the signatures of the constructor and
+	 * setter methods to invoke are accessible from the generated mapper.
+	 */
+	private boolean isVisible(BytecodeRowMapper.RowMapping rowMapping) {
+		ClassLoader classLoader = this.childClassLoader.getParent();
+		List<Class<?>> types = new ArrayList<>();
+		types.add(rowMapping.mappedClass);
+		for (Class<?> parameterType : rowMapping.constructor.getParameterTypes()) {
+			types.add(parameterType);
+		}
+		for (PropertyDescriptor pd : rowMapping.properties) {
+			Method writeMethod = pd.getWriteMethod();
+			if (writeMethod == null || !Modifier.isPublic(writeMethod.getModifiers())) {
+				return false;
+			}
+			types.add(writeMethod.getParameterTypes()[0]);
+			types.add(writeMethod.getReturnType());
+		}
+		for (Class<?> type : types) {
+			if (!isAccessible(type) || (!type.isPrimitive() && !ClassUtils.isVisible(type, classLoader))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	private static byte[] generateMapperClass(String className, BytecodeRowMapper.RowMapping rowMapping) {
+		ClassWriter cw = new MapperClassWriter();
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null,
+				"java/lang/Object", new String[] {Type.getInternalName(RowMapper.class)});
+		cw.visitField(ACC_PRIVATE | ACC_FINAL, ROW_MAPPING_FIELD, ROW_MAPPING_DESCRIPTOR, null, null).visitEnd();
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(" + ROW_MAPPING_DESCRIPTOR + ")V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, className, ROW_MAPPING_FIELD, ROW_MAPPING_DESCRIPTOR);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+
+		// Object mapRow(ResultSet rs, int rowNum): mapped object in slot 3, arguments from slot 4
+		mv = cw.visitMethod(ACC_PUBLIC, "mapRow", "(L" + RESULT_SET_TYPE + ";I)Ljava/lang/Object;",
+				null, new String[] {"java/sql/SQLException"});
+		mv.visitCode();
+		String mappedType = Type.getInternalName(rowMapping.mappedClass);
+		Class<?>[] parameterTypes = rowMapping.constructor.getParameterTypes();
+		int slot = 4;
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Class<?> parameterType = parameterTypes[i];
+			Type type = Type.getType(parameterType);
+			if (resultSetGetters.containsKey(parameterType)) {
+				generateGetValue(mv, parameterType, rowMapping.parameterColumns[i], slot);
+				mv.visitVarInsn(type.getOpcode(ISTORE), slot);
+				if (parameterType.isPrimitive()) {
+					// A null value for a primitive parameter is left to the standard conversion
+					Label notNull = new Label();
+					mv.visitVarInsn(ALOAD, 1);
+					mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_TYPE, "wasNull", "()Z", true);
+					mv.visitJumpInsn(IFEQ, notNull);
+					generateGetConstructorArgument(mv, className, parameterType, i);
+					mv.visitVarInsn(type.getOpcode(ISTORE), slot);
+					mv.visitLabel(notNull);
+				}
+			}
+			else {
+				generateGetConstructorArgument(mv, className, parameterType, i);
+				mv.visitVarInsn(type.getOpcode(ISTORE), slot);
+			}
+			slot += type.getSize();
+		}
+		mv.visitTypeInsn(NEW, mappedType);
+		mv.visitInsn(DUP);
+		slot = 4;
+		for (Class<?> parameterType : parameterTypes) {
+			Type type = Type.getType(parameterType);
+			mv.visitVarInsn(type.getOpcode(ILOAD), slot);
+			slot += type.getSize();
+		}
+		mv.visitMethodInsn(INVOKESPECIAL, mappedType, "<init>",
+				Type.getConstructorDescriptor(rowMapping.constructor), false);
+		mv.visitVarInsn(ASTORE, 3);
+
+		// Properties: reusing the argument slots for temporary values
+		for (int i = 0; i < rowMapping.properties.length; i++) {
+			generateSetProperty(mv, className, mappedType, rowMapping.properties[i], i, rowMapping.propertyColumns[i]);
+		}
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void generateSetProperty(MethodVisitor mv, String className, String mappedType,
+			PropertyDescriptor pd, int propertyIndex, int column) {
+
+		Method writeMethod = pd.getWriteMethod();
+		Class<?> parameterType = writeMethod.getParameterTypes()[0];
+		Class<?> propertyType = pd.getPropertyType();
+		Label next = new Label();
+
+		if (propertyType.isPrimitive()) {
+			Type type = Type.getType(propertyType);
+			Label set = new Label();
+			if (resultSetGetters.containsKey(propertyType)) {
+				generateGetValue(mv, propertyType, column, 4);
+				mv.visitVarInsn(type.getOpcode(ISTORE), 4);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_TYPE, "wasNull", "()Z", true);
+				mv.visitJumpInsn(IFEQ, set);
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitFieldInsn(GETFIELD, className, ROW_MAPPING_FIELD, ROW_MAPPING_DESCRIPTOR);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitLdcInsn(propertyIndex);
+				mv.visitVarInsn(ILOAD, 2);
+				mv.visitMethodInsn(INVOKEVIRTUAL, ROW_MAPPING_TYPE, "handleNullValue",
+						"(Ljava/lang/Object;II)V", false);
+				mv.visitJumpInsn(GOTO, next);
+				mv.visitLabel(set);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(type.getOpcode(ILOAD), 4);
+			}
+			else {
+				generateGetPropertyValue(mv, className, propertyIndex);
+				mv.visitVarInsn(ASTORE, 4);
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitJumpInsn(IFNULL, next);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(ALOAD, 4);
+				unboxOrCast(mv, propertyType);
+			}
+		}
+		else {
+			mv.visitVarInsn(ALOAD, 3);
+			if (resultSetGetters.containsKey(propertyType)) {
+				generateGetValue(mv, propertyType, column, 4);
+			}
+			else {
+				generateGetPropertyValue(mv, className, propertyIndex);
+				unboxOrCast(mv, parameterType);
+			}
+		}
+
+		mv.visitMethodInsn(INVOKEVIRTUAL, mappedType, writeMethod.getName(),
+				Type.getMethodDescriptor(writeMethod), false);
+		Class<?> returnType = writeMethod.getReturnType();
+		if (returnType != void.class) {
+			mv.visitInsn(Type.getType(returnType).getSize() == 2 ? POP2 : POP);
+		}
+		mv.visitLabel(next);
+	}
+
+	private static void generateGetConstructorArgument(
+			MethodVisitor mv, String className, Class<?> parameterType, int parameterIndex) {
+
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, className, ROW_MAPPING_FIELD, ROW_MAPPING_DESCRIPTOR);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitLdcInsn(parameterIndex);
+		mv.visitMethodInsn(INVOKEVIRTUAL, ROW_MAPPING_TYPE, "getConstructorArgument",
+				"(L" + RESULT_SET_TYPE + ";I)Ljava/lang/Object;", false);
+		unboxOrCast(mv, parameterType);
+	}
+
+	private static void generateGetPropertyValue(MethodVisitor mv, String className, int propertyIndex) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, className, ROW_MAPPING_FIELD, ROW_MAPPING_DESCRIPTOR);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitLdcInsn(propertyIndex);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitMethodInsn(INVOKEVIRTUAL, ROW_MAPPING_TYPE, "getPropertyValue",
+				"(L" + RESULT_SET_TYPE + ";ILjava/lang/Object;I)Ljava/lang/Object;", false);
+	}
+
+	/**
+	 * Generate the retrieval of a value of the given type through the typed
+	 * ResultSet getter, as {@code JdbcUtils.getResultSetValue} would do:
+	 * wrapper values are {@code null} if the column value was {@code null}.
+	 * @param tempSlot a local variable slot for the primitive value of a wrapper
+	 */
+	private static void generateGetValue(MethodVisitor mv, Class<?> type, int column, int tempSlot) {
+		Method getter = resultSetGetters.get(type);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitLdcInsn(column);
+		mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_TYPE, getter.getName(), Type.getMethodDescriptor(getter), true);
+		if (ClassUtils.isPrimitiveWrapper(type)) {
+			Type primitive = Type.getType(getter.getReturnType());
+			Label notNull = new Label();
+			Label end = new Label();
+			mv.visitVarInsn(primitive.getOpcode(ISTORE), tempSlot);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_TYPE, "wasNull", "()Z", true);
+			mv.visitJumpInsn(IFEQ, notNull);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitJumpInsn(GOTO, end);
+			mv.visitLabel(notNull);
+			mv.visitVarInsn(primitive.getOpcode(ILOAD), tempSlot);
+			box(mv, getter.getReturnType());
+			mv.visitLabel(end);
+		}
+	}
+
+	private static void unboxOrCast(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(CHECKCAST, wrapper);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+		}
+		else if (type != Object.class) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> primitiveType) {
+		String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(primitiveType));
+		mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf",
+				"(" + Type.getDescriptor(primitiveType) + ")L" + wrapper + ";", false);
+	}
+
+
+	/**
+	 * ClassWriter computing stack map frames; the generated code never needs
+	 * to determine a common super class of the types involved.
+	 */
+	private static class MapperClassWriter extends ClassWriter {
+
+		MapperClassWriter() {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+		}
+
+		@Override
+		protected String getCommonSuperClass(String type1, String type2) {
+			return "java/lang/Object";
+		}
+	}
+
+
+	/**
+	 * A ChildClassLoader will load the generated mapper classes,
+	 * keeping track of the mapper classes defined by it.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		/** Mapper constructor per cache key, or {@code Boolean.FALSE} if not generated. */
+		final Map<List<Object>, Object> mapperClasses = new ConcurrentHashMap<>();
+
+		private final AtomicInteger classesDefinedCount = new AtomicInteger();
+
+		public ChildClassLoader(ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			Class<?> clazz = super.defineClass(name, bytes, 0, bytes.length);
+			this.classesDefinedCount.incrementAndGet();
+			return clazz;
+		}
+
+		public int getClassesDefinedCount() {
+			return this.classesDefinedCount.get();
+		}
+	}
+
+}
@@ -90,6 +90,35 @@ public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
 		}
 	}
 
+	/**
+	 * Return the constructor to instantiate the mapped class with.
+	 * @since 5.3.14
+	 */
+	@Nullable
+	Constructor<T> getMappedConstructor() {
+		return this.mappedConstructor;
+	}
+
+	/**
+	 * Return the names of the constructor parameters,
+	 * or {@code null} for a no-arg constructor.
+	 * @since 5.3.14
+	 */
+	@Nullable
+	String[] getConstructorParameterNames() {
+		return this.constructorParameterNames;
+	}
+
+	/**
+	 * Return the types of the constructor parameters,
+	 * or {@code null} for a no-arg constructor.
+	 * @since 5.3.14
+	 */
+	@Nullable
+	TypeDescriptor[] getConstructorParameterTypes() {
+		return this.constructorParameterTypes;
+	}
+
 	@Override
 	protected T constructMappedInstance(ResultSet rs, TypeConverter tc) throws SQLException  {
 		Assert.state(this.mappedConstructor != null, "Mapped constructor was not initialized");
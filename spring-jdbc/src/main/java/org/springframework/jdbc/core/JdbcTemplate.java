@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -120,6 +120,12 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private int fetchSize = -1;
 
+	/**
+	 * If this variable is set to a value other than -1, it will be used for setting the
+	 * fetchSize property on statements used for streaming query processing.
+	 */
+	private int streamingFetchSize = -1;
+
 	/**
 	 * If this variable is set to a non-negative value, it will be used for setting the
 	 * maxRows property on statements used for query processing.
@@ -227,6 +233,35 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.fetchSize;
 	}
 
+	/**
+	 * Set the fetch size for streaming queries, overriding the general
+	 * {@link #setFetchSize fetch size} for the statements behind the
+	 * {@code queryForStream} methods, which are typically used for results
+	 * too large to be held in memory at once.
+	 * <p>Common choices are a moderate value such as 1000, or a driver-specific
+	 * value enabling cursor-based fetching: e.g. {@code Integer.MIN_VALUE} for
+	 * row-by-row streaming with MySQL. Note that PostgreSQL only uses a cursor
+	 * for a positive fetch size within a transaction, i.e. with auto-commit
+	 * turned off.
+	 * <p>Default is -1, indicating to apply the general fetch size setting.
+	 * Streaming statements are created forward-only and read-only, as per
+	 * the JDBC defaults.
+	 * @since 5.3.14
+	 * @see #queryForStream(String, RowMapper, Object...)
+	 * @see #applyStreamingStatementSettings
+	 */
+	public void setStreamingFetchSize(int streamingFetchSize) {
+		this.streamingFetchSize = streamingFetchSize;
+	}
+
+	/**
+	 * Return the fetch size specified for streaming queries.
+	 * @since 5.3.14
+	 */
+	public int getStreamingFetchSize() {
+		return this.streamingFetchSize;
+	}
+
 	/**
 	 * Set the maximum number of rows for this JdbcTemplate. This is important for
 	 * processing subsets of large result sets, avoiding to read and hold the entire
@@ -480,13 +515,14 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		class StreamStatementCallback implements StatementCallback<Stream<T>>, SqlProvider {
 			@Override
 			public Stream<T> doInStatement(Statement stmt) throws SQLException {
+				applyStreamingStatementSettings(stmt);
 				ResultSet rs = stmt.executeQuery(sql);
 				Connection con = stmt.getConnection();
-				return new ResultSetSpliterator<>(rs, rowMapper).stream().onClose(() -> {
+				return new ResultSetSpliterator<>(rs, rowMapper, () -> {
 					JdbcUtils.closeResultSet(rs);
 					JdbcUtils.closeStatement(stmt);
 					DataSourceUtils.releaseConnection(con, getDataSource());
-				});
+				}).stream();
 			}
 			@Override
 			public String getSql() {
@@ -832,19 +868,20 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			RowMapper<T> rowMapper) throws DataAccessException {
 
 		return result(execute(psc, ps -> {
+			applyStreamingStatementSettings(ps);
 			if (pss != null) {
 				pss.setValues(ps);
 			}
 			ResultSet rs = ps.executeQuery();
 			Connection con = ps.getConnection();
-			return new ResultSetSpliterator<>(rs, rowMapper).stream().onClose(() -> {
+			return new ResultSetSpliterator<>(rs, rowMapper, () -> {
 				JdbcUtils.closeResultSet(rs);
 				if (pss instanceof ParameterDisposer) {
 					((ParameterDisposer) pss).cleanupParameters();
 				}
 				JdbcUtils.closeStatement(ps);
 				DataSourceUtils.releaseConnection(con, getDataSource());
-			});
+			}).stream();
 		}, false));
 	}
 
@@ -1470,6 +1507,22 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		DataSourceUtils.applyTimeout(stmt, getDataSource(), getQueryTimeout());
 	}
 
+	/**
+	 * Prepare the given JDBC Statement for a streaming query, applying the
+	 * {@link #setStreamingFetchSize streaming fetch size} on top of the
+	 * {@link #applyStatementSettings common statement settings}.
+	 * @param stmt the JDBC Statement to prepare
+	 * @throws SQLException if thrown by JDBC API
+	 * @since 5.3.14
+	 * @see #setStreamingFetchSize
+	 */
+	protected void applyStreamingStatementSettings(Statement stmt) throws SQLException {
+		int streamingFetchSize = getStreamingFetchSize();
+		if (streamingFetchSize != -1) {
+			stmt.setFetchSize(streamingFetchSize);
+		}
+	}
+
 	/**
 	 * Create a new arg-based PreparedStatementSetter using the args passed in.
 	 * <p>By default, we'll create an {@link ArgumentPreparedStatementSetter}.
@@ -1702,6 +1755,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 	/**
 	 * Spliterator for queryForStream adaptation of a ResultSet to a Stream.
+	 * <p>As of 5.3.14, releases the underlying JDBC resources as soon as the
+	 * ResultSet has been fully read or reading it failed, in addition to
+	 * releasing them when the Stream gets closed.
 	 * @since 5.3
 	 */
 	private static class ResultSetSpliterator<T> implements Spliterator<T> {
@@ -1710,25 +1766,41 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 		private final RowMapper<T> rowMapper;
 
+		private final Runnable resourceRelease;
+
 		private int rowNum = 0;
 
-		public ResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper) {
+		private boolean released;
+
+		public ResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper, Runnable resourceRelease) {
 			this.rs = rs;
 			this.rowMapper = rowMapper;
+			this.resourceRelease = resourceRelease;
 		}
 
 		@Override
 		public boolean tryAdvance(Consumer<? super T> action) {
+			if (this.released) {
+				return false;
+			}
+			T row;
 			try {
-				if (this.rs.next()) {
-					action.accept(this.rowMapper.mapRow(this.rs, this.rowNum++));
-					return true;
+				if (!this.rs.next()) {
+					release();
+					return false;
 				}
-				return false;
+				row = this.rowMapper.mapRow(this.rs, this.rowNum++);
 			}
 			catch (SQLException ex) {
+				release();
 				throw new InvalidResultSetAccessException(ex);
 			}
+			catch (RuntimeException | Error ex) {
+				release();
+				throw ex;
+			}
+			action.accept(row);
+			return true;
 		}
 
 		@Override
@@ -1747,8 +1819,15 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			return Spliterator.ORDERED;
 		}
 
+		private void release() {
+			if (!this.released) {
+				this.released = true;
+				this.resourceRelease.run();
+			}
+		}
+
 		public Stream<T> stream() {
-			return StreamSupport.stream(this, false);
+			return StreamSupport.stream(this, false).onClose(this::release);
 		}
 	}
 
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Adapter exposing the streaming queries of {@link JdbcOperations} as Reactor
+ * {@link Flux} instances, for exporting results too large to be held in memory.
+ *
+ * <p>Rows are read from the underlying {@code queryForStream} result on demand,
+ * i.e. no more rows are fetched from the JDBC driver than requested downstream
+ * (plus whatever the driver prefetches according to the
+ * {@link JdbcTemplate#setStreamingFetchSize streaming fetch size}). Since JDBC
+ * access is blocking, each query runs on the given {@link Scheduler}, by default
+ * {@link Schedulers#boundedElastic()}. The JDBC resources are released as soon
+ * as the Flux completes, fails, or gets cancelled.
+ *
+ * <p>Note that each subscription executes the query on a scheduler thread,
+ * outside of any thread-bound transaction of the subscribing thread: the query
+ * uses a Connection of its own unless the scheduler propagates transactional
+ * state, e.g. through a
+ * {@link org.springframework.transaction.support.TransactionSynchronizationContextDecorator}.
+ *
+ * @since 5.3.14
+ * @see JdbcOperations#queryForStream(String, RowMapper, Object...)
+ * @see JdbcTemplate#setStreamingFetchSize
+ */
+public class StreamingQueryAdapter {
+
+	private final JdbcOperations jdbcOperations;
+
+	private final Scheduler scheduler;
+
+
+	/**
+	 * Create a new StreamingQueryAdapter for the given {@link JdbcOperations},
+	 * running queries on {@link Schedulers#boundedElastic()}.
+	 * @param jdbcOperations the JdbcOperations to delegate to
+	 */
+	public StreamingQueryAdapter(JdbcOperations jdbcOperations) {
+		this(jdbcOperations, Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Create a new StreamingQueryAdapter for the given {@link JdbcOperations}.
+	 * @param jdbcOperations the JdbcOperations to delegate to
+	 * @param scheduler the Scheduler to run blocking JDBC access on
+	 */
+	public StreamingQueryAdapter(JdbcOperations jdbcOperations, Scheduler scheduler) {
+		Assert.notNull(jdbcOperations, "JdbcOperations must not be null");
+		Assert.notNull(scheduler, "Scheduler must not be null");
+		this.jdbcOperations = jdbcOperations;
+		this.scheduler = scheduler;
+	}
+
+
+	/**
+	 * Return the underlying {@link JdbcOperations}.
+	 */
+	public JdbcOperations getJdbcOperations() {
+		return this.jdbcOperations;
+	}
+
+	/**
+	 * Return the {@link Scheduler} that blocking JDBC access runs on.
+	 */
+	public Scheduler getScheduler() {
+		return this.scheduler;
+	}
+
+
+	/**
+	 * Query given SQL, binding the given arguments, and map each row
+	 * to a result object via a RowMapper, emitting rows as requested.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper a callback that will map one object per row
+	 * @param args arguments to bind to the query
+	 * @return a Flux of the result objects
+	 * @see JdbcOperations#queryForStream(String, RowMapper, Object...)
+	 */
+	public <T> Flux<T> query(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+		return generate(() -> this.jdbcOperations.queryForStream(sql, rowMapper, args), Iterator::next);
+	}
+
+	/**
+	 * Query using a prepared statement, mapping each row to a result object
+	 * via a RowMapper, emitting rows as requested.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param rowMapper a callback that will map one object per row
+	 * @return a Flux of the result objects
+	 * @see JdbcOperations#queryForStream(PreparedStatementCreator, RowMapper)
+	 */
+	public <T> Flux<T> query(PreparedStatementCreator psc, RowMapper<T> rowMapper) {
+		return generate(() -> this.jdbcOperations.queryForStream(psc, rowMapper), Iterator::next);
+	}
+
+	/**
+	 * Query given SQL, binding the given arguments, and map each row
+	 * to a result object via a RowMapper, emitting the results in chunks
+	 * of the given size: e.g. for batch-wise export with bounded memory.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkSize the maximum number of result objects per chunk
+	 * @param args arguments to bind to the query
+	 * @return a Flux of result chunks, each but the last one of the given size
+	 * @see JdbcOperations#queryForStream(String, RowMapper, Object...)
+	 */
+	public <T> Flux<List<T>> queryInChunks(String sql, RowMapper<T> rowMapper, int chunkSize, @Nullable Object... args) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		return generate(() -> this.jdbcOperations.queryForStream(sql, rowMapper, args),
+				iterator -> nextChunk(iterator, chunkSize));
+	}
+
+	/**
+	 * Query using a prepared statement, mapping each row to a result object
+	 * via a RowMapper, emitting the results in chunks of the given size:
+	 * e.g. for batch-wise export with bounded memory.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param rowMapper a callback that will map one object per row
+	 * @param chunkSize the maximum number of result objects per chunk
+	 * @return a Flux of result chunks, each but the last one of the given size
+	 * @see JdbcOperations#queryForStream(PreparedStatementCreator, RowMapper)
+	 */
+	public <T> Flux<List<T>> queryInChunks(PreparedStatementCreator psc, RowMapper<T> rowMapper, int chunkSize) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		return generate(() -> this.jdbcOperations.queryForStream(psc, rowMapper),
+				iterator -> nextChunk(iterator, chunkSize));
+	}
+
+
+	/**
+	 * Generate a Flux from the given Stream, emitting one element per
+	 * downstream request and closing the Stream on termination.
+	 * @param streamSupplier the supplier for the Stream, invoked per subscription
+	 * @param nextElement a function returning the next element to emit,
+	 * invoked as long as the Stream has further elements
+	 */
+	private <T, R> Flux<R> generate(Supplier<Stream<T>> streamSupplier,
+			Function<Iterator<T>, R> nextElement) {
+
+		return Flux.<R, StreamState<T>>generate(
+				() -> new StreamState<>(streamSupplier.get()),
+				(state, sink) -> {
+					if (state.iterator.hasNext()) {
+						sink.next(nextElement.apply(state.iterator));
+					}
+					else {
+						sink.complete();
+					}
+					return state;
+				},
+				StreamState::close)
+				.subscribeOn(this.scheduler);
+	}
+
+	private <T> List<T> nextChunk(Iterator<T> iterator, int chunkSize) {
+		List<T> chunk = new ArrayList<>(Math.min(chunkSize, 256));
+		do {
+			chunk.add(iterator.next());
+		}
+		while (chunk.size() < chunkSize && iterator.hasNext());
+		return chunk;
+	}
+
+
+	/**
+	 * Holder for an open Stream and its Iterator during generation.
+	 */
+	private static class StreamState<T> {
+
+		private final Stream<T> stream;
+
+		private final Iterator<T> iterator;
+
+		StreamState(Stream<T> stream) {
+			this.stream = stream;
+			this.iterator = stream.iterator();
+		}
+
+		void close() {
+			this.stream.close();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package org.springframework.jdbc.core.namedparam;
 
+import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -39,12 +41,14 @@ import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Template class with a basic set of JDBC operations, allowing the use
@@ -80,6 +84,13 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile ConcurrentLruCache<String, ParsedSql> parsedSqlCache =
 			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, NamedParameterUtils::parseSqlStatement);
 
+	/** Cache of statement shape to PreparedStatementCreatorFactory with expanded SQL. */
+	private volatile ConcurrentLruCache<StatementShape, PreparedStatementCreatorFactory> statementFactoryCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, this::createStatementFactory);
+
+	/** Whether PreparedStatementCreatorFactory instances may be cached per statement shape. */
+	private final boolean statementFactoryCacheable = isStatementFactoryCacheable();
+
 
 	/**
 	 * Create a new NamedParameterJdbcTemplate for the given {@link DataSource}.
@@ -126,9 +137,13 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	/**
 	 * Specify the maximum number of entries for this template's SQL cache.
 	 * Default is 256. 0 indicates no caching, always parsing each statement.
+	 * <p>As of 5.3.14, the same limit applies to the cache of expanded SQL
+	 * statements per statement shape, i.e. per SQL statement with specific
+	 * parameter types and collection sizes.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.parsedSqlCache = new ConcurrentLruCache<>(cacheLimit, NamedParameterUtils::parseSqlStatement);
+		this.statementFactoryCache = new ConcurrentLruCache<>(cacheLimit, this::createStatementFactory);
 	}
 
 	/**
@@ -368,7 +383,7 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		}
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, batchArgs[0]);
+		PreparedStatementCreatorFactory pscf = obtainPreparedStatementCreatorFactory(parsedSql, batchArgs[0]);
 
 		return getJdbcOperations().batchUpdate(
 				pscf.getSql(),
@@ -418,10 +433,14 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			@Nullable Consumer<PreparedStatementCreatorFactory> customizer) {
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
+		PreparedStatementCreatorFactory pscf;
 		if (customizer != null) {
+			pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
 			customizer.accept(pscf);
 		}
+		else {
+			pscf = obtainPreparedStatementCreatorFactory(parsedSql, paramSource);
+		}
 		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
 		return pscf.newPreparedStatementCreator(params);
 	}
@@ -438,6 +457,10 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	/**
 	 * Build a {@link PreparedStatementCreatorFactory} based on the given SQL and named parameters.
+	 * <p>As of 5.3.14, the factories built by the default implementation get
+	 * cached per statement shape, unless a customizer is to be applied to them.
+	 * Overriding this method in a subclass turns that cache off, since the
+	 * overridden variant may depend on the actual parameter values.
 	 * @param parsedSql parsed representation of the given SQL statement
 	 * @param paramSource container of arguments to bind
 	 * @return the corresponding {@link PreparedStatementCreatorFactory}
@@ -453,4 +476,135 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 	}
 
+
+	/**
+	 * Obtain a {@link PreparedStatementCreatorFactory} for the given SQL and
+	 * named parameters, shared across invocations for the same statement shape
+	 * unless {@link #getPreparedStatementCreatorFactory} has been overridden.
+	 * The returned factory must not be customized.
+	 */
+	private PreparedStatementCreatorFactory obtainPreparedStatementCreatorFactory(
+			ParsedSql parsedSql, SqlParameterSource paramSource) {
+
+		if (!this.statementFactoryCacheable) {
+			return getPreparedStatementCreatorFactory(parsedSql, paramSource);
+		}
+		return this.statementFactoryCache.get(new StatementShape(parsedSql, paramSource));
+	}
+
+	private PreparedStatementCreatorFactory createStatementFactory(StatementShape shape) {
+		SqlParameterSource paramSource = shape.paramSource;
+		Assert.state(paramSource != null, "No SqlParameterSource for statement shape");
+		shape.paramSource = null;
+		return getPreparedStatementCreatorFactory(shape.parsedSql, paramSource);
+	}
+
+	private boolean isStatementFactoryCacheable() {
+		Method method = ReflectionUtils.findMethod(getClass(), "getPreparedStatementCreatorFactory",
+				ParsedSql.class, SqlParameterSource.class);
+		return (method != null && method.getDeclaringClass() == NamedParameterJdbcTemplate.class);
+	}
+
+
+	/**
+	 * Cache key for the parts of a statement determining its expanded SQL and
+	 * declared parameters: the original SQL, the SQL type and type name of each
+	 * parameter, and the sizes of collection values and their nested arrays.
+	 */
+	private static final class StatementShape {
+
+		private final ParsedSql parsedSql;
+
+		private final int[] sqlTypes;
+
+		@Nullable
+		private final String[] typeNames;
+
+		@Nullable
+		private final int[] arities;
+
+		private final int hashCode;
+
+		/** The SqlParameterSource to build the factory from, only held until then. */
+		@Nullable
+		private SqlParameterSource paramSource;
+
+		StatementShape(ParsedSql parsedSql, SqlParameterSource paramSource) {
+			List<String> paramNames = parsedSql.getParameterNames();
+			int paramCount = paramNames.size();
+			int[] sqlTypes = new int[paramCount];
+			String[] typeNames = null;
+			int[] arities = null;
+			int arityCount = 0;
+			for (int i = 0; i < paramCount; i++) {
+				String paramName = paramNames.get(i);
+				sqlTypes[i] = paramSource.getSqlType(paramName);
+				String typeName = paramSource.getTypeName(paramName);
+				if (typeName != null) {
+					if (typeNames == null) {
+						typeNames = new String[paramCount];
+					}
+					typeNames[i] = typeName;
+				}
+				if (paramSource.hasValue(paramName)) {
+					Object value = paramSource.getValue(paramName);
+					if (value instanceof SqlParameterValue) {
+						value = ((SqlParameterValue) value).getValue();
+					}
+					if (value instanceof Iterable) {
+						// Parameter index and entry count, followed by the length of each entry
+						// (-1 for a plain value, array length for an expression list)
+						int countIndex = arityCount + 1;
+						arities = ensureCapacity(arities, arityCount + 2);
+						arities[arityCount++] = i;
+						arities[arityCount++] = 0;
+						for (Object entry : (Iterable<?>) value) {
+							arities = ensureCapacity(arities, arityCount + 1);
+							arities[arityCount++] = (entry instanceof Object[] ? ((Object[]) entry).length : -1);
+							arities[countIndex]++;
+						}
+					}
+				}
+			}
+			this.parsedSql = parsedSql;
+			this.sqlTypes = sqlTypes;
+			this.typeNames = typeNames;
+			this.arities = (arities != null ? Arrays.copyOf(arities, arityCount) : null);
+			this.hashCode = 31 * (31 * (31 * parsedSql.getOriginalSql().hashCode() + Arrays.hashCode(sqlTypes)) +
+					Arrays.hashCode(typeNames)) + Arrays.hashCode(this.arities);
+			this.paramSource = paramSource;
+		}
+
+		private static int[] ensureCapacity(@Nullable int[] array, int minCapacity) {
+			if (array == null) {
+				return new int[Math.max(minCapacity, 8)];
+			}
+			if (array.length < minCapacity) {
+				return Arrays.copyOf(array, Math.max(minCapacity, array.length * 2));
+			}
+			return array;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StatementShape)) {
+				return false;
+			}
+			StatementShape otherShape = (StatementShape) other;
+			return (this.hashCode == otherShape.hashCode &&
+					this.parsedSql.getOriginalSql().equals(otherShape.parsedSql.getOriginalSql()) &&
+					Arrays.equals(this.sqlTypes, otherShape.sqlTypes) &&
+					Arrays.equals(this.typeNames, otherShape.typeNames) &&
+					Arrays.equals(this.arities, otherShape.arities));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
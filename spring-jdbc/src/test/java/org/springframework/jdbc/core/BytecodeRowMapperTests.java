@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyDescriptor;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.test.ConcretePerson;
+import org.springframework.jdbc.core.test.ConstructorPerson;
+import org.springframework.jdbc.core.test.ConstructorPersonWithSetters;
+import org.springframework.jdbc.core.test.DatePerson;
+import org.springframework.jdbc.core.test.ExtendedPerson;
+import org.springframework.jdbc.core.test.Person;
+import org.springframework.jdbc.core.test.SpacePerson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link BytecodeRowMapper}, mirroring the expectations
+ * for {@link BeanPropertyRowMapper} and {@link DataClassRowMapper}.
+ */
+public class BytecodeRowMapperTests extends AbstractRowMapperTests {
+
+	@Test
+	public void testStaticQueryWithRowMapper() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new BytecodeRowMapper<>(Person.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithInheritance() throws Exception {
+		Mock mock = new Mock();
+		List<ConcretePerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new BytecodeRowMapper<>(ConcretePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithUnpopulatedFieldsNotChecked() throws Exception {
+		Mock mock = new Mock();
+		List<ExtendedPerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new BytecodeRowMapper<>(ExtendedPerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithUnpopulatedFieldsNotAccepted() throws Exception {
+		Mock mock = new Mock();
+		BytecodeRowMapper<ExtendedPerson> mapper = new BytecodeRowMapper<>(ExtendedPerson.class);
+		mapper.setCheckFullyPopulated(true);
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				mock.getJdbcTemplate().query("select name, age, birth_date, balance from people", mapper));
+	}
+
+	@Test
+	public void testMappingNullValue() throws Exception {
+		BytecodeRowMapper<Person> mapper = new BytecodeRowMapper<>(Person.class);
+		Mock mock = new Mock(MockType.TWO);
+		assertThatExceptionOfType(TypeMismatchException.class).isThrownBy(() ->
+				mock.getJdbcTemplate().query("select name, null as age, birth_date, balance from people", mapper));
+	}
+
+	@Test
+	public void testMappingNullValueWithPrimitivesDefaulted() throws Exception {
+		BytecodeRowMapper<Person> mapper = new BytecodeRowMapper<>(Person.class);
+		mapper.setPrimitivesDefaultedForNullValue(true);
+		Mock mock = new Mock(MockType.TWO);
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, null as age, birth_date, balance from people", mapper);
+		assertThat(result.size()).isEqualTo(1);
+		Person person = result.get(0);
+		assertThat(person.getName()).isEqualTo("Bubba");
+		assertThat(person.getAge()).isEqualTo(0L);
+		assertThat(person.getBirth_date()).usingComparator(Date::compareTo).isEqualTo(new java.util.Date(1221222L));
+		assertThat(person.getBalance()).isEqualTo(new BigDecimal("1234.56"));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testQueryWithSpaceInColumnNameAndLocalDateTime() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<SpacePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				new BytecodeRowMapper<>(SpacePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testQueryWithSpaceInColumnNameAndLocalDate() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<DatePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				new BytecodeRowMapper<>(DatePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testStaticQueryWithDataClass() throws Exception {
+		Mock mock = new Mock();
+		List<ConstructorPerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new BytecodeRowMapper<>(ConstructorPerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testStaticQueryWithDataClassAndSetters() throws Exception {
+		Mock mock = new Mock();
+		List<ConstructorPersonWithSetters> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new BytecodeRowMapper<>(ConstructorPersonWithSetters.class));
+		assertThat(result.size()).isEqualTo(1);
+		ConstructorPersonWithSetters person = result.get(0);
+		assertThat(person.name()).isEqualTo("BUBBA");
+		assertThat(person.age()).isEqualTo(22L);
+		assertThat(person.birth_date()).usingComparator(Date::compareTo).isEqualTo(new java.util.Date(1221222L));
+		assertThat(person.balance()).isEqualTo(new BigDecimal("1234.56"));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testRepeatedQueriesWithSameMapper() throws Exception {
+		BytecodeRowMapper<Person> mapper = new BytecodeRowMapper<>(Person.class);
+		for (int i = 0; i < 3; i++) {
+			Mock mock = new Mock();
+			List<Person> result = mock.getJdbcTemplate().query(
+					"select name, age, birth_date, balance from people", mapper);
+			assertThat(result.size()).isEqualTo(1);
+			verifyPerson(result.get(0));
+			mock.verifyClosed();
+		}
+	}
+
+	@Test
+	public void testCustomizedColumnValue() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new BytecodeRowMapper<Person>(Person.class) {
+					@Override
+					protected Object getColumnValue(ResultSet rs, int index, PropertyDescriptor pd) throws SQLException {
+						Object value = super.getColumnValue(rs, index, pd);
+						return (value instanceof String ? ((String) value).toUpperCase() : value);
+					}
+				});
+		assertThat(result.size()).isEqualTo(1);
+		assertThat(result.get(0).getName()).isEqualTo("BUBBA");
+		mock.verifyClosed();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.InvalidResultSetAccessException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -384,6 +385,52 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForStreamWithStreamingFetchSize() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		this.template.setFetchSize(10);
+		this.template.setStreamingFetchSize(1000);
+		try (Stream<Integer> s = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), 3)) {
+			assertThat(s.count()).isEqualTo(1);
+		}
+		verify(this.preparedStatement).setFetchSize(10);
+		verify(this.preparedStatement).setFetchSize(1000);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+	}
+
+	@Test
+	public void testQueryForStreamReleasesResourcesWhenExhausted() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
+		Stream<Integer> s = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), 3);
+		assertThat(s.count()).isEqualTo(1);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+		s.close();
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamReleasesResourcesOnMappingFailure() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID = 3";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willThrow(new SQLException("bad"));
+		given(this.statement.getConnection()).willReturn(this.connection);
+		Stream<Integer> s = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1));
+		assertThatExceptionOfType(InvalidResultSetAccessException.class).isThrownBy(s::count);
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
 	@Test
 	public void testQueryForObjectWithArgsAndInteger() throws Exception {
 		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link StreamingQueryAdapter}.
+ */
+public class StreamingQueryAdapterTests {
+
+	private static final String SQL = "SELECT AGE FROM CUSTMR WHERE ID > ?";
+
+	private Connection connection;
+
+	private PreparedStatement preparedStatement;
+
+	private ResultSet resultSet;
+
+	private StreamingQueryAdapter adapter;
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		this.connection = mock(Connection.class);
+		this.preparedStatement = mock(PreparedStatement.class);
+		this.resultSet = mock(ResultSet.class);
+		DataSource dataSource = mock(DataSource.class);
+		given(dataSource.getConnection()).willReturn(this.connection);
+		given(this.connection.prepareStatement(anyString())).willReturn(this.preparedStatement);
+		given(this.preparedStatement.executeQuery()).willReturn(this.resultSet);
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
+		this.adapter = new StreamingQueryAdapter(new JdbcTemplate(dataSource), Schedulers.immediate());
+	}
+
+
+	@Test
+	public void queryEmitsRowsAndReleasesResources() throws Exception {
+		given(this.resultSet.next()).willReturn(true, true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(1, 2, 3);
+
+		this.adapter.query(SQL, (rs, rowNum) -> rs.getInt(1), 0)
+				.as(StepVerifier::create)
+				.expectNext(1, 2, 3)
+				.verifyComplete();
+
+		verify(this.preparedStatement).setObject(1, 0);
+		verifyReleased();
+	}
+
+	@Test
+	public void queryEmitsRowsOnDemand() throws Exception {
+		given(this.resultSet.next()).willReturn(true, true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(1, 2, 3);
+
+		this.adapter.query(SQL, (rs, rowNum) -> rs.getInt(1), 0)
+				.as(flux -> StepVerifier.create(flux, 1))
+				.expectNext(1)
+				.thenCancel()
+				.verify();
+
+		verify(this.resultSet).getInt(1);
+		verifyReleased();
+	}
+
+	@Test
+	public void queryInChunksEmitsBoundedLists() throws Exception {
+		given(this.resultSet.next()).willReturn(true, true, true, true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(1, 2, 3, 4, 5);
+
+		this.adapter.queryInChunks(SQL, (rs, rowNum) -> rs.getInt(1), 2, 0)
+				.as(StepVerifier::create)
+				.expectNext(Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5))
+				.verifyComplete();
+
+		verifyReleased();
+	}
+
+	@Test
+	public void queryInChunksWithEmptyResult() throws Exception {
+		given(this.resultSet.next()).willReturn(false);
+
+		this.adapter.queryInChunks(SQL, (rs, rowNum) -> rs.getInt(1), 2, 0)
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		verifyReleased();
+	}
+
+	@Test
+	public void queryReleasesResourcesOnMappingFailure() throws Exception {
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(1).willThrow(new SQLException("bad"));
+
+		this.adapter.query(SQL, (rs, rowNum) -> rs.getInt(1), 0)
+				.as(StepVerifier::create)
+				.expectNext(1)
+				.verifyError(InvalidResultSetAccessException.class);
+
+		verifyReleased();
+	}
+
+
+	private void verifyReleased() throws SQLException {
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+}
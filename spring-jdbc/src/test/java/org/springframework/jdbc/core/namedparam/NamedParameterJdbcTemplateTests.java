@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,7 @@ import org.springframework.jdbc.Customer;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 import org.springframework.jdbc.core.SqlParameterValue;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -586,4 +587,68 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testUpdatesWithInClauseOfDifferentSizes() throws SQLException {
+		String sql = "update customer set active = 0 where id in (:ids)";
+		namedParameterTemplate.update(sql, Collections.singletonMap("ids", Arrays.asList(1, 2)));
+		namedParameterTemplate.update(sql, Collections.singletonMap("ids", Arrays.asList(3, 4, 5)));
+		namedParameterTemplate.update(sql, Collections.singletonMap("ids", Arrays.asList(6, 7)));
+
+		verify(connection, times(2)).prepareStatement("update customer set active = 0 where id in (?, ?)");
+		verify(connection).prepareStatement("update customer set active = 0 where id in (?, ?, ?)");
+		verify(preparedStatement).setObject(1, 1);
+		verify(preparedStatement).setObject(2, 2);
+		verify(preparedStatement).setObject(1, 3);
+		verify(preparedStatement).setObject(2, 4);
+		verify(preparedStatement).setObject(3, 5);
+		verify(preparedStatement).setObject(1, 6);
+		verify(preparedStatement).setObject(2, 7);
+	}
+
+	@Test
+	public void testUpdatesWithInClauseOfExpressionLists() throws SQLException {
+		String sql = "update customer set active = 0 where (id, name) in (:pairs)";
+		namedParameterTemplate.update(sql, Collections.singletonMap("pairs",
+				Arrays.asList(new Object[] {1, "a"}, new Object[] {2, "b"})));
+		namedParameterTemplate.update(sql, Collections.singletonMap("pairs",
+				Arrays.asList(new Object[] {3, "c"}, 4)));
+
+		verify(connection).prepareStatement("update customer set active = 0 where (id, name) in ((?, ?), (?, ?))");
+		verify(connection).prepareStatement("update customer set active = 0 where (id, name) in ((?, ?), ?)");
+	}
+
+	@Test
+	public void testUpdatesWithDifferentParameterTypes() throws SQLException {
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, new MapSqlParameterSource()
+				.addValue("perfId", 1, Types.DECIMAL).addValue("priceId", 1));
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, new MapSqlParameterSource()
+				.addValue("perfId", 2, Types.INTEGER).addValue("priceId", 2));
+
+		verify(connection, times(2)).prepareStatement(UPDATE_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setObject(1, 1, Types.DECIMAL);
+		verify(preparedStatement).setObject(2, 1);
+		verify(preparedStatement).setObject(1, 2, Types.INTEGER);
+		verify(preparedStatement).setObject(2, 2);
+	}
+
+	@Test
+	public void testUpdatesWithCustomPreparedStatementCreatorFactory() throws SQLException {
+		AtomicInteger factoryCount = new AtomicInteger();
+		namedParameterTemplate = new NamedParameterJdbcTemplate(dataSource) {
+			@Override
+			protected PreparedStatementCreatorFactory getPreparedStatementCreatorFactory(
+					ParsedSql parsedSql, SqlParameterSource paramSource) {
+				factoryCount.incrementAndGet();
+				return super.getPreparedStatementCreatorFactory(parsedSql, paramSource);
+			}
+		};
+		params.put("perfId", 1);
+		params.put("priceId", 1);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+
+		assertThat(factoryCount.get()).isEqualTo(2);
+		verify(connection, times(2)).prepareStatement(UPDATE_NAMED_PARAMETERS_PARSED);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.r2dbc.core.binding.BindMarkersFactory;
@@ -88,6 +89,22 @@ public interface DatabaseClient extends ConnectionAccessor {
 	 */
 	GenericExecuteSpec sql(Supplier<String> sqlSupplier);
 
+	/**
+	 * Specify a parameterized {@code sql} statement to run for several sets of
+	 * bind values, e.g. for bulk inserts. Contract for specifying the bind values
+	 * along with options leading to the execution.
+	 * <p>All sets of bind values are bound to the same {@link Statement}, separated
+	 * through {@link Statement#add()}, so that the driver can send them in a single
+	 * pipelined execution instead of one round-trip per set. The SQL string can
+	 * contain either native parameter bind markers or named parameters (e.g.
+	 * {@literal :foo, :bar}) when {@link NamedParameterExpander} is enabled.
+	 * @param sql the SQL statement
+	 * @return a new {@link GenericBatchSpec}
+	 * @since 5.3.14
+	 * @see Statement#add()
+	 */
+	GenericBatchSpec batch(String sql);
+
 
 	// Static factory methods
 
@@ -244,4 +261,87 @@ public interface DatabaseClient extends ConnectionAccessor {
 		Mono<Void> then();
 	}
 
+
+	/**
+	 * Contract for specifying a parameterized SQL statement to run for several
+	 * sets of bind values, along with options leading to the execution.
+	 * @since 5.3.14
+	 */
+	interface GenericBatchSpec {
+
+		/**
+		 * Add a set of bind values identified by parameter name. Values can be
+		 * either scalar values or {@link Parameter}, with {@link Parameter#empty(Class)}
+		 * for {@code null} values.
+		 * @param values the values to bind, keyed by parameter name
+		 */
+		GenericBatchSpec add(Map<String, ?> values);
+
+		/**
+		 * Add a set of bind values identified by their (zero based) index. Values
+		 * can be either scalar values or {@link Parameter}, with
+		 * {@link Parameter#empty(Class)} for {@code null} values.
+		 * @param values the values to bind, in parameter order
+		 */
+		GenericBatchSpec add(Object... values);
+
+		/**
+		 * Specify the maximum number of sets of bind values per {@link Statement}.
+		 * Larger batches are split into several statements, executed one after
+		 * the other on the same connection.
+		 * <p>Default is 0, sending all sets of bind values with a single statement.
+		 * @param batchSize the maximum number of sets of bind values per statement
+		 */
+		GenericBatchSpec batchSize(int batchSize);
+
+		/**
+		 * Add the given filter to the end of the filter chain, to be applied
+		 * to each batch {@link Statement} before it is executed.
+		 * @param filterFunction the filter to be added to the chain
+		 * @see GenericExecuteSpec#filter(Function)
+		 */
+		default GenericBatchSpec filter(Function<? super Statement, ? extends Statement> filterFunction) {
+			Assert.notNull(filterFunction, "Filter function must not be null");
+			return filter((statement, next) -> next.execute(filterFunction.apply(statement)));
+		}
+
+		/**
+		 * Add the given filter to the end of the filter chain, to be applied
+		 * to each batch {@link Statement} before it is executed.
+		 * @param filter the filter to be added to the chain
+		 * @see GenericExecuteSpec#filter(StatementFilterFunction)
+		 */
+		GenericBatchSpec filter(StatementFilterFunction filter);
+
+		/**
+		 * Configure a result mapping {@link BiFunction function} and enter the execution
+		 * stage, e.g. for generated keys, mapping the rows of all results in turn.
+		 * @param mappingFunction a function that maps from {@link Row} and {@link RowMetadata}
+		 * to the result type
+		 * @param <R> the result type
+		 * @return a {@link FetchSpec} for configuration what to fetch
+		 */
+		<R> RowsFetchSpec<R> map(BiFunction<Row, RowMetadata, R> mappingFunction);
+
+		/**
+		 * Perform the SQL calls and retrieve the results by entering the execution stage.
+		 * {@link FetchSpec#rowsUpdated()} reports the total over all sets of bind values.
+		 */
+		FetchSpec<Map<String, Object>> fetch();
+
+		/**
+		 * Perform the SQL calls and stream back the number of updated rows
+		 * for each set of bind values, in the order they have been added.
+		 * @return a {@link Flux} emitting one update count per set of bind values
+		 */
+		Flux<Integer> rowsUpdated();
+
+		/**
+		 * Perform the SQL calls and return a {@link Mono} that completes without result
+		 * on completion of all statements.
+		 * @return a {@link Mono} ignoring its payload (actively dropping)
+		 */
+		Mono<Void> then();
+	}
+
 }
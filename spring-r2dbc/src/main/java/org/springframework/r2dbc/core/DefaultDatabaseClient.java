@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -103,6 +104,12 @@ class DefaultDatabaseClient implements DatabaseClient {
 		return new DefaultGenericExecuteSpec(sqlSupplier);
 	}
 
+	@Override
+	public GenericBatchSpec batch(String sql) {
+		Assert.hasText(sql, "SQL must not be null or empty");
+		return new DefaultGenericBatchSpec(sql);
+	}
+
 	@Override
 	public <T> Mono<T> inConnection(Function<Connection, Mono<T>> action) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
@@ -195,6 +202,66 @@ class DefaultDatabaseClient implements DatabaseClient {
 				.collect(Collectors.summingInt(Integer::intValue));
 	}
 
+	private static MapBindParameterSource retrieveParameters(String sql, List<String> parameterNames,
+			Map<String, Parameter> byName, Map<Integer, Parameter> byIndex,
+			Map<String, Parameter> remainderByName, Map<Integer, Parameter> remainderByIndex) {
+
+		Map<String, Parameter> namedBindings = CollectionUtils.newLinkedHashMap(parameterNames.size());
+		for (String parameterName : parameterNames) {
+			Parameter parameter = getParameter(
+					byName, byIndex, remainderByName, remainderByIndex, parameterNames, parameterName);
+			if (parameter == null) {
+				throw new InvalidDataAccessApiUsageException(
+						String.format("No parameter specified for [%s] in query [%s]", parameterName, sql));
+			}
+			namedBindings.put(parameterName, parameter);
+		}
+		return new MapBindParameterSource(namedBindings);
+	}
+
+	@Nullable
+	private static Parameter getParameter(Map<String, Parameter> byName, Map<Integer, Parameter> byIndex,
+			Map<String, Parameter> remainderByName, Map<Integer, Parameter> remainderByIndex,
+			List<String> parameterNames, String parameterName) {
+
+		if (byName.containsKey(parameterName)) {
+			remainderByName.remove(parameterName);
+			return byName.get(parameterName);
+		}
+
+		int index = parameterNames.indexOf(parameterName);
+		if (byIndex.containsKey(index)) {
+			remainderByIndex.remove(index);
+			return byIndex.get(index);
+		}
+
+		return null;
+	}
+
+	private static void bindByName(Statement statement, Map<String, Parameter> byName) {
+		byName.forEach((name, parameter) -> {
+			Object value = parameter.getValue();
+			if (value != null) {
+				statement.bind(name, value);
+			}
+			else {
+				statement.bindNull(name, parameter.getType());
+			}
+		});
+	}
+
+	private static void bindByIndex(Statement statement, Map<Integer, Parameter> byIndex) {
+		byIndex.forEach((i, parameter) -> {
+			Object value = parameter.getValue();
+			if (value != null) {
+				statement.bind(i, value);
+			}
+			else {
+				statement.bindNull(i, parameter.getType());
+			}
+		});
+	}
+
 	/**
 	 * Determine SQL from potential provider object.
 	 * @param sqlProvider object that's potentially a SqlProvider
@@ -341,7 +408,7 @@ class DefaultDatabaseClient implements DatabaseClient {
 
 					List<String> parameterNames = DefaultDatabaseClient.this.namedParameterExpander.getParameterNames(sql);
 					MapBindParameterSource namedBindings = retrieveParameters(
-							sql, parameterNames, remainderByName, remainderByIndex);
+							sql, parameterNames, this.byName, this.byIndex, remainderByName, remainderByIndex);
 
 					PreparedOperation<String> operation = DefaultDatabaseClient.this.namedParameterExpander.expand(
 							sql, DefaultDatabaseClient.this.bindMarkersFactory, namedBindings);
@@ -383,74 +450,226 @@ class DefaultDatabaseClient implements DatabaseClient {
 					mappingFunction);
 		}
 
-		private MapBindParameterSource retrieveParameters(String sql, List<String> parameterNames,
-				Map<String, Parameter> remainderByName, Map<Integer, Parameter> remainderByIndex) {
-
-			Map<String, Parameter> namedBindings = CollectionUtils.newLinkedHashMap(parameterNames.size());
-			for (String parameterName : parameterNames) {
-				Parameter parameter = getParameter(remainderByName, remainderByIndex, parameterNames, parameterName);
-				if (parameter == null) {
-					throw new InvalidDataAccessApiUsageException(
-							String.format("No parameter specified for [%s] in query [%s]", parameterName, sql));
-				}
-				namedBindings.put(parameterName, parameter);
+		private void assertNotPreparedOperation() {
+			if (this.sqlSupplier instanceof PreparedOperation<?>) {
+				throw new InvalidDataAccessApiUsageException(
+						"Cannot add bindings to a PreparedOperation");
 			}
-			return new MapBindParameterSource(namedBindings);
 		}
 
+		private String getRequiredSql(Supplier<String> sqlSupplier) {
+			String sql = sqlSupplier.get();
+			Assert.state(StringUtils.hasText(sql), "SQL returned by SQL supplier must not be empty!");
+			return sql;
+		}
+	}
+
+
+	/**
+	 * Default {@link DatabaseClient.GenericBatchSpec} implementation.
+	 */
+	class DefaultGenericBatchSpec implements GenericBatchSpec {
+
+		final String sql;
+
 		@Nullable
-		private Parameter getParameter(Map<String, Parameter> remainderByName,
-				Map<Integer, Parameter> remainderByIndex, List<String> parameterNames, String parameterName) {
+		final BindingSet bindings;
 
-			if (this.byName.containsKey(parameterName)) {
-				remainderByName.remove(parameterName);
-				return this.byName.get(parameterName);
-			}
+		final int batchSize;
+
+		final StatementFilterFunction filterFunction;
 
-			int index = parameterNames.indexOf(parameterName);
-			if (this.byIndex.containsKey(index)) {
-				remainderByIndex.remove(index);
-				return this.byIndex.get(index);
+		DefaultGenericBatchSpec(String sql) {
+			this(sql, null, 0, StatementFilterFunction.EMPTY_FILTER);
+		}
+
+		DefaultGenericBatchSpec(String sql, @Nullable BindingSet bindings, int batchSize,
+				StatementFilterFunction filterFunction) {
+
+			this.sql = sql;
+			this.bindings = bindings;
+			this.batchSize = batchSize;
+			this.filterFunction = filterFunction;
+		}
+
+		@Override
+		public DefaultGenericBatchSpec add(Map<String, ?> values) {
+			Assert.notNull(values, "Values must not be null");
+			Map<String, Parameter> byName = CollectionUtils.newLinkedHashMap(values.size());
+			values.forEach((name, value) -> {
+				Assert.hasText(name, "Parameter name must not be null or empty!");
+				byName.put(name, toParameter(value, name));
+			});
+			return new DefaultGenericBatchSpec(this.sql,
+					new BindingSet(this.bindings, byName, Collections.emptyMap()), this.batchSize, this.filterFunction);
+		}
+
+		@Override
+		public DefaultGenericBatchSpec add(Object... values) {
+			Assert.notNull(values, "Values must not be null");
+			Map<Integer, Parameter> byIndex = CollectionUtils.newLinkedHashMap(values.length);
+			for (int i = 0; i < values.length; i++) {
+				byIndex.put(i, toParameter(values[i], i));
 			}
+			return new DefaultGenericBatchSpec(this.sql,
+					new BindingSet(this.bindings, Collections.emptyMap(), byIndex), this.batchSize, this.filterFunction);
+		}
 
-			return null;
+		private Parameter toParameter(@Nullable Object value, Object identifier) {
+			Assert.notNull(value, () -> String.format(
+					"Value for parameter %s must not be null. Use Parameter.empty(…) instead.", identifier));
+			return (value instanceof Parameter ? (Parameter) value : Parameter.fromOrEmpty(value, value.getClass()));
 		}
 
-		private void assertNotPreparedOperation() {
-			if (this.sqlSupplier instanceof PreparedOperation<?>) {
-				throw new InvalidDataAccessApiUsageException(
-						"Cannot add bindings to a PreparedOperation");
+		@Override
+		public DefaultGenericBatchSpec batchSize(int batchSize) {
+			Assert.isTrue(batchSize >= 0, "Batch size must not be negative");
+			return new DefaultGenericBatchSpec(this.sql, this.bindings, batchSize, this.filterFunction);
+		}
+
+		@Override
+		public DefaultGenericBatchSpec filter(StatementFilterFunction filter) {
+			Assert.notNull(filter, "Statement FilterFunction must not be null");
+			return new DefaultGenericBatchSpec(
+					this.sql, this.bindings, this.batchSize, this.filterFunction.andThen(filter));
+		}
+
+		@Override
+		public <R> FetchSpec<R> map(BiFunction<Row, RowMetadata, R> mappingFunction) {
+			Assert.notNull(mappingFunction, "Mapping function must not be null");
+			return execute(mappingFunction);
+		}
+
+		@Override
+		public FetchSpec<Map<String, Object>> fetch() {
+			return execute(ColumnMapRowMapper.INSTANCE);
+		}
+
+		@Override
+		public Flux<Integer> rowsUpdated() {
+			Function<Connection, Flux<Result>> resultFunction = getResultFunction();
+			return inConnectionMany(new ConnectionFunction<>(this.sql, connection ->
+					resultFunction.apply(connection).concatMap(result ->
+							Flux.from(result.getRowsUpdated()).reduce(0, Integer::sum))));
+		}
+
+		@Override
+		public Mono<Void> then() {
+			return fetch().rowsUpdated().then();
+		}
+
+		private <T> FetchSpec<T> execute(BiFunction<Row, RowMetadata, T> mappingFunction) {
+			Function<Connection, Flux<Result>> resultFunction = getResultFunction();
+			return new DefaultFetchSpec<>(
+					DefaultDatabaseClient.this, this.sql,
+					new ConnectionFunction<>(this.sql, resultFunction),
+					new ConnectionFunction<>(this.sql, connection -> sumRowsUpdated(resultFunction, connection)),
+					mappingFunction);
+		}
+
+		private Function<Connection, Flux<Result>> getResultFunction() {
+			List<List<BindingSet>> statementBindings = getStatementBindings();
+			return connection -> Flux.fromIterable(statementBindings)
+					.concatMap(bindings -> {
+						Statement statement = createStatement(connection, bindings);
+						return Flux.from(this.filterFunction.filter(statement, DefaultDatabaseClient.this.executeFunction));
+					})
+					.cast(Result.class).checkpoint("SQL \"" + this.sql + "\" [DatabaseClient]");
+		}
+
+		/**
+		 * Split the sets of bind values, in the order they have been added,
+		 * into the bindings of each statement according to the batch size.
+		 */
+		private List<List<BindingSet>> getStatementBindings() {
+			List<BindingSet> all = new ArrayList<>();
+			for (BindingSet bindingSet = this.bindings; bindingSet != null; bindingSet = bindingSet.previous) {
+				all.add(bindingSet);
+			}
+			if (all.isEmpty()) {
+				return Collections.emptyList();
+			}
+			Collections.reverse(all);
+			if (this.batchSize == 0 || all.size() <= this.batchSize) {
+				return Collections.singletonList(all);
 			}
+			List<List<BindingSet>> statementBindings = new ArrayList<>(all.size() / this.batchSize + 1);
+			for (int i = 0; i < all.size(); i += this.batchSize) {
+				statementBindings.add(all.subList(i, Math.min(i + this.batchSize, all.size())));
+			}
+			return statementBindings;
 		}
 
-		private void bindByName(Statement statement, Map<String, Parameter> byName) {
-			byName.forEach((name, parameter) -> {
-				Object value = parameter.getValue();
-				if (value != null) {
-					statement.bind(name, value);
-				}
-				else {
-					statement.bindNull(name, parameter.getType());
+		private Statement createStatement(Connection connection, List<BindingSet> bindings) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Executing SQL batch statement [" + this.sql + "] with " +
+						bindings.size() + " sets of bind values");
+			}
+			NamedParameterExpander expander = DefaultDatabaseClient.this.namedParameterExpander;
+			List<String> parameterNames = (expander != null ? expander.getParameterNames(this.sql) : null);
+
+			if (expander == null || parameterNames.isEmpty()) {
+				Statement statement = connection.createStatement(this.sql);
+				for (int i = 0; i < bindings.size(); i++) {
+					if (i > 0) {
+						statement.add();
+					}
+					bindByIndex(statement, bindings.get(i).byIndex);
+					bindByName(statement, bindings.get(i).byName);
 				}
-			});
-		}
+				return statement;
+			}
 
-		private void bindByIndex(Statement statement, Map<Integer, Parameter> byIndex) {
-			byIndex.forEach((i, parameter) -> {
-				Object value = parameter.getValue();
-				if (value != null) {
-					statement.bind(i, value);
+			Statement statement = null;
+			String expanded = null;
+			for (BindingSet bindingSet : bindings) {
+				Map<String, Parameter> remainderByName = new LinkedHashMap<>(bindingSet.byName);
+				Map<Integer, Parameter> remainderByIndex = new LinkedHashMap<>(bindingSet.byIndex);
+				MapBindParameterSource namedBindings = retrieveParameters(this.sql, parameterNames,
+						bindingSet.byName, bindingSet.byIndex, remainderByName, remainderByIndex);
+				PreparedOperation<String> operation = expander.expand(
+						this.sql, DefaultDatabaseClient.this.bindMarkersFactory, namedBindings);
+				String operationSql = operation.toQuery();
+				if (statement == null) {
+					expanded = operationSql;
+					if (logger.isTraceEnabled()) {
+						logger.trace("Expanded SQL [" + expanded + "]");
+					}
+					statement = connection.createStatement(expanded);
 				}
 				else {
-					statement.bindNull(i, parameter.getType());
+					if (!expanded.equals(operationSql)) {
+						throw new InvalidDataAccessApiUsageException(String.format(
+								"Sets of bind values for query [%s] expand to different SQL statements: " +
+								"collection values need to have the same size in every set", this.sql));
+					}
+					statement.add();
 				}
-			});
+				operation.bindTo(new StatementWrapper(statement));
+				bindByName(statement, remainderByName);
+				bindByIndex(statement, remainderByIndex);
+			}
+			return statement;
 		}
+	}
 
-		private String getRequiredSql(Supplier<String> sqlSupplier) {
-			String sql = sqlSupplier.get();
-			Assert.state(StringUtils.hasText(sql), "SQL returned by SQL supplier must not be empty!");
-			return sql;
+
+	/**
+	 * One set of bind values within a batch, linked to the previously added set.
+	 */
+	private static final class BindingSet {
+
+		@Nullable
+		final BindingSet previous;
+
+		final Map<String, Parameter> byName;
+
+		final Map<Integer, Parameter> byIndex;
+
+		BindingSet(@Nullable BindingSet previous, Map<String, Parameter> byName, Map<Integer, Parameter> byIndex) {
+			this.previous = previous;
+			this.byName = byName;
+			this.byIndex = byIndex;
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.r2dbc.core;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.ConnectionFactory;
@@ -42,11 +43,13 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.lang.Nullable;
 import org.springframework.r2dbc.core.binding.BindMarkersFactory;
 import org.springframework.r2dbc.core.binding.BindTarget;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.doReturn;
@@ -397,6 +400,90 @@ class DefaultDatabaseClientUnitTests {
 		inOrder.verifyNoMoreInteractions();
 	}
 
+	@Test
+	void batchShouldAddBindValuesToSingleStatement() {
+		Statement statement = mockStatementFor("INSERT INTO person VALUES ($1)");
+
+		DatabaseClient databaseClient = databaseClientBuilder.build();
+
+		databaseClient.batch("INSERT INTO person VALUES ($1)")
+				.add("foo").add("bar").then().as(StepVerifier::create).verifyComplete();
+
+		InOrder inOrder = inOrder(statement);
+		inOrder.verify(statement).bind(0, "foo");
+		inOrder.verify(statement).add();
+		inOrder.verify(statement).bind(0, "bar");
+		inOrder.verify(statement).execute();
+		inOrder.verifyNoMoreInteractions();
+	}
+
+	@Test
+	void batchShouldExpandNamedParameters() {
+		Statement statement = mockStatementFor("INSERT INTO person VALUES ($1)");
+
+		DatabaseClient databaseClient = databaseClientBuilder.build();
+
+		databaseClient.batch("INSERT INTO person VALUES (:name)")
+				.add(Collections.singletonMap("name", "foo"))
+				.add(Collections.singletonMap("name", "bar"))
+				.then().as(StepVerifier::create).verifyComplete();
+
+		InOrder inOrder = inOrder(statement);
+		inOrder.verify(statement).bind(0, "foo");
+		inOrder.verify(statement).add();
+		inOrder.verify(statement).bind(0, "bar");
+		inOrder.verify(statement).execute();
+		inOrder.verifyNoMoreInteractions();
+	}
+
+	@Test
+	void batchShouldRejectNamedCollectionsOfDifferentSize() {
+		mockStatementFor("INSERT INTO person VALUES ($1, $2)");
+
+		DatabaseClient databaseClient = databaseClientBuilder.build();
+
+		databaseClient.batch("INSERT INTO person VALUES (:names)")
+				.add(Collections.singletonMap("names", Arrays.asList("foo", "bar")))
+				.add(Collections.singletonMap("names", Collections.singletonList("baz")))
+				.then().as(StepVerifier::create)
+				.verifyError(InvalidDataAccessApiUsageException.class);
+	}
+
+	@Test
+	void batchShouldSplitBindValuesAccordingToBatchSize() {
+		Result result = mock(Result.class);
+		when(result.getRowsUpdated()).thenReturn(Mono.just(2), Mono.just(1));
+		Statement statement = mockStatementFor("INSERT INTO person VALUES ($1)", result);
+
+		DatabaseClient databaseClient = databaseClientBuilder.build();
+
+		databaseClient.batch("INSERT INTO person VALUES ($1)")
+				.add("foo").add("bar").add("baz").batchSize(2)
+				.rowsUpdated().as(StepVerifier::create).expectNext(2, 1).verifyComplete();
+
+		verify(connection, times(2)).createStatement("INSERT INTO person VALUES ($1)");
+		verify(statement, times(1)).add();
+		verify(statement, times(2)).execute();
+	}
+
+	@Test
+	void batchShouldRejectNegativeBatchSize() {
+		DatabaseClient databaseClient = databaseClientBuilder.build();
+
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() ->
+				databaseClient.batch("INSERT INTO person VALUES ($1)").batchSize(-1));
+	}
+
+	@Test
+	void emptyBatchShouldNotCreateStatement() {
+		DatabaseClient databaseClient = databaseClientBuilder.build();
+
+		databaseClient.batch("INSERT INTO person VALUES ($1)")
+				.rowsUpdated().as(StepVerifier::create).verifyComplete();
+
+		verify(connection, times(0)).createStatement(anyString());
+	}
+
 	private Statement mockStatement() {
 		return mockStatementFor(null, null);
 	}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Benchmark for the overhead of nested {@code @Transactional} invocations
+ * joining an outer transaction, through a {@link TransactionInterceptor}
+ * and a resource-bound {@link AbstractPlatformTransactionManager}.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class NestedTransactionBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"1", "10"})
+		public int nestedCalls;
+
+		@Param({"always", "never"})
+		public String synchronization;
+
+		public OuterService outerService;
+
+		@Setup
+		public void setup() {
+			ResourceTransactionManager tm = new ResourceTransactionManager();
+			tm.setTransactionSynchronization("always".equals(this.synchronization) ?
+					AbstractPlatformTransactionManager.SYNCHRONIZATION_ALWAYS :
+					AbstractPlatformTransactionManager.SYNCHRONIZATION_NEVER);
+			TransactionInterceptor interceptor =
+					new TransactionInterceptor(tm, new AnnotationTransactionAttributeSource());
+
+			ProxyFactory innerFactory = new ProxyFactory(new InnerService());
+			innerFactory.addAdvice(interceptor);
+			InnerService inner = (InnerService) innerFactory.getProxy();
+
+			ProxyFactory outerFactory = new ProxyFactory(new OuterService(inner, this.nestedCalls));
+			outerFactory.addAdvice(interceptor);
+			this.outerService = (OuterService) outerFactory.getProxy();
+		}
+	}
+
+	@Benchmark
+	public int nestedInvocations(BenchmarkState state) {
+		return state.outerService.execute();
+	}
+
+
+	public static class OuterService {
+
+		private final InnerService inner;
+
+		private final int nestedCalls;
+
+		public OuterService(InnerService inner, int nestedCalls) {
+			this.inner = inner;
+			this.nestedCalls = nestedCalls;
+		}
+
+		@Transactional
+		public int execute() {
+			int result = 0;
+			for (int i = 0; i < this.nestedCalls; i++) {
+				result += this.inner.work(i);
+			}
+			return result;
+		}
+	}
+
+
+	public static class InnerService {
+
+		@Transactional
+		public int work(int value) {
+			return value + 1;
+		}
+	}
+
+
+	/**
+	 * Minimal transaction manager binding a resource to the thread,
+	 * like a DataSourceTransactionManager without actual connection.
+	 */
+	@SuppressWarnings("serial")
+	private static class ResourceTransactionManager extends AbstractPlatformTransactionManager {
+
+		private final Object resourceKey = new Object();
+
+		@Override
+		protected Object doGetTransaction() {
+			return new ResourceTransaction(TransactionSynchronizationManager.getResource(this.resourceKey));
+		}
+
+		@Override
+		protected boolean isExistingTransaction(Object transaction) {
+			return (((ResourceTransaction) transaction).resource != null);
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+			Object resource = new Object();
+			((ResourceTransaction) transaction).resource = resource;
+			TransactionSynchronizationManager.bindResource(this.resourceKey, resource);
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doCleanupAfterCompletion(Object transaction) {
+			TransactionSynchronizationManager.unbindResource(this.resourceKey);
+		}
+	}
+
+
+	private static class ResourceTransaction {
+
+		@Nullable
+		Object resource;
+
+		ResourceTransaction(@Nullable Object resource) {
+			this.resource = resource;
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link TransactionSynchronization} implementation that collects all events
+ * published for a batching {@link TransactionalApplicationListenerMethodAdapter}
+ * within a transaction and processes them together.
+ *
+ * <p>The synchronization is bound as a transactional resource, keyed by its
+ * listener, for the duration of the transaction, so that subsequent events
+ * are added to the existing batch instead of registering new synchronizations.
+ * For the {@link TransactionPhase#BEFORE_COMMIT} phase, events published once
+ * the batch has been processed, e.g. by another listener before commit, are
+ * processed as a further batch before the transaction completes.
+ *
+ * @since 5.3.14
+ * @see TransactionalEventListener#batch()
+ */
+class TransactionalApplicationListenerBatchSynchronization implements TransactionSynchronization {
+
+	private final TransactionalApplicationListenerMethodAdapter listener;
+
+	private final List<ApplicationEvent> events = new ArrayList<>();
+
+	private int processedEvents;
+
+	private boolean holderActive = true;
+
+	private boolean committing;
+
+
+	private TransactionalApplicationListenerBatchSynchronization(TransactionalApplicationListenerMethodAdapter listener) {
+		this.listener = listener;
+	}
+
+
+	/**
+	 * Add the given event to the batch of the current transaction,
+	 * registering a new synchronization for the listener if necessary.
+	 */
+	static void addEvent(TransactionalApplicationListenerMethodAdapter listener, ApplicationEvent event) {
+		TransactionalApplicationListenerBatchSynchronization synchronization =
+				(TransactionalApplicationListenerBatchSynchronization) TransactionSynchronizationManager.getResource(listener);
+		if (synchronization == null) {
+			synchronization = new TransactionalApplicationListenerBatchSynchronization(listener);
+			TransactionSynchronizationManager.bindResource(listener, synchronization);
+			TransactionSynchronizationManager.registerSynchronization(synchronization);
+		}
+		synchronization.events.add(event);
+	}
+
+
+	@Override
+	public int getOrder() {
+		return this.listener.getOrder();
+	}
+
+	@Override
+	public void suspend() {
+		if (this.holderActive) {
+			TransactionSynchronizationManager.unbindResource(this.listener);
+		}
+	}
+
+	@Override
+	public void resume() {
+		if (this.holderActive) {
+			TransactionSynchronizationManager.bindResource(this.listener, this);
+		}
+	}
+
+	@Override
+	public void beforeCommit(boolean readOnly) {
+		if (this.listener.getTransactionPhase() == TransactionPhase.BEFORE_COMMIT) {
+			// Stay bound until completion: events published from here on
+			// are still added to this batch rather than getting lost
+			this.committing = true;
+			processEvents();
+		}
+	}
+
+	@Override
+	public void beforeCompletion() {
+		if (this.committing) {
+			// Process events published by synchronizations after our beforeCommit
+			processEvents();
+			unbindResource();
+		}
+	}
+
+	@Override
+	public void afterCompletion(int status) {
+		unbindResource();
+		TransactionPhase phase = this.listener.getTransactionPhase();
+		if (phase == TransactionPhase.AFTER_COMMIT && status == STATUS_COMMITTED) {
+			processEvents();
+		}
+		else if (phase == TransactionPhase.AFTER_ROLLBACK && status == STATUS_ROLLED_BACK) {
+			processEvents();
+		}
+		else if (phase == TransactionPhase.AFTER_COMPLETION) {
+			processEvents();
+		}
+	}
+
+	private void unbindResource() {
+		if (this.holderActive) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(this.listener);
+			this.holderActive = false;
+		}
+	}
+
+	private void processEvents() {
+		while (this.processedEvents < this.events.size()) {
+			List<ApplicationEvent> batch = new ArrayList<>(this.events.subList(this.processedEvents, this.events.size()));
+			this.processedEvents = this.events.size();
+			this.listener.dispatchEvents(batch);
+		}
+	}
+
+}
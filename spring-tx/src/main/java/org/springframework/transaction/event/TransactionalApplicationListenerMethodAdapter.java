@@ -17,14 +17,22 @@
 package org.springframework.transaction.event;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationEvent;
+import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.context.event.ApplicationListenerMethodAdapter;
 import org.springframework.context.event.EventListener;
 import org.springframework.context.event.GenericApplicationListener;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
@@ -38,6 +46,12 @@ import org.springframework.util.Assert;
  * when Spring's transaction management is enabled. For other cases, registering
  * a bean of type {@link TransactionalEventListenerFactory} is required.
  *
+ * <p>As of 5.3.14, events may be {@linkplain TransactionalEventListener#batch()
+ * batched} per transaction and optionally handed off to an
+ * {@linkplain TransactionalEventListener#executor() executor}. A batching method
+ * that declares a single {@code List} or {@code Collection} parameter receives
+ * all events of a transaction at once; a condition is evaluated per event.
+ *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
  * @since 5.3
@@ -54,6 +68,16 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 
 	private final List<SynchronizationCallback> callbacks = new CopyOnWriteArrayList<>();
 
+	private final boolean batch;
+
+	@Nullable
+	private final List<ResolvableType> batchElementTypes;
+
+	private final String executorName;
+
+	@Nullable
+	private volatile Executor executor;
+
 
 	/**
 	 * Construct a new TransactionalApplicationListenerMethodAdapter.
@@ -70,6 +94,42 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 		}
 		this.annotation = ann;
 		this.transactionPhase = ann.phase();
+		this.batch = ann.batch();
+		this.batchElementTypes = (this.batch ? resolveBatchElementTypes(method, ann) : null);
+		this.executorName = ann.executor();
+		if (!this.executorName.isEmpty()) {
+			if (!this.batch) {
+				throw new IllegalStateException("An executor requires batch delivery of events: " + method);
+			}
+			if (this.transactionPhase == TransactionPhase.BEFORE_COMMIT) {
+				throw new IllegalStateException("An executor cannot be used in phase BEFORE_COMMIT: " + method);
+			}
+		}
+	}
+
+	@Nullable
+	private static List<ResolvableType> resolveBatchElementTypes(Method method, TransactionalEventListener ann) {
+		if (method.getParameterCount() != 1) {
+			return null;
+		}
+		Class<?> parameterType = method.getParameterTypes()[0];
+		if (!Collection.class.isAssignableFrom(parameterType) || !parameterType.isAssignableFrom(List.class)) {
+			return null;
+		}
+		Class<?>[] classes = ann.classes();
+		if (classes.length > 0) {
+			List<ResolvableType> types = new ArrayList<>(classes.length);
+			for (Class<?> eventType : classes) {
+				types.add(ResolvableType.forClass(eventType));
+			}
+			return types;
+		}
+		ResolvableType elementType = ResolvableType.forMethodParameter(method, 0).asCollection().getGeneric();
+		if (elementType.resolve() == null) {
+			throw new IllegalStateException(
+					"Cannot resolve the event type of batch listener method parameter: " + method);
+		}
+		return Collections.singletonList(elementType);
 	}
 
 
@@ -85,18 +145,48 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 	}
 
 
+	@Override
+	public boolean supportsEventType(ResolvableType eventType) {
+		if (this.batchElementTypes == null) {
+			return super.supportsEventType(eventType);
+		}
+		for (ResolvableType elementType : this.batchElementTypes) {
+			if (elementType.isAssignableFrom(eventType)) {
+				return true;
+			}
+			if (PayloadApplicationEvent.class.isAssignableFrom(eventType.toClass())) {
+				ResolvableType payloadType = eventType.as(PayloadApplicationEvent.class).getGeneric();
+				if (elementType.isAssignableFrom(payloadType)) {
+					return true;
+				}
+			}
+		}
+		return eventType.hasUnresolvableGenerics();
+	}
+
 	@Override
 	public void onApplicationEvent(ApplicationEvent event) {
 		if (TransactionSynchronizationManager.isSynchronizationActive() &&
 				TransactionSynchronizationManager.isActualTransactionActive()) {
-			TransactionSynchronizationManager.registerSynchronization(
-					new TransactionalApplicationListenerSynchronization<>(event, this, this.callbacks));
+			if (this.batch) {
+				TransactionalApplicationListenerBatchSynchronization.addEvent(this, event);
+			}
+			else {
+				TransactionSynchronizationManager.registerSynchronization(
+						new TransactionalApplicationListenerSynchronization<>(event, this, this.callbacks));
+			}
 		}
 		else if (this.annotation.fallbackExecution()) {
 			if (this.annotation.phase() == TransactionPhase.AFTER_ROLLBACK && logger.isWarnEnabled()) {
 				logger.warn("Processing " + event + " as a fallback execution on AFTER_ROLLBACK phase");
 			}
-			processEvent(event);
+			if (this.batch) {
+				// Like a non-batched fallback execution, without synchronization callbacks
+				processEvents(Collections.singletonList(event), Collections.emptyList());
+			}
+			else {
+				processEvent(event);
+			}
 		}
 		else {
 			// No transactional event execution at all
@@ -106,4 +196,136 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 		}
 	}
 
+	/**
+	 * Process the given batch of events collected within a transaction.
+	 * <p>A method with a {@code List} or {@code Collection} parameter is invoked
+	 * once with all events that match its condition, in publication order;
+	 * otherwise the method is invoked for each event in turn, and a failure
+	 * for one event does not prevent the processing of the remaining ones.
+	 * <p>Registered {@link SynchronizationCallback SynchronizationCallbacks} are
+	 * notified for each event, as with transactional delivery of single events.
+	 * A fallback execution without a transaction does not notify them.
+	 * @param events the events to process
+	 * @since 5.3.14
+	 * @see TransactionalEventListener#batch()
+	 */
+	public void processEvents(List<ApplicationEvent> events) {
+		processEvents(events, this.callbacks);
+	}
+
+	private void processEvents(List<ApplicationEvent> events, List<SynchronizationCallback> callbacks) {
+		if (this.batchElementTypes != null) {
+			processEventsInSingleInvocation(events, callbacks);
+			return;
+		}
+		RuntimeException failure = null;
+		for (ApplicationEvent event : events) {
+			callbacks.forEach(callback -> callback.preProcessEvent(event));
+			try {
+				processEvent(event);
+			}
+			catch (RuntimeException ex) {
+				callbacks.forEach(callback -> callback.postProcessEvent(event, ex));
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+				continue;
+			}
+			callbacks.forEach(callback -> callback.postProcessEvent(event, null));
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void processEventsInSingleInvocation(
+			List<ApplicationEvent> events, List<SynchronizationCallback> callbacks) {
+
+		List<ApplicationEvent> handledEvents = new ArrayList<>(events.size());
+		List<Object> elements = new ArrayList<>(events.size());
+		for (ApplicationEvent event : events) {
+			Object[] args = resolveArguments(event);
+			if (args != null && shouldHandle(event, args)) {
+				handledEvents.add(event);
+				elements.add(args[0]);
+			}
+		}
+		if (elements.isEmpty()) {
+			return;
+		}
+		handledEvents.forEach(event -> callbacks.forEach(callback -> callback.preProcessEvent(event)));
+		try {
+			Object result = doInvoke(new Object[] {elements});
+			if (result != null) {
+				handleResult(result);
+			}
+		}
+		catch (RuntimeException | Error ex) {
+			handledEvents.forEach(event -> callbacks.forEach(callback -> callback.postProcessEvent(event, ex)));
+			throw ex;
+		}
+		handledEvents.forEach(event -> callbacks.forEach(callback -> callback.postProcessEvent(event, null)));
+	}
+
+	@Override
+	@Nullable
+	protected Object[] resolveArguments(ApplicationEvent event) {
+		if (this.batchElementTypes == null) {
+			return super.resolveArguments(event);
+		}
+		for (ResolvableType elementType : this.batchElementTypes) {
+			Class<?> elementClass = elementType.toClass();
+			if (elementClass.isInstance(event)) {
+				return new Object[] {event};
+			}
+			if (event instanceof PayloadApplicationEvent) {
+				Object payload = ((PayloadApplicationEvent<?>) event).getPayload();
+				if (elementClass.isInstance(payload)) {
+					return new Object[] {payload};
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Process the given batch of events on the configured executor, if any,
+	 * or on the current thread otherwise.
+	 */
+	void dispatchEvents(List<ApplicationEvent> events) {
+		Executor executor = getExecutor();
+		if (executor != null) {
+			executor.execute(() -> {
+				try {
+					processEvents(events);
+				}
+				catch (Throwable ex) {
+					handleAsyncError(ex);
+				}
+			});
+		}
+		else {
+			processEvents(events);
+		}
+	}
+
+	@Nullable
+	private Executor getExecutor() {
+		if (this.executorName.isEmpty()) {
+			return null;
+		}
+		Executor executor = this.executor;
+		if (executor == null) {
+			ApplicationContext applicationContext = getApplicationContext();
+			Assert.state(applicationContext != null,
+					() -> "No ApplicationContext available to resolve executor '" + this.executorName + "'");
+			executor = applicationContext.getBean(this.executorName, Executor.class);
+			this.executor = executor;
+		}
+		return executor;
+	}
+
 }
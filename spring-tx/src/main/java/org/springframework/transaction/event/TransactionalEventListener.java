@@ -81,6 +81,29 @@ public @interface TransactionalEventListener {
 	 */
 	boolean fallbackExecution() default false;
 
+	/**
+	 * Whether the events published within a transaction should be collected
+	 * and delivered together once the transaction reaches the configured phase,
+	 * instead of registering a separate synchronization per event.
+	 * <p>If the annotated method declares a single {@link java.util.List} or
+	 * {@link java.util.Collection} parameter, the collected events (or their
+	 * payloads) are passed in a single invocation, in publication order.
+	 * Otherwise the method is invoked for each collected event in turn.
+	 * @since 5.3.14
+	 * @see #executor()
+	 */
+	boolean batch() default false;
+
+	/**
+	 * The name of a {@link java.util.concurrent.Executor} bean that batched
+	 * events should be handed off to after transaction completion.
+	 * <p>The default is {@code ""}, meaning the events are processed on the
+	 * thread that completes the transaction. An executor requires {@link #batch()}
+	 * and cannot be combined with {@link TransactionPhase#BEFORE_COMMIT}.
+	 * @since 5.3.14
+	 */
+	String executor() default "";
+
 	/**
 	 * Alias for {@link #classes}.
 	 */
@@ -185,6 +185,9 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	private final ConcurrentMap<Method, ReactiveTransactionSupport> transactionSupportCache =
 			new ConcurrentReferenceHashMap<>(1024);
 
+	private final ConcurrentMap<Method, TransactionJoinpoint> transactionJoinpointCache =
+			new ConcurrentReferenceHashMap<>(1024);
+
 
 	protected TransactionAspectSupport() {
 		if (reactiveStreamsPresent) {
@@ -375,11 +378,12 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 
 		PlatformTransactionManager ptm = asPlatformTransactionManager(tm);
-		final String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
+		TransactionJoinpoint joinpoint = getTransactionJoinpoint(method, targetClass, txAttr);
+		final String joinpointIdentification = joinpoint.identification;
 
 		if (txAttr == null || !(ptm instanceof CallbackPreferringPlatformTransactionManager)) {
 			// Standard transaction demarcation with getTransaction and commit/rollback calls.
-			TransactionInfo txInfo = createTransactionIfNecessary(ptm, txAttr, joinpointIdentification);
+			TransactionInfo txInfo = createTransactionIfNecessary(ptm, joinpoint.namedAttribute, joinpointIdentification);
 
 			Object retVal;
 			try {
@@ -531,6 +535,28 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 	}
 
+	/**
+	 * Determine the joinpoint identification and the named transaction attribute
+	 * for the given method, reusing the outcome of previous invocations with the
+	 * same target class and the same TransactionAttribute instance.
+	 */
+	private TransactionJoinpoint getTransactionJoinpoint(Method method, @Nullable Class<?> targetClass,
+			@Nullable TransactionAttribute txAttr) {
+
+		TransactionJoinpoint joinpoint = this.transactionJoinpointCache.get(method);
+		if (joinpoint != null && joinpoint.targetClass == targetClass && joinpoint.attribute == txAttr) {
+			return joinpoint;
+		}
+		String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
+		TransactionJoinpoint newJoinpoint = new TransactionJoinpoint(
+				targetClass, txAttr, joinpointIdentification, nameTransactionAttribute(txAttr, joinpointIdentification));
+		if (joinpoint == null) {
+			// Keep the first variant only: no churn for methods seen with several target classes.
+			this.transactionJoinpointCache.putIfAbsent(method, newJoinpoint);
+		}
+		return newJoinpoint;
+	}
+
 	private String methodIdentification(Method method, @Nullable Class<?> targetClass,
 			@Nullable TransactionAttribute txAttr) {
 
@@ -553,6 +579,8 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 * <p>The default implementation returns {@code null}, indicating the
 	 * use of {@link DefaultTransactionAttribute#getDescriptor()} instead,
 	 * ending up as {@link ClassUtils#getQualifiedMethodName(Method, Class)}.
+	 * <p>As of 5.3.14, the outcome is reused for further invocations of the same
+	 * method on the same target class with the same transaction attribute.
 	 * @param method the method we're interested in
 	 * @param targetClass the class that the method is being invoked on
 	 * @return a String representation identifying this method
@@ -575,19 +603,11 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 * tell if there was a transaction created.
 	 * @see #getTransactionAttributeSource()
 	 */
-	@SuppressWarnings("serial")
 	protected TransactionInfo createTransactionIfNecessary(@Nullable PlatformTransactionManager tm,
 			@Nullable TransactionAttribute txAttr, final String joinpointIdentification) {
 
 		// If no name specified, apply method identification as transaction name.
-		if (txAttr != null && txAttr.getName() == null) {
-			txAttr = new DelegatingTransactionAttribute(txAttr) {
-				@Override
-				public String getName() {
-					return joinpointIdentification;
-				}
-			};
-		}
+		txAttr = nameTransactionAttribute(txAttr, joinpointIdentification);
 
 		TransactionStatus status = null;
 		if (txAttr != null) {
@@ -604,6 +624,22 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		return prepareTransactionInfo(tm, txAttr, joinpointIdentification, status);
 	}
 
+	@SuppressWarnings("serial")
+	@Nullable
+	private static TransactionAttribute nameTransactionAttribute(
+			@Nullable TransactionAttribute txAttr, final String joinpointIdentification) {
+
+		if (txAttr != null && txAttr.getName() == null) {
+			return new DelegatingTransactionAttribute(txAttr) {
+				@Override
+				public String getName() {
+					return joinpointIdentification;
+				}
+			};
+		}
+		return txAttr;
+	}
+
 	/**
 	 * Prepare a TransactionInfo for the given attribute and status object.
 	 * @param txAttr the TransactionAttribute (may be {@code null})
@@ -795,6 +831,34 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	}
 
 
+	/**
+	 * Per-method joinpoint identification and named transaction attribute,
+	 * valid for the given target class and TransactionAttribute instance.
+	 */
+	private static final class TransactionJoinpoint {
+
+		@Nullable
+		final Class<?> targetClass;
+
+		@Nullable
+		final TransactionAttribute attribute;
+
+		final String identification;
+
+		@Nullable
+		final TransactionAttribute namedAttribute;
+
+		TransactionJoinpoint(@Nullable Class<?> targetClass, @Nullable TransactionAttribute attribute,
+				String identification, @Nullable TransactionAttribute namedAttribute) {
+
+			this.targetClass = targetClass;
+			this.attribute = attribute;
+			this.identification = identification;
+			this.namedAttribute = namedAttribute;
+		}
+	}
+
+
 	/**
 	 * Simple callback interface for proceeding with the target invocation.
 	 * Concrete interceptors/aspects adapt this to their invocation mechanism.
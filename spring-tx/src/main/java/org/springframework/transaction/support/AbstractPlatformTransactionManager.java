@@ -348,6 +348,13 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		boolean debugEnabled = logger.isDebugEnabled();
 
 		if (isExistingTransaction(transaction)) {
+			if (isLightweightParticipation(def)) {
+				// Common case of a plain join: no validation, no synchronization to initialize.
+				if (debugEnabled) {
+					logger.debug("Participating in existing transaction");
+				}
+				return newTransactionStatus(def, transaction, false, false, debugEnabled, null);
+			}
 			// Existing transaction found -> check propagation behavior to find out how to behave.
 			return handleExistingTransaction(def, transaction, debugEnabled);
 		}
@@ -402,6 +409,20 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		return status;
 	}
 
+	/**
+	 * Determine whether the given definition can simply join an existing
+	 * transaction, i.e. whether {@link #handleExistingTransaction} would neither
+	 * validate it against the existing transaction nor initialize synchronization.
+	 */
+	private boolean isLightweightParticipation(TransactionDefinition definition) {
+		int propagationBehavior = definition.getPropagationBehavior();
+		return ((propagationBehavior == TransactionDefinition.PROPAGATION_REQUIRED ||
+				propagationBehavior == TransactionDefinition.PROPAGATION_SUPPORTS) &&
+				!isValidateExistingTransaction() &&
+				(getTransactionSynchronization() == SYNCHRONIZATION_NEVER ||
+						TransactionSynchronizationManager.isSynchronizationActive()));
+	}
+
 	/**
 	 * Create a TransactionStatus for an existing transaction.
 	 */
@@ -708,7 +729,56 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 			return;
 		}
 
-		processCommit(defStatus);
+		if (isPlainParticipation(defStatus)) {
+			processParticipatingCommit(defStatus);
+		}
+		else {
+			processCommit(defStatus);
+		}
+	}
+
+	/**
+	 * Determine whether the given status merely participates in an outer
+	 * transaction, without savepoint, synchronization or suspended resources:
+	 * in that case, a commit has nothing to do except for the checks in
+	 * {@link #processParticipatingCommit}.
+	 */
+	private boolean isPlainParticipation(DefaultTransactionStatus status) {
+		return (!status.isNewTransaction() && !status.isNewSynchronization() &&
+				!status.hasSavepoint() && status.getSuspendedResources() == null);
+	}
+
+	/**
+	 * Process a commit for a participating transaction, with the same outcome
+	 * as {@link #processCommit} but skipping the synchronization callbacks
+	 * (which would not be triggered for such a status anyway).
+	 * Rollback-only flags have already been checked and applied.
+	 * @param status object representing the transaction
+	 * @throws TransactionException in case of commit failure
+	 */
+	private void processParticipatingCommit(DefaultTransactionStatus status) throws TransactionException {
+		try {
+			try {
+				prepareForCommit(status);
+			}
+			catch (TransactionException ex) {
+				if (!(ex instanceof UnexpectedRollbackException) && isRollbackOnCommitFailure()) {
+					doRollbackOnCommitException(status, ex);
+				}
+				throw ex;
+			}
+			catch (RuntimeException | Error ex) {
+				doRollbackOnCommitException(status, ex);
+				throw ex;
+			}
+			if (isFailEarlyOnGlobalRollbackOnly() && status.isGlobalRollbackOnly()) {
+				throw new UnexpectedRollbackException(
+						"Transaction silently rolled back because it has been marked as rollback-only");
+			}
+		}
+		finally {
+			status.setCompleted();
+		}
 	}
 
 	/**
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Transactional state of a thread as managed by {@link TransactionSynchronizationManager}:
+ * bound resources, registered synchronizations and the characteristics of the
+ * current transaction, held in a single object per thread.
+ *
+ * <p>Opaque to application code: a context can be obtained through
+ * {@link TransactionSynchronizationManager#getContext()} and bound to another
+ * thread through {@link TransactionSynchronizationManager#bindContext}, e.g. for
+ * a child task operating within the transaction of its parent. As with any
+ * transactional resource, such a context must not be used by several threads
+ * at the same time: the parent is expected to wait for the completion of its
+ * child tasks before proceeding with the transaction.
+ *
+ * @since 5.3.14
+ * @see TransactionSynchronizationManager#getContext()
+ * @see TransactionSynchronizationManager#bindContext
+ * @see TransactionSynchronizationContextDecorator
+ */
+public final class TransactionSynchronizationContext {
+
+	@Nullable
+	private Map<Object, Object> resources;
+
+	@Nullable
+	Set<TransactionSynchronization> synchronizations;
+
+	@Nullable
+	String currentTransactionName;
+
+	boolean currentTransactionReadOnly;
+
+	@Nullable
+	Integer currentTransactionIsolationLevel;
+
+	boolean actualTransactionActive;
+
+
+	TransactionSynchronizationContext() {
+	}
+
+
+	/**
+	 * Return the resource map, or {@code null} if no resources have been bound.
+	 */
+	@Nullable
+	Map<Object, Object> getResources() {
+		return this.resources;
+	}
+
+	/**
+	 * Return the resource map, creating it if necessary.
+	 */
+	Map<Object, Object> obtainResources() {
+		Map<Object, Object> resources = this.resources;
+		if (resources == null) {
+			resources = new HashMap<>();
+			this.resources = resources;
+		}
+		return resources;
+	}
+
+	/**
+	 * Release the resource map once its last resource has been removed.
+	 */
+	void releaseResourcesIfEmpty() {
+		if (this.resources != null && this.resources.isEmpty()) {
+			this.resources = null;
+		}
+	}
+
+	/**
+	 * Reset registered synchronizations and transaction characteristics,
+	 * keeping bound resources.
+	 */
+	void clearSynchronizationState() {
+		this.synchronizations = null;
+		this.currentTransactionName = null;
+		this.currentTransactionReadOnly = false;
+		this.currentTransactionIsolationLevel = null;
+		this.actualTransactionActive = false;
+	}
+
+	/**
+	 * Return whether this context does not hold any state,
+	 * i.e. whether it can be released from its thread.
+	 */
+	boolean isEmpty() {
+		return (this.resources == null && this.synchronizations == null &&
+				this.currentTransactionName == null && !this.currentTransactionReadOnly &&
+				this.currentTransactionIsolationLevel == null && !this.actualTransactionActive);
+	}
+
+
+	@Override
+	public String toString() {
+		return "TransactionSynchronizationContext: resources=" +
+				(this.resources != null ? this.resources.keySet() : "[]") +
+				", synchronizationActive=" + (this.synchronizations != null) +
+				", transactionName=" + this.currentTransactionName;
+	}
+
+}
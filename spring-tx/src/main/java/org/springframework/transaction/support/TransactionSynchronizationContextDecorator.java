@@ -0,0 +1,55 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * {@link TaskDecorator} that propagates the {@link TransactionSynchronizationContext}
+ * of the submitting thread to the task, binding it for the duration of the task
+ * and restoring the previous context of the executing thread afterwards.
+ *
+ * <p>Intended for child tasks of a transactional operation that need access to
+ * its transactional resources, e.g. work forked to virtual threads and joined
+ * before the transaction completes. The submitting thread must not use the
+ * transactional resources while such tasks are running.
+ *
+ * @since 5.3.14
+ * @see TransactionSynchronizationManager#getContext()
+ * @see TransactionSynchronizationManager#bindContext
+ * @see org.springframework.core.task.SimpleAsyncTaskExecutor#setTaskDecorator
+ */
+public class TransactionSynchronizationContextDecorator implements TaskDecorator {
+
+	@Override
+	public Runnable decorate(Runnable runnable) {
+		TransactionSynchronizationContext context = TransactionSynchronizationManager.getContext();
+		if (context == null) {
+			return runnable;
+		}
+		return () -> {
+			TransactionSynchronizationContext previousContext = TransactionSynchronizationManager.bindContext(context);
+			try {
+				runnable.run();
+			}
+			finally {
+				TransactionSynchronizationManager.bindContext(previousContext);
+			}
+		};
+	}
+
+}
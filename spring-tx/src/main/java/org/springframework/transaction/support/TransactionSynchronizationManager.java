@@ -18,7 +18,6 @@ package org.springframework.transaction.support;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +60,11 @@ import org.springframework.util.Assert;
  * within a JTA transaction, e.g. a JDBC Connection or a Hibernate Session for
  * any given DataSource or SessionFactory, respectively.
  *
+ * <p>As of 5.3.14, all of this state is held in a single
+ * {@link TransactionSynchronizationContext} per thread, which is released
+ * as soon as it becomes empty and which can be propagated to child tasks
+ * via {@link #getContext()} and {@link #bindContext}.
+ *
  * @author Juergen Hoeller
  * @since 02.06.2003
  * @see #isSynchronizationActive
@@ -73,23 +77,71 @@ import org.springframework.util.Assert;
  */
 public abstract class TransactionSynchronizationManager {
 
-	private static final ThreadLocal<Map<Object, Object>> resources =
-			new NamedThreadLocal<>("Transactional resources");
+	private static final ThreadLocal<TransactionSynchronizationContext> context =
+			new NamedThreadLocal<>("Transaction synchronization context");
 
-	private static final ThreadLocal<Set<TransactionSynchronization>> synchronizations =
-			new NamedThreadLocal<>("Transaction synchronizations");
 
-	private static final ThreadLocal<String> currentTransactionName =
-			new NamedThreadLocal<>("Current transaction name");
+	//-------------------------------------------------------------------------
+	// Management of the per-thread context
+	//-------------------------------------------------------------------------
 
-	private static final ThreadLocal<Boolean> currentTransactionReadOnly =
-			new NamedThreadLocal<>("Current transaction read-only status");
+	/**
+	 * Return the transaction synchronization context of the current thread,
+	 * for example to {@linkplain #bindContext bind} it to a child task.
+	 * @return the current context, or {@code null} if the current thread does
+	 * not hold any resources, synchronizations or transaction characteristics
+	 * @since 5.3.14
+	 * @see TransactionSynchronizationContextDecorator
+	 */
+	@Nullable
+	public static TransactionSynchronizationContext getContext() {
+		return context.get();
+	}
+
+	/**
+	 * Bind the given transaction synchronization context to the current thread,
+	 * replacing the current one, e.g. for a child task operating within the
+	 * transaction of its parent.
+	 * <p>The caller is expected to restore the returned previous context
+	 * (if any) through another call to this method once done.
+	 * @param newContext the context to bind, or {@code null} to reset the
+	 * current thread
+	 * @return the previously bound context, or {@code null} if none
+	 * @since 5.3.14
+	 * @see #getContext()
+	 */
+	@Nullable
+	public static TransactionSynchronizationContext bindContext(@Nullable TransactionSynchronizationContext newContext) {
+		TransactionSynchronizationContext previousContext = context.get();
+		if (newContext != null) {
+			context.set(newContext);
+		}
+		else {
+			context.remove();
+		}
+		return previousContext;
+	}
 
-	private static final ThreadLocal<Integer> currentTransactionIsolationLevel =
-			new NamedThreadLocal<>("Current transaction isolation level");
+	/**
+	 * Return the context of the current thread, creating it if necessary.
+	 */
+	private static TransactionSynchronizationContext obtainContext() {
+		TransactionSynchronizationContext ctx = context.get();
+		if (ctx == null) {
+			ctx = new TransactionSynchronizationContext();
+			context.set(ctx);
+		}
+		return ctx;
+	}
 
-	private static final ThreadLocal<Boolean> actualTransactionActive =
-			new NamedThreadLocal<>("Actual transaction active");
+	/**
+	 * Remove the given context from the current thread if it does not hold any state anymore.
+	 */
+	private static void releaseContextIfEmpty(TransactionSynchronizationContext ctx) {
+		if (ctx.isEmpty()) {
+			context.remove();
+		}
+	}
 
 
 	//-------------------------------------------------------------------------
@@ -106,7 +158,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #hasResource
 	 */
 	public static Map<Object, Object> getResourceMap() {
-		Map<Object, Object> map = resources.get();
+		TransactionSynchronizationContext ctx = context.get();
+		Map<Object, Object> map = (ctx != null ? ctx.getResources() : null);
 		return (map != null ? Collections.unmodifiableMap(map) : Collections.emptyMap());
 	}
 
@@ -140,7 +193,8 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	private static Object doGetResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
+		TransactionSynchronizationContext ctx = context.get();
+		Map<Object, Object> map = (ctx != null ? ctx.getResources() : null);
 		if (map == null) {
 			return null;
 		}
@@ -148,10 +202,9 @@ public abstract class TransactionSynchronizationManager {
 		// Transparently remove ResourceHolder that was marked as void...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
 			map.remove(actualKey);
-			// Remove entire ThreadLocal if empty...
-			if (map.isEmpty()) {
-				resources.remove();
-			}
+			// Release entire context if empty...
+			ctx.releaseResourcesIfEmpty();
+			releaseContextIfEmpty(ctx);
 			value = null;
 		}
 		return value;
@@ -167,12 +220,7 @@ public abstract class TransactionSynchronizationManager {
 	public static void bindResource(Object key, Object value) throws IllegalStateException {
 		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
 		Assert.notNull(value, "Value must not be null");
-		Map<Object, Object> map = resources.get();
-		// set ThreadLocal Map if none found
-		if (map == null) {
-			map = new HashMap<>();
-			resources.set(map);
-		}
+		Map<Object, Object> map = obtainContext().obtainResources();
 		Object oldValue = map.put(actualKey, value);
 		// Transparently suppress a ResourceHolder that was marked as void...
 		if (oldValue instanceof ResourceHolder && ((ResourceHolder) oldValue).isVoid()) {
@@ -216,15 +264,15 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	private static Object doUnbindResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
+		TransactionSynchronizationContext ctx = context.get();
+		Map<Object, Object> map = (ctx != null ? ctx.getResources() : null);
 		if (map == null) {
 			return null;
 		}
 		Object value = map.remove(actualKey);
-		// Remove entire ThreadLocal if empty...
-		if (map.isEmpty()) {
-			resources.remove();
-		}
+		// Release entire context if empty...
+		ctx.releaseResourcesIfEmpty();
+		releaseContextIfEmpty(ctx);
 		// Transparently suppress a ResourceHolder that was marked as void...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
 			value = null;
@@ -243,7 +291,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #registerSynchronization
 	 */
 	public static boolean isSynchronizationActive() {
-		return (synchronizations.get() != null);
+		TransactionSynchronizationContext ctx = context.get();
+		return (ctx != null && ctx.synchronizations != null);
 	}
 
 	/**
@@ -255,7 +304,7 @@ public abstract class TransactionSynchronizationManager {
 		if (isSynchronizationActive()) {
 			throw new IllegalStateException("Cannot activate transaction synchronization - already active");
 		}
-		synchronizations.set(new LinkedHashSet<>());
+		obtainContext().synchronizations = new LinkedHashSet<>();
 	}
 
 	/**
@@ -272,7 +321,8 @@ public abstract class TransactionSynchronizationManager {
 			throws IllegalStateException {
 
 		Assert.notNull(synchronization, "TransactionSynchronization must not be null");
-		Set<TransactionSynchronization> synchs = synchronizations.get();
+		TransactionSynchronizationContext ctx = context.get();
+		Set<TransactionSynchronization> synchs = (ctx != null ? ctx.synchronizations : null);
 		if (synchs == null) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
@@ -287,7 +337,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see TransactionSynchronization
 	 */
 	public static List<TransactionSynchronization> getSynchronizations() throws IllegalStateException {
-		Set<TransactionSynchronization> synchs = synchronizations.get();
+		TransactionSynchronizationContext ctx = context.get();
+		Set<TransactionSynchronization> synchs = (ctx != null ? ctx.synchronizations : null);
 		if (synchs == null) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
@@ -311,10 +362,12 @@ public abstract class TransactionSynchronizationManager {
 	 * @throws IllegalStateException if synchronization is not active
 	 */
 	public static void clearSynchronization() throws IllegalStateException {
-		if (!isSynchronizationActive()) {
+		TransactionSynchronizationContext ctx = context.get();
+		if (ctx == null || ctx.synchronizations == null) {
 			throw new IllegalStateException("Cannot deactivate transaction synchronization - not active");
 		}
-		synchronizations.remove();
+		ctx.synchronizations = null;
+		releaseContextIfEmpty(ctx);
 	}
 
 
@@ -329,7 +382,16 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getName()
 	 */
 	public static void setCurrentTransactionName(@Nullable String name) {
-		currentTransactionName.set(name);
+		if (name != null) {
+			obtainContext().currentTransactionName = name;
+		}
+		else {
+			TransactionSynchronizationContext ctx = context.get();
+			if (ctx != null) {
+				ctx.currentTransactionName = null;
+				releaseContextIfEmpty(ctx);
+			}
+		}
 	}
 
 	/**
@@ -340,7 +402,8 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	public static String getCurrentTransactionName() {
-		return currentTransactionName.get();
+		TransactionSynchronizationContext ctx = context.get();
+		return (ctx != null ? ctx.currentTransactionName : null);
 	}
 
 	/**
@@ -351,7 +414,16 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#isReadOnly()
 	 */
 	public static void setCurrentTransactionReadOnly(boolean readOnly) {
-		currentTransactionReadOnly.set(readOnly ? Boolean.TRUE : null);
+		if (readOnly) {
+			obtainContext().currentTransactionReadOnly = true;
+		}
+		else {
+			TransactionSynchronizationContext ctx = context.get();
+			if (ctx != null) {
+				ctx.currentTransactionReadOnly = false;
+				releaseContextIfEmpty(ctx);
+			}
+		}
 	}
 
 	/**
@@ -367,7 +439,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see TransactionSynchronization#beforeCommit(boolean)
 	 */
 	public static boolean isCurrentTransactionReadOnly() {
-		return (currentTransactionReadOnly.get() != null);
+		TransactionSynchronizationContext ctx = context.get();
+		return (ctx != null && ctx.currentTransactionReadOnly);
 	}
 
 	/**
@@ -387,7 +460,16 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getIsolationLevel()
 	 */
 	public static void setCurrentTransactionIsolationLevel(@Nullable Integer isolationLevel) {
-		currentTransactionIsolationLevel.set(isolationLevel);
+		if (isolationLevel != null) {
+			obtainContext().currentTransactionIsolationLevel = isolationLevel;
+		}
+		else {
+			TransactionSynchronizationContext ctx = context.get();
+			if (ctx != null) {
+				ctx.currentTransactionIsolationLevel = null;
+				releaseContextIfEmpty(ctx);
+			}
+		}
 	}
 
 	/**
@@ -409,7 +491,8 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	@Nullable
 	public static Integer getCurrentTransactionIsolationLevel() {
-		return currentTransactionIsolationLevel.get();
+		TransactionSynchronizationContext ctx = context.get();
+		return (ctx != null ? ctx.currentTransactionIsolationLevel : null);
 	}
 
 	/**
@@ -419,7 +502,16 @@ public abstract class TransactionSynchronizationManager {
 	 * with an actual transaction; {@code false} to reset that marker
 	 */
 	public static void setActualTransactionActive(boolean active) {
-		actualTransactionActive.set(active ? Boolean.TRUE : null);
+		if (active) {
+			obtainContext().actualTransactionActive = true;
+		}
+		else {
+			TransactionSynchronizationContext ctx = context.get();
+			if (ctx != null) {
+				ctx.actualTransactionActive = false;
+				releaseContextIfEmpty(ctx);
+			}
+		}
 	}
 
 	/**
@@ -434,7 +526,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #isSynchronizationActive()
 	 */
 	public static boolean isActualTransactionActive() {
-		return (actualTransactionActive.get() != null);
+		TransactionSynchronizationContext ctx = context.get();
+		return (ctx != null && ctx.actualTransactionActive);
 	}
 
 
@@ -448,11 +541,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #setActualTransactionActive
 	 */
 	public static void clear() {
-		synchronizations.remove();
-		currentTransactionName.remove();
-		currentTransactionReadOnly.remove();
-		currentTransactionIsolationLevel.remove();
-		actualTransactionActive.remove();
+		TransactionSynchronizationContext ctx = context.get();
+		if (ctx != null) {
+			ctx.clearSynchronizationState();
+			releaseContextIfEmpty(ctx);
+		}
 	}
 
 }
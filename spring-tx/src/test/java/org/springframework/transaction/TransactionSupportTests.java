@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,15 +19,20 @@ package org.springframework.transaction;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
 import org.springframework.transaction.support.DefaultTransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 /**
  * @author Juergen Hoeller
@@ -147,6 +152,46 @@ public class TransactionSupportTests {
 		assertThat(tm.rollbackOnly).as("triggered rollbackOnly").isTrue();
 	}
 
+	@Test
+	public void commitWithExistingTransactionAndActiveSynchronization() {
+		TestTransactionManager tm = new TestTransactionManager(true, true);
+		tm.setTransactionSynchronization(AbstractPlatformTransactionManager.SYNCHRONIZATION_ALWAYS);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			TransactionSynchronization synchronization = mock(TransactionSynchronization.class);
+			TransactionSynchronizationManager.registerSynchronization(synchronization);
+			DefaultTransactionStatus status = (DefaultTransactionStatus) tm.getTransaction(null);
+			assertThat(status.isNewSynchronization()).as("Must not be new synchronization").isFalse();
+			tm.commit(status);
+
+			assertThat(status.isCompleted()).as("completed").isTrue();
+			assertThat(tm.commit).as("no commit").isFalse();
+			assertThat(tm.rollbackOnly).as("no rollbackOnly").isFalse();
+			assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isTrue();
+			verifyNoInteractions(synchronization);
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void commitWithExistingTransactionAndPrepareForCommitFailure() {
+		TestTransactionManager tm = new TestTransactionManager(true, true) {
+			@Override
+			protected void prepareForCommit(DefaultTransactionStatus status) {
+				throw new IllegalStateException("prepare");
+			}
+		};
+		TransactionStatus status = tm.getTransaction(null);
+		assertThatIllegalStateException().isThrownBy(() -> tm.commit(status)).withMessage("prepare");
+
+		assertThat(status.isCompleted()).as("completed").isTrue();
+		assertThat(tm.commit).as("no commit").isFalse();
+		assertThat(tm.rollback).as("no rollback").isFalse();
+		assertThat(tm.rollbackOnly).as("triggered rollbackOnly").isTrue();
+	}
+
 	@Test
 	public void transactionTemplate() {
 		TestTransactionManager tm = new TestTransactionManager(false, true);
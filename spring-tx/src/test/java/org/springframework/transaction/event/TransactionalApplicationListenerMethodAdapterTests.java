@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -123,6 +123,23 @@ public class TransactionalApplicationListenerMethodAdapterTests {
 		assertThat(adapter.getListenerId()).endsWith("identifier");
 	}
 
+	@Test
+	public void fallbackExecutionDoesNotInvokeCallbacks() {
+		Method m = ReflectionUtils.findMethod(SampleEvents.class, "fallback", String.class);
+		Method batched = ReflectionUtils.findMethod(SampleEvents.class, "batchedFallback", String.class);
+		PayloadApplicationEvent<String> event = new PayloadApplicationEvent<>(this, "event");
+
+		for (Method method : new Method[] {m, batched}) {
+			CapturingSynchronizationCallback callback = new CapturingSynchronizationCallback();
+			TransactionalApplicationListenerMethodAdapter adapter = createTestInstance(method);
+			adapter.addCallback(callback);
+			adapter.onApplicationEvent(event);
+
+			assertThat(callback.preEvent).as(method.getName()).isNull();
+			assertThat(callback.postEvent).as(method.getName()).isNull();
+		}
+	}
+
 
 	private static void assertPhase(Method method, TransactionPhase expected) {
 		assertThat(method).as("Method must not be null").isNotNull();
@@ -191,6 +208,14 @@ public class TransactionalApplicationListenerMethodAdapterTests {
 			throw new RuntimeException(data);
 		}
 
+		@TransactionalEventListener(fallbackExecution = true)
+		public void fallback(String data) {
+		}
+
+		@TransactionalEventListener(fallbackExecution = true, batch = true)
+		public void batchedFallback(String data) {
+		}
+
 		@TransactionalEventListener(id = "identifier")
 		public void identified(String data) {
 		}
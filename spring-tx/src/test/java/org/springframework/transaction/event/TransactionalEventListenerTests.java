@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,10 +25,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -49,6 +51,7 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
 import static org.springframework.transaction.event.TransactionPhase.AFTER_COMPLETION;
@@ -331,6 +334,85 @@ public class TransactionalEventListenerTests {
 		getEventCollector().assertNoEventReceived();
 	}
 
+	@Test
+	public void batchAfterCommitWithListParameter() {
+		load(BatchTestListener.class);
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("a");
+			getContext().publishEvent("b");
+			getContext().publishEvent("SKIP");
+			getContext().publishEvent("c");
+			assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(2);
+			getEventCollector().assertNoEventReceived();
+			return null;
+		});
+		getEventCollector().assertEvents(EventCollector.AFTER_COMMIT, Arrays.asList("a", "b", "c"));
+		getEventCollector().assertEvents(EventCollector.AFTER_COMPLETION, "a", "b", "SKIP", "c");
+		getEventCollector().assertTotalEventsCount(5);
+	}
+
+	@Test
+	public void batchAfterRollback() {
+		load(BatchTestListener.class);
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("a");
+			getContext().publishEvent("b");
+			status.setRollbackOnly();
+			return null;
+		});
+		getEventCollector().assertEvents(EventCollector.AFTER_COMPLETION, "a", "b");
+		getEventCollector().assertTotalEventsCount(2);
+	}
+
+	@Test
+	public void batchBeforeCommitWithEventPublishedBeforeCommit() {
+		load(BatchBeforeCommitTestListener.class);
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("a");
+			getContext().publishEvent(1);
+			getEventCollector().assertNoEventReceived();
+			return null;
+		});
+		getEventCollector().assertEvents(EventCollector.BEFORE_COMMIT,
+				Collections.singletonList("a"), Collections.singletonList("published-1"));
+		getEventCollector().assertTotalEventsCount(2);
+	}
+
+	@Test
+	public void batchWithExecutor() {
+		load(BatchExecutorTestListener.class);
+		List<Runnable> tasks = getContext().getBean(DeferredExecutor.class).tasks;
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("a");
+			getContext().publishEvent("b");
+			return null;
+		});
+		getEventCollector().assertNoEventReceived();
+		assertThat(tasks).hasSize(1);
+		tasks.get(0).run();
+		getEventCollector().assertEvents(EventCollector.AFTER_COMMIT, Arrays.asList("a", "b"));
+		getEventCollector().assertTotalEventsCount(1);
+	}
+
+	@Test
+	public void batchWithFallbackExecution() {
+		load(BatchTestListener.class);
+		getContext().publishEvent("test");
+		getEventCollector().assertNoEventReceived();
+
+		this.context.close();
+		load(BatchFallbackTestListener.class);
+		getContext().publishEvent("test");
+		getEventCollector().assertEvents(EventCollector.AFTER_COMMIT, Collections.singletonList("test"));
+	}
+
+	@Test
+	public void executorRequiresBatch() {
+		assertThatExceptionOfType(BeanInitializationException.class).isThrownBy(() ->
+				load(InvalidExecutorTestListener.class))
+			.withMessageContaining("An executor requires batch delivery of events");
+	}
+
 
 	protected EventCollector getEventCollector() {
 		return this.eventCollector;
@@ -583,6 +665,98 @@ public class TransactionalEventListenerTests {
 	}
 
 
+	@Component
+	static class BatchTestListener {
+
+		@Autowired
+		private EventCollector eventCollector;
+
+		@TransactionalEventListener(batch = true, condition = "!'SKIP'.equals(#data)")
+		public void handleAfterCommit(List<String> data) {
+			this.eventCollector.addEvent(EventCollector.AFTER_COMMIT, data);
+		}
+
+		@TransactionalEventListener(phase = AFTER_COMPLETION, batch = true)
+		public void handleAfterCompletion(String data) {
+			this.eventCollector.addEvent(EventCollector.AFTER_COMPLETION, data);
+		}
+	}
+
+
+	@Component
+	static class BatchBeforeCommitTestListener {
+
+		@Autowired
+		private EventCollector eventCollector;
+
+		@Autowired
+		private ApplicationEventPublisher eventPublisher;
+
+		@TransactionalEventListener(phase = BEFORE_COMMIT, batch = true)
+		@Order(10)
+		public void handleBeforeCommit(List<String> data) {
+			this.eventCollector.addEvent(EventCollector.BEFORE_COMMIT, data);
+		}
+
+		@TransactionalEventListener(phase = BEFORE_COMMIT)
+		@Order(20)
+		public void publishBeforeCommit(Integer data) {
+			this.eventPublisher.publishEvent("published-" + data);
+		}
+	}
+
+
+	@Component
+	static class BatchFallbackTestListener {
+
+		@Autowired
+		private EventCollector eventCollector;
+
+		@TransactionalEventListener(batch = true, fallbackExecution = true)
+		public void handleAfterCommit(List<String> data) {
+			this.eventCollector.addEvent(EventCollector.AFTER_COMMIT, data);
+		}
+	}
+
+
+	@Configuration
+	static class BatchExecutorTestListener {
+
+		@Autowired
+		private EventCollector eventCollector;
+
+		@Bean
+		public DeferredExecutor deferredExecutor() {
+			return new DeferredExecutor();
+		}
+
+		@TransactionalEventListener(batch = true, executor = "deferredExecutor")
+		public void handleAfterCommit(List<String> data) {
+			this.eventCollector.addEvent(EventCollector.AFTER_COMMIT, data);
+		}
+	}
+
+
+	@Component
+	static class InvalidExecutorTestListener {
+
+		@TransactionalEventListener(executor = "deferredExecutor")
+		public void handleAfterCommit(String data) {
+		}
+	}
+
+
+	static class DeferredExecutor implements Executor {
+
+		final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+	}
+
+
 	static class EventTransactionSynchronization implements TransactionSynchronization {
 
 		private final int order;
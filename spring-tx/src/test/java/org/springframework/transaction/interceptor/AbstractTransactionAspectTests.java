@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.lang.reflect.Method;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import org.springframework.beans.testfixture.beans.ITestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
@@ -218,6 +219,31 @@ public abstract class AbstractTransactionAspectTests {
 		verify(ptm).commit(status);
 	}
 
+	@Test
+	public void transactionNameIsReusedForRepeatedInvocations() throws Exception {
+		TransactionAttribute txatt = new DefaultTransactionAttribute();
+
+		MapTransactionAttributeSource tas = new MapTransactionAttributeSource();
+		tas.register(getNameMethod, txatt);
+
+		TransactionStatus status = mock(TransactionStatus.class);
+		PlatformTransactionManager ptm = mock(PlatformTransactionManager.class);
+		given(ptm.getTransaction(txatt)).willReturn(status);
+
+		TestBean tb = new TestBean();
+		ITestBean itb = (ITestBean) advised(tb, ptm, tas);
+
+		itb.getName();
+		itb.getName();
+
+		ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+		verify(ptm, times(2)).getTransaction(definitions.capture());
+		verify(ptm, times(2)).commit(status);
+		TransactionDefinition definition = definitions.getAllValues().get(0);
+		assertThat(definition.getName()).endsWith(".getName");
+		assertThat(definitions.getAllValues().get(1)).isSameAs(definition);
+	}
+
 	@Test
 	public void enclosingTransactionWithNonTransactionMethodOnAdvisedInside() throws Throwable {
 		TransactionAttribute txatt = new DefaultTransactionAttribute();
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the per-thread {@link TransactionSynchronizationContext}
+ * of {@link TransactionSynchronizationManager}.
+ */
+class TransactionSynchronizationManagerTests {
+
+	private final Object key = new Object();
+
+
+	@AfterEach
+	void verifyCleanState() {
+		assertThat(TransactionSynchronizationManager.getContext()).isNull();
+	}
+
+
+	@Test
+	void contextIsReleasedWithLastResource() {
+		TransactionSynchronizationManager.bindResource(this.key, "value");
+		assertThat(TransactionSynchronizationManager.getContext()).isNotNull();
+		assertThat(TransactionSynchronizationManager.getResourceMap()).containsEntry(this.key, "value");
+
+		assertThat(TransactionSynchronizationManager.unbindResource(this.key)).isEqualTo("value");
+		assertThat(TransactionSynchronizationManager.getContext()).isNull();
+		assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+	}
+
+	@Test
+	void contextIsReleasedWithVoidResourceHolder() {
+		ResourceHolderSupport holder = new ResourceHolderSupport() {};
+		TransactionSynchronizationManager.bindResource(this.key, holder);
+		holder.unbound();
+		assertThat(TransactionSynchronizationManager.getResource(this.key)).isNull();
+		assertThat(TransactionSynchronizationManager.getContext()).isNull();
+	}
+
+	@Test
+	void contextIsReleasedOnClear() {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setCurrentTransactionName("tx");
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(2);
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionName()).isEqualTo("tx");
+		assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel()).isEqualTo(2);
+		assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+
+		TransactionSynchronizationManager.clear();
+		assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isFalse();
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionName()).isNull();
+		assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isFalse();
+		assertThat(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel()).isNull();
+		assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+	}
+
+	@Test
+	void clearKeepsResources() {
+		TransactionSynchronizationManager.bindResource(this.key, "value");
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.clear();
+		assertThat(TransactionSynchronizationManager.getResource(this.key)).isEqualTo("value");
+		TransactionSynchronizationManager.unbindResource(this.key);
+	}
+
+	@Test
+	void contextIsPropagatedToChildTask() throws InterruptedException {
+		TransactionSynchronizationManager.bindResource(this.key, "value");
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setCurrentTransactionName("tx");
+		TransactionSynchronization synchronization = new TransactionSynchronization() {};
+		AtomicReference<Object> childResource = new AtomicReference<>();
+		AtomicReference<String> childTransactionName = new AtomicReference<>();
+		AtomicReference<TransactionSynchronizationContext> childContextAfterTask = new AtomicReference<>();
+
+		Runnable task = new TransactionSynchronizationContextDecorator().decorate(() -> {
+			childResource.set(TransactionSynchronizationManager.getResource(this.key));
+			childTransactionName.set(TransactionSynchronizationManager.getCurrentTransactionName());
+			TransactionSynchronizationManager.registerSynchronization(synchronization);
+		});
+		Thread child = new Thread(() -> {
+			task.run();
+			childContextAfterTask.set(TransactionSynchronizationManager.getContext());
+		});
+		child.start();
+		child.join();
+
+		try {
+			assertThat(childResource.get()).isEqualTo("value");
+			assertThat(childTransactionName.get()).isEqualTo("tx");
+			assertThat(childContextAfterTask.get()).isNull();
+			assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(synchronization);
+		}
+		finally {
+			TransactionSynchronizationManager.clear();
+			TransactionSynchronizationManager.unbindResource(this.key);
+		}
+	}
+
+	@Test
+	void bindContextReturnsPreviousContext() {
+		TransactionSynchronizationManager.bindResource(this.key, "value");
+		TransactionSynchronizationContext context = TransactionSynchronizationManager.getContext();
+
+		assertThat(TransactionSynchronizationManager.bindContext(null)).isSameAs(context);
+		assertThat(TransactionSynchronizationManager.hasResource(this.key)).isFalse();
+		assertThat(TransactionSynchronizationManager.bindContext(context)).isNull();
+		assertThat(TransactionSynchronizationManager.unbindResource(this.key)).isEqualTo("value");
+	}
+
+	@Test
+	void decoratorReturnsTaskAsIsWithoutContext() {
+		Runnable task = () -> {};
+		assertThat(new TransactionSynchronizationContextDecorator().decorate(task)).isSameAs(task);
+	}
+
+}